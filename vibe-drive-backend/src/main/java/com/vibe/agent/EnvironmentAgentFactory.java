@@ -1,8 +1,12 @@
 package com.vibe.agent;
 
+import com.vibe.llm.ModelRouter;
+import com.vibe.llm.ModelTier;
+import com.vibe.llm.TurnType;
 import com.vibe.tool.EnvironmentGeneratorTool;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.service.AiServices;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 /**
@@ -12,18 +16,25 @@ import org.springframework.stereotype.Component;
 public class EnvironmentAgentFactory {
 
     private final ChatModel chatModel;
+    private final ChatModel lightChatModel;
+    private final ModelRouter modelRouter;
     private final EnvironmentGeneratorTool environmentGeneratorTool;
 
     public EnvironmentAgentFactory(
-            ChatModel chatModel,
+            @Qualifier("chatModel") ChatModel chatModel,
+            @Qualifier("lightChatModel") ChatModel lightChatModel,
+            ModelRouter modelRouter,
             EnvironmentGeneratorTool environmentGeneratorTool) {
         this.chatModel = chatModel;
+        this.lightChatModel = lightChatModel;
+        this.modelRouter = modelRouter;
         this.environmentGeneratorTool = environmentGeneratorTool;
     }
 
     public EnvironmentAgent createAgent() {
+        ModelTier tier = modelRouter.route(TurnType.ENVIRONMENT_GENERATION, null);
         return AiServices.builder(EnvironmentAgent.class)
-                .chatModel(chatModel)
+                .chatModel(tier == ModelTier.LIGHT ? lightChatModel : chatModel)
                 .systemMessageProvider(id -> getSystemPrompt())
                 .tools(environmentGeneratorTool)
                 .build();
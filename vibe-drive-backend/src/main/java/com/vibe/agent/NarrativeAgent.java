@@ -0,0 +1,21 @@
+package com.vibe.agent;
+
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.V;
+
+/**
+ * 叙事生成智能体接口
+ * 根据驾驶环境流式生成 TTS 播报文本，不调用工具、不保留会话记忆
+ */
+public interface NarrativeAgent {
+
+    /**
+     * 生成叙事文本（流式）
+     *
+     * @param prompt 用户提示（包含环境描述）
+     * @return TokenStream 流式响应
+     */
+    @UserMessage("{{prompt}}")
+    TokenStream narrate(@V("prompt") String prompt);
+}
@@ -0,0 +1,54 @@
+package com.vibe.agent;
+
+import com.vibe.llm.ModelRouter;
+import com.vibe.llm.ModelTier;
+import com.vibe.llm.TurnType;
+import com.vibe.model.enums.SafetyMode;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.service.AiServices;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * 叙事生成智能体工厂
+ */
+@Component
+public class NarrativeAgentFactory {
+
+    private final StreamingChatModel streamingModel;
+    private final StreamingChatModel lightStreamingModel;
+    private final ModelRouter modelRouter;
+
+    public NarrativeAgentFactory(
+            @Qualifier("streamingChatModel") StreamingChatModel streamingModel,
+            @Qualifier("lightStreamingChatModel") StreamingChatModel lightStreamingModel,
+            ModelRouter modelRouter) {
+        this.streamingModel = streamingModel;
+        this.lightStreamingModel = lightStreamingModel;
+        this.modelRouter = modelRouter;
+    }
+
+    public NarrativeAgent createAgent(SafetyMode safetyMode) {
+        ModelTier tier = modelRouter.route(TurnType.NARRATION, safetyMode);
+        return AiServices.builder(NarrativeAgent.class)
+                .streamingChatModel(tier == ModelTier.LIGHT ? lightStreamingModel : streamingModel)
+                .systemMessageProvider(id -> getSystemPrompt())
+                .build();
+    }
+
+    private String getSystemPrompt() {
+        return """
+            你是车载氛围系统的旁白。根据驾驶环境，写一段由语音播报给驾驶员的简短叙事。
+
+            ## 要求
+            1. 2-3 个短句，总长不超过 60 字，每句以句号、感叹号或问号结尾
+            2. 第一句尽量短，让播报尽快开始
+            3. 语气与时段、天气、情绪一致：深夜与疲劳时轻柔舒缓，晴朗与愉快时明快
+            4. 有当前歌曲时可以自然地提到歌名，用《》括起
+            5. 不要分散驾驶员注意力：不提问、不要求操作，疲劳时提醒注意休息
+
+            ## 输出要求
+            只输出播报文本本身，不要标题、引号、表情符号或任何解释。
+            """;
+    }
+}
@@ -1,5 +1,6 @@
 package com.vibe.agent;
 
+import com.vibe.llm.ModelTier;
 import com.vibe.tool.LightTool;
 import com.vibe.tool.MassageTool;
 import com.vibe.tool.MusicTool;
@@ -10,6 +11,7 @@ import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.service.AiServices;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -21,6 +23,7 @@ import org.springframework.stereotype.Component;
 public class VibeAgentFactory {
 
     private final StreamingChatModel streamingModel;
+    private final StreamingChatModel lightStreamingModel;
     private final ChatMemoryStore memoryStore;
     private final MusicTool musicTool;
     private final LightTool lightTool;
@@ -33,7 +36,8 @@ public class VibeAgentFactory {
     private int maxMessages;
 
     public VibeAgentFactory(
-            StreamingChatModel streamingModel,
+            @Qualifier("streamingChatModel") StreamingChatModel streamingModel,
+            @Qualifier("lightStreamingChatModel") StreamingChatModel lightStreamingModel,
             ChatMemoryStore memoryStore,
             MusicTool musicTool,
             LightTool lightTool,
@@ -42,6 +46,7 @@ public class VibeAgentFactory {
             MassageTool massageTool,
             PromptAssembler promptAssembler) {
         this.streamingModel = streamingModel;
+        this.lightStreamingModel = lightStreamingModel;
         this.memoryStore = memoryStore;
         this.musicTool = musicTool;
         this.lightTool = lightTool;
@@ -52,9 +57,17 @@ public class VibeAgentFactory {
     }
 
     /**
-     * 创建 VibeAgent 实例
+     * 创建 VibeAgent 实例（标准档位）
      */
     public VibeAgent createAgent() {
+        return createAgent(ModelTier.STANDARD);
+    }
+
+    /**
+     * 创建指定模型档位的 VibeAgent 实例
+     * 各档位共享同一个记忆存储，同一会话切换档位时上下文不丢失
+     */
+    public VibeAgent createAgent(ModelTier tier) {
         ChatMemoryProvider memoryProvider = memoryId ->
             MessageWindowChatMemory.builder()
                 .id(memoryId)
@@ -63,7 +76,7 @@ public class VibeAgentFactory {
                 .build();
 
         return AiServices.builder(VibeAgent.class)
-            .streamingChatModel(streamingModel)
+            .streamingChatModel(tier == ModelTier.LIGHT ? lightStreamingModel : streamingModel)
             .chatMemoryProvider(memoryProvider)
             .systemMessageProvider(id -> promptAssembler.assembleSystemPrompt())
             .tools(musicTool, lightTool, narrativeTool, scentTool, massageTool)
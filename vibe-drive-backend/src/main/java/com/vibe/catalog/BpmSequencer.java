@@ -0,0 +1,184 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+
+import java.util.Arrays;
+
+/**
+ * BPM 连续选曲
+ * 每次推荐独立打分时，同一会话相邻两次推荐可能从 60 BPM 直接跳到 150 BPM：
+ * - 上一首离目标范围较远时，每首最多向目标中心靠近 {@link #MAX_STEP} BPM，得到各位置的理想 BPM；
+ *   各位置以理想 BPM 为中心用 {@link SongRanker} 取少量候选，再以宽度 {@link #BEAM_WIDTH} 做束搜索，
+ *   代价 = 相邻歌曲 BPM 跳变超出 {@link #COMFORT_STEP} 的部分 × {@link #JUMP_WEIGHT} − 候选得分，
+ *   选出整体代价最小的序列；下一次推荐从本次最后一首继续靠近目标
+ * - 上一首已在目标附近时保留打分选出的歌曲，只从上一首的 BPM 出发按就近顺序排列
+ * 各位置的候选查询都在 BPM 有序索引上从理想 BPM 向两侧展开并提前结束，
+ * 束搜索规模为 歌曲数 × 束宽 × 每位置候选数，可以放在推荐热路径上
+ */
+public final class BpmSequencer {
+
+    /**
+     * 每首歌向目标中心靠近的最大 BPM
+     */
+    static final int MAX_STEP = 12;
+
+    /**
+     * 不计代价的相邻跳变
+     */
+    static final int COMFORT_STEP = 6;
+
+    static final float JUMP_WEIGHT = 0.1f;
+    static final int BEAM_WIDTH = 8;
+    static final int CANDIDATES_PER_STEP = 8;
+
+    private BpmSequencer() {
+    }
+
+    /**
+     * 上一首是否离目标范围足够远，需要逐步过渡
+     */
+    public static boolean needsTransition(int previousBpm, BpmRange target) {
+        return previousBpm < target.min() - MAX_STEP || previousBpm > target.max() + MAX_STEP;
+    }
+
+    /**
+     * 在曲库变体上从上一首的 BPM 向目标范围过渡的选曲
+     *
+     * @param target      目标条件（情绪 / 流派 / 目标 BPM 范围 / 会话种子）
+     * @param previousBpm 上一首的 BPM
+     * @param recent      需要降权的最近播放序号
+     * @param count       选曲数量
+     * @param out         结果序号（变体序号空间），按播放顺序
+     * @return 结果数量
+     */
+    public static int transition(CatalogVariant variant, RankingQuery target, int previousBpm, int[] recent,
+                                 int count, int[] out) {
+        if (count <= 0 || variant.size() == 0) {
+            return 0;
+        }
+        BpmRange range = target.bpmRange();
+        int halfWidth = (range.max() - range.min()) / 2;
+        double center = (range.min() + range.max()) / 2.0;
+
+        int[][] candidates = new int[count][CANDIDATES_PER_STEP];
+        float[][] scores = new float[count][CANDIDATES_PER_STEP];
+        int[] candidateCounts = new int[count];
+        double ideal = previousBpm;
+        for (int step = 0; step < count; step++) {
+            ideal += Math.clamp(center - ideal, -MAX_STEP, MAX_STEP);
+            int low = Math.max(0, (int) Math.round(ideal) - halfWidth);
+            RankingQuery stepQuery = new RankingQuery(
+                target.mood(), new BpmRange(low, low + 2 * halfWidth), target.genre(), target.seed());
+            candidateCounts[step] = SongRanker.topK(
+                variant, stepQuery, recent, CANDIDATES_PER_STEP, candidates[step], scores[step]);
+        }
+
+        Beam beam = new Beam();
+        beam.add(new int[0], previousBpm, 0f);
+        for (int step = 0; step < count; step++) {
+            Beam next = new Beam();
+            for (int b = 0; b < beam.size; b++) {
+                int[] path = beam.paths[b];
+                for (int c = 0; c < candidateCounts[step]; c++) {
+                    int ordinal = candidates[step][c];
+                    if (contains(path, ordinal)) {
+                        continue;
+                    }
+                    int bpm = variant.bpm(ordinal);
+                    int jump = Math.abs(bpm - beam.lastBpm[b]);
+                    float cost = beam.costs[b] + JUMP_WEIGHT * Math.max(0, jump - COMFORT_STEP) - scores[step][c];
+                    next.offer(path, ordinal, bpm, cost);
+                }
+            }
+            if (next.size == 0) {
+                break;
+            }
+            beam = next;
+        }
+
+        int[] best = beam.best();
+        System.arraycopy(best, 0, out, 0, best.length);
+        return best.length;
+    }
+
+    /**
+     * 从上一首的 BPM 出发，每次取 BPM 最接近当前一首的歌曲（距离相同时保持原顺序），序号为曲库变体的序号空间
+     */
+    public static void orderSmoothly(CatalogVariant variant, int previousBpm, int[] ordinals, int count) {
+        int current = previousBpm;
+        for (int i = 0; i < count; i++) {
+            int nearest = i;
+            for (int j = i + 1; j < count; j++) {
+                if (Math.abs(variant.bpm(ordinals[j]) - current) < Math.abs(variant.bpm(ordinals[nearest]) - current)) {
+                    nearest = j;
+                }
+            }
+            int chosen = ordinals[nearest];
+            System.arraycopy(ordinals, i, ordinals, i + 1, nearest - i);
+            ordinals[i] = chosen;
+            current = variant.bpm(chosen);
+        }
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 束搜索的一层：保留代价最小的 BEAM_WIDTH 条路径
+     */
+    private static final class Beam {
+
+        private final int[][] paths = new int[BEAM_WIDTH][];
+        private final int[] lastBpm = new int[BEAM_WIDTH];
+        private final float[] costs = new float[BEAM_WIDTH];
+        private int size;
+
+        private void add(int[] path, int bpm, float cost) {
+            paths[size] = path;
+            lastBpm[size] = bpm;
+            costs[size] = cost;
+            size++;
+        }
+
+        /**
+         * 加入 path + ordinal；已满时替换代价最大的一条
+         */
+        private void offer(int[] path, int ordinal, int bpm, float cost) {
+            int slot = size;
+            if (size == BEAM_WIDTH) {
+                slot = 0;
+                for (int i = 1; i < size; i++) {
+                    if (costs[i] > costs[slot]) {
+                        slot = i;
+                    }
+                }
+                if (cost >= costs[slot]) {
+                    return;
+                }
+            } else {
+                size++;
+            }
+            int[] extended = Arrays.copyOf(path, path.length + 1);
+            extended[path.length] = ordinal;
+            paths[slot] = extended;
+            lastBpm[slot] = bpm;
+            costs[slot] = cost;
+        }
+
+        private int[] best() {
+            int best = 0;
+            for (int i = 1; i < size; i++) {
+                if (costs[i] < costs[best]) {
+                    best = i;
+                }
+            }
+            return paths[best];
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 物化候选表
+ * 推荐结果只取决于情绪与有效流派（时段、乘客数最终都折算为流派），组合数很少；
+ * 曲库加载时为每个 (情绪, 流派) 组合预先算出基础得分最高的 depth 首候选，
+ * 推荐时查表后只需在候选上做会话重排（{@link SongRanker#rerank}）。
+ * 会话抖动可能让与第 depth 名相差不到 {@link SongRanker#JITTER} 的歌曲进入结果，
+ * 因此这一分数带内的歌曲全部保留（上限 depth * {@value #BAND_FACTOR} 首），重排结果与实时打分一致
+ * 表与曲库索引绑定，随曲库一起整体替换；情绪键区分大小写（与情绪 → BPM 映射一致），流派键忽略大小写
+ */
+public final class CandidateTable {
+
+    /**
+     * 不限流派（null / 空白 / "mixed"）的表键，不会与流派名冲突
+     */
+    private static final String ANY_GENRE = "\0any";
+
+    /**
+     * 抖动分数带的候选上限倍数
+     */
+    static final int BAND_FACTOR = 16;
+
+    private final SongIndex index;
+    private final int depth;
+    private final Map<String, Integer> moodSlots;
+    private final Map<String, Integer> genreSlots;
+    private final Candidates[] cells;
+
+    private CandidateTable(SongIndex index, int depth, Map<String, Integer> moodSlots, Map<String, Integer> genreSlots) {
+        this.index = index;
+        this.depth = depth;
+        this.moodSlots = moodSlots;
+        this.genreSlots = genreSlots;
+        this.cells = new Candidates[moodSlots.size() * genreSlots.size()];
+    }
+
+    /**
+     * 构建候选表
+     *
+     * @param moodRanges 情绪 → 目标 BPM 范围
+     * @param genres     需要物化的流派（另外总会包含曲库中的全部流派与不限流派）
+     * @param depth      每个组合的候选数量
+     */
+    public static CandidateTable build(SongIndex index, Map<String, BpmRange> moodRanges,
+                                       Collection<String> genres, int depth) {
+        Map<String, Integer> moodSlots = new HashMap<>();
+        for (String mood : moodRanges.keySet()) {
+            moodSlots.put(mood, moodSlots.size());
+        }
+        Set<String> allGenres = new LinkedHashSet<>();
+        allGenres.add(ANY_GENRE);
+        TagDictionary dictionary = index.catalog().genres();
+        for (int id = 0; id < dictionary.size(); id++) {
+            allGenres.add(normalize(dictionary.name(id)));
+        }
+        for (String genre : genres) {
+            allGenres.add(normalize(genre));
+        }
+        Map<String, Integer> genreSlots = new HashMap<>();
+        for (String genre : allGenres) {
+            genreSlots.put(genre, genreSlots.size());
+        }
+
+        CandidateTable table = new CandidateTable(index, depth, moodSlots, genreSlots);
+        for (Map.Entry<String, BpmRange> mood : moodRanges.entrySet()) {
+            for (String genre : allGenres) {
+                RankingQuery query = new RankingQuery(mood.getKey(), mood.getValue(),
+                    ANY_GENRE.equals(genre) ? null : genre, 0L);
+                table.cells[table.slot(moodSlots.get(mood.getKey()), genreSlots.get(genre))] =
+                    candidates(index, query, depth);
+            }
+        }
+        return table;
+    }
+
+    private static Candidates candidates(SongIndex index, RankingQuery query, int depth) {
+        int limit = depth * BAND_FACTOR;
+        int[] ordinals = new int[limit];
+        float[] scores = new float[limit];
+        int count = SongRanker.baseTopK(index, query, limit, ordinals, scores);
+        int kept = Math.min(depth, count);
+        if (kept > 0) {
+            float band = scores[kept - 1] - SongRanker.JITTER;
+            while (kept < count && scores[kept] >= band) {
+                kept++;
+            }
+        }
+        return new Candidates(Arrays.copyOf(ordinals, kept), Arrays.copyOf(scores, kept), kept);
+    }
+
+    /**
+     * 查表
+     *
+     * @return 该组合的候选；情绪或流派不在表中时返回 null
+     */
+    public Candidates lookup(String mood, String genre) {
+        Integer moodSlot = mood == null ? null : moodSlots.get(mood);
+        if (moodSlot == null) {
+            return null;
+        }
+        String genreKey = genre == null || genre.isBlank() || "mixed".equals(genre) ? ANY_GENRE : normalize(genre);
+        Integer genreSlot = genreSlots.get(genreKey);
+        return genreSlot == null ? null : cells[slot(moodSlot, genreSlot)];
+    }
+
+    /**
+     * 表对应的曲库索引
+     */
+    public SongIndex index() {
+        return index;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * 组合数量
+     */
+    public int cellCount() {
+        return cells.length;
+    }
+
+    private int slot(int moodSlot, int genreSlot) {
+        return moodSlot * genreSlots.size() + genreSlot;
+    }
+
+    private static String normalize(String tag) {
+        return tag.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单个组合的候选（基础得分从高到低）
+     *
+     * @param ordinals 候选序号
+     * @param scores   基础得分
+     * @param count    候选数量
+     */
+    public record Candidates(int[] ordinals, float[] scores, int count) {
+
+        /**
+         * 会话重排后取前 k 首
+         *
+         * @return 结果数量
+         */
+        public int rerank(long seed, int[] recent, int k, int[] out) {
+            return SongRanker.rerank(ordinals, scores, count, seed, recent, k, out);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.vibe.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 曲库文件监听
+ * 监听文件所在目录，目标文件被创建 / 修改 / 替换（ColumnarCatalogWriter 以原子移动替换）后，
+ * 等待 debounce 时间内不再有变化再触发回调，避免文件写到一半就开始重载
+ */
+public final class CatalogFileWatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogFileWatcher.class);
+
+    private final Path file;
+    private final long debounceMillis;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private CatalogFileWatcher(Path file, long debounceMillis, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "catalog-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public static CatalogFileWatcher start(Path file, long debounceMillis, Runnable onChange) throws IOException {
+        CatalogFileWatcher watcher = new CatalogFileWatcher(file, debounceMillis, onChange);
+        watcher.thread.start();
+        log.info("Watching song catalog {}", watcher.file);
+        return watcher;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!drain(watchService.take())) {
+                    continue;
+                }
+                // 去抖：持续有变化时继续等待
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(next);
+                }
+                log.info("Song catalog {} changed, reloading", file);
+                try {
+                    onChange.run();
+                } catch (Exception e) {
+                    log.error("Catalog change handler failed: {}", e.getMessage(), e);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Catalog watcher stopped");
+        }
+    }
+
+    /**
+     * 处理一批事件，返回其中是否包含目标文件
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name && name.equals(file.getFileName())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
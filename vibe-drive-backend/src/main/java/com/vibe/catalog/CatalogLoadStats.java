@@ -0,0 +1,26 @@
+package com.vibe.catalog;
+
+import java.time.Instant;
+
+/**
+ * 曲库加载统计
+ *
+ * @param source        曲库来源（文件路径或 classpath 资源）
+ * @param songs         歌曲数量
+ * @param loadMillis    读取 / 映射耗时
+ * @param indexMillis   建索引耗时
+ * @param peakHeapBytes 加载期间堆内存峰值（各堆内存池峰值之和，包含同期其他请求的分配，仅供参考）
+ * @param loadedAt      加载完成时间
+ */
+public record CatalogLoadStats(
+    String source,
+    int songs,
+    long loadMillis,
+    long indexMillis,
+    long peakHeapBytes,
+    Instant loadedAt
+) {
+    public long peakHeapMb() {
+        return peakHeapBytes >> 20;
+    }
+}
@@ -0,0 +1,105 @@
+package com.vibe.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 曲库加载器
+ * - 列式曲库文件直接内存映射
+ * - JSON 曲库按 token 流式解析，逐首追加到堆内曲库（不构建 JSON 树，峰值内存约等于曲库本身）
+ * 加载后立即建索引，并统计耗时与堆内存峰值；
+ * 曲库变体的覆盖层单独存放在 {"variants": [...]} JSON 文件中（规模很小，直接整体反序列化）
+ */
+public final class CatalogLoader {
+
+    /**
+     * 加载结果：索引（持有曲库）与统计
+     */
+    public record LoadedCatalog(SongIndex index, CatalogLoadStats stats) {
+    }
+
+    @FunctionalInterface
+    private interface CatalogSource {
+        SongCatalog open() throws IOException;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final SongJsonReader jsonReader;
+
+    public CatalogLoader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonReader = new SongJsonReader(objectMapper);
+    }
+
+    /**
+     * 加载曲库文件，按文件头识别列式曲库，否则按 JSON 解析
+     */
+    public LoadedCatalog load(Path path) throws IOException {
+        if (ColumnarSongCatalog.isCatalogFile(path)) {
+            return measure(path.toString(), () -> ColumnarSongCatalog.open(path));
+        }
+        return measure(path.toString(), () -> {
+            try (InputStream in = Files.newInputStream(path)) {
+                return readJson(in);
+            }
+        });
+    }
+
+    /**
+     * 从输入流加载 JSON 曲库（调用方负责关闭流）
+     */
+    public LoadedCatalog loadJson(String source, InputStream in) throws IOException {
+        return measure(source, () -> readJson(in));
+    }
+
+    /**
+     * 加载覆盖层文件
+     *
+     * @throws IOException 文件不可读或格式错误
+     */
+    public List<CatalogOverlay> loadOverlays(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return objectMapper.readValue(in, CatalogOverlay.Manifest.class).variants();
+        }
+    }
+
+    private SongCatalog readJson(InputStream in) throws IOException {
+        HeapSongCatalog.Builder builder = HeapSongCatalog.builder();
+        jsonReader.read(in, builder::add);
+        return builder.build();
+    }
+
+    private LoadedCatalog measure(String source, CatalogSource catalogSource) throws IOException {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+            .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        SongCatalog catalog = catalogSource.open();
+        long loaded = System.nanoTime();
+        SongIndex index = SongIndex.build(catalog);
+        long indexed = System.nanoTime();
+
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        CatalogLoadStats stats = new CatalogLoadStats(
+            source,
+            catalog.size(),
+            TimeUnit.NANOSECONDS.toMillis(loaded - start),
+            TimeUnit.NANOSECONDS.toMillis(indexed - loaded),
+            peakHeap,
+            Instant.now()
+        );
+        return new LoadedCatalog(index, stats);
+    }
+}
@@ -0,0 +1,41 @@
+package com.vibe.catalog;
+
+import com.vibe.model.Song;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 曲库覆盖层（按地区 / 车型区分的曲库变体）
+ * 以歌曲 id 描述与共享基础曲库的差异，加载基础曲库后再解析为 {@link CatalogVariant}
+ *
+ * @param name      变体名称（会话或车辆元数据中携带）
+ * @param additions 新增歌曲；id 与基础曲库重复时替换基础曲库中的歌曲
+ * @param removals  下架的歌曲 id
+ * @param boosts    歌曲 id → 打分加成（可为负数）
+ */
+public record CatalogOverlay(
+    String name,
+    List<Song> additions,
+    Set<String> removals,
+    Map<String, Float> boosts
+) {
+    public CatalogOverlay {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Catalog variant name cannot be empty");
+        }
+        additions = additions == null ? List.of() : List.copyOf(additions);
+        removals = removals == null ? Set.of() : Set.copyOf(removals);
+        boosts = boosts == null ? Map.of() : Map.copyOf(boosts);
+    }
+
+    /**
+     * 覆盖层文件：{"variants": [...]}
+     */
+    public record Manifest(List<CatalogOverlay> variants) {
+        public Manifest {
+            variants = variants == null ? List.of() : List.copyOf(variants);
+        }
+    }
+}
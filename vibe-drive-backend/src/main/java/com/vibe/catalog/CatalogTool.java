@@ -0,0 +1,138 @@
+package com.vibe.catalog;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.Song;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 曲库离线工具
+ * <pre>
+ * build &lt;songs.json&gt; &lt;catalog.vcat&gt;         从 JSON 曲库（{"songs": [...]}）构建列式曲库
+ * generate &lt;count&gt; &lt;output&gt; [seed]      生成合成曲库，.json 结尾输出 JSON，否则输出列式曲库
+ * load &lt;catalog&gt;                         按服务端方式加载曲库并输出耗时与堆峰值
+ * </pre>
+ * 运行：mvn -q exec:java -Dexec.mainClass=com.vibe.catalog.CatalogTool -Dexec.args="generate 10000000 data/songs.vcat"
+ */
+public final class CatalogTool {
+
+    private static final long DEFAULT_SEED = 42L;
+
+    private CatalogTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && "build".equals(args[0])) {
+            build(Path.of(args[1]), Path.of(args[2]));
+        } else if (args.length >= 3 && "generate".equals(args[0])) {
+            long seed = args.length >= 4 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+            generate(Integer.parseInt(args[1]), Path.of(args[2]), seed);
+        } else if (args.length >= 2 && "load".equals(args[0])) {
+            load(Path.of(args[1]));
+        } else {
+            System.err.println("Usage:");
+            System.err.println("  build <songs.json> <catalog.vcat>");
+            System.err.println("  generate <count> <output(.json|.vcat)> [seed]");
+            System.err.println("  load <catalog(.json|.vcat)>");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 从 JSON 曲库构建列式曲库
+     */
+    public static int build(Path json, Path catalog) throws IOException {
+        long start = System.nanoTime();
+        int count;
+        try (ColumnarCatalogWriter writer = new ColumnarCatalogWriter(catalog);
+             InputStream in = Files.newInputStream(json)) {
+            new SongJsonReader(new ObjectMapper()).read(in, writer::add);
+            writer.finish();
+            count = writer.count();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        report("Built", count, catalog, start);
+        return count;
+    }
+
+    /**
+     * 生成合成曲库
+     */
+    public static void generate(int count, Path output, long seed) throws IOException {
+        long start = System.nanoTime();
+        if (output.getFileName().toString().endsWith(".json")) {
+            writeJson(count, output, seed);
+        } else {
+            try (ColumnarCatalogWriter writer = new ColumnarCatalogWriter(output)) {
+                SyntheticCatalogGenerator.generate(count, seed, writer::add);
+                writer.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        report("Generated", count, output, start);
+    }
+
+    /**
+     * 加载曲库并输出统计（与 MusicService 使用同一加载器）
+     */
+    public static CatalogLoadStats load(Path catalog) throws IOException {
+        CatalogLoadStats stats = new CatalogLoader(new ObjectMapper()).load(catalog).stats();
+        System.out.printf("Loaded %d songs from %s: load %d ms, index %d ms, peak heap %d MB%n",
+            stats.songs(), stats.source(), stats.loadMillis(), stats.indexMillis(), stats.peakHeapMb());
+        return stats;
+    }
+
+    /**
+     * 逐首写出 JSON（字段与 mock-songs.json 一致）
+     */
+    private static void writeJson(int count, Path output, long seed) throws IOException {
+        Path parent = output.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        try (JsonGenerator json = new ObjectMapper().getFactory().createGenerator(output.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("songs");
+            try {
+                SyntheticCatalogGenerator.generate(count, seed, song -> writeSong(json, song));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeSong(JsonGenerator json, Song song) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("id", song.id());
+            json.writeStringField("title", song.title());
+            json.writeStringField("artist", song.artist());
+            json.writeStringField("album", song.album());
+            json.writeNumberField("duration", song.duration());
+            json.writeNumberField("bpm", song.bpm());
+            json.writeStringField("genre", song.genre());
+            json.writeArrayFieldStart("mood");
+            for (String mood : song.mood()) {
+                json.writeString(mood);
+            }
+            json.writeEndArray();
+            json.writeStringField("coverUrl", song.coverUrl());
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void report(String action, int count, Path output, long startNanos) throws IOException {
+        System.out.printf("%s %d songs -> %s (%.1f MB) in %d ms%n", action, count, output,
+            Files.size(output) / (1024.0 * 1024.0), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+}
@@ -0,0 +1,307 @@
+package com.vibe.catalog;
+
+import com.vibe.model.Song;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 曲库变体：共享的基础曲库索引 + 小规模覆盖层
+ * 序号空间为 [0, 基础曲库大小) 的基础歌曲，之后依次是新增歌曲；
+ * - 下架 / 加成：序号位图标记，扫描索引时直接跳过（一次位运算，不影响提前结束的判断）
+ * - 加成：按序号排序的 (序号, 加成) 数组，扫描结束后逐首打分补入，加成歌曲很少
+ * - 新增：单独的小曲库与索引，打分时与基础索引共用同一个 Top-K 堆
+ * 基础曲库的 BPM 有序数组及物化候选表 / 向量索引在所有变体间共享，
+ * 每个变体只额外占用覆盖层本身的内存（{@link #overlayBytes()}）
+ */
+public final class CatalogVariant {
+
+    /**
+     * 基础曲库（无覆盖层）的变体名
+     */
+    public static final String BASE = "base";
+
+    /**
+     * 新增歌曲的对象头与字段引用估算（Song record + 情绪列表）
+     */
+    private static final long SONG_OBJECT_BYTES = 96;
+
+    private static final int[] NO_ORDINALS = new int[0];
+    private static final float[] NO_BOOSTS = new float[0];
+
+    private final String name;
+    private final SongIndex base;
+    private final SongIndex additions;
+    private final long[] adjusted;
+    private final int removedCount;
+    private final int[] boostOrdinals;
+    private final float[] boostValues;
+    private final long additionBytes;
+    private final long generation;
+
+    private CatalogVariant(String name, SongIndex base, SongIndex additions, long[] adjusted, int removedCount,
+                           int[] boostOrdinals, float[] boostValues, long additionBytes) {
+        this.name = name;
+        this.base = base;
+        this.additions = additions;
+        this.adjusted = adjusted;
+        this.removedCount = removedCount;
+        this.boostOrdinals = boostOrdinals;
+        this.boostValues = boostValues;
+        this.additionBytes = additionBytes;
+        this.generation = hasOverlay() ? SongIndex.nextGeneration() : base.generation();
+    }
+
+    /**
+     * 基础曲库本身（序号与代次与索引一致）
+     */
+    public static CatalogVariant base(SongIndex index) {
+        return new CatalogVariant(BASE, index, null, null, 0, NO_ORDINALS, NO_BOOSTS, 0);
+    }
+
+    /**
+     * 把覆盖层解析到基础曲库上；下架 / 加成引用的 id 只扫描一遍基础曲库
+     *
+     * @return 变体名 → 变体（按覆盖层顺序），不含基础曲库本身
+     */
+    public static Map<String, CatalogVariant> resolveAll(SongIndex base, List<CatalogOverlay> overlays) {
+        Set<String> referenced = new HashSet<>();
+        for (CatalogOverlay overlay : overlays) {
+            referenced.addAll(overlay.removals());
+            referenced.addAll(overlay.boosts().keySet());
+            overlay.additions().forEach(song -> referenced.add(song.id()));
+        }
+        Map<String, Integer> baseOrdinals = new HashMap<>();
+        if (!referenced.isEmpty()) {
+            SongCatalog catalog = base.catalog();
+            for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+                String id = catalog.id(ordinal);
+                if (referenced.contains(id)) {
+                    baseOrdinals.put(id, ordinal);
+                }
+            }
+        }
+        Map<String, CatalogVariant> variants = new LinkedHashMap<>();
+        for (CatalogOverlay overlay : overlays) {
+            variants.put(overlay.name(), resolve(base, overlay, baseOrdinals));
+        }
+        return variants;
+    }
+
+    private static CatalogVariant resolve(SongIndex base, CatalogOverlay overlay, Map<String, Integer> baseOrdinals) {
+        int baseSize = base.size();
+        int size = baseSize + overlay.additions().size();
+        long[] adjusted = new long[(size + 63) >>> 6];
+        int removedCount = 0;
+        for (String id : overlay.removals()) {
+            Integer ordinal = baseOrdinals.get(id);
+            if (ordinal != null) {
+                removedCount += mark(adjusted, ordinal);
+            }
+        }
+
+        Map<String, Integer> addedOrdinals = new HashMap<>();
+        SongIndex additions = null;
+        long additionBytes = 0;
+        if (!overlay.additions().isEmpty()) {
+            HeapSongCatalog.Builder builder = HeapSongCatalog.builder();
+            for (Song song : overlay.additions()) {
+                // 与基础曲库重复的 id 视为替换：下架基础曲库中的版本
+                Integer replaced = baseOrdinals.get(song.id());
+                if (replaced != null) {
+                    removedCount += mark(adjusted, replaced);
+                }
+                addedOrdinals.put(song.id(), baseSize + addedOrdinals.size());
+                builder.add(song);
+                additionBytes += estimateBytes(song);
+            }
+            additions = SongIndex.build(builder.build());
+            additionBytes += (long) additions.size() * 3 * Integer.BYTES + additions.indexBytes();
+        }
+
+        // 加成按 (序号, 加成) 打包排序；已下架歌曲的加成丢弃
+        long[] packed = new long[overlay.boosts().size()];
+        int boostCount = 0;
+        for (Map.Entry<String, Float> boost : overlay.boosts().entrySet()) {
+            Integer ordinal = addedOrdinals.containsKey(boost.getKey())
+                ? addedOrdinals.get(boost.getKey()) : baseOrdinals.get(boost.getKey());
+            if (ordinal != null && !isSet(adjusted, ordinal)) {
+                packed[boostCount++] = (long) ordinal << 32 | Integer.toUnsignedLong(Float.floatToRawIntBits(boost.getValue()));
+            }
+        }
+        Arrays.sort(packed, 0, boostCount);
+        int[] boostOrdinals = new int[boostCount];
+        float[] boostValues = new float[boostCount];
+        for (int i = 0; i < boostCount; i++) {
+            boostOrdinals[i] = (int) (packed[i] >>> 32);
+            boostValues[i] = Float.intBitsToFloat((int) packed[i]);
+            mark(adjusted, boostOrdinals[i]);
+        }
+        boolean anyAdjusted = removedCount > 0 || boostCount > 0;
+        return new CatalogVariant(overlay.name(), base, additions, anyAdjusted ? adjusted : null, removedCount,
+            boostOrdinals, boostValues, additionBytes);
+    }
+
+    private static boolean isSet(long[] bits, int ordinal) {
+        return (bits[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    private static int mark(long[] bits, int ordinal) {
+        long bit = 1L << ordinal;
+        if ((bits[ordinal >>> 6] & bit) != 0) {
+            return 0;
+        }
+        bits[ordinal >>> 6] |= bit;
+        return 1;
+    }
+
+    /**
+     * Song 对象估算：对象头与引用 + 各字符串（compact string，Latin-1 每字符 1 字节）
+     */
+    private static long estimateBytes(Song song) {
+        long bytes = SONG_OBJECT_BYTES;
+        bytes += stringBytes(song.id()) + stringBytes(song.title()) + stringBytes(song.artist())
+            + stringBytes(song.album()) + stringBytes(song.genre()) + stringBytes(song.coverUrl());
+        if (song.mood() != null) {
+            bytes += (long) song.mood().size() * Integer.BYTES;
+            for (String mood : song.mood()) {
+                bytes += stringBytes(mood);
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 共享的基础曲库索引
+     */
+    public SongIndex base() {
+        return base;
+    }
+
+    /**
+     * 新增歌曲的索引，无新增时为 null
+     */
+    SongIndex additions() {
+        return additions;
+    }
+
+    /**
+     * 是否有覆盖层（基础曲库本身返回 false）
+     */
+    public boolean hasOverlay() {
+        return additions != null || adjusted != null;
+    }
+
+    /**
+     * 序号空间大小（含已下架的基础歌曲）
+     */
+    public int size() {
+        return base.size() + (additions != null ? additions.size() : 0);
+    }
+
+    /**
+     * 可推荐的歌曲数量
+     */
+    public int songCount() {
+        return size() - removedCount;
+    }
+
+    /**
+     * 序号空间代次，用于判断按序号缓存的会话数据是否仍然有效
+     */
+    public long generation() {
+        return generation;
+    }
+
+    public int bpm(int ordinal) {
+        int baseSize = base.size();
+        return ordinal < baseSize ? base.catalog().bpm(ordinal) : additions.catalog().bpm(ordinal - baseSize);
+    }
+
+    public Song song(int ordinal) {
+        int baseSize = base.size();
+        return ordinal < baseSize ? base.catalog().song(ordinal) : additions.catalog().song(ordinal - baseSize);
+    }
+
+    /**
+     * 按序号构造 Song 列表
+     */
+    public List<Song> songs(int[] ordinals, int count) {
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            songs.add(song(ordinals[i]));
+        }
+        return songs;
+    }
+
+    /**
+     * 扫描索引时是否跳过：已下架，或有加成（加成歌曲另行打分）
+     */
+    boolean isAdjusted(int ordinal) {
+        return adjusted != null && isSet(adjusted, ordinal);
+    }
+
+    /**
+     * 加成数组中第一个序号不小于 ordinal 的位置
+     */
+    int boostIndex(int ordinal) {
+        int i = Arrays.binarySearch(boostOrdinals, ordinal);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    int boostCount() {
+        return boostOrdinals.length;
+    }
+
+    int boostedOrdinal(int i) {
+        return boostOrdinals[i];
+    }
+
+    float boostValue(int i) {
+        return boostValues[i];
+    }
+
+    /**
+     * 覆盖层占用的堆内存估算（下架 / 加成位图 + 加成数组 + 新增歌曲及其索引），不含共享的基础曲库
+     */
+    public long overlayBytes() {
+        long bytes = additionBytes;
+        if (adjusted != null) {
+            bytes += (long) adjusted.length * Long.BYTES;
+        }
+        bytes += (long) boostOrdinals.length * (Integer.BYTES + Float.BYTES);
+        return bytes;
+    }
+
+    public Stats stats() {
+        return new Stats(name, additions != null ? additions.size() : 0, removedCount, boostOrdinals.length,
+            songCount(), overlayBytes());
+    }
+
+    /**
+     * 变体统计
+     *
+     * @param name         变体名称
+     * @param additions    新增歌曲数
+     * @param removals     下架的基础歌曲数（含被新增替换的）
+     * @param boosts       生效的加成数
+     * @param songs        可推荐的歌曲数
+     * @param overlayBytes 覆盖层额外占用的堆内存估算
+     */
+    public record Stats(String name, int additions, int removals, int boosts, int songs, long overlayBytes) {
+    }
+}
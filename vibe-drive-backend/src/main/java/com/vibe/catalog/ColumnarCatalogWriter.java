@@ -0,0 +1,281 @@
+package com.vibe.catalog;
+
+import com.vibe.catalog.ColumnarSongCatalog.Column;
+import com.vibe.model.Song;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 列式曲库写入器（离线构建）
+ * 每列先顺序写入临时文件，finish 时拼接成单个曲库文件并原子替换目标文件；
+ * 写入过程中堆内只保留艺术家 / 专辑 / 封面的去重表
+ */
+public final class ColumnarCatalogWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path target;
+    private final Path workDir;
+    private final TagDictionary genres = new TagDictionary(SongCatalog.MAX_GENRES);
+    private final TagDictionary moods = new TagDictionary(SongCatalog.MAX_MOODS);
+
+    private final Section bpm;
+    private final Section duration;
+    private final Section genre;
+    private final Section mood;
+    private final StringColumn ids;
+    private final StringColumn titles;
+    private final StringColumn artists;
+    private final StringColumn albums;
+    private final StringColumn covers;
+    private int count;
+
+    public ColumnarCatalogWriter(Path target) throws IOException {
+        this.target = target.toAbsolutePath();
+        Files.createDirectories(this.target.getParent());
+        this.workDir = Files.createTempDirectory(this.target.getParent(), ".vcat-");
+        this.bpm = new Section(workDir, "bpm");
+        this.duration = new Section(workDir, "duration");
+        this.genre = new Section(workDir, "genre");
+        this.mood = new Section(workDir, "mood");
+        this.ids = new StringColumn(workDir, "id", false);
+        this.titles = new StringColumn(workDir, "title", false);
+        this.artists = new StringColumn(workDir, "artist", true);
+        this.albums = new StringColumn(workDir, "album", true);
+        this.covers = new StringColumn(workDir, "cover", true);
+    }
+
+    /**
+     * 追加一首歌曲（可直接作为 Consumer 使用，IO 异常以 UncheckedIOException 抛出）
+     */
+    public void add(Song song) {
+        try {
+            bpm.out.writeInt(song.bpm());
+            duration.out.writeInt(song.duration());
+            int genreId = genres.register(song.genre());
+            genre.out.writeByte(genreId == TagDictionary.NONE ? ColumnarSongCatalog.NO_GENRE : genreId);
+            int mask = 0;
+            if (song.mood() != null) {
+                for (String tag : song.mood()) {
+                    if (tag != null) {
+                        mask |= 1 << moods.register(tag);
+                    }
+                }
+            }
+            mood.out.writeInt(mask);
+            ids.add(song.id());
+            titles.add(song.title());
+            artists.add(song.artist());
+            albums.add(song.album());
+            covers.add(song.coverUrl());
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * 拼接各列并写出曲库文件
+     */
+    public void finish() throws IOException {
+        closeColumns();
+        int moodWidth = moods.size() <= Byte.SIZE ? 1 : Integer.BYTES;
+        if (moodWidth == 1) {
+            narrowMoodColumn();
+        }
+
+        Map<Column, Path[]> parts = new EnumMap<>(Column.class);
+        parts.put(Column.BPM, new Path[]{bpm.path});
+        parts.put(Column.DURATION, new Path[]{duration.path});
+        parts.put(Column.GENRE, new Path[]{genre.path});
+        parts.put(Column.MOOD, new Path[]{mood.path});
+        parts.put(Column.ID, ids.tableParts());
+        parts.put(Column.TITLE, titles.tableParts());
+        parts.put(Column.ARTIST, artists.tableParts());
+        parts.put(Column.ARTIST_REF, new Path[]{artists.refs.path});
+        parts.put(Column.ALBUM, albums.tableParts());
+        parts.put(Column.ALBUM_REF, new Path[]{albums.refs.path});
+        parts.put(Column.COVER, covers.tableParts());
+        parts.put(Column.COVER_REF, new Path[]{covers.refs.path});
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(ColumnarSongCatalog.MAGIC);
+        header.writeInt(ColumnarSongCatalog.VERSION);
+        header.writeInt(count);
+        header.writeByte(moodWidth);
+        header.writeShort(genres.size());
+        for (int i = 0; i < genres.size(); i++) {
+            header.writeUTF(genres.name(i));
+        }
+        header.writeByte(moods.size());
+        for (int i = 0; i < moods.size(); i++) {
+            header.writeUTF(moods.name(i));
+        }
+        header.writeInt(Column.values().length);
+
+        long offset = header.size() + (long) Column.values().length * 2 * Long.BYTES;
+        for (Column column : Column.values()) {
+            long length = 0;
+            for (Path part : parts.get(column)) {
+                length += Files.size(part);
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Column " + column + " exceeds 2GB (" + length + " bytes)");
+            }
+            header.writeLong(offset);
+            header.writeLong(length);
+            offset += length;
+        }
+
+        Path staging = workDir.resolve("catalog.vcat");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(staging), BUFFER_SIZE)) {
+            headerBytes.writeTo(out);
+            for (Column column : Column.values()) {
+                for (Path part : parts.get(column)) {
+                    Files.copy(part, out);
+                }
+            }
+        }
+        Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 清理临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        closeColumns();
+        if (!Files.exists(workDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(workDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private void closeColumns() throws IOException {
+        for (Section section : new Section[]{bpm, duration, genre, mood}) {
+            section.out.close();
+        }
+        for (StringColumn column : new StringColumn[]{ids, titles, artists, albums, covers}) {
+            column.close();
+        }
+    }
+
+    /**
+     * 情绪不超过 8 种时，情绪列由 int 压缩为单字节
+     */
+    private void narrowMoodColumn() throws IOException {
+        Path narrow = workDir.resolve("mood.u8");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(mood.path), BUFFER_SIZE));
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(narrow), BUFFER_SIZE)) {
+            for (int i = 0; i < count; i++) {
+                out.write(in.readInt());
+            }
+        }
+        Files.move(narrow, mood.path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 单列临时文件
+     */
+    private static final class Section {
+
+        private final Path path;
+        private final DataOutputStream out;
+
+        private Section(Path dir, String name) throws IOException {
+            this.path = dir.resolve(name);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+        }
+    }
+
+    /**
+     * 字符串列：结束偏移与 UTF-8 字节分别写入临时文件，去重列额外写出每首歌的引用
+     */
+    private static final class StringColumn {
+
+        private final Path countPath;
+        private final Section ends;
+        private final Section bytes;
+        private final Section refs;
+        private final Map<String, Integer> entries;
+        private int entryCount;
+        private long byteCount;
+
+        private StringColumn(Path dir, String name, boolean deduplicate) throws IOException {
+            this.countPath = dir.resolve(name + ".count");
+            this.ends = new Section(dir, name + ".ends");
+            this.bytes = new Section(dir, name + ".bytes");
+            this.refs = deduplicate ? new Section(dir, name + ".refs") : null;
+            this.entries = deduplicate ? new HashMap<>() : null;
+        }
+
+        private void add(String value) throws IOException {
+            if (refs == null) {
+                append(value);
+                return;
+            }
+            if (value == null) {
+                refs.out.writeInt(-1);
+                return;
+            }
+            Integer entry = entries.get(value);
+            if (entry == null) {
+                entry = append(value);
+                entries.put(value, entry);
+            }
+            refs.out.writeInt(entry);
+        }
+
+        private int append(String value) throws IOException {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            byteCount += utf8.length;
+            if (byteCount > Integer.MAX_VALUE) {
+                throw new IOException("String column exceeds 2GB");
+            }
+            bytes.out.write(utf8);
+            ends.out.writeInt((int) byteCount);
+            return entryCount++;
+        }
+
+        private void close() throws IOException {
+            ends.out.close();
+            bytes.out.close();
+            if (refs != null) {
+                refs.out.close();
+            }
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(countPath))) {
+                out.writeInt(entryCount);
+            }
+        }
+
+        private Path[] tableParts() {
+            return new Path[]{countPath, ends.path, bytes.path};
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.vibe.catalog;
+
+import com.vibe.model.Song;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式曲库（只读内存映射）
+ * 由 {@link ColumnarCatalogWriter} 离线构建，单文件布局：
+ * <pre>
+ * header : magic, version, count, moodWidth, 流派表, 情绪表, 各列 (offset, length)
+ * BPM / DURATION       int[count]
+ * GENRE                byte[count]（0xFF 表示无流派）
+ * MOOD                 byte[count] 或 int[count]（情绪超过 8 种时）
+ * ID / TITLE           字符串表，第 i 项即第 i 首
+ * ARTIST / ALBUM / COVER  去重字符串表 + int[count] 引用（-1 表示 null）
+ * 字符串表             int entries, int[entries] 结束偏移, UTF-8 字节
+ * </pre>
+ * 各列单独映射（每列不超过 2GB），数据留在页缓存中，不占用堆；Song 只在返回结果时构造。
+ * 情绪以位掩码存储，还原出的标签按字典顺序排列（不保留原始顺序）
+ */
+public final class ColumnarSongCatalog implements SongCatalog {
+
+    static final int MAGIC = 0x56434154;
+    static final int VERSION = 1;
+    static final int NO_GENRE = 0xFF;
+
+    /**
+     * 列顺序即文件中的存储顺序
+     */
+    enum Column {
+        BPM, DURATION, GENRE, MOOD, ID, TITLE, ARTIST, ARTIST_REF, ALBUM, ALBUM_REF, COVER, COVER_REF
+    }
+
+    private final Path file;
+    private final int size;
+    private final TagDictionary genres = new TagDictionary(MAX_GENRES);
+    private final TagDictionary moods = new TagDictionary(MAX_MOODS);
+
+    private final IntBuffer bpm;
+    private final IntBuffer duration;
+    private final ByteBuffer genreIds;
+    private final ByteBuffer moodBytes;
+    private final IntBuffer moodInts;
+    private final StringTable ids;
+    private final StringTable titles;
+    private final StringTable artists;
+    private final IntBuffer artistRefs;
+    private final StringTable albums;
+    private final IntBuffer albumRefs;
+    private final StringTable covers;
+    private final IntBuffer coverRefs;
+
+    private ColumnarSongCatalog(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Not a columnar song catalog: " + file);
+        }
+        int version = header.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported columnar catalog version " + version + ": " + file);
+        }
+        this.size = header.readInt();
+        int moodWidth = header.readByte();
+        int genreCount = header.readShort();
+        for (int i = 0; i < genreCount; i++) {
+            genres.register(header.readUTF());
+        }
+        int moodCount = header.readByte();
+        for (int i = 0; i < moodCount; i++) {
+            moods.register(header.readUTF());
+        }
+
+        int columnCount = header.readInt();
+        if (columnCount != Column.values().length) {
+            throw new IOException("Corrupt columnar catalog (expected " + Column.values().length
+                + " columns, found " + columnCount + "): " + file);
+        }
+        Map<Column, ByteBuffer> columns = new EnumMap<>(Column.class);
+        for (Column column : Column.values()) {
+            long offset = header.readLong();
+            long length = header.readLong();
+            columns.put(column, channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+        }
+
+        this.bpm = columns.get(Column.BPM).asIntBuffer();
+        this.duration = columns.get(Column.DURATION).asIntBuffer();
+        this.genreIds = columns.get(Column.GENRE);
+        this.moodBytes = moodWidth == 1 ? columns.get(Column.MOOD) : null;
+        this.moodInts = moodWidth == 1 ? null : columns.get(Column.MOOD).asIntBuffer();
+        this.ids = new StringTable(columns.get(Column.ID));
+        this.titles = new StringTable(columns.get(Column.TITLE));
+        this.artists = new StringTable(columns.get(Column.ARTIST));
+        this.artistRefs = columns.get(Column.ARTIST_REF).asIntBuffer();
+        this.albums = new StringTable(columns.get(Column.ALBUM));
+        this.albumRefs = columns.get(Column.ALBUM_REF).asIntBuffer();
+        this.covers = new StringTable(columns.get(Column.COVER));
+        this.coverRefs = columns.get(Column.COVER_REF).asIntBuffer();
+    }
+
+    /**
+     * 映射曲库文件（映射建立后文件句柄即关闭，映射在对象回收前一直有效）
+     */
+    public static ColumnarSongCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ColumnarSongCatalog(file, channel);
+        }
+    }
+
+    /**
+     * 判断文件是否为列式曲库（检查文件头 magic）
+     */
+    public static boolean isCatalogFile(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int bpm(int ordinal) {
+        return bpm.get(ordinal);
+    }
+
+    @Override
+    public int genreId(int ordinal) {
+        int id = genreIds.get(ordinal) & 0xFF;
+        return id == NO_GENRE ? TagDictionary.NONE : id;
+    }
+
+    @Override
+    public int moodMask(int ordinal) {
+        return moodBytes != null ? moodBytes.get(ordinal) & 0xFF : moodInts.get(ordinal);
+    }
+
+    @Override
+    public String id(int ordinal) {
+        return ids.get(ordinal);
+    }
+
+    @Override
+    public Song song(int ordinal) {
+        return new Song(
+            ids.get(ordinal),
+            titles.get(ordinal),
+            artists.get(artistRefs.get(ordinal)),
+            albums.get(albumRefs.get(ordinal)),
+            duration.get(ordinal),
+            bpm.get(ordinal),
+            genres.name(genreId(ordinal)),
+            moodNames(moodMask(ordinal)),
+            covers.get(coverRefs.get(ordinal))
+        );
+    }
+
+    @Override
+    public TagDictionary genres() {
+        return genres;
+    }
+
+    @Override
+    public TagDictionary moods() {
+        return moods;
+    }
+
+    private List<String> moodNames(int mask) {
+        if (mask == 0) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>(Integer.bitCount(mask));
+        while (mask != 0) {
+            names.add(moods.name(Integer.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+        }
+        return names;
+    }
+
+    /**
+     * 映射区中的字符串表：int entries, int[entries] 结束偏移, UTF-8 字节
+     */
+    private static final class StringTable {
+
+        private final ByteBuffer buffer;
+        private final int entries;
+        private final int dataStart;
+
+        private StringTable(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.entries = buffer.getInt(0);
+            this.dataStart = Integer.BYTES * (1 + entries);
+        }
+
+        /**
+         * 读取第 entry 项，entry 为 -1 时返回 null（仅使用绝对位置读取，线程安全）
+         */
+        private String get(int entry) {
+            if (entry < 0) {
+                return null;
+            }
+            int start = entry == 0 ? 0 : buffer.getInt(Integer.BYTES * entry);
+            int end = buffer.getInt(Integer.BYTES * (entry + 1));
+            byte[] bytes = new byte[end - start];
+            buffer.get(dataStart + start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
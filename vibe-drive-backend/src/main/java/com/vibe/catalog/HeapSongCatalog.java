@@ -0,0 +1,135 @@
+package com.vibe.catalog;
+
+import com.vibe.model.Song;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 堆内曲库
+ * 持有原始 Song 列表，并在加载时抽取 bpm / 流派 / 情绪列供索引使用；
+ * 可通过 {@link Builder} 逐首追加构建（配合流式解析，不需要先得到完整列表）
+ */
+public final class HeapSongCatalog implements SongCatalog {
+
+    private final List<Song> songs;
+    private final int[] bpm;
+    private final int[] genreIds;
+    private final int[] moodMasks;
+    private final TagDictionary genres;
+    private final TagDictionary moods;
+
+    private HeapSongCatalog(Builder builder) {
+        int size = builder.songs.size();
+        this.songs = Collections.unmodifiableList(builder.songs);
+        this.bpm = Arrays.copyOf(builder.bpm, size);
+        this.genreIds = Arrays.copyOf(builder.genreIds, size);
+        this.moodMasks = Arrays.copyOf(builder.moodMasks, size);
+        this.genres = builder.genres;
+        this.moods = builder.moods;
+    }
+
+    public static HeapSongCatalog of(List<Song> songs) {
+        Builder builder = builder();
+        songs.forEach(builder::add);
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int size() {
+        return songs.size();
+    }
+
+    @Override
+    public int bpm(int ordinal) {
+        return bpm[ordinal];
+    }
+
+    @Override
+    public int genreId(int ordinal) {
+        return genreIds[ordinal];
+    }
+
+    @Override
+    public int moodMask(int ordinal) {
+        return moodMasks[ordinal];
+    }
+
+    @Override
+    public String id(int ordinal) {
+        return songs.get(ordinal).id();
+    }
+
+    @Override
+    public Song song(int ordinal) {
+        return songs.get(ordinal);
+    }
+
+    @Override
+    public TagDictionary genres() {
+        return genres;
+    }
+
+    @Override
+    public TagDictionary moods() {
+        return moods;
+    }
+
+    /**
+     * 增量构建器（非线程安全，build 后不可再使用）
+     */
+    public static final class Builder {
+
+        private final List<Song> songs = new ArrayList<>();
+        private final TagDictionary genres = new TagDictionary(MAX_GENRES);
+        private final TagDictionary moods = new TagDictionary(MAX_MOODS);
+        private int[] bpm = new int[1024];
+        private int[] genreIds = new int[1024];
+        private int[] moodMasks = new int[1024];
+        private boolean built;
+
+        private Builder() {
+        }
+
+        public Builder add(Song song) {
+            if (built) {
+                throw new IllegalStateException("Catalog already built");
+            }
+            int ordinal = songs.size();
+            if (ordinal == bpm.length) {
+                int capacity = ordinal + (ordinal >> 1);
+                bpm = Arrays.copyOf(bpm, capacity);
+                genreIds = Arrays.copyOf(genreIds, capacity);
+                moodMasks = Arrays.copyOf(moodMasks, capacity);
+            }
+            songs.add(song);
+            bpm[ordinal] = song.bpm();
+            genreIds[ordinal] = genres.register(song.genre());
+            int mask = 0;
+            if (song.mood() != null) {
+                for (String tag : song.mood()) {
+                    if (tag != null) {
+                        mask |= 1 << moods.register(tag);
+                    }
+                }
+            }
+            moodMasks[ordinal] = mask;
+            return this;
+        }
+
+        public int size() {
+            return songs.size();
+        }
+
+        public HeapSongCatalog build() {
+            built = true;
+            return new HeapSongCatalog(this);
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.vibe.catalog;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * HNSW 近似最近邻索引（分层可导航小世界图），建在 {@link SongVectors} 的特征点上
+ * - 第 0 层包含全部特征点，每个节点以 1/M 的概率晋升到上一层
+ * - 查询自顶层贪心下降到第 0 层，再在第 0 层以 ef 宽度做最佳优先搜索，ef 越大召回越高、越慢
+ * - 邻居选择使用启发式：候选离已选邻居比离自己更近时跳过，保留方向多样的邻居；
+ *   与已选邻居向量完全相同的候选直接跳过，避免重复向量互相占满邻接表
+ * 第 0 层邻接表平铺在一个 int 数组中（每节点 [数量, 邻居...]），上层邻接表只为晋升节点分配；
+ * 构建时按节点分段加锁并行插入，构建完成后只读，查询无锁
+ */
+public final class HnswIndex {
+
+    public static final int DEFAULT_M = 12;
+    public static final int DEFAULT_EF_CONSTRUCTION = 100;
+
+    private static final int LOCK_STRIPES = 1024;
+    private static final int MAX_LEVEL = 16;
+
+    private final SongVectors vectors;
+    private final int m;
+    private final int m0;
+    private final int efConstruction;
+    private final byte[] levels;
+    private final int[] links0;
+    private final int[][] upperLinks;
+
+    /**
+     * 构建期间的分段锁，构建完成后置空
+     */
+    private Object[] locks;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private HnswIndex(SongVectors vectors, int m, int efConstruction, long seed) {
+        int size = vectors.pointCount();
+        this.vectors = vectors;
+        this.m = m;
+        this.m0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levels = new byte[size];
+        this.links0 = new int[Math.multiplyExact(size, m0 + 1)];
+        this.upperLinks = new int[size][];
+        this.locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+
+        double levelMultiplier = 1.0 / Math.log(m);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int node = 0; node < size; node++) {
+            int level = Math.min(MAX_LEVEL, (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier));
+            levels[node] = (byte) level;
+            if (level > 0) {
+                upperLinks[node] = new int[level * (m + 1)];
+            }
+        }
+    }
+
+    /**
+     * 以默认参数构建
+     */
+    public static HnswIndex build(SongVectors vectors) {
+        return build(vectors, DEFAULT_M, DEFAULT_EF_CONSTRUCTION, 42L);
+    }
+
+    /**
+     * 构建索引（并行插入）
+     *
+     * @param m              上层每节点邻居数，第 0 层为 2m
+     * @param efConstruction 插入时的搜索宽度
+     * @param seed           层级随机种子
+     */
+    public static HnswIndex build(SongVectors vectors, int m, int efConstruction, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("M must be at least 2");
+        }
+        HnswIndex index = new HnswIndex(vectors, m, efConstruction, seed);
+        if (vectors.pointCount() > 0) {
+            index.insert(0);
+            IntStream.range(1, vectors.pointCount()).parallel().forEach(index::insert);
+        }
+        index.locks = null;
+        return index;
+    }
+
+    /**
+     * 特征点数量
+     */
+    public int size() {
+        return levels.length;
+    }
+
+    public SongVectors vectors() {
+        return vectors;
+    }
+
+    /**
+     * 邻接表占用的内存（字节，估算）
+     */
+    public long graphBytes() {
+        long bytes = (long) links0.length * Integer.BYTES + levels.length;
+        for (int[] links : upperLinks) {
+            if (links != null) {
+                bytes += (long) links.length * Integer.BYTES + 16;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 近似 k 近邻歌曲：取最近的特征点并按点展开，点内歌曲不足 k 首时扩大点数重搜
+     *
+     * @param ef   第 0 层搜索宽度
+     * @param seed 会话种子（打散同一特征点内的歌曲）
+     * @param out  结果歌曲序号，按距离从近到远
+     * @return 结果数量
+     */
+    public int nearestSongs(float[] query, int k, int ef, long seed, int[] out) {
+        int want = Math.min(k, size());
+        while (want > 0) {
+            int[] points = new int[want];
+            int count = search(query, want, Math.max(ef, want), points);
+            int songs = 0;
+            for (int i = 0; i < count && songs < k; i++) {
+                songs += vectors.songsAt(points[i]);
+            }
+            if (songs >= k || count < want || want == size()) {
+                return vectors.expand(points, count, k, seed, out);
+            }
+            want = Math.min(size(), want * 2);
+        }
+        return 0;
+    }
+
+    /**
+     * 近似 k 近邻特征点
+     *
+     * @param ef  第 0 层搜索宽度（不小于 k）
+     * @param out 结果特征点，按距离从近到远
+     * @return 结果数量
+     */
+    public int search(float[] query, int k, int ef, int[] out) {
+        int entry;
+        int top;
+        synchronized (this) {
+            entry = entryPoint;
+            top = maxLevel;
+        }
+        if (k <= 0 || entry < 0) {
+            return 0;
+        }
+        int[] buffer = new int[m0];
+        int current = entry;
+        for (int layer = top; layer > 0; layer--) {
+            current = greedy(query, current, layer, buffer);
+        }
+        NodeHeap results = searchLayer(query, current, Math.max(ef, k), 0, buffer);
+        while (results.size() > k) {
+            results.pop();
+        }
+        int count = results.size();
+        float[] distances = new float[count];
+        results.drainAscending(out, distances);
+        return count;
+    }
+
+    private void insert(int node) {
+        int level = levels[node];
+        int entry;
+        int top;
+        synchronized (this) {
+            entry = entryPoint;
+            top = maxLevel;
+            if (entry < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return;
+            }
+        }
+
+        float[] query = vectors.vector(node);
+        int[] buffer = new int[m0];
+        int current = entry;
+        for (int layer = top; layer > level; layer--) {
+            current = greedy(query, current, layer, buffer);
+        }
+        for (int layer = Math.min(level, top); layer >= 0; layer--) {
+            NodeHeap results = searchLayer(query, current, efConstruction, layer, buffer);
+            int[] candidates = new int[results.size()];
+            float[] distances = new float[results.size()];
+            int count = results.drainAscending(candidates, distances);
+
+            int[] selected = new int[m];
+            int selectedCount = selectNeighbors(candidates, distances, count, m, selected);
+            synchronized (lockOf(node)) {
+                writeLinks(node, layer, selected, selectedCount);
+            }
+            int maxLinks = layer == 0 ? m0 : m;
+            for (int i = 0; i < selectedCount; i++) {
+                connect(selected[i], node, layer, maxLinks);
+            }
+            current = candidates[0];
+        }
+
+        if (level > top) {
+            synchronized (this) {
+                if (level > maxLevel) {
+                    maxLevel = level;
+                    entryPoint = node;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把 node 加入 target 的邻接表，超出上限时对原邻居与 node 重新做邻居选择
+     */
+    private void connect(int target, int node, int layer, int maxLinks) {
+        synchronized (lockOf(target)) {
+            int[] links = layer == 0 ? links0 : upperLinks[target];
+            int base = layer == 0 ? target * (m0 + 1) : (layer - 1) * (m + 1);
+            int count = links[base];
+            if (count < maxLinks) {
+                links[base + 1 + count] = node;
+                links[base] = count + 1;
+                return;
+            }
+
+            long[] keyed = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                int neighbor = links[base + 1 + i];
+                keyed[i] = NodeHeap.key(neighbor, vectors.distance(target, neighbor));
+            }
+            keyed[count] = NodeHeap.key(node, vectors.distance(target, node));
+            Arrays.sort(keyed);
+            int[] candidates = new int[keyed.length];
+            float[] distances = new float[keyed.length];
+            for (int i = 0; i < keyed.length; i++) {
+                candidates[i] = NodeHeap.nodeOf(keyed[i]);
+                distances[i] = NodeHeap.distanceOf(keyed[i]);
+            }
+            int[] selected = new int[maxLinks];
+            int selectedCount = selectNeighbors(candidates, distances, keyed.length, maxLinks, selected);
+            writeLinks(target, layer, selected, selectedCount);
+        }
+    }
+
+    /**
+     * 启发式邻居选择，候选需按距离升序
+     */
+    private int selectNeighbors(int[] candidates, float[] distances, int count, int limit, int[] selected) {
+        int selectedCount = 0;
+        for (int i = 0; i < count && selectedCount < limit; i++) {
+            int candidate = candidates[i];
+            boolean keep = true;
+            for (int j = 0; j < selectedCount; j++) {
+                float between = vectors.distance(candidate, selected[j]);
+                if (between < distances[i] || between == 0f) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[selectedCount++] = candidate;
+            }
+        }
+        return selectedCount;
+    }
+
+    private int greedy(float[] query, int entry, int layer, int[] buffer) {
+        int current = entry;
+        float best = vectors.distance(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int count = readLinks(current, layer, buffer);
+            for (int i = 0; i < count; i++) {
+                float distance = vectors.distance(query, buffer[i]);
+                if (distance < best) {
+                    best = distance;
+                    current = buffer[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 单层最佳优先搜索，返回最近的 ef 个节点（最大堆）
+     */
+    private NodeHeap searchLayer(float[] query, int entry, int ef, int layer, int[] buffer) {
+        VisitedSet visited = new VisitedSet(ef * 8);
+        NodeHeap candidates = new NodeHeap(ef * 2, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+        float entryDistance = vectors.distance(query, entry);
+        visited.add(entry);
+        candidates.push(entry, entryDistance);
+        results.push(entry, entryDistance);
+
+        while (candidates.size() > 0) {
+            float distance = candidates.peekDistance();
+            if (results.size() >= ef && distance > results.peekDistance()) {
+                break;
+            }
+            int current = candidates.peekNode();
+            candidates.pop();
+            int count = readLinks(current, layer, buffer);
+            for (int i = 0; i < count; i++) {
+                int neighbor = buffer[i];
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                float neighborDistance = vectors.distance(query, neighbor);
+                if (results.size() < ef || neighborDistance < results.peekDistance()) {
+                    candidates.push(neighbor, neighborDistance);
+                    results.push(neighbor, neighborDistance);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private int readLinks(int node, int layer, int[] buffer) {
+        Object[] stripes = locks;
+        if (stripes == null) {
+            return copyLinks(node, layer, buffer);
+        }
+        synchronized (stripes[node & (LOCK_STRIPES - 1)]) {
+            return copyLinks(node, layer, buffer);
+        }
+    }
+
+    private int copyLinks(int node, int layer, int[] buffer) {
+        int[] links = layer == 0 ? links0 : upperLinks[node];
+        int base = layer == 0 ? node * (m0 + 1) : (layer - 1) * (m + 1);
+        int count = links[base];
+        System.arraycopy(links, base + 1, buffer, 0, count);
+        return count;
+    }
+
+    private void writeLinks(int node, int layer, int[] selected, int count) {
+        int[] links = layer == 0 ? links0 : upperLinks[node];
+        int base = layer == 0 ? node * (m0 + 1) : (layer - 1) * (m + 1);
+        System.arraycopy(selected, 0, links, base + 1, count);
+        links[base] = count;
+    }
+
+    private Object lockOf(int node) {
+        return locks[node & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * (距离, 节点) 二叉堆，打包为 long：非负 float 的位模式与数值同序，放在高 32 位
+     */
+    static final class NodeHeap {
+
+        private final boolean max;
+        private long[] keys;
+        private int size;
+
+        NodeHeap(int capacity, boolean max) {
+            this.keys = new long[Math.max(4, capacity)];
+            this.max = max;
+        }
+
+        static long key(int node, float distance) {
+            return ((long) Float.floatToRawIntBits(distance) << 32) | (node & 0xFFFFFFFFL);
+        }
+
+        static int nodeOf(long key) {
+            return (int) key;
+        }
+
+        static float distanceOf(long key) {
+            return Float.intBitsToFloat((int) (key >>> 32));
+        }
+
+        int size() {
+            return size;
+        }
+
+        int peekNode() {
+            return nodeOf(keys[0]);
+        }
+
+        float peekDistance() {
+            return distanceOf(keys[0]);
+        }
+
+        void push(int node, float distance) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            keys[i] = key(node, distance);
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(keys[i], keys[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        void pop() {
+            keys[0] = keys[--size];
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int child = left + 1 < size && above(keys[left + 1], keys[left]) ? left + 1 : left;
+                if (!above(keys[child], keys[i])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        /**
+         * 按距离升序输出并清空（仅用于最大堆）
+         *
+         * @return 输出数量
+         */
+        int drainAscending(int[] nodes, float[] distances) {
+            int count = size;
+            for (int i = count - 1; i >= 0; i--) {
+                nodes[i] = peekNode();
+                distances[i] = peekDistance();
+                pop();
+            }
+            return count;
+        }
+
+        private boolean above(long a, long b) {
+            return max ? a > b : a < b;
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+        }
+    }
+
+    /**
+     * 开放寻址的 int 集合，只记录本次搜索访问过的节点（内存与访问量成正比，而非曲库大小）
+     */
+    private static final class VisitedSet {
+
+        private int[] slots;
+        private int size;
+
+        VisitedSet(int expected) {
+            slots = new int[Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1];
+            Arrays.fill(slots, -1);
+        }
+
+        /**
+         * @return 首次加入时返回 true
+         */
+        boolean add(int node) {
+            int mask = slots.length - 1;
+            int i = mix(node) & mask;
+            while (slots[i] != -1) {
+                if (slots[i] == node) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            slots[i] = node;
+            if (++size * 2 > slots.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        private void rehash() {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            Arrays.fill(slots, -1);
+            int mask = slots.length - 1;
+            for (int node : old) {
+                if (node != -1) {
+                    int i = mix(node) & mask;
+                    while (slots[i] != -1) {
+                        i = (i + 1) & mask;
+                    }
+                    slots[i] = node;
+                }
+            }
+        }
+
+        private static int mix(int node) {
+            int h = node * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+
+/**
+ * 打分排序条件
+ *
+ * @param mood     目标情绪，null 表示不限
+ * @param bpmRange 目标 BPM 范围（以中心为最佳）
+ * @param genre    目标流派，null / 空白 / "mixed" 表示不限
+ * @param seed     会话种子，用于同分歌曲的打散（不同车辆得到不同的同分排序）
+ */
+public record RankingQuery(
+    String mood,
+    BpmRange bpmRange,
+    String genre,
+    long seed
+) {
+    public RankingQuery {
+        if (bpmRange == null) {
+            throw new IllegalArgumentException("BPM range cannot be null");
+        }
+    }
+
+    /**
+     * 由会话 ID 生成种子，无会话时为 0
+     */
+    public static long seedOf(String sessionId) {
+        if (sessionId == null) {
+            return 0L;
+        }
+        long h = 1125899906842597L;
+        for (int i = 0; i < sessionId.length(); i++) {
+            h = 31 * h + sessionId.charAt(i);
+        }
+        return h;
+    }
+}
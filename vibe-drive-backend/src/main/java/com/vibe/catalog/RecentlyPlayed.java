@@ -0,0 +1,63 @@
+package com.vibe.catalog;
+
+/**
+ * 会话最近播放记录（定长环形缓冲，记录曲库序号）
+ * 序号只在同一曲库变体的序号空间内有效，曲库重载或切换变体后自动清空
+ */
+public final class RecentlyPlayed {
+
+    /**
+     * 无记录
+     */
+    public static final int NONE = -1;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int[] ring;
+    private int next;
+    private int size;
+    private long indexGeneration = -1;
+
+    public RecentlyPlayed(int capacity) {
+        this.ring = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * 当前曲库变体下的最近播放序号（拷贝，供排序时无锁读取）
+     */
+    public synchronized int[] snapshot(CatalogVariant variant) {
+        if (size == 0 || indexGeneration != variant.generation()) {
+            return EMPTY;
+        }
+        int[] copy = new int[size];
+        System.arraycopy(ring, 0, copy, 0, size);
+        return copy;
+    }
+
+    /**
+     * 当前曲库变体下最后记录的序号（上一次推荐的最后一首），无记录时返回 {@link #NONE}
+     */
+    public synchronized int last(CatalogVariant variant) {
+        if (size == 0 || indexGeneration != variant.generation()) {
+            return NONE;
+        }
+        return ring[(next - 1 + ring.length) % ring.length];
+    }
+
+    /**
+     * 记录本次推荐的歌曲（按播放顺序）
+     */
+    public synchronized void record(CatalogVariant variant, int[] ordinals, int count) {
+        long generation = variant.generation();
+        if (indexGeneration != generation) {
+            indexGeneration = generation;
+            next = 0;
+            size = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            ring[next] = ordinals[i];
+            next = (next + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vibe.catalog;
+
+import com.vibe.model.Song;
+
+/**
+ * 曲库（按序号访问的列式视图）
+ * 筛选只读取 bpm / 流派 id / 情绪位掩码等基础列，Song 对象仅在返回结果时按需构造
+ */
+public interface SongCatalog {
+
+    /**
+     * 情绪标签上限（位掩码宽度）
+     */
+    int MAX_MOODS = 32;
+
+    /**
+     * 流派上限（单字节编码）
+     */
+    int MAX_GENRES = 255;
+
+    /**
+     * 歌曲数量
+     */
+    int size();
+
+    /**
+     * 歌曲 BPM
+     */
+    int bpm(int ordinal);
+
+    /**
+     * 流派 id，无流派时返回 {@link TagDictionary#NONE}
+     */
+    int genreId(int ordinal);
+
+    /**
+     * 情绪位掩码（第 i 位对应情绪 id i），0 表示无情绪标签
+     */
+    int moodMask(int ordinal);
+
+    /**
+     * 歌曲 id（默认构造完整 Song 后读取，实现类可直接读取 id 列）
+     */
+    default String id(int ordinal) {
+        return song(ordinal).id();
+    }
+
+    /**
+     * 构造完整的 Song 对象
+     */
+    Song song(int ordinal);
+
+    /**
+     * 流派字典
+     */
+    TagDictionary genres();
+
+    /**
+     * 情绪字典
+     */
+    TagDictionary moods();
+}
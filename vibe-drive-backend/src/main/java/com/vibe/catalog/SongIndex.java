@@ -0,0 +1,116 @@
+package com.vibe.catalog;
+
+import com.vibe.model.Song;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 曲库索引（加载时构建一次，之后只读）
+ * BPM 有序数组：按 BPM 排序的序号，排序器从目标 BPM 二分定位后向两侧扩展
+ */
+public final class SongIndex {
+
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private final long generation = nextGeneration();
+    private final SongCatalog catalog;
+    private final int size;
+
+    private final int[] bpmOrder;
+    private final int[] sortedBpm;
+
+    private SongIndex(SongCatalog catalog) {
+        this.catalog = catalog;
+        this.size = catalog.size();
+        // (bpm, ordinal) 打包排序：同 BPM 按曲库顺序
+        long[] packed = new long[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            packed[ordinal] = (long) catalog.bpm(ordinal) << 32 | ordinal;
+        }
+        Arrays.parallelSort(packed);
+        this.bpmOrder = new int[size];
+        this.sortedBpm = new int[size];
+        for (int i = 0; i < size; i++) {
+            bpmOrder[i] = (int) packed[i];
+            sortedBpm[i] = (int) (packed[i] >>> 32);
+        }
+    }
+
+    public static SongIndex build(SongCatalog catalog) {
+        return new SongIndex(catalog);
+    }
+
+    public SongCatalog catalog() {
+        return catalog;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 索引代次（每次构建递增），用于判断按序号缓存的会话数据是否仍然有效
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * 分配新的序号空间代次（索引与曲库变体共用，保证互不相同）
+     */
+    static long nextGeneration() {
+        return GENERATIONS.incrementAndGet();
+    }
+
+    /**
+     * 索引结构占用的堆内存（BPM 有序数组，不含曲库本身）
+     */
+    public long indexBytes() {
+        return 2L * size * Integer.BYTES;
+    }
+
+    /**
+     * BPM 有序数组第 position 项的歌曲序号
+     */
+    int ordinalAtBpmPosition(int position) {
+        return bpmOrder[position];
+    }
+
+    /**
+     * BPM 有序数组第 position 项的 BPM
+     */
+    int bpmAtPosition(int position) {
+        return sortedBpm[position];
+    }
+
+    /**
+     * 按序号构造 Song 列表
+     */
+    public List<Song> songs(int[] ordinals, int count) {
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            songs.add(catalog.song(ordinals[i]));
+        }
+        return songs;
+    }
+
+    /**
+     * 第一个 BPM >= bpm 的位置
+     */
+    int lowerBound(int bpm) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedBpm[mid] < bpm) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,63 @@
+package com.vibe.catalog;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.Song;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * 曲库 JSON 流式读取
+ * 按 token 定位 {"songs": [...]} 数组，逐首反序列化后交给 sink，不构建整棵 JSON 树
+ */
+public final class SongJsonReader {
+
+    private final ObjectMapper objectMapper;
+
+    public SongJsonReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 读取曲库
+     *
+     * @return 读取的歌曲数量
+     * @throws IOException JSON 格式错误，或 songs 字段缺失 / 不是数组
+     */
+    public int read(InputStream in, Consumer<Song> sink) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Invalid song library format: root is not an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"songs".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.START_ARRAY) {
+                    throw new IOException("Invalid song library format: 'songs' field is not an array");
+                }
+                return readSongs(parser, sink);
+            }
+            throw new IOException("Invalid song library format: 'songs' field is missing");
+        }
+    }
+
+    private int readSongs(JsonParser parser, Consumer<Song> sink) throws IOException {
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Invalid song library format: song #" + count + " is not an object");
+            }
+            sink.accept(objectMapper.readValue(parser, Song.class));
+            count++;
+        }
+        return count;
+    }
+}
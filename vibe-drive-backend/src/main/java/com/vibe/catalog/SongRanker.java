@@ -0,0 +1,306 @@
+package com.vibe.catalog;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 打分 Top-K 选曲
+ * score = BPM 接近度（以目标范围中心为 1，半宽处为 0，范围外继续线性递减）
+ *       + 流派亲和度（同流派 / 相近流派）
+ *       + 情绪重合度（目标情绪 / 无标签 / 相近情绪）
+ *       + 会话抖动（打散同分歌曲）
+ *       - 最近播放惩罚
+ * 候选按 BPM 有序数组从目标中心向两侧展开，剩余候选的分数上界不高于当前第 k 名时提前结束；
+ * 只扫描中心附近的 m 首歌，复杂度 O(m log k)；
+ * 曲库变体在共享的基础索引上跳过下架与加成歌曲，扫描后再逐首补入加成歌曲（加成不放宽提前结束的条件），
+ * 新增歌曲的小索引同样处理，所有部分共用同一个堆
+ */
+public final class SongRanker {
+
+    static final float BPM_WEIGHT = 1.0f;
+    static final float GENRE_WEIGHT = 0.6f;
+    static final float MOOD_WEIGHT = 1.5f;
+    static final float REPEAT_PENALTY = 3.0f;
+    static final float JITTER = 0.02f;
+
+    private static final float RELATED_GENRE = 0.5f;
+    private static final float UNTAGGED_MOOD = 0.5f;
+    private static final float RELATED_MOOD = 0.3f;
+
+    private static final Map<String, Set<String>> RELATED_GENRES = Map.of(
+        "pop", Set.of("rock", "electronic", "r&b"),
+        "rock", Set.of("pop", "folk"),
+        "jazz", Set.of("classical", "ambient", "r&b"),
+        "classical", Set.of("jazz", "ambient", "soundtrack"),
+        "electronic", Set.of("pop", "ambient", "hip-hop"),
+        "ambient", Set.of("classical", "electronic", "jazz"),
+        "folk", Set.of("rock", "pop", "jazz")
+    );
+
+    private static final Map<String, Set<String>> RELATED_MOODS = Map.of(
+        "happy", Set.of("excited"),
+        "excited", Set.of("happy"),
+        "calm", Set.of("tired"),
+        "tired", Set.of("calm"),
+        "stressed", Set.of("calm")
+    );
+
+    private static final int[] NO_RECENT = new int[0];
+
+    private SongRanker() {
+    }
+
+    /**
+     * 选出得分最高的 k 首
+     *
+     * @param recent 需要降权的最近播放序号
+     * @param out    结果序号，按得分从高到低
+     * @return 结果数量
+     */
+    public static int topK(SongIndex index, RankingQuery query, int[] recent, int k, int[] out) {
+        return rank(index, query, recent, true, k, out, null);
+    }
+
+    /**
+     * 选出得分最高的 k 首，同时输出得分
+     *
+     * @param out    结果序号，按得分从高到低
+     * @param scores 对应的得分
+     * @return 结果数量
+     */
+    public static int topK(SongIndex index, RankingQuery query, int[] recent, int k, int[] out, float[] scores) {
+        return rank(index, query, recent, true, k, out, scores);
+    }
+
+    /**
+     * 在曲库变体上选出得分最高的 k 首，同时输出得分（scores 可为 null）
+     *
+     * @param out    结果序号（变体序号空间），按得分从高到低
+     * @return 结果数量
+     */
+    public static int topK(CatalogVariant variant, RankingQuery query, int[] recent, int k, int[] out, float[] scores) {
+        if (k <= 0 || variant.size() == 0) {
+            return 0;
+        }
+        TopKHeap heap = new TopKHeap(Math.min(k, variant.size()));
+        CatalogVariant overlay = variant.hasOverlay() ? variant : null;
+        rank(variant.base(), 0, overlay, query, recent, true, heap);
+        if (variant.additions() != null) {
+            rank(variant.additions(), variant.base().size(), overlay, query, recent, true, heap);
+        }
+        return scores == null ? heap.drainDescending(out) : heap.drainDescending(out, scores);
+    }
+
+    /**
+     * 选出基础得分（不含会话抖动与重复惩罚）最高的 k 首，供物化候选表预先计算
+     *
+     * @param out    结果序号，按得分从高到低
+     * @param scores 对应的基础得分
+     * @return 结果数量
+     */
+    public static int baseTopK(SongIndex index, RankingQuery query, int k, int[] out, float[] scores) {
+        return rank(index, query, NO_RECENT, false, k, out, scores);
+    }
+
+    /**
+     * 在预先计算的候选上叠加会话抖动与重复惩罚后取前 k 首，打分与 {@link #topK} 一致
+     *
+     * @param candidates 候选序号（{@link #baseTopK} 的结果）
+     * @param baseScores 候选基础得分
+     * @param count      候选数量
+     * @param out        结果序号，按得分从高到低
+     * @return 结果数量
+     */
+    public static int rerank(int[] candidates, float[] baseScores, int count, long seed, int[] recent, int k, int[] out) {
+        if (k <= 0 || count == 0) {
+            return 0;
+        }
+        TopKHeap heap = new TopKHeap(Math.min(k, count));
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates[i];
+            float score = baseScores[i] + jitter(seed, ordinal);
+            if (contains(recent, ordinal)) {
+                score -= REPEAT_PENALTY;
+            }
+            if (score > heap.minScore()) {
+                heap.offer(ordinal, score);
+            }
+        }
+        return heap.drainDescending(out);
+    }
+
+    private static int rank(SongIndex index, RankingQuery query, int[] recent, boolean withJitter,
+                            int k, int[] out, float[] scores) {
+        if (k <= 0 || index.size() == 0) {
+            return 0;
+        }
+        TopKHeap heap = new TopKHeap(Math.min(k, index.size()));
+        rank(index, 0, null, query, recent, withJitter, heap);
+        return scores == null ? heap.drainDescending(out) : heap.drainDescending(out, scores);
+    }
+
+    /**
+     * 扫描一个索引，把候选放入 heap
+     *
+     * @param offset  索引序号在结果序号空间中的偏移（变体的新增歌曲排在基础曲库之后）
+     * @param overlay 变体覆盖层（下架 / 加成），基础曲库为 null
+     */
+    private static void rank(SongIndex index, int offset, CatalogVariant overlay, RankingQuery query, int[] recent,
+                             boolean withJitter, TopKHeap heap) {
+        int size = index.size();
+        if (size == 0) {
+            return;
+        }
+        SongCatalog catalog = index.catalog();
+        float[] genreScores = genreScores(catalog.genres(), query.genre());
+        float noGenreScore = isAnyGenre(query.genre()) ? GENRE_WEIGHT : 0f;
+        boolean anyMood = query.mood() == null;
+        int targetMood = moodMask(catalog.moods(), query.mood() == null ? Set.of() : Set.of(query.mood()));
+        int relatedMood = moodMask(catalog.moods(), RELATED_MOODS.getOrDefault(normalize(query.mood()), Set.of()));
+
+        double center = (query.bpmRange().min() + query.bpmRange().max()) / 2.0;
+        double halfWidth = Math.max(1.0, (query.bpmRange().max() - query.bpmRange().min()) / 2.0);
+        float maxBonus = GENRE_WEIGHT + MOOD_WEIGHT + JITTER;
+
+        int hi = index.lowerBound((int) Math.ceil(center));
+        int lo = hi - 1;
+        while (lo >= 0 || hi < size) {
+            int position;
+            if (hi >= size || (lo >= 0 && center - index.bpmAtPosition(lo) <= index.bpmAtPosition(hi) - center)) {
+                position = lo--;
+            } else {
+                position = hi++;
+            }
+            double distance = Math.abs(index.bpmAtPosition(position) - center);
+            float bpmScore = (float) (BPM_WEIGHT * (1.0 - distance / halfWidth));
+            if (bpmScore + maxBonus <= heap.minScore()) {
+                // 后续候选离中心只会更远
+                break;
+            }
+
+            int local = index.ordinalAtBpmPosition(position);
+            int ordinal = offset + local;
+            if (overlay != null && overlay.isAdjusted(ordinal)) {
+                continue;
+            }
+            float jitter = withJitter ? jitter(query.seed(), ordinal) : 0f;
+            if (bpmScore + GENRE_WEIGHT + MOOD_WEIGHT + jitter <= heap.minScore()) {
+                // 同一 BPM 的大量同分歌曲只靠抖动区分，不读流派 / 情绪列即可排除
+                continue;
+            }
+            int genreId = catalog.genreId(local);
+            float score = bpmScore
+                + (genreId == TagDictionary.NONE ? noGenreScore : genreScores[genreId])
+                + (anyMood ? MOOD_WEIGHT : moodScore(catalog.moodMask(local), targetMood, relatedMood))
+                + jitter;
+            offer(heap, ordinal, score, recent);
+        }
+        if (overlay == null) {
+            return;
+        }
+
+        // 加成歌曲（已排除下架的）逐首打分
+        for (int i = overlay.boostIndex(offset); i < overlay.boostCount() && overlay.boostedOrdinal(i) < offset + size; i++) {
+            int ordinal = overlay.boostedOrdinal(i);
+            int local = ordinal - offset;
+            float boost = overlay.boostValue(i);
+            float bpmScore = (float) (BPM_WEIGHT * (1.0 - Math.abs(catalog.bpm(local) - center) / halfWidth));
+            if (bpmScore + GENRE_WEIGHT + MOOD_WEIGHT + JITTER + boost <= heap.minScore()) {
+                continue;
+            }
+            int genreId = catalog.genreId(local);
+            float score = bpmScore
+                + (genreId == TagDictionary.NONE ? noGenreScore : genreScores[genreId])
+                + (anyMood ? MOOD_WEIGHT : moodScore(catalog.moodMask(local), targetMood, relatedMood))
+                + (withJitter ? jitter(query.seed(), ordinal) : 0f)
+                + boost;
+            offer(heap, ordinal, score, recent);
+        }
+    }
+
+    private static void offer(TopKHeap heap, int ordinal, float score, int[] recent) {
+        if (score <= heap.minScore()) {
+            return;
+        }
+        if (contains(recent, ordinal)) {
+            score -= REPEAT_PENALTY;
+            if (score <= heap.minScore()) {
+                return;
+            }
+        }
+        heap.offer(ordinal, score);
+    }
+
+    private static float[] genreScores(TagDictionary genres, String genre) {
+        float[] scores = new float[genres.size()];
+        if (isAnyGenre(genre)) {
+            Arrays.fill(scores, GENRE_WEIGHT);
+            return scores;
+        }
+        int target = genres.idOf(genre);
+        if (target != TagDictionary.NONE) {
+            scores[target] = GENRE_WEIGHT;
+        }
+        for (String related : RELATED_GENRES.getOrDefault(normalize(genre), Set.of())) {
+            int id = genres.idOf(related);
+            if (id != TagDictionary.NONE && id != target) {
+                scores[id] = GENRE_WEIGHT * RELATED_GENRE;
+            }
+        }
+        return scores;
+    }
+
+    private static float moodScore(int mask, int targetMood, int relatedMood) {
+        if (mask == 0) {
+            return MOOD_WEIGHT * UNTAGGED_MOOD;
+        }
+        if ((mask & targetMood) != 0) {
+            return MOOD_WEIGHT;
+        }
+        if ((mask & relatedMood) != 0) {
+            return MOOD_WEIGHT * RELATED_MOOD;
+        }
+        return 0f;
+    }
+
+    private static int moodMask(TagDictionary moods, Set<String> names) {
+        int mask = 0;
+        for (String name : names) {
+            int id = moods.idOf(name);
+            if (id != TagDictionary.NONE) {
+                mask |= 1 << id;
+            }
+        }
+        return mask;
+    }
+
+    private static boolean contains(int[] recent, int ordinal) {
+        for (int played : recent) {
+            if (played == ordinal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 由会话种子与序号确定的 [0, JITTER) 抖动（splitmix64 混合）
+     */
+    private static float jitter(long seed, int ordinal) {
+        long h = seed ^ (ordinal * 0x9E3779B97F4A7C15L);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 40) * 0x1.0p-24f * JITTER;
+    }
+
+    private static boolean isAnyGenre(String genre) {
+        return genre == null || genre.isBlank() || "mixed".equals(genre);
+    }
+
+    private static String normalize(String tag) {
+        return tag == null ? "" : tag.toLowerCase(Locale.ROOT);
+    }
+}
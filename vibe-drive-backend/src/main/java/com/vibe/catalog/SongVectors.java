@@ -0,0 +1,329 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 歌曲特征向量
+ * 每首歌映射为 {@link #DIMENSIONS} 维向量，维度按权重预先缩放，欧氏距离即为相似度：
+ * - 节奏：BPM 线性归一
+ * - 能量：情绪标签的平均能量与节奏能量各占一半（无情绪标签时只看节奏）
+ * - 流派嵌入：4 维（原声 / 电子 / 强度 / 大众），相近流派距离近，未知流派取各流派均值
+ * - 情绪权重：5 个基础情绪各一维，多标签时平分权重
+ * 向量只由 bpm / 流派 id / 情绪位掩码三列决定，三列相同的歌曲共享一个特征点，
+ * 近邻检索在特征点上进行，再按点展开为歌曲
+ */
+public final class SongVectors {
+
+    public static final int DIMENSIONS = 11;
+
+    private static final int TEMPO = 0;
+    private static final int ENERGY = 1;
+    private static final int GENRE = 2;
+    private static final int GENRE_DIMENSIONS = 4;
+    private static final int MOOD = GENRE + GENRE_DIMENSIONS;
+
+    /**
+     * 维度缩放：约 40 BPM 的差距与一次情绪完全不符相当
+     */
+    private static final float TEMPO_SCALE = 1.0f / 40;
+    private static final float ENERGY_SCALE = 0.5f;
+    private static final float GENRE_SCALE = 0.5f;
+    private static final float MOOD_SCALE = 0.7f;
+
+    private static final String[] BASE_MOODS = {"happy", "calm", "tired", "stressed", "excited"};
+
+    private static final Map<String, Float> MOOD_ENERGY = Map.of(
+        "happy", 0.7f,
+        "calm", 0.25f,
+        "tired", 0.1f,
+        "stressed", 0.5f,
+        "excited", 1.0f
+    );
+
+    /**
+     * 流派嵌入：原声、电子、强度、大众
+     */
+    private static final Map<String, float[]> GENRE_EMBEDDINGS = Map.ofEntries(
+        Map.entry("pop", new float[]{0.3f, 0.5f, 0.6f, 1.0f}),
+        Map.entry("rock", new float[]{0.4f, 0.2f, 0.9f, 0.7f}),
+        Map.entry("jazz", new float[]{0.9f, 0.1f, 0.4f, 0.3f}),
+        Map.entry("classical", new float[]{1.0f, 0.0f, 0.3f, 0.2f}),
+        Map.entry("electronic", new float[]{0.0f, 1.0f, 0.8f, 0.6f}),
+        Map.entry("ambient", new float[]{0.5f, 0.7f, 0.1f, 0.1f}),
+        Map.entry("folk", new float[]{0.9f, 0.0f, 0.3f, 0.5f}),
+        Map.entry("r&b", new float[]{0.4f, 0.5f, 0.5f, 0.8f}),
+        Map.entry("hip-hop", new float[]{0.1f, 0.8f, 0.8f, 0.8f}),
+        Map.entry("soundtrack", new float[]{0.8f, 0.3f, 0.5f, 0.4f}),
+        Map.entry("metal", new float[]{0.3f, 0.1f, 1.0f, 0.3f})
+    );
+
+    private static final float[] UNKNOWN_GENRE = mean(GENRE_EMBEDDINGS.values().toArray(float[][]::new));
+
+    /**
+     * 去重后的特征点（按行主序），每个点对应一组歌曲（postings 中 [postingStart[p], postingStart[p + 1]) 区间）
+     */
+    private final float[] data;
+    private final int points;
+    private final int[] postingStart;
+    private final int[] postings;
+
+    private SongVectors(float[] data, int points, int[] postingStart, int[] postings) {
+        this.data = data;
+        this.points = points;
+        this.postingStart = postingStart;
+        this.postings = postings;
+    }
+
+    /**
+     * 按曲库的 bpm / 流派 / 情绪列计算特征点
+     * 三列相同的歌曲向量相同，合并为一个点；曲库标签离散，千万级曲库的特征点通常只有数万个
+     */
+    public static SongVectors build(SongCatalog catalog) {
+        int size = catalog.size();
+        List<Map<Long, Integer>> pointIds = new ArrayList<>();
+        for (int genre = 0; genre <= catalog.genres().size(); genre++) {
+            pointIds.add(new HashMap<>());
+        }
+        int[] pointOf = new int[size];
+        int[] firstSong = new int[Math.min(size, 1024)];
+        int points = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            long key = ((long) catalog.bpm(ordinal) << 32) | (catalog.moodMask(ordinal) & 0xFFFFFFFFL);
+            Map<Long, Integer> ids = pointIds.get(catalog.genreId(ordinal) + 1);
+            Integer point = ids.get(key);
+            if (point == null) {
+                point = points++;
+                ids.put(key, point);
+                if (point == firstSong.length) {
+                    firstSong = Arrays.copyOf(firstSong, point * 2);
+                }
+                firstSong[point] = ordinal;
+            }
+            pointOf[ordinal] = point;
+        }
+
+        int[] postingStart = new int[points + 1];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            postingStart[pointOf[ordinal] + 1]++;
+        }
+        for (int point = 0; point < points; point++) {
+            postingStart[point + 1] += postingStart[point];
+        }
+        int[] postings = new int[size];
+        int[] next = Arrays.copyOf(postingStart, points);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            postings[next[pointOf[ordinal]]++] = ordinal;
+        }
+
+        float[][] genreVectors = genreVectors(catalog.genres());
+        int[] baseMoodOfId = baseMoods(catalog.moods());
+        float[] moodEnergyOfId = moodEnergies(catalog.moods());
+        float[] data = new float[Math.multiplyExact(points, DIMENSIONS)];
+        float[] moodWeights = new float[BASE_MOODS.length];
+        for (int point = 0; point < points; point++) {
+            int ordinal = firstSong[point];
+            int genreId = catalog.genreId(ordinal);
+            int mask = catalog.moodMask(ordinal);
+
+            Arrays.fill(moodWeights, 0f);
+            int tags = Integer.bitCount(mask);
+            float energy = 0f;
+            for (int bits = mask; bits != 0; bits &= bits - 1) {
+                int id = Integer.numberOfTrailingZeros(bits);
+                energy += moodEnergyOfId[id];
+                if (baseMoodOfId[id] >= 0) {
+                    moodWeights[baseMoodOfId[id]] += 1.0f / tags;
+                }
+            }
+            write(data, point * DIMENSIONS, catalog.bpm(ordinal), tags == 0 ? Float.NaN : energy / tags,
+                genreId == TagDictionary.NONE ? UNKNOWN_GENRE : genreVectors[genreId], moodWeights);
+        }
+        return new SongVectors(data, points, postingStart, postings);
+    }
+
+    /**
+     * 由推荐条件构造查询向量
+     *
+     * @param mood     目标情绪，null 时不偏向任何情绪
+     * @param bpmRange 目标 BPM 范围（取中心）
+     * @param genre    目标流派，null / 空白 / "mixed" / 未知流派取各流派均值
+     */
+    public static float[] query(String mood, BpmRange bpmRange, String genre) {
+        float[] moodWeights = new float[BASE_MOODS.length];
+        int base = baseMood(mood);
+        if (base >= 0) {
+            moodWeights[base] = 1f;
+        }
+        Float moodEnergy = mood == null ? null : MOOD_ENERGY.get(mood.toLowerCase(Locale.ROOT));
+        float[] genreVector = genre == null ? UNKNOWN_GENRE
+            : GENRE_EMBEDDINGS.getOrDefault(genre.toLowerCase(Locale.ROOT), UNKNOWN_GENRE);
+
+        float[] vector = new float[DIMENSIONS];
+        int center = (bpmRange.min() + bpmRange.max()) / 2;
+        write(vector, 0, center, moodEnergy == null ? Float.NaN : moodEnergy, genreVector, moodWeights);
+        return vector;
+    }
+
+    /**
+     * 歌曲数量
+     */
+    public int songCount() {
+        return postings.length;
+    }
+
+    /**
+     * 特征点数量
+     */
+    public int pointCount() {
+        return points;
+    }
+
+    /**
+     * 特征点向量（副本）
+     */
+    public float[] vector(int point) {
+        return Arrays.copyOfRange(data, point * DIMENSIONS, (point + 1) * DIMENSIONS);
+    }
+
+    /**
+     * 两个特征点的距离（欧氏距离的平方）
+     */
+    public float distance(int a, int b) {
+        int offsetA = a * DIMENSIONS;
+        int offsetB = b * DIMENSIONS;
+        float sum = 0f;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float diff = data[offsetA + d] - data[offsetB + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * 查询向量与特征点的距离（欧氏距离的平方）
+     */
+    public float distance(float[] query, int point) {
+        int offset = point * DIMENSIONS;
+        float sum = 0f;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float diff = query[d] - data[offset + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * 特征点包含的歌曲数
+     */
+    public int songsAt(int point) {
+        return postingStart[point + 1] - postingStart[point];
+    }
+
+    /**
+     * 精确最近邻（扫描全部特征点），用于召回率评估与基准对照
+     *
+     * @param out 结果歌曲序号，按距离从近到远
+     * @return 结果数量
+     */
+    public int exactNearest(float[] query, int k, long seed, int[] out) {
+        if (k <= 0 || points == 0) {
+            return 0;
+        }
+        // 每个点至少一首歌，最近的 k 个点足以凑满 k 首
+        TopKHeap heap = new TopKHeap(Math.min(k, points));
+        for (int point = 0; point < points; point++) {
+            float score = -distance(query, point);
+            if (score > heap.minScore()) {
+                heap.offer(point, score);
+            }
+        }
+        int[] nearest = new int[Math.min(k, points)];
+        int count = heap.drainDescending(nearest);
+        return expand(nearest, count, k, seed, out);
+    }
+
+    /**
+     * 按特征点由近到远展开为歌曲；同一点内的歌曲距离相同，按种子轮转起点以打散不同会话的结果
+     *
+     * @return 输出歌曲数（不超过 k）
+     */
+    int expand(int[] nearestPoints, int pointCount, int k, long seed, int[] out) {
+        int written = 0;
+        for (int i = 0; i < pointCount && written < k; i++) {
+            int point = nearestPoints[i];
+            int start = postingStart[point];
+            int length = postingStart[point + 1] - start;
+            int offset = (int) Long.remainderUnsigned(seed * 0x9E3779B97F4A7C15L ^ point, length);
+            for (int j = 0; j < length && written < k; j++) {
+                out[written++] = postings[start + (offset + j) % length];
+            }
+        }
+        return written;
+    }
+
+    private static void write(float[] target, int offset, int bpm, float moodEnergy, float[] genre, float[] moods) {
+        float tempoEnergy = Math.clamp((bpm - 50) / 130f, 0f, 1f);
+        float energy = Float.isNaN(moodEnergy) ? tempoEnergy : (moodEnergy + tempoEnergy) / 2;
+        target[offset + TEMPO] = bpm * TEMPO_SCALE;
+        target[offset + ENERGY] = energy * ENERGY_SCALE;
+        for (int d = 0; d < GENRE_DIMENSIONS; d++) {
+            target[offset + GENRE + d] = genre[d] * GENRE_SCALE;
+        }
+        for (int d = 0; d < moods.length; d++) {
+            target[offset + MOOD + d] = moods[d] * MOOD_SCALE;
+        }
+    }
+
+    private static float[][] genreVectors(TagDictionary genres) {
+        float[][] vectors = new float[genres.size()][];
+        for (int id = 0; id < vectors.length; id++) {
+            vectors[id] = GENRE_EMBEDDINGS.getOrDefault(genres.name(id).toLowerCase(Locale.ROOT), UNKNOWN_GENRE);
+        }
+        return vectors;
+    }
+
+    private static int[] baseMoods(TagDictionary moods) {
+        int[] base = new int[moods.size()];
+        for (int id = 0; id < base.length; id++) {
+            base[id] = baseMood(moods.name(id));
+        }
+        return base;
+    }
+
+    private static float[] moodEnergies(TagDictionary moods) {
+        float[] energies = new float[moods.size()];
+        for (int id = 0; id < energies.length; id++) {
+            energies[id] = MOOD_ENERGY.getOrDefault(moods.name(id).toLowerCase(Locale.ROOT), 0.5f);
+        }
+        return energies;
+    }
+
+    private static int baseMood(String mood) {
+        if (mood == null) {
+            return -1;
+        }
+        for (int i = 0; i < BASE_MOODS.length; i++) {
+            if (BASE_MOODS[i].equalsIgnoreCase(mood)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static float[] mean(float[][] vectors) {
+        float[] mean = new float[GENRE_DIMENSIONS];
+        for (float[] vector : vectors) {
+            for (int d = 0; d < GENRE_DIMENSIONS; d++) {
+                mean[d] += vector[d] / vectors.length;
+            }
+        }
+        return mean;
+    }
+}
@@ -0,0 +1,80 @@
+package com.vibe.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 标签字典（流派 / 情绪）
+ * 标签按小写归一后分配 id（与原先 equalsIgnoreCase 的匹配语义一致），id 按首次出现顺序递增；
+ * 保留首次出现时的原始拼写用于还原 Song
+ */
+public final class TagDictionary {
+
+    /**
+     * 无标签 / 未知标签
+     */
+    public static final int NONE = -1;
+
+    private final int capacity;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    public TagDictionary(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * 注册标签并返回 id，已存在时返回原 id
+     *
+     * @throws IllegalStateException 标签数量超过字典容量
+     */
+    int register(String tag) {
+        if (tag == null) {
+            return NONE;
+        }
+        String key = normalize(tag);
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (names.size() >= capacity) {
+            throw new IllegalStateException("Too many distinct tags (max " + capacity + "): " + tag);
+        }
+        ids.put(key, names.size());
+        names.add(tag);
+        return names.size() - 1;
+    }
+
+    /**
+     * 查询标签 id，忽略大小写；未知标签返回 {@link #NONE}
+     */
+    public int idOf(String tag) {
+        if (tag == null) {
+            return NONE;
+        }
+        Integer id = ids.get(normalize(tag));
+        return id != null ? id : NONE;
+    }
+
+    /**
+     * 标签名（首次出现时的拼写）；{@link #NONE} 返回 null
+     */
+    public String name(int id) {
+        return id == NONE ? null : names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private static String normalize(String tag) {
+        return tag.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,107 @@
+package com.vibe.catalog;
+
+/**
+ * 定长最小堆：保留分数最高的 k 个序号（原始类型数组，无装箱）
+ */
+final class TopKHeap {
+
+    private final int[] ordinals;
+    private final float[] scores;
+    private int size;
+
+    TopKHeap(int capacity) {
+        this.ordinals = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    boolean isFull() {
+        return size == ordinals.length;
+    }
+
+    /**
+     * 当前第 k 名的分数（堆未满时为负无穷）
+     */
+    float minScore() {
+        return isFull() ? scores[0] : Float.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * 加入候选；堆满且分数不高于堆顶时忽略
+     */
+    void offer(int ordinal, float score) {
+        if (size < ordinals.length) {
+            int i = size++;
+            ordinals[i] = ordinal;
+            scores[i] = score;
+            siftUp(i);
+        } else if (score > scores[0]) {
+            ordinals[0] = ordinal;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * 按分数从高到低输出并清空堆
+     *
+     * @return 输出数量
+     */
+    int drainDescending(int[] out) {
+        return drainDescending(out, null);
+    }
+
+    /**
+     * 按分数从高到低输出序号与分数并清空堆
+     *
+     * @return 输出数量
+     */
+    int drainDescending(int[] out, float[] outScores) {
+        int count = size;
+        for (int i = count - 1; i >= 0; i--) {
+            out[i] = ordinals[0];
+            if (outScores != null) {
+                outScores[i] = scores[0];
+            }
+            size--;
+            ordinals[0] = ordinals[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return count;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && scores[left + 1] < scores[left] ? left + 1 : left;
+            if (scores[i] <= scores[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
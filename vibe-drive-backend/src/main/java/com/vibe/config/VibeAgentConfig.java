@@ -1,17 +1,30 @@
 package com.vibe.config;
 
+import com.vibe.llm.HedgingStreamingChatModel;
+import com.vibe.llm.LlmHttpClientFactory;
+import com.vibe.llm.LlmTierMetricsListener;
+import com.vibe.llm.ModelRouter;
+import com.vibe.llm.ModelTier;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Vibe Agent 配置类
+ * 每个模型档位（standard / light）各有一个流式与非流式模型 Bean，
+ * 轻量档位未单独配置时沿用标准档位的连接参数；
+ * 启用对冲后流式模型会包装一个指向备用端点的同档位模型
  */
 @Configuration
 public class VibeAgentConfig {
@@ -28,19 +41,93 @@ public class VibeAgentConfig {
     @Value("${langchain4j.open-ai.chat-model.temperature:0.7}")
     private double temperature;
 
+    @Value("${vibe.llm.tiers.standard.input-cost-per-1k:0}")
+    private double standardInputCost;
+
+    @Value("${vibe.llm.tiers.standard.output-cost-per-1k:0}")
+    private double standardOutputCost;
+
+    @Value("${vibe.llm.tiers.light.api-key:${langchain4j.open-ai.chat-model.api-key:demo}}")
+    private String lightApiKey;
+
+    @Value("${vibe.llm.tiers.light.base-url:${langchain4j.open-ai.chat-model.base-url:https://api.openai.com/v1}}")
+    private String lightBaseUrl;
+
+    @Value("${vibe.llm.tiers.light.model-name:${langchain4j.open-ai.chat-model.model-name:gpt-4o-mini}}")
+    private String lightModelName;
+
+    @Value("${vibe.llm.tiers.light.temperature:${langchain4j.open-ai.chat-model.temperature:0.7}}")
+    private double lightTemperature;
+
+    @Value("${vibe.llm.tiers.light.input-cost-per-1k:0}")
+    private double lightInputCost;
+
+    @Value("${vibe.llm.tiers.light.output-cost-per-1k:0}")
+    private double lightOutputCost;
+
+    @Value("${vibe.llm.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${vibe.llm.hedging.delay-ms:800}")
+    private long hedgingDelayMs;
+
+    @Value("${vibe.llm.hedging.secondary.base-url:}")
+    private String secondaryBaseUrl;
+
+    @Value("${vibe.llm.hedging.secondary.api-key:${langchain4j.open-ai.chat-model.api-key:demo}}")
+    private String secondaryApiKey;
+
+    @Value("${vibe.llm.hedging.secondary.model-name:}")
+    private String secondaryModelName;
+
+    private final LlmHttpClientFactory httpClientFactory;
+    private final MeterRegistry meterRegistry;
+    private final ModelRouter modelRouter;
+
+    public VibeAgentConfig(
+            LlmHttpClientFactory httpClientFactory,
+            MeterRegistry meterRegistry,
+            ModelRouter modelRouter) {
+        this.httpClientFactory = httpClientFactory;
+        this.meterRegistry = meterRegistry;
+        this.modelRouter = modelRouter;
+    }
+
     /**
-     * 流式聊天模型
+     * 流式聊天模型（标准档位）
      */
     @Bean
+    @Primary
     public StreamingChatModel streamingChatModel() {
-        return OpenAiStreamingChatModel.builder()
+        StreamingChatModel model = OpenAiStreamingChatModel.builder()
                 .apiKey(apiKey)
                 .baseUrl(baseUrl)
                 .modelName(modelName)
                 .temperature(temperature)
+                .httpClientBuilder(httpClientFactory.newHttpClientBuilder())
+                .listeners(List.of(standardMetricsListener()))
                 .logRequests(true)
                 .logResponses(true)
                 .build();
+        return withHedging(ModelTier.STANDARD, model, modelName, temperature, standardMetricsListener());
+    }
+
+    /**
+     * 流式聊天模型（轻量档位，用于收尾轮等简单轮次）
+     */
+    @Bean
+    public StreamingChatModel lightStreamingChatModel() {
+        StreamingChatModel model = OpenAiStreamingChatModel.builder()
+                .apiKey(lightApiKey)
+                .baseUrl(lightBaseUrl)
+                .modelName(lightModelName)
+                .temperature(lightTemperature)
+                .httpClientBuilder(httpClientFactory.newHttpClientBuilder())
+                .listeners(List.of(lightMetricsListener()))
+                .logRequests(true)
+                .logResponses(true)
+                .build();
+        return withHedging(ModelTier.LIGHT, model, lightModelName, lightTemperature, lightMetricsListener());
     }
 
     /**
@@ -52,17 +139,81 @@ public class VibeAgentConfig {
     }
 
     /**
-     * 非流式聊天模型（用于环境生成等同步调用）
+     * 非流式聊天模型（标准档位）
      */
     @Bean
+    @Primary
     public ChatModel chatModel() {
         return OpenAiChatModel.builder()
                 .apiKey(apiKey)
                 .baseUrl(baseUrl)
                 .modelName(modelName)
                 .temperature(temperature)
+                .httpClientBuilder(httpClientFactory.newHttpClientBuilder())
+                .listeners(List.of(standardMetricsListener()))
+                .logRequests(true)
+                .logResponses(true)
+                .build();
+    }
+
+    /**
+     * 非流式聊天模型（轻量档位，用于环境生成等同步调用）
+     */
+    @Bean
+    public ChatModel lightChatModel() {
+        return OpenAiChatModel.builder()
+                .apiKey(lightApiKey)
+                .baseUrl(lightBaseUrl)
+                .modelName(lightModelName)
+                .temperature(lightTemperature)
+                .httpClientBuilder(httpClientFactory.newHttpClientBuilder())
+                .listeners(List.of(lightMetricsListener()))
+                .logRequests(true)
+                .logResponses(true)
+                .build();
+    }
+
+    /**
+     * 标准档位指标监听器（流式与非流式模型共享同一组指标）
+     */
+    @Bean
+    public LlmTierMetricsListener standardMetricsListener() {
+        return new LlmTierMetricsListener(ModelTier.STANDARD, meterRegistry, modelRouter,
+                standardInputCost, standardOutputCost);
+    }
+
+    /**
+     * 轻量档位指标监听器
+     */
+    @Bean
+    public LlmTierMetricsListener lightMetricsListener() {
+        return new LlmTierMetricsListener(ModelTier.LIGHT, meterRegistry, modelRouter,
+                lightInputCost, lightOutputCost);
+    }
+
+    /**
+     * 启用对冲且配置了备用端点时，包装为对冲模型；备用端点未指定模型名时沿用该档位的模型名
+     */
+    private StreamingChatModel withHedging(
+            ModelTier tier,
+            StreamingChatModel primary,
+            String tierModelName,
+            double tierTemperature,
+            LlmTierMetricsListener metricsListener) {
+        if (!hedgingEnabled || secondaryBaseUrl == null || secondaryBaseUrl.isBlank()) {
+            return primary;
+        }
+        StreamingChatModel secondary = OpenAiStreamingChatModel.builder()
+                .apiKey(secondaryApiKey)
+                .baseUrl(secondaryBaseUrl)
+                .modelName(secondaryModelName == null || secondaryModelName.isBlank() ? tierModelName : secondaryModelName)
+                .temperature(tierTemperature)
+                .httpClientBuilder(httpClientFactory.newHttpClientBuilder())
+                .listeners(List.of(metricsListener))
                 .logRequests(true)
                 .logResponses(true)
                 .build();
+        return new HedgingStreamingChatModel(tier, primary, secondary, Duration.ofMillis(hedgingDelayMs), meterRegistry,
+                metricsListener::requestCancelled);
     }
 }
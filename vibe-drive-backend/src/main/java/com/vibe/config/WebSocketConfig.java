@@ -0,0 +1,56 @@
+package com.vibe.config;
+
+import com.vibe.light.LightFrameWebSocketHandler;
+import com.vibe.ws.EventWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.Arrays;
+
+/**
+ * WebSocket 配置
+ * 二进制推送通道（氛围灯帧、事件）
+ *
+ * 两个端点只凭 sessionId 识别车辆，/ws/events 还接受改变安全模式的上行帧，
+ * 因此握手默认只允许同源；车机以外的来源（如调试页面）需在 vibe.ws.allowed-origins 中显式列出
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LightFrameWebSocketHandler lightFrameHandler;
+    private final EventWebSocketHandler eventHandler;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfig(
+            LightFrameWebSocketHandler lightFrameHandler,
+            EventWebSocketHandler eventHandler,
+            @Value("${vibe.ws.allowed-origins:}") String allowedOrigins) {
+        this.lightFrameHandler = lightFrameHandler;
+        this.eventHandler = eventHandler;
+        this.allowedOrigins = parseOrigins(allowedOrigins);
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // 来源列表为空时 Spring 的来源校验只放行同源握手
+        registry.addHandler(lightFrameHandler, "/ws/light-frames")
+            .setAllowedOriginPatterns(allowedOrigins);
+        registry.addHandler(eventHandler, "/ws/events")
+            .setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    static String[] parseOrigins(String origins) {
+        if (origins == null || origins.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(origins.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .distinct()
+            .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,68 @@
+package com.vibe.controller;
+
+import com.vibe.catalog.CatalogLoadStats;
+import com.vibe.model.api.ApiResponse;
+import com.vibe.model.api.CatalogStatus;
+import com.vibe.service.MusicService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 曲库管理接口
+ */
+@RestController
+@RequestMapping("/api/admin/catalog")
+@Tag(name = "Catalog Admin API", description = "曲库管理")
+public class CatalogAdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogAdminController.class);
+    private static final long RELOAD_WAIT_SECONDS = 300;
+
+    private final MusicService musicService;
+
+    public CatalogAdminController(MusicService musicService) {
+        this.musicService = musicService;
+    }
+
+    @GetMapping
+    @Operation(summary = "曲库状态", description = "返回最近一次加载统计（歌曲数、耗时、堆峰值）、是否正在重载及各曲库变体的覆盖层统计")
+    public ApiResponse<CatalogStatus> status() {
+        return ApiResponse.success(new CatalogStatus(
+            musicService.lastLoadStats(), musicService.isReloading(), musicService.variantStats()));
+    }
+
+    @PostMapping("/reload")
+    @Operation(summary = "重载曲库", description = "后台重新加载曲库并原子替换；wait=true 时等待加载完成后返回统计")
+    public ApiResponse<CatalogStatus> reload(@RequestParam(defaultValue = "false") boolean wait) {
+        log.info("收到曲库重载请求: wait={}", wait);
+        CompletableFuture<CatalogLoadStats> future = musicService.reload();
+        if (!wait) {
+            return status();
+        }
+
+        try {
+            CatalogLoadStats stats = future.get(RELOAD_WAIT_SECONDS, TimeUnit.SECONDS);
+            return ApiResponse.success(new CatalogStatus(stats, musicService.isReloading(), musicService.variantStats()));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return ApiResponse.internalError("曲库重载失败: " + cause.getMessage());
+        } catch (TimeoutException e) {
+            return ApiResponse.internalError("曲库重载超时，仍在后台进行");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ApiResponse.internalError("曲库重载等待被中断");
+        }
+    }
+}
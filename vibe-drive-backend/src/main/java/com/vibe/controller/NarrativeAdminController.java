@@ -0,0 +1,48 @@
+package com.vibe.controller;
+
+import com.vibe.model.api.ApiResponse;
+import com.vibe.narrative.NarrativeTemplateEngine;
+import com.vibe.narrative.NarrativeTemplatePack;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 叙事模板管理接口
+ */
+@RestController
+@RequestMapping("/api/admin/narrative")
+@Tag(name = "Narrative Admin API", description = "叙事模板管理")
+public class NarrativeAdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(NarrativeAdminController.class);
+
+    private final NarrativeTemplateEngine templateEngine;
+
+    public NarrativeAdminController(NarrativeTemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+    }
+
+    @GetMapping
+    @Operation(summary = "模板包状态", description = "返回当前叙事模板包的名称、来源、规则数与模板数")
+    public ApiResponse<NarrativeTemplatePack.Stats> status() {
+        return ApiResponse.success(templateEngine.pack().stats());
+    }
+
+    @PostMapping("/reload")
+    @Operation(summary = "重载模板包", description = "重新加载并编译叙事模板包后原子替换；失败时继续使用当前模板包")
+    public ApiResponse<NarrativeTemplatePack.Stats> reload() {
+        log.info("收到叙事模板重载请求");
+        try {
+            return ApiResponse.success(templateEngine.reload().stats());
+        } catch (Exception e) {
+            log.error("叙事模板重载失败，继续使用当前模板包: {}", e.getMessage(), e);
+            return ApiResponse.internalError("叙事模板重载失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.vibe.controller;
+
+import com.vibe.tts.TtsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 叙事语音下载接口
+ * 方案中 narrative.audio.url 指向这里；音频按内容寻址，同一 hash 的内容永不变化，可被车机与中间缓存长期缓存。
+ * 响应体直接从内存映射的只读缓冲区写出，不把整段音频复制到堆上
+ */
+@RestController
+@RequestMapping("/api/vibe/tts")
+@Tag(name = "TTS API", description = "预合成叙事语音")
+public class TtsController {
+
+    private static final long MAX_AGE_DAYS = 365;
+
+    private final TtsService ttsService;
+
+    public TtsController(TtsService ttsService) {
+        this.ttsService = ttsService;
+    }
+
+    @GetMapping("/{hash}")
+    @Operation(summary = "下载叙事语音", description = "按内容地址返回预合成的语音音频；已被淘汰或不存在时返回 404，车机回退到本地合成")
+    public ResponseEntity<StreamingResponseBody> audio(@PathVariable String hash) {
+        ByteBuffer audio = ttsService.audio(hash);
+        if (audio == null) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            WritableByteChannel channel = Channels.newChannel(out);
+            while (audio.hasRemaining()) {
+                channel.write(audio);
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(ttsService.mimeType()))
+            .contentLength(audio.remaining())
+            .cacheControl(CacheControl.maxAge(MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic().immutable())
+            .eTag('"' + hash + '"')
+            .body(body);
+    }
+}
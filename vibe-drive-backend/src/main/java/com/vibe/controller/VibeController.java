@@ -3,6 +3,7 @@ package com.vibe.controller;
 import com.vibe.agent.EnvironmentAgent;
 import com.vibe.agent.EnvironmentAgentFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.light.LightCueScheduler;
 import com.vibe.model.Environment;
 import com.vibe.model.api.*;
 import com.vibe.model.event.AgentStatusChangedEvent;
@@ -13,7 +14,9 @@ import com.vibe.model.event.SafetyModeChangedEvent;
 import com.vibe.model.enums.SafetyMode;
 import com.vibe.orchestration.dto.VibeDialogRequest;
 import com.vibe.orchestration.dto.VibeDialogResult;
+import com.vibe.orchestration.service.DialogRejectedException;
 import com.vibe.orchestration.service.VibeDialogService;
+import com.vibe.service.SessionVariantStore;
 import com.vibe.sse.SseEventPublisher;
 import com.vibe.status.VibeSessionStatusStore;
 import io.swagger.v3.oas.annotations.Operation;
@@ -44,6 +47,8 @@ public class VibeController {
     private final ObjectMapper objectMapper;
     private final EnvironmentSimulator environmentSimulator;
     private final EnvironmentAgent environmentAgent;
+    private final SessionVariantStore sessionVariants;
+    private final LightCueScheduler lightCues;
 
     public VibeController(
             VibeDialogService dialogService,
@@ -51,13 +56,17 @@ public class VibeController {
             SseEventPublisher eventPublisher,
             ObjectMapper objectMapper,
             EnvironmentSimulator environmentSimulator,
-            EnvironmentAgentFactory environmentAgentFactory) {
+            EnvironmentAgentFactory environmentAgentFactory,
+            SessionVariantStore sessionVariants,
+            LightCueScheduler lightCues) {
         this.dialogService = dialogService;
         this.statusStore = statusStore;
         this.eventPublisher = eventPublisher;
         this.objectMapper = objectMapper;
         this.environmentSimulator = environmentSimulator;
         this.environmentAgent = environmentAgentFactory.createAgent();
+        this.sessionVariants = sessionVariants;
+        this.lightCues = lightCues;
     }
 
     @PostMapping("/analyze")
@@ -66,6 +75,12 @@ public class VibeController {
         log.info("收到分析请求: sessionId={}", request.sessionId());
 
         try {
+            // 车辆元数据中的曲库变体（地区 / 车型），之后该会话的音乐推荐都在该变体上进行
+            Object variant = request.getPreference(SessionVariantStore.PREFERENCE_KEY, null);
+            if (variant != null) {
+                sessionVariants.assign(request.sessionId(), variant.toString());
+            }
+
             // 转换为内部请求格式
             String preferences = null;
             if (request.hasPreferences()) {
@@ -89,6 +104,7 @@ public class VibeController {
                     SafetyModeChangedEvent.EVENT_TYPE,
                     new SafetyModeChangedEvent(previousStatus.currentSafetyMode(), safetyMode, request.environment().speed())
                 );
+                lightCues.onSafetyModeChanged(request.sessionId(), safetyMode);
             }
 
             statusStore.put(request.sessionId(), VibeStatus.processing(
@@ -116,6 +132,7 @@ public class VibeController {
                 ));
                 if (result.plan() != null) {
                     eventPublisher.publish(request.sessionId(), AmbienceChangedEvent.EVENT_TYPE, AmbienceChangedEvent.fromUserRequest(result.plan()));
+                    lightCues.apply(request.sessionId(), result.plan());
                 }
                 eventPublisher.publish(request.sessionId(), AgentStatusChangedEvent.EVENT_TYPE, AgentStatusChangedEvent.stopped());
 
@@ -155,6 +172,17 @@ public class VibeController {
         } catch (ExecutionException e) {
             Throwable cause = e.getCause();
             String message = cause != null ? cause.getMessage() : e.getMessage();
+            if (cause instanceof DialogRejectedException rejected) {
+                log.warn("分析请求被拒绝: sessionId={}, reason={}", request.sessionId(), rejected.getReason());
+                statusStore.put(request.sessionId(), VibeStatus.completed(
+                    request.sessionId(),
+                    SafetyMode.fromSpeed(request.environment().speed()),
+                    statusStore.getOrInitial(request.sessionId()).currentPlan(),
+                    request.environment()
+                ));
+                eventPublisher.publish(request.sessionId(), AgentStatusChangedEvent.EVENT_TYPE, AgentStatusChangedEvent.stopped());
+                return ApiResponse.agentBusy(message);
+            }
             log.error("分析执行错误: sessionId={}", request.sessionId(), cause != null ? cause : e);
             statusStore.put(request.sessionId(), VibeStatus.completed(
                 request.sessionId(),
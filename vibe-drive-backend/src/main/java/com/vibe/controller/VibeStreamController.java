@@ -1,17 +1,23 @@
 package com.vibe.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.light.LightCueScheduler;
 import com.vibe.model.AmbiencePlan;
 import com.vibe.model.Environment;
+import com.vibe.model.Narrative;
 import com.vibe.model.event.AgentStatusChangedEvent;
 import com.vibe.model.event.AmbienceChangedEvent;
+import com.vibe.model.event.ErrorEvent;
+import com.vibe.model.event.NarrativeSentenceEvent;
 import com.vibe.model.event.SafetyModeChangedEvent;
 import com.vibe.model.enums.SafetyMode;
 import com.vibe.model.api.VibeStatus;
 import com.vibe.orchestration.callback.SseVibeCallback;
 import com.vibe.orchestration.callback.VibeStreamCallback;
 import com.vibe.orchestration.dto.VibeDialogRequest;
+import com.vibe.orchestration.service.DialogRejectedException;
 import com.vibe.orchestration.service.VibeDialogService;
+import com.vibe.service.NarrativeStreamService;
 import com.vibe.sse.SseEventPublisher;
 import com.vibe.status.VibeSessionStatusStore;
 import dev.langchain4j.model.chat.response.ChatResponse;
@@ -35,21 +41,29 @@ public class VibeStreamController {
 
     private static final Logger log = LoggerFactory.getLogger(VibeStreamController.class);
     private static final long SSE_TIMEOUT = 5 * 60 * 1000L; // 5 minutes
+    // 事件订阅不设容器超时：心跳与空闲超时由 SseEventPublisher 按连接在时间轮上处理
+    private static final long EVENTS_TIMEOUT = 0L;
 
     private final VibeDialogService dialogService;
     private final SseEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
     private final VibeSessionStatusStore statusStore;
+    private final LightCueScheduler lightCues;
+    private final NarrativeStreamService narrativeStreamService;
 
     public VibeStreamController(
             VibeDialogService dialogService,
             SseEventPublisher eventPublisher,
             ObjectMapper objectMapper,
-            VibeSessionStatusStore statusStore) {
+            VibeSessionStatusStore statusStore,
+            LightCueScheduler lightCues,
+            NarrativeStreamService narrativeStreamService) {
         this.dialogService = dialogService;
         this.eventPublisher = eventPublisher;
         this.objectMapper = objectMapper;
         this.statusStore = statusStore;
+        this.lightCues = lightCues;
+        this.narrativeStreamService = narrativeStreamService;
     }
 
     @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -77,6 +91,7 @@ public class VibeStreamController {
                 SafetyModeChangedEvent.EVENT_TYPE,
                 new SafetyModeChangedEvent(previousStatus.currentSafetyMode(), safetyMode, environment.speed())
             );
+            lightCues.onSafetyModeChanged(sessionId, safetyMode);
         }
 
         // 更新会话状态：处理中
@@ -116,6 +131,7 @@ public class VibeStreamController {
                 if (plan != null) {
                     statusStore.put(sessionId, VibeStatus.completed(sessionId, plan.safetyMode(), plan, environment));
                     eventPublisher.publish(sessionId, AmbienceChangedEvent.EVENT_TYPE, AmbienceChangedEvent.fromUserRequest(plan));
+                    lightCues.apply(sessionId, plan);
                 } else {
                     statusStore.put(sessionId, VibeStatus.completed(sessionId, safetyMode, previousStatus.currentPlan(), environment));
                 }
@@ -144,18 +160,64 @@ public class VibeStreamController {
         return emitter;
     }
 
+    @PostMapping(value = "/narrative/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "流式叙事", description = "由模型流式生成叙事，每切出一句推送 narrative_sentence 事件（含预合成语音），最后推送 complete")
+    public SseEmitter narrativeStream(
+            @RequestParam String sessionId,
+            @RequestBody Environment environment,
+            @RequestParam(required = false) String currentSong,
+            @RequestParam(required = false) String theme,
+            @RequestParam(defaultValue = "true") boolean tts) {
+
+        log.info("开始流式叙事: sessionId={}, tts={}", sessionId, tts);
+
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
+        emitter.onTimeout(() -> log.warn("流式叙事 SSE 超时: sessionId={}", sessionId));
+        emitter.onError(e -> log.warn("流式叙事 SSE 错误: sessionId={}, error={}", sessionId, e.getMessage()));
+
+        narrativeStreamService.stream(sessionId, environment, currentSong, theme, tts, new NarrativeStreamService.Listener() {
+            @Override
+            public void onSentence(NarrativeSentenceEvent event) {
+                sendEvent(emitter, NarrativeSentenceEvent.EVENT_TYPE, event);
+            }
+
+            @Override
+            public void onComplete(Narrative narrative) {
+                sendEvent(emitter, "complete", narrative);
+                emitter.complete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                if (error instanceof DialogRejectedException rejected) {
+                    log.warn("流式叙事准入拒绝: sessionId={}, reason={}", sessionId, rejected.getReason());
+                    sendEvent(emitter, ErrorEvent.EVENT_TYPE, ErrorEvent.agentBusy(rejected.getMessage()));
+                    emitter.complete();
+                    return;
+                }
+                log.error("流式叙事失败: sessionId={}", sessionId, error);
+                sendEvent(emitter, ErrorEvent.EVENT_TYPE,
+                    ErrorEvent.llmError(error != null ? error.getMessage() : "Unknown error"));
+                emitter.complete();
+            }
+        });
+
+        return emitter;
+    }
+
     @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(summary = "订阅事件", description = "订阅实时事件（氛围变化、安全模式变化等）")
     public SseEmitter subscribeEvents(
             @RequestParam String sessionId,
-            @RequestParam(required = false) Set<String> topics) {
+            @RequestParam(required = false) Set<String> topics,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
 
-        log.info("订阅事件: sessionId={}, topics={}", sessionId, topics);
+        log.info("订阅事件: sessionId={}, topics={}, lastEventId={}", sessionId, topics, lastEventId);
 
-        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
+        SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT);
 
-        // 注册到事件发布器
-        eventPublisher.register(sessionId, emitter, topics);
+        // 注册到事件发布器；重连时补发 Last-Event-ID 之后的事件
+        eventPublisher.register(sessionId, emitter, topics, lastEventId);
 
         // 设置回调
         emitter.onCompletion(() -> {
@@ -173,4 +235,14 @@ public class VibeStreamController {
 
         return emitter;
     }
+
+    private void sendEvent(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event()
+                .name(eventName)
+                .data(objectMapper.writeValueAsString(data)));
+        } catch (Exception e) {
+            log.warn("Failed to send SSE event: {}", eventName, e);
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package com.vibe.light;
+
+import com.vibe.model.Song;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 歌曲节拍网格
+ * 按 BPM 与时长预先算出每一拍相对歌曲开头的毫秒偏移（四舍五入到毫秒，不随拍数累积误差），
+ * 按 4/4 拍划分小节；网格只取决于 (BPM, 时长)，相同组合的歌曲共享同一个实例
+ */
+public final class BeatGrid {
+
+    public static final int BEATS_PER_BAR = 4;
+
+    /**
+     * 共享缓存的上限；曲库中 (BPM, 时长) 组合通常只有几千种
+     */
+    private static final int MAX_CACHED = 8192;
+    private static final Map<Long, BeatGrid> CACHE = new ConcurrentHashMap<>();
+
+    private final int bpm;
+    private final int beatMillis;
+    private final int[] offsets;
+
+    private BeatGrid(int bpm, int durationSeconds) {
+        this.bpm = bpm;
+        this.beatMillis = Math.round(60_000f / bpm);
+        int count = (int) ((long) durationSeconds * bpm / 60);
+        this.offsets = new int[count];
+        for (int beat = 0; beat < count; beat++) {
+            offsets[beat] = (int) Math.round(beat * 60_000.0 / bpm);
+        }
+    }
+
+    /**
+     * 歌曲的节拍网格；BPM 或时长未知（为 0）时返回 null
+     */
+    public static BeatGrid of(Song song) {
+        return of(song.bpm(), song.duration());
+    }
+
+    public static BeatGrid of(int bpm, int durationSeconds) {
+        if (bpm <= 0 || durationSeconds <= 0) {
+            return null;
+        }
+        long key = (long) bpm << 32 | durationSeconds;
+        BeatGrid cached = CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        BeatGrid grid = new BeatGrid(bpm, durationSeconds);
+        if (CACHE.size() < MAX_CACHED) {
+            BeatGrid existing = CACHE.putIfAbsent(key, grid);
+            return existing != null ? existing : grid;
+        }
+        return grid;
+    }
+
+    public int bpm() {
+        return bpm;
+    }
+
+    /**
+     * 拍长（毫秒）
+     */
+    public int beatMillis() {
+        return beatMillis;
+    }
+
+    public int beatCount() {
+        return offsets.length;
+    }
+
+    /**
+     * 第 beat 拍相对歌曲开头的毫秒偏移
+     */
+    public int offsetMillis(int beat) {
+        return offsets[beat];
+    }
+}
@@ -0,0 +1,212 @@
+package com.vibe.light;
+
+import com.vibe.model.AmbiencePlan;
+import com.vibe.model.LightSetting;
+import com.vibe.model.Song;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.service.LightService;
+import com.vibe.timer.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 音乐节拍灯光提示调度器
+ * 方案下发后按推荐歌单为每首歌取预计算的节拍网格（{@link BeatGrid}），在每个小节的强拍把该会话的
+ * 脉冲 / 呼吸相位重新锚定到节拍上，两次提示之间由帧引擎按拍长外推；
+ * 所有会话的提示挂在同一个共享时间轮上，每个会话只有一个可复用的定时任务
+ *
+ * 假定方案下发时开始播放歌单第一首，之后按歌曲时长依次切换；
+ * 只有安全模式允许动态灯光（L1）且灯光模式为脉冲或呼吸时才调度，否则取消节拍同步；
+ * 安全模式变化时按新模式重新过滤方案灯光下发给帧引擎（L2 转为静态、L3 熄灭），回到 L1 时恢复方案灯光（不恢复节拍同步）
+ */
+@Component
+public class LightCueScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LightCueScheduler.class);
+
+    private final TimingWheel timingWheel;
+    private final LightFrameEngine frameEngine;
+    private final LightService lightService;
+    private final Map<String, SessionCues> sessions = new ConcurrentHashMap<>();
+    /**
+     * 会话方案中的灯光（未按之后的安全模式变化过滤）及最近一次下发时的安全模式
+     */
+    private final Map<String, PlanLight> planLights = new ConcurrentHashMap<>();
+    private final Counter cues;
+
+    public LightCueScheduler(TimingWheel timingWheel, LightFrameEngine frameEngine, LightService lightService,
+                             MeterRegistry meterRegistry) {
+        this.timingWheel = timingWheel;
+        this.frameEngine = frameEngine;
+        this.lightService = lightService;
+        this.cues = meterRegistry.counter("vibe.light.cues");
+        meterRegistry.gauge("vibe.light.cue.sessions", sessions, Map::size);
+    }
+
+    /**
+     * 应用方案：更新帧引擎中的灯光设置，并按方案中的歌单重新调度节拍提示
+     */
+    public void apply(String sessionId, AmbiencePlan plan) {
+        apply(sessionId, plan, System.currentTimeMillis());
+    }
+
+    void apply(String sessionId, AmbiencePlan plan, long startMillis) {
+        LightSetting light = plan != null ? plan.light() : null;
+        if (light != null) {
+            planLights.put(sessionId, new PlanLight(light, plan.safetyMode()));
+        } else {
+            planLights.remove(sessionId);
+        }
+        frameEngine.apply(sessionId, light);
+        if (plan == null || !isBeatSynced(plan.safetyMode(), light) || !plan.hasMusic()) {
+            stop(sessionId);
+            return;
+        }
+        List<Song> songs = plan.music().songs();
+        BeatGrid[] grids = new BeatGrid[songs.size()];
+        // songStarts 多一格：歌单结束时刻
+        long[] songStarts = new long[songs.size() + 1];
+        songStarts[0] = startMillis;
+        for (int i = 0; i < songs.size(); i++) {
+            grids[i] = BeatGrid.of(songs.get(i));
+            songStarts[i + 1] = songStarts[i] + songs.get(i).duration() * 1000L;
+        }
+        SessionCues session = sessions.computeIfAbsent(sessionId, SessionCues::new);
+        synchronized (session) {
+            session.grids = grids;
+            session.songStarts = songStarts;
+            session.song = 0;
+            session.beat = 0;
+            scheduleNext(session);
+        }
+        log.debug("调度节拍灯光: sessionId={}, songs={}, firstBpm={}", sessionId, songs.size(), songs.get(0).bpm());
+    }
+
+    /**
+     * 安全模式变化：不再允许动态灯光时立即取消节拍同步，并把按新模式过滤后的方案灯光下发给帧引擎
+     * （帧引擎只渲染收到的设置，不过滤的话脉冲 / 呼吸会在 L2、L3 下继续按固定周期闪烁）
+     */
+    public void onSafetyModeChanged(String sessionId, SafetyMode safetyMode) {
+        if (safetyMode == null || !safetyMode.allowsDynamicLighting()) {
+            stop(sessionId);
+        }
+        if (safetyMode == null) {
+            return;
+        }
+        PlanLight current = planLights.get(sessionId);
+        if (current == null || current.safetyMode() == safetyMode) {
+            return;
+        }
+        if (planLights.replace(sessionId, current, new PlanLight(current.light(), safetyMode))) {
+            frameEngine.apply(sessionId, lightService.applySafetyFilter(current.light(), safetyMode));
+        }
+    }
+
+    /**
+     * 取消会话的节拍提示
+     */
+    public void stop(String sessionId) {
+        SessionCues session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            session.grids = null;
+            timingWheel.cancel(session);
+        }
+        frameEngine.clearBeat(sessionId);
+    }
+
+    /**
+     * 正在调度节拍提示的会话数
+     */
+    public int activeSessions() {
+        return sessions.size();
+    }
+
+    private static boolean isBeatSynced(SafetyMode safetyMode, LightSetting light) {
+        return safetyMode != null && safetyMode.allowsDynamicLighting() && light != null
+            && (light.mode() == LightMode.PULSE || light.mode() == LightMode.BREATHING);
+    }
+
+    /**
+     * 调度当前位置（song, beat）起的下一个强拍；BPM 未知的歌曲在其开始时、歌单在结束时各调度一次以取消节拍同步
+     */
+    private void scheduleNext(SessionCues session) {
+        while (session.song < session.grids.length) {
+            BeatGrid grid = session.grids[session.song];
+            if (grid == null) {
+                timingWheel.schedule(session, session.songStarts[session.song]);
+                return;
+            }
+            if (session.beat < grid.beatCount()) {
+                timingWheel.schedule(session, session.songStarts[session.song] + grid.offsetMillis(session.beat));
+                return;
+            }
+            session.song++;
+            session.beat = 0;
+        }
+        timingWheel.schedule(session, session.songStarts[session.grids.length]);
+    }
+
+    /**
+     * 强拍到期：锚定相位后前进一小节
+     */
+    private void fire(SessionCues session) {
+        synchronized (session) {
+            if (session.grids == null) {
+                return;
+            }
+            if (session.song >= session.grids.length) {
+                // 歌单放完
+                sessions.remove(session.sessionId, session);
+                frameEngine.clearBeat(session.sessionId);
+                return;
+            }
+            BeatGrid grid = session.grids[session.song];
+            if (grid == null) {
+                frameEngine.clearBeat(session.sessionId);
+                session.song++;
+                session.beat = 0;
+                scheduleNext(session);
+                return;
+            }
+            long beatAt = session.songStarts[session.song] + grid.offsetMillis(session.beat);
+            frameEngine.syncBeat(session.sessionId, beatAt, grid.beatMillis(), 0);
+            cues.increment();
+            session.beat += BeatGrid.BEATS_PER_BAR;
+            scheduleNext(session);
+        }
+    }
+
+    private record PlanLight(LightSetting light, SafetyMode safetyMode) {}
+
+    /**
+     * 会话的节拍提示状态，同时是时间轮上可复用的定时任务
+     */
+    private final class SessionCues extends TimingWheel.Timeout {
+
+        private final String sessionId;
+        private BeatGrid[] grids;
+        private long[] songStarts;
+        private int song;
+        private int beat;
+
+        private SessionCues(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        protected void expire(long tickMillis) {
+            fire(this);
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.vibe.light;
+
+import com.vibe.model.AmbiencePlan;
+import com.vibe.model.LightSetting;
+import com.vibe.status.VibeSessionStatusStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 氛围灯帧引擎
+ * 服务端按固定帧率为每个已订阅的会话渲染分区（或灯珠）级的颜色与亮度帧，通过二进制 WebSocket 推送，
+ * 客户端只负责显示，动态效果在各分区、各车辆间保持同步
+ *
+ * 帧预算：
+ * - 每个槽位（车辆）的帧缓冲、ByteBuffer 与 BinaryMessage 在启动时一次性分配，渲染与发送不分配对象
+ * - 渲染线程每帧只做内存计算，发送交给发送线程池；槽位按 {@value #STRIPE_SLOTS} 个一组分片，
+ *   上一帧还没发完的分片本帧跳过（丢帧并计数），慢连接只影响所在分片，不会拖慢渲染节拍
+ * - 某个发送阻塞超过 stall-timeout-ms 时关闭该连接，释放发送线程
+ */
+@Component
+public class LightFrameEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LightFrameEngine.class);
+
+    /**
+     * 每个发送分片的槽位数
+     */
+    static final int STRIPE_SLOTS = 256;
+
+    private final VibeSessionStatusStore statusStore;
+    private final boolean enabled;
+    private final int frameRate;
+    private final long frameNanos;
+    private final long stallTimeoutNanos;
+    private final int senderThreads;
+
+    private final LightFrameRenderer renderer;
+    private final Map<String, Integer> slotsBySession = new HashMap<>();
+    private final WebSocketSession[] sessions;
+    private final String[] sessionIds;
+
+    /**
+     * 每帧交给发送线程的连接快照；只在所在分片空闲时由渲染线程写入
+     */
+    private final WebSocketSession[] targets;
+    private final byte[][] frames;
+    private final ByteBuffer[] buffers;
+    private final BinaryMessage[] messages;
+
+    private final int stripeCount;
+    private final AtomicInteger[] stripeBusy;
+    private final AtomicLongArray stripeSendStart;
+    private final int[] stripeSendingSlot;
+    private final Runnable[] stripeTasks;
+
+    private final Timer renderTimer;
+    private final Counter framesSent;
+    private final Counter framesDropped;
+    private final Counter overruns;
+
+    private ScheduledExecutorService renderExecutor;
+    private Executor senderExecutor;
+    /**
+     * 关闭发送阻塞的连接：关闭握手本身也可能阻塞，不能占用渲染线程，发送线程此时也可能全部卡住
+     */
+    private Executor closeExecutor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("light-frame-close-", 0).factory());
+    private int sequence;
+
+    public LightFrameEngine(
+            VibeSessionStatusStore statusStore,
+            MeterRegistry meterRegistry,
+            @Value("${vibe.light.frames.enabled:true}") boolean enabled,
+            @Value("${vibe.light.frames.rate-hz:30}") int frameRate,
+            @Value("${vibe.light.frames.max-vehicles:4096}") int maxVehicles,
+            @Value("${vibe.light.frames.leds-per-zone:1}") int ledsPerZone,
+            @Value("${vibe.light.frames.sender-threads:2}") int senderThreads,
+            @Value("${vibe.light.frames.stall-timeout-ms:500}") long stallTimeoutMs) {
+        if (frameRate <= 0 || frameRate > 120) {
+            throw new IllegalArgumentException("vibe.light.frames.rate-hz must be between 1 and 120");
+        }
+        this.statusStore = statusStore;
+        this.enabled = enabled;
+        this.frameRate = frameRate;
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / frameRate;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+        this.senderThreads = Math.max(1, senderThreads);
+        this.renderer = new LightFrameRenderer(maxVehicles, ledsPerZone);
+
+        this.sessions = new WebSocketSession[maxVehicles];
+        this.sessionIds = new String[maxVehicles];
+        this.targets = new WebSocketSession[maxVehicles];
+        this.frames = new byte[maxVehicles][renderer.frameBytes()];
+        this.buffers = new ByteBuffer[maxVehicles];
+        this.messages = new BinaryMessage[maxVehicles];
+        for (int slot = 0; slot < maxVehicles; slot++) {
+            buffers[slot] = ByteBuffer.wrap(frames[slot]);
+            messages[slot] = new BinaryMessage(buffers[slot]);
+        }
+
+        this.stripeCount = (maxVehicles + STRIPE_SLOTS - 1) / STRIPE_SLOTS;
+        this.stripeBusy = new AtomicInteger[stripeCount];
+        this.stripeSendStart = new AtomicLongArray(stripeCount);
+        this.stripeSendingSlot = new int[stripeCount];
+        this.stripeTasks = new Runnable[stripeCount];
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            int s = stripe;
+            stripeBusy[stripe] = new AtomicInteger();
+            stripeTasks[stripe] = () -> sendStripe(s);
+        }
+
+        this.renderTimer = Timer.builder("vibe.light.frames.render")
+                .description("每帧渲染全部已订阅车辆的耗时")
+                .register(meterRegistry);
+        this.framesSent = meterRegistry.counter("vibe.light.frames.sent");
+        this.framesDropped = meterRegistry.counter("vibe.light.frames.dropped");
+        this.overruns = meterRegistry.counter("vibe.light.frames.overrun");
+        meterRegistry.gauge("vibe.light.frames.subscribers", this, LightFrameEngine::subscriberCount);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        senderExecutor = Executors.newFixedThreadPool(senderThreads, daemon("light-frame-send"));
+        renderExecutor = Executors.newSingleThreadScheduledExecutor(daemon("light-frame-render"));
+        renderExecutor.scheduleAtFixedRate(this::tickSafely, frameNanos, frameNanos, TimeUnit.NANOSECONDS);
+        log.info("氛围灯帧引擎启动: rate={}Hz, capacity={}, ledsPerZone={}, frameBytes={}, senders={}",
+            frameRate, renderer.capacity(), renderer.ledsPerZone(), renderer.frameBytes(), senderThreads);
+    }
+
+    /**
+     * 指定发送执行器，不启动渲染线程（测试中传入同步执行器并手动调用 {@link #tick(long)}）
+     */
+    void useSenderExecutor(Executor executor) {
+        this.senderExecutor = executor;
+    }
+
+    /**
+     * 指定关闭阻塞连接的执行器（测试用）
+     */
+    void useCloseExecutor(Executor executor) {
+        this.closeExecutor = executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+        }
+        if (senderExecutor instanceof ExecutorService senders) {
+            senders.shutdownNow();
+        }
+        if (closeExecutor instanceof ExecutorService closers) {
+            closers.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 订阅会话的灯光帧；同一会话的新连接替换旧连接
+     *
+     * @return false 表示已达到最大车辆数
+     */
+    public boolean subscribe(String sessionId, WebSocketSession session) {
+        WebSocketSession replaced;
+        synchronized (renderer) {
+            Integer existing = slotsBySession.get(sessionId);
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                replaced = sessions[slot];
+            } else {
+                slot = renderer.allocate();
+                if (slot < 0) {
+                    return false;
+                }
+                replaced = null;
+                slotsBySession.put(sessionId, slot);
+                sessionIds[slot] = sessionId;
+                // 按会话当前方案初始化，新连接直接显示当前灯光
+                AmbiencePlan plan = statusStore.getOrInitial(sessionId).currentPlan();
+                renderer.reset(slot, plan != null ? plan.light() : null);
+            }
+            sessions[slot] = session;
+        }
+        if (replaced != null && replaced != session) {
+            closeQuietly(replaced, CloseStatus.NORMAL.withReason("replaced by a new connection"));
+        }
+        log.debug("订阅灯光帧: sessionId={}, subscribers={}", sessionId, subscriberCount());
+        return true;
+    }
+
+    /**
+     * 取消订阅；只有仍是当前连接时才释放槽位
+     */
+    public void unsubscribe(String sessionId, WebSocketSession session) {
+        synchronized (renderer) {
+            Integer slot = slotsBySession.get(sessionId);
+            if (slot == null || sessions[slot] != session) {
+                return;
+            }
+            slotsBySession.remove(sessionId);
+            sessions[slot] = null;
+            sessionIds[slot] = null;
+            renderer.release(slot);
+        }
+        log.debug("取消订阅灯光帧: sessionId={}, subscribers={}", sessionId, subscriberCount());
+    }
+
+    /**
+     * 应用会话的新灯光设置，从当前画面开始按 transitionDuration 过渡；未订阅的会话忽略
+     * （之后连接时按会话状态中的当前方案初始化）
+     */
+    public void apply(String sessionId, LightSetting setting) {
+        synchronized (renderer) {
+            Integer slot = slotsBySession.get(sessionId);
+            if (slot != null) {
+                renderer.apply(slot, setting, System.currentTimeMillis());
+            }
+        }
+    }
+
+    /**
+     * 把会话的脉冲 / 呼吸相位锚定到音乐节拍（见 {@link LightFrameRenderer#syncBeat}）；未订阅的会话忽略
+     */
+    public void syncBeat(String sessionId, long beatAtMillis, int beatMillis, int beatInBar) {
+        synchronized (renderer) {
+            Integer slot = slotsBySession.get(sessionId);
+            if (slot != null) {
+                renderer.syncBeat(slot, beatAtMillis, beatMillis, beatInBar);
+            }
+        }
+    }
+
+    /**
+     * 取消会话的节拍同步，恢复固定周期
+     */
+    public void clearBeat(String sessionId) {
+        synchronized (renderer) {
+            Integer slot = slotsBySession.get(sessionId);
+            if (slot != null) {
+                renderer.clearBeat(slot);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        synchronized (renderer) {
+            return slotsBySession.size();
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            tick(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // 异常会终止 scheduleAtFixedRate，记录后继续下一帧
+            log.error("渲染灯光帧失败", e);
+        }
+    }
+
+    /**
+     * 渲染一帧：空闲分片渲染后交给发送线程，仍在发送的分片丢帧；检查发送阻塞超时
+     */
+    void tick(long nowMillis) {
+        long start = System.nanoTime();
+        int frame = ++sequence;
+        // 阻塞的连接只在锁内记下，锁外交给关闭执行器
+        List<WebSocketSession> stalled = null;
+        synchronized (renderer) {
+            for (int stripe = 0; stripe < stripeCount; stripe++) {
+                int from = stripe * STRIPE_SLOTS;
+                int to = Math.min(from + STRIPE_SLOTS, sessions.length);
+                if (stripeBusy[stripe].get() != 0) {
+                    framesDropped.increment(countSubscribed(from, to));
+                    WebSocketSession session = checkStall(stripe, start);
+                    if (session != null) {
+                        if (stalled == null) {
+                            stalled = new ArrayList<>(2);
+                        }
+                        stalled.add(session);
+                    }
+                    continue;
+                }
+                int rendered = 0;
+                for (int slot = from; slot < to; slot++) {
+                    WebSocketSession session = sessions[slot];
+                    targets[slot] = session;
+                    if (session != null) {
+                        renderer.render(slot, nowMillis, frame, frames[slot]);
+                        rendered++;
+                    }
+                }
+                if (rendered > 0) {
+                    stripeBusy[stripe].set(1);
+                    senderExecutor.execute(stripeTasks[stripe]);
+                }
+            }
+        }
+        if (stalled != null) {
+            closeStalled(stalled);
+        }
+        long elapsed = System.nanoTime() - start;
+        renderTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (elapsed > frameNanos) {
+            overruns.increment();
+        }
+    }
+
+    private int countSubscribed(int from, int to) {
+        int count = 0;
+        for (int slot = from; slot < to; slot++) {
+            if (sessions[slot] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 分片的发送阻塞超过上限时返回正在发送的连接（由调用方在锁外关闭，阻塞中的发送随之失败返回）
+     *
+     * @return 需要关闭的连接，没有阻塞时返回 null
+     */
+    private WebSocketSession checkStall(int stripe, long nowNanos) {
+        long sendStart = stripeSendStart.get(stripe);
+        if (sendStart != 0 && nowNanos - sendStart > stallTimeoutNanos) {
+            stripeSendStart.set(stripe, 0);
+            WebSocketSession stalled = targets[stripeSendingSlot[stripe]];
+            if (stalled != null) {
+                log.warn("灯光帧发送阻塞，关闭连接: sessionId={}", sessionIds[stripeSendingSlot[stripe]]);
+                return stalled;
+            }
+        }
+        return null;
+    }
+
+    private void closeStalled(List<WebSocketSession> stalled) {
+        for (WebSocketSession session : stalled) {
+            try {
+                closeExecutor.execute(() -> closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE));
+            } catch (RejectedExecutionException e) {
+                // 正在关闭
+            }
+        }
+    }
+
+    /**
+     * 发送线程：逐个发送分片内本帧渲染好的帧
+     */
+    private void sendStripe(int stripe) {
+        int from = stripe * STRIPE_SLOTS;
+        int to = Math.min(from + STRIPE_SLOTS, targets.length);
+        int sent = 0;
+        try {
+            for (int slot = from; slot < to; slot++) {
+                WebSocketSession session = targets[slot];
+                if (session == null || !session.isOpen()) {
+                    continue;
+                }
+                stripeSendingSlot[stripe] = slot;
+                stripeSendStart.set(stripe, System.nanoTime());
+                try {
+                    buffers[slot].clear();
+                    session.sendMessage(messages[slot]);
+                    sent++;
+                } catch (IOException | RuntimeException e) {
+                    log.debug("发送灯光帧失败: sessionId={}, error={}", sessionIds[slot], e.getMessage());
+                    closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE);
+                }
+            }
+        } finally {
+            stripeSendStart.set(stripe, 0);
+            framesSent.increment(sent);
+            stripeBusy[stripe].set(0);
+        }
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException | RuntimeException e) {
+            log.trace("关闭 WebSocket 连接失败", e);
+        }
+    }
+
+    /**
+     * 单帧字节数
+     */
+    public int frameBytes() {
+        return renderer.frameBytes();
+    }
+
+    public int frameRate() {
+        return frameRate;
+    }
+}
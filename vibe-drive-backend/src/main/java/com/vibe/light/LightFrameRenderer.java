@@ -0,0 +1,433 @@
+package com.vibe.light;
+
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.ZoneSetting;
+import com.vibe.model.enums.LightMode;
+
+/**
+ * 氛围灯帧渲染器
+ * 每辆车占一个槽位，状态按 (槽位, 分区) 展开在预分配的基本类型数组中（过渡起点、目标、模式、过渡起止时间），
+ * 渲染时按 transitionDuration 插值后叠加动态效果波形，直接写入调用方的字节数组，不分配对象；
+ * 波形相位只取决于服务端时钟，所以同一时刻所有分区、所有车辆的动画保持同步；
+ * 同步了节拍（{@link #syncBeat}）的槽位，脉冲每拍一次、呼吸每小节一次，相位锚定在歌曲节拍上
+ *
+ * 帧格式（大端）：
+ * <pre>
+ * 0   u8   版本（1）
+ * 1   u8   灯光模式（LightMode 序号）
+ * 2   u8   分区数
+ * 3   u8   每分区灯珠数
+ * 4   u32  帧序号
+ * 8   u32  服务端时间戳（毫秒，低 32 位）
+ * 12  分区数 × 灯珠数 × (R, G, B, 亮度 0~100)，分区顺序见 {@link #ZONES}
+ * </pre>
+ * 非线程安全，由调用方加锁
+ */
+public final class LightFrameRenderer {
+
+    /**
+     * 帧中的分区顺序；设置中未列出的分区使用整体颜色与亮度
+     */
+    public static final String[] ZONES = {
+        ZoneSetting.ZONE_DASHBOARD,
+        ZoneSetting.ZONE_DOOR,
+        ZoneSetting.ZONE_ROOF,
+        ZoneSetting.ZONE_FOOTWELL,
+        ZoneSetting.ZONE_CENTER_CONSOLE
+    };
+
+    public static final int FRAME_VERSION = 1;
+    public static final int HEADER_BYTES = 12;
+    public static final int BYTES_PER_LED = 4;
+
+    /**
+     * 动态效果周期（毫秒）
+     */
+    static final int BREATHING_PERIOD_MS = 4000;
+    static final int PULSE_PERIOD_MS = 1200;
+    static final int GRADIENT_PERIOD_MS = 6000;
+
+    /**
+     * 节拍同步时弱拍脉冲相对强拍的幅度
+     */
+    private static final float WEAK_BEAT_ACCENT = 0.6f;
+
+    private static final int ZONE_COUNT = ZONES.length;
+    private static final LightMode[] MODES = LightMode.values();
+
+    /**
+     * 波形查表：一个周期 1024 个采样，取值 0~1
+     */
+    private static final int WAVE_SIZE = 1024;
+    private static final int WAVE_MASK = WAVE_SIZE - 1;
+    private static final float[] SMOOTH_WAVE = new float[WAVE_SIZE];
+    private static final float[] PULSE_WAVE = new float[WAVE_SIZE];
+
+    static {
+        for (int i = 0; i < WAVE_SIZE; i++) {
+            double t = (double) i / WAVE_SIZE;
+            SMOOTH_WAVE[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * t));
+            // 脉冲：前 10% 快速亮起，之后指数衰减
+            PULSE_WAVE[i] = (float) (t < 0.1 ? t / 0.1 : Math.exp(-(t - 0.1) * 6));
+        }
+    }
+
+    /**
+     * 未指定颜色时的暖白色
+     */
+    private static final int DEFAULT_RGB = 0xFFE4B5;
+
+    private final int capacity;
+    private final int ledsPerZone;
+    private final int frameBytes;
+
+    private final float[] fromR;
+    private final float[] fromG;
+    private final float[] fromB;
+    private final float[] fromLevel;
+    private final float[] toR;
+    private final float[] toG;
+    private final float[] toB;
+    private final float[] toLevel;
+    private final long[] transitionStart;
+    private final int[] transitionMs;
+    private final byte[] modes;
+
+    /**
+     * 节拍同步：当前小节起点（墙钟毫秒）与拍长，拍长为 0 表示按固定周期自由运行
+     */
+    private final long[] barStart;
+    private final int[] beatMillis;
+
+    private final int[] freeSlots;
+    private int freeCount;
+    private final boolean[] inUse;
+
+    /**
+     * @param capacity    最大车辆数（槽位数）
+     * @param ledsPerZone 每分区灯珠数，1 表示按分区整体输出
+     */
+    public LightFrameRenderer(int capacity, int ledsPerZone) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (ledsPerZone <= 0 || ledsPerZone > 255) {
+            throw new IllegalArgumentException("ledsPerZone must be between 1 and 255");
+        }
+        this.capacity = capacity;
+        this.ledsPerZone = ledsPerZone;
+        this.frameBytes = HEADER_BYTES + ZONE_COUNT * ledsPerZone * BYTES_PER_LED;
+        int cells = capacity * ZONE_COUNT;
+        this.fromR = new float[cells];
+        this.fromG = new float[cells];
+        this.fromB = new float[cells];
+        this.fromLevel = new float[cells];
+        this.toR = new float[cells];
+        this.toG = new float[cells];
+        this.toB = new float[cells];
+        this.toLevel = new float[cells];
+        this.transitionStart = new long[capacity];
+        this.transitionMs = new int[capacity];
+        this.modes = new byte[capacity];
+        this.barStart = new long[capacity];
+        this.beatMillis = new int[capacity];
+        this.inUse = new boolean[capacity];
+        this.freeSlots = new int[capacity];
+        // 倒序入栈，先分配小序号
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int ledsPerZone() {
+        return ledsPerZone;
+    }
+
+    /**
+     * 单帧字节数
+     */
+    public int frameBytes() {
+        return frameBytes;
+    }
+
+    /**
+     * 已占用的槽位数
+     */
+    public int activeCount() {
+        return capacity - freeCount;
+    }
+
+    /**
+     * 分配一个槽位，初始为全灭的静态灯光
+     *
+     * @return 槽位序号；已满时返回 -1
+     */
+    public int allocate() {
+        if (freeCount == 0) {
+            return -1;
+        }
+        int slot = freeSlots[--freeCount];
+        inUse[slot] = true;
+        reset(slot, null);
+        clearBeat(slot);
+        return slot;
+    }
+
+    public void release(int slot) {
+        if (!inUse[slot]) {
+            return;
+        }
+        inUse[slot] = false;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * 直接切换到目标设置（不过渡），用于新连接按会话当前方案初始化
+     */
+    public void reset(int slot, LightSetting setting) {
+        target(slot, setting);
+        int base = slot * ZONE_COUNT;
+        for (int z = base; z < base + ZONE_COUNT; z++) {
+            fromR[z] = toR[z];
+            fromG[z] = toG[z];
+            fromB[z] = toB[z];
+            fromLevel[z] = toLevel[z];
+        }
+        transitionStart[slot] = 0;
+        transitionMs[slot] = 0;
+    }
+
+    /**
+     * 应用新的灯光设置：从当前（可能仍在过渡中的）颜色与亮度出发，在 transitionDuration 内过渡到目标；
+     * setting 为 null（如 L3 静默模式）时渐灭
+     */
+    public void apply(int slot, LightSetting setting, long nowMillis) {
+        float progress = progress(slot, nowMillis);
+        int base = slot * ZONE_COUNT;
+        for (int z = base; z < base + ZONE_COUNT; z++) {
+            fromR[z] = lerp(fromR[z], toR[z], progress);
+            fromG[z] = lerp(fromG[z], toG[z], progress);
+            fromB[z] = lerp(fromB[z], toB[z], progress);
+            fromLevel[z] = lerp(fromLevel[z], toLevel[z], progress);
+        }
+        target(slot, setting);
+        transitionStart[slot] = nowMillis;
+        transitionMs[slot] = setting != null ? setting.transitionDuration() : LightSetting.DEFAULT_TRANSITION_DURATION;
+    }
+
+    /**
+     * 把脉冲 / 呼吸的相位锚定到节拍上
+     *
+     * @param beatAtMillis 某一拍的时刻（墙钟毫秒）
+     * @param beatMillis   拍长（毫秒）
+     * @param beatInBar    该拍在小节中的位置，0 为强拍
+     */
+    public void syncBeat(int slot, long beatAtMillis, int beatMillis, int beatInBar) {
+        if (beatMillis <= 0) {
+            clearBeat(slot);
+            return;
+        }
+        this.barStart[slot] = beatAtMillis - (long) beatInBar * beatMillis;
+        this.beatMillis[slot] = beatMillis;
+    }
+
+    /**
+     * 取消节拍同步，恢复固定周期
+     */
+    public void clearBeat(int slot) {
+        beatMillis[slot] = 0;
+    }
+
+    private void target(int slot, LightSetting setting) {
+        int base = slot * ZONE_COUNT;
+        if (setting == null) {
+            for (int z = base; z < base + ZONE_COUNT; z++) {
+                toLevel[z] = 0;
+            }
+            modes[slot] = (byte) LightMode.STATIC.ordinal();
+            return;
+        }
+        int rgb = rgbOf(setting.color());
+        for (int i = 0; i < ZONE_COUNT; i++) {
+            int zoneRgb = rgb;
+            int level = setting.brightness();
+            if (setting.hasZones()) {
+                for (ZoneSetting zone : setting.zones()) {
+                    if (ZONES[i].equalsIgnoreCase(zone.zone())) {
+                        zoneRgb = zone.color() != null ? parseHex(zone.color()) : rgb;
+                        level = zone.brightness();
+                        break;
+                    }
+                }
+            }
+            int z = base + i;
+            toR[z] = zoneRgb >>> 16 & 0xFF;
+            toG[z] = zoneRgb >>> 8 & 0xFF;
+            toB[z] = zoneRgb & 0xFF;
+            toLevel[z] = level;
+        }
+        modes[slot] = (byte) (setting.mode() != null ? setting.mode() : LightMode.STATIC).ordinal();
+    }
+
+    /**
+     * 过渡进度（smoothstep 缓动），已完成时为 1
+     */
+    private float progress(int slot, long nowMillis) {
+        int duration = transitionMs[slot];
+        if (duration <= 0) {
+            return 1f;
+        }
+        float t = (float) (nowMillis - transitionStart[slot]) / duration;
+        if (t >= 1f) {
+            return 1f;
+        }
+        if (t <= 0f) {
+            return 0f;
+        }
+        return t * t * (3 - 2 * t);
+    }
+
+    /**
+     * 渲染一帧写入 out[0, frameBytes)
+     *
+     * @return 帧字节数
+     */
+    public int render(int slot, long nowMillis, int sequence, byte[] out) {
+        LightMode mode = MODES[modes[slot]];
+        out[0] = FRAME_VERSION;
+        out[1] = (byte) mode.ordinal();
+        out[2] = (byte) ZONE_COUNT;
+        out[3] = (byte) ledsPerZone;
+        putInt(out, 4, sequence);
+        putInt(out, 8, (int) nowMillis);
+
+        float progress = progress(slot, nowMillis);
+        int phase = mode == LightMode.GRADIENT ? phase(nowMillis, GRADIENT_PERIOD_MS) : 0;
+        float modulation = modulation(slot, mode, nowMillis);
+        int base = slot * ZONE_COUNT;
+        int pos = HEADER_BYTES;
+        for (int i = 0; i < ZONE_COUNT; i++) {
+            int z = base + i;
+            float r = lerp(fromR[z], toR[z], progress);
+            float g = lerp(fromG[z], toG[z], progress);
+            float b = lerp(fromB[z], toB[z], progress);
+            float level = lerp(fromLevel[z], toLevel[z], progress);
+            if (mode == LightMode.GRADIENT) {
+                // 渐变：颜色沿灯珠向下一个分区的颜色流动
+                int next = base + (i + 1) % ZONE_COUNT;
+                float nextR = lerp(fromR[next], toR[next], progress);
+                float nextG = lerp(fromG[next], toG[next], progress);
+                float nextB = lerp(fromB[next], toB[next], progress);
+                for (int led = 0; led < ledsPerZone; led++) {
+                    int offset = (i * ledsPerZone + led) * WAVE_SIZE / (ZONE_COUNT * ledsPerZone);
+                    float w = SMOOTH_WAVE[(phase + offset) & WAVE_MASK];
+                    out[pos++] = channel(lerp(r, nextR, w));
+                    out[pos++] = channel(lerp(g, nextG, w));
+                    out[pos++] = channel(lerp(b, nextB, w));
+                    out[pos++] = level(level * (0.6f + 0.4f * w));
+                }
+                continue;
+            }
+            byte red = channel(r);
+            byte green = channel(g);
+            byte blue = channel(b);
+            byte brightness = level(level * modulation);
+            for (int led = 0; led < ledsPerZone; led++) {
+                out[pos++] = red;
+                out[pos++] = green;
+                out[pos++] = blue;
+                out[pos++] = brightness;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * 呼吸 / 脉冲的亮度系数；同步了节拍时脉冲每拍一次（强拍更亮），呼吸每小节一次
+     */
+    private float modulation(int slot, LightMode mode, long nowMillis) {
+        int beat = beatMillis[slot];
+        return switch (mode) {
+            case BREATHING -> 0.3f + 0.7f * SMOOTH_WAVE[beat > 0
+                ? phase(nowMillis - barStart[slot], beat * BeatGrid.BEATS_PER_BAR)
+                : phase(nowMillis, BREATHING_PERIOD_MS)];
+            case PULSE -> {
+                if (beat == 0) {
+                    yield 0.2f + 0.8f * PULSE_WAVE[phase(nowMillis, PULSE_PERIOD_MS)];
+                }
+                long sinceBar = nowMillis - barStart[slot];
+                float accent = Math.floorMod(Math.floorDiv(sinceBar, beat), BeatGrid.BEATS_PER_BAR) == 0
+                    ? 1f : WEAK_BEAT_ACCENT;
+                yield 0.2f + 0.8f * accent * PULSE_WAVE[phase(sinceBar, beat)];
+            }
+            default -> 1f;
+        };
+    }
+
+    /**
+     * 周期波形的相位（查表下标）
+     */
+    private static int phase(long millis, int period) {
+        return (int) (Math.floorMod(millis, (long) period) * WAVE_SIZE / period);
+    }
+
+    private static float lerp(float from, float to, float t) {
+        return from + (to - from) * t;
+    }
+
+    private static byte channel(float value) {
+        return (byte) Math.min(255, Math.max(0, Math.round(value)));
+    }
+
+    private static byte level(float value) {
+        return (byte) Math.min(100, Math.max(0, Math.round(value)));
+    }
+
+    private static void putInt(byte[] out, int pos, int value) {
+        out[pos] = (byte) (value >>> 24);
+        out[pos + 1] = (byte) (value >>> 16);
+        out[pos + 2] = (byte) (value >>> 8);
+        out[pos + 3] = (byte) value;
+    }
+
+    /**
+     * LightColor → 0xRRGGBB：优先十六进制，只有色温时按黑体辐射近似换算
+     */
+    static int rgbOf(LightColor color) {
+        if (color == null) {
+            return DEFAULT_RGB;
+        }
+        if (color.hex() != null) {
+            return parseHex(color.hex());
+        }
+        if (color.temperature() != null) {
+            return kelvinToRgb(color.temperature());
+        }
+        return DEFAULT_RGB;
+    }
+
+    private static int parseHex(String hex) {
+        return Integer.parseInt(hex, 1, 7, 16);
+    }
+
+    /**
+     * 色温近似换算（适用于 1000K~40000K，此处只用到 2700K~6500K）
+     */
+    private static int kelvinToRgb(int kelvin) {
+        double t = kelvin / 100.0;
+        double r = t <= 66 ? 255 : 329.698727446 * Math.pow(t - 60, -0.1332047592);
+        double g = t <= 66 ? 99.4708025861 * Math.log(t) - 161.1195681661 : 288.1221695283 * Math.pow(t - 60, -0.0755148492);
+        double b = t >= 66 ? 255 : t <= 19 ? 0 : 138.5177312231 * Math.log(t - 10) - 305.0447927307;
+        return clampChannel(r) << 16 | clampChannel(g) << 8 | clampChannel(b);
+    }
+
+    private static int clampChannel(double value) {
+        return (int) Math.min(255, Math.max(0, Math.round(value)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.vibe.light;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * 氛围灯帧 WebSocket 端点：ws://host/ws/light-frames?sessionId=xxx
+ * 连接后服务端按固定帧率推送二进制帧（格式见 {@link LightFrameRenderer}），客户端无需发送消息
+ */
+@Component
+public class LightFrameWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LightFrameWebSocketHandler.class);
+
+    static final String SESSION_ID_PARAM = "sessionId";
+
+    private final LightFrameEngine frameEngine;
+
+    public LightFrameWebSocketHandler(LightFrameEngine frameEngine) {
+        this.frameEngine = frameEngine;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String sessionId = sessionIdOf(session);
+        if (sessionId == null || sessionId.isBlank()) {
+            session.close(CloseStatus.BAD_DATA.withReason("sessionId is required"));
+            return;
+        }
+        if (!frameEngine.subscribe(sessionId, session)) {
+            log.warn("灯光帧订阅已满，拒绝连接: sessionId={}", sessionId);
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        log.debug("灯光帧连接异常: id={}, error={}", session.getId(), exception.getMessage());
+        if (session.isOpen()) {
+            session.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        String sessionId = sessionIdOf(session);
+        if (sessionId != null) {
+            frameEngine.unsubscribe(sessionId, session);
+        }
+    }
+
+    private static String sessionIdOf(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return null;
+        }
+        return UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst(SESSION_ID_PARAM);
+    }
+}
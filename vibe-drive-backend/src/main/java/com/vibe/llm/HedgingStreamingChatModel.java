@@ -0,0 +1,329 @@
+package com.vibe.llm;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.CompleteToolCall;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.PartialThinking;
+import dev.langchain4j.model.chat.response.PartialThinkingContext;
+import dev.langchain4j.model.chat.response.PartialToolCall;
+import dev.langchain4j.model.chat.response.PartialToolCallContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 对冲请求流式模型
+ * 主端点在 hedgeDelay 内未产出任何输出（文本或工具调用）时，向备用端点发出同一请求；
+ * 先产出输出的一方胜出，落败方随即被标记取消：已拿到 {@link StreamingHandle} 的立即取消，
+ * 尚未产出任何回调的在其句柄首次到达时取消（LangChain4j 只在增量回调的上下文中提供句柄），不再继续消耗 Token 与限流额度。
+ * 主端点在产出输出前直接失败时立即切换到备用端点，不等待对冲延迟
+ *
+ * 被取消的流不会再回调完成或失败，模型监听器也就收不到请求结束；取消时调用 attemptCancelled 补记
+ * （如 {@link LlmTierMetricsListener#requestCancelled()}），避免在途请求数只增不减
+ */
+public class HedgingStreamingChatModel implements StreamingChatModel {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingStreamingChatModel.class);
+
+    private static final ScheduledExecutorService HEDGE_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "llm-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final StreamingChatModel primary;
+    private final StreamingChatModel secondary;
+    private final long hedgeDelayMillis;
+    private final Runnable attemptCancelled;
+    private final Counter requests;
+    private final Counter hedged;
+    private final Counter primaryWins;
+    private final Counter secondaryWins;
+    private final Counter cancelled;
+
+    /**
+     * @param tier          模型档位（指标标签）
+     * @param primary       主端点模型
+     * @param secondary     备用端点模型
+     * @param hedgeDelay       对冲延迟
+     * @param meterRegistry    指标注册表
+     * @param attemptCancelled 落败方被取消时调用（补记模型监听器收不到的请求结束）
+     */
+    public HedgingStreamingChatModel(
+            ModelTier tier,
+            StreamingChatModel primary,
+            StreamingChatModel secondary,
+            Duration hedgeDelay,
+            MeterRegistry meterRegistry,
+            Runnable attemptCancelled) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.hedgeDelayMillis = hedgeDelay.toMillis();
+        this.attemptCancelled = attemptCancelled;
+
+        Tags tags = Tags.of("tier", tier.getValue());
+        this.requests = meterRegistry.counter("vibe.llm.hedge.requests", tags);
+        this.hedged = meterRegistry.counter("vibe.llm.hedge.fired", tags);
+        this.primaryWins = meterRegistry.counter("vibe.llm.hedge.wins", tags.and("winner", "primary"));
+        this.secondaryWins = meterRegistry.counter("vibe.llm.hedge.wins", tags.and("winner", "secondary"));
+        this.cancelled = meterRegistry.counter("vibe.llm.hedge.cancelled", tags);
+        // 对冲率：发出对冲的请求占比；对冲胜率：对冲请求中备用端点胜出的占比
+        meterRegistry.gauge("vibe.llm.hedge.rate", tags, this, HedgingStreamingChatModel::hedgeRate);
+        meterRegistry.gauge("vibe.llm.hedge.win.rate", tags, this, HedgingStreamingChatModel::hedgeWinRate);
+    }
+
+    @Override
+    public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        requests.increment();
+        new HedgedCall(chatRequest, handler).start();
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return primary.defaultRequestParameters();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return primary.supportedCapabilities();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return primary.provider();
+    }
+
+    public double hedgeRate() {
+        double total = requests.count();
+        return total == 0 ? 0 : hedged.count() / total;
+    }
+
+    public double hedgeWinRate() {
+        double fired = hedged.count();
+        return fired == 0 ? 0 : secondaryWins.count() / fired;
+    }
+
+    private enum Attempt {
+        PRIMARY, SECONDARY
+    }
+
+    /**
+     * 单次对冲调用的状态
+     */
+    private final class HedgedCall {
+
+        private final ChatRequest request;
+        private final StreamingChatResponseHandler downstream;
+        private final AtomicReference<Attempt> winner = new AtomicReference<>();
+        private final AtomicBoolean hedgeFired = new AtomicBoolean(false);
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AttemptHandler primaryHandler = new AttemptHandler(Attempt.PRIMARY);
+        private final AttemptHandler secondaryHandler = new AttemptHandler(Attempt.SECONDARY);
+        private volatile ScheduledFuture<?> hedgeTimer;
+
+        private HedgedCall(ChatRequest request, StreamingChatResponseHandler downstream) {
+            this.request = request;
+            this.downstream = downstream;
+        }
+
+        private AttemptHandler handlerOf(Attempt attempt) {
+            return attempt == Attempt.PRIMARY ? primaryHandler : secondaryHandler;
+        }
+
+        private void start() {
+            hedgeTimer = HEDGE_SCHEDULER.schedule(this::fireHedge, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            launch(Attempt.PRIMARY);
+        }
+
+        private void fireHedge() {
+            if (winner.get() != null || !hedgeFired.compareAndSet(false, true)) {
+                return;
+            }
+            hedged.increment();
+            log.debug("主端点 {}ms 内无输出，发出对冲请求", hedgeDelayMillis);
+            launch(Attempt.SECONDARY);
+        }
+
+        private void launch(Attempt attempt) {
+            StreamingChatModel model = attempt == Attempt.PRIMARY ? primary : secondary;
+            try {
+                model.chat(request, handlerOf(attempt));
+            } catch (Exception e) {
+                onAttemptError(attempt, e);
+            }
+        }
+
+        /**
+         * 抢占胜出权；返回该尝试的回调是否应转发给下游
+         */
+        private boolean claim(Attempt attempt) {
+            if (winner.compareAndSet(null, attempt)) {
+                ScheduledFuture<?> timer = hedgeTimer;
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+                if (hedgeFired.get()) {
+                    (attempt == Attempt.PRIMARY ? primaryWins : secondaryWins).increment();
+                    log.debug("对冲请求结束: winner={}", attempt);
+                }
+                handlerOf(attempt == Attempt.PRIMARY ? Attempt.SECONDARY : Attempt.PRIMARY).requestCancel();
+                return true;
+            }
+            return winner.get() == attempt;
+        }
+
+        private void onAttemptError(Attempt attempt, Throwable error) {
+            Attempt current = winner.get();
+            if (current == attempt) {
+                downstream.onError(error);
+                return;
+            }
+            if (current != null) {
+                // 落败方的错误无需关心
+                return;
+            }
+            int failed = failures.incrementAndGet();
+            if (attempt == Attempt.PRIMARY && hedgeFired.compareAndSet(false, true)) {
+                // 主端点未产出输出即失败：立即切换，不等对冲延迟
+                ScheduledFuture<?> timer = hedgeTimer;
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+                hedged.increment();
+                log.warn("主端点失败，切换到备用端点: {}", error.getMessage());
+                launch(Attempt.SECONDARY);
+                return;
+            }
+            // 两个端点都失败才向下游报告
+            if (failed >= 2 && winner.compareAndSet(null, attempt)) {
+                downstream.onError(error);
+            }
+        }
+
+        private final class AttemptHandler implements StreamingChatResponseHandler {
+
+            private final Attempt attempt;
+            private final AtomicBoolean cancelDone = new AtomicBoolean(false);
+            private volatile boolean cancelRequested;
+            private volatile StreamingHandle handle;
+
+            private AttemptHandler(Attempt attempt) {
+                this.attempt = attempt;
+            }
+
+            /**
+             * 另一方胜出：已拿到句柄则立即取消，否则留待句柄到达时取消
+             */
+            private void requestCancel() {
+                cancelRequested = true;
+                StreamingHandle current = handle;
+                if (current != null) {
+                    cancel(current);
+                }
+            }
+
+            /**
+             * 记下流句柄；已被标记取消时立即取消
+             */
+            private void remember(StreamingHandle streamingHandle) {
+                if (handle == null) {
+                    handle = streamingHandle;
+                }
+                if (cancelRequested) {
+                    cancel(streamingHandle);
+                }
+            }
+
+            /**
+             * 取消落败方的流；同一尝试只取消一次
+             */
+            private void cancel(StreamingHandle streamingHandle) {
+                if (!cancelDone.compareAndSet(false, true) || streamingHandle.isCancelled()) {
+                    return;
+                }
+                streamingHandle.cancel();
+                cancelled.increment();
+                attemptCancelled.run();
+                log.debug("取消落败的对冲请求: attempt={}", attempt);
+            }
+
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                if (claim(attempt)) {
+                    downstream.onPartialResponse(partialResponse);
+                }
+            }
+
+            @Override
+            public void onPartialResponse(PartialResponse partialResponse, PartialResponseContext context) {
+                remember(context.streamingHandle());
+                if (claim(attempt)) {
+                    downstream.onPartialResponse(partialResponse, context);
+                }
+            }
+
+            @Override
+            public void onPartialThinking(PartialThinking partialThinking, PartialThinkingContext context) {
+                // 思考过程不算输出、不参与抢占，但能提前拿到句柄
+                remember(context.streamingHandle());
+                if (winner.get() == attempt) {
+                    downstream.onPartialThinking(partialThinking, context);
+                }
+            }
+
+            @Override
+            public void onPartialToolCall(PartialToolCall partialToolCall) {
+                if (claim(attempt)) {
+                    downstream.onPartialToolCall(partialToolCall);
+                }
+            }
+
+            @Override
+            public void onPartialToolCall(PartialToolCall partialToolCall, PartialToolCallContext context) {
+                remember(context.streamingHandle());
+                if (claim(attempt)) {
+                    downstream.onPartialToolCall(partialToolCall, context);
+                }
+            }
+
+            @Override
+            public void onCompleteToolCall(CompleteToolCall completeToolCall) {
+                if (claim(attempt)) {
+                    downstream.onCompleteToolCall(completeToolCall);
+                }
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                if (claim(attempt)) {
+                    downstream.onCompleteResponse(completeResponse);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                onAttemptError(attempt, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.vibe.llm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LLM 连接预热器
+ * 启动时提前完成 DNS 解析、TLS 握手和建连，并在空闲期定时保活，
+ * 避免启动后/空闲后的第一次对话承担建连开销
+ */
+@Component
+public class LlmConnectionWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmConnectionWarmer.class);
+
+    private final HttpClient httpClient;
+    private final URI warmupUri;
+    private final String apiKey;
+    private final boolean enabled;
+    private final int connections;
+    private final Timer startupTimer;
+    private final Timer keepAliveTimer;
+    private final AtomicLong firstRequestPenaltyMs = new AtomicLong(-1);
+
+    public LlmConnectionWarmer(
+            LlmHttpClientFactory httpClientFactory,
+            MeterRegistry meterRegistry,
+            @Value("${langchain4j.open-ai.chat-model.base-url:https://api.openai.com/v1}") String baseUrl,
+            @Value("${langchain4j.open-ai.chat-model.api-key:demo}") String apiKey,
+            @Value("${vibe.llm.warmup.enabled:false}") boolean enabled,
+            @Value("${vibe.llm.warmup.connections:2}") int connections) {
+        this.httpClient = httpClientFactory.sharedClient();
+        this.warmupUri = URI.create(stripTrailingSlash(baseUrl) + "/models");
+        this.apiKey = apiKey;
+        this.enabled = enabled;
+        this.connections = Math.max(1, connections);
+        this.startupTimer = Timer.builder("vibe.llm.warmup")
+                .tag("phase", "startup")
+                .description("LLM 连接预热请求耗时")
+                .register(meterRegistry);
+        this.keepAliveTimer = Timer.builder("vibe.llm.warmup")
+                .tag("phase", "keepalive")
+                .description("LLM 连接保活请求耗时")
+                .register(meterRegistry);
+        meterRegistry.gauge("vibe.llm.warmup.first.request.penalty.ms", firstRequestPenaltyMs, AtomicLong::get);
+    }
+
+    /**
+     * 应用启动完成后异步预热（不阻塞启动）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        warmUp().thenAccept(result -> log.info(
+                "LLM 连接预热完成: uri={}, success={}, cold={}ms, warm={}ms, penalty={}ms",
+                warmupUri, result.success(), result.coldMillis(), result.warmMillis(), result.penaltyMillis()));
+    }
+
+    /**
+     * 定时保活：防止连接池中的连接因空闲被服务端或中间设备关闭
+     */
+    @Scheduled(
+            fixedDelayString = "${vibe.llm.warmup.keep-alive-interval-ms:60000}",
+            initialDelayString = "${vibe.llm.warmup.keep-alive-interval-ms:60000}")
+    public void keepAlive() {
+        if (!enabled) {
+            return;
+        }
+        probe(keepAliveTimer).thenAccept(millis -> log.trace("LLM 连接保活: {}ms", millis));
+    }
+
+    /**
+     * 执行预热：先发一次冷请求，再在同一连接上发一次热请求，两者之差即首请求惩罚；
+     * 同时并发打开额外连接（HTTP/1.1 下生效，HTTP/2 会复用同一连接）
+     */
+    public CompletableFuture<WarmupResult> warmUp() {
+        for (int i = 1; i < connections; i++) {
+            probe(startupTimer);
+        }
+        return probe(startupTimer)
+                .thenCompose(cold -> probe(startupTimer).thenApply(warm -> {
+                    WarmupResult result = new WarmupResult(cold >= 0 && warm >= 0, cold, warm);
+                    if (result.success()) {
+                        firstRequestPenaltyMs.set(result.penaltyMillis());
+                    }
+                    return result;
+                }));
+    }
+
+    /**
+     * 最近一次预热测得的首请求惩罚（毫秒），未测量时为 -1
+     */
+    public long firstRequestPenaltyMillis() {
+        return firstRequestPenaltyMs.get();
+    }
+
+    /**
+     * 发送一次轻量请求；任何 HTTP 状态码都说明连接已建立，只有网络异常视为失败（返回 -1）
+     */
+    private CompletableFuture<Long> probe(Timer timer) {
+        HttpRequest request = HttpRequest.newBuilder(warmupUri)
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", "Bearer " + apiKey)
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    long elapsedNanos = System.nanoTime() - start;
+                    if (error != null) {
+                        log.warn("LLM 连接预热失败: uri={}, error={}", warmupUri, error.getMessage());
+                        return -1L;
+                    }
+                    timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                    return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+                });
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * 预热结果
+     *
+     * @param success    是否成功
+     * @param coldMillis 冷连接请求耗时
+     * @param warmMillis 复用连接请求耗时
+     */
+    public record WarmupResult(boolean success, long coldMillis, long warmMillis) {
+        public long penaltyMillis() {
+            return Math.max(0, coldMillis - warmMillis);
+        }
+    }
+}
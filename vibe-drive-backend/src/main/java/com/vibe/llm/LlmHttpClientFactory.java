@@ -0,0 +1,140 @@
+package com.vibe.llm;
+
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.jdk.JdkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * LLM HTTP 客户端工厂
+ * 所有模型 Bean 共享同一个 JDK HttpClient（同一个连接池），
+ * 预热请求建立的连接可以直接被后续对话复用
+ */
+@Component
+public class LlmHttpClientFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmHttpClientFactory.class);
+
+    /**
+     * JDK HttpClient 连接池参数：进程级系统属性，只在首个 HttpClient 创建前读取一次，
+     * 因此不在这里设置，而是在启动参数中用 -D 指定（见 pom.xml 中 spring-boot-maven-plugin 的 jvmArguments）
+     */
+    static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    static final String KEEP_ALIVE_H2_PROPERTY = "jdk.httpclient.keepalive.timeout.h2";
+
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final HttpClient sharedClient;
+
+    public LlmHttpClientFactory(
+            @Value("${vibe.llm.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${vibe.llm.http.read-timeout-ms:60000}") long readTimeoutMs,
+            @Value("${vibe.llm.http.http2:true}") boolean http2) {
+        this.connectTimeout = Duration.ofMillis(connectTimeoutMs);
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+
+        this.sharedClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        log.info("LLM HTTP 客户端已创建: http2={}, poolSize={}, keepAlive={}s, connectTimeout={}ms, readTimeout={}ms",
+                http2, System.getProperty(POOL_SIZE_PROPERTY, "unlimited"),
+                System.getProperty(KEEP_ALIVE_PROPERTY, "default"), connectTimeoutMs, readTimeoutMs);
+    }
+
+    /**
+     * 为 LangChain4j 模型创建 HttpClientBuilder（每个模型一个 builder，底层共享连接池）
+     */
+    public HttpClientBuilder newHttpClientBuilder() {
+        return JdkHttpClient.builder()
+                .httpClientBuilder(new SharedClientBuilder(sharedClient))
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout);
+    }
+
+    /**
+     * 共享的 JDK HttpClient（用于连接预热/保活）
+     */
+    public HttpClient sharedClient() {
+        return sharedClient;
+    }
+
+    public Duration readTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * 始终返回共享实例的 HttpClient.Builder
+     * JdkHttpClient 会在 build 前调用 connectTimeout 等方法，这里统一忽略（已在共享实例上配置）
+     */
+    private record SharedClientBuilder(HttpClient client) implements HttpClient.Builder {
+
+        @Override
+        public HttpClient.Builder cookieHandler(CookieHandler cookieHandler) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder connectTimeout(Duration duration) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder sslContext(SSLContext sslContext) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder sslParameters(SSLParameters sslParameters) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder executor(Executor executor) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder followRedirects(HttpClient.Redirect policy) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder version(HttpClient.Version version) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder priority(int priority) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder proxy(ProxySelector proxySelector) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder authenticator(Authenticator authenticator) {
+            return this;
+        }
+
+        @Override
+        public HttpClient build() {
+            return client;
+        }
+    }
+}
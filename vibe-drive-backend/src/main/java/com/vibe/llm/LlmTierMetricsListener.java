@@ -0,0 +1,113 @@
+package com.vibe.llm;
+
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按模型档位统计延迟、Token 用量与估算成本
+ * 每个档位的模型 Bean 各注册一个实例
+ */
+public class LlmTierMetricsListener implements ChatModelListener {
+
+    private static final String START_NANOS_KEY = LlmTierMetricsListener.class.getName() + ".startNanos";
+
+    private final ModelRouter modelRouter;
+    private final double inputCostPer1k;
+    private final double outputCostPer1k;
+    private final Timer latencyTimer;
+    private final Counter inputTokens;
+    private final Counter outputTokens;
+    private final Counter cost;
+    private final Counter errors;
+
+    /**
+     * @param tier            模型档位
+     * @param meterRegistry   指标注册表
+     * @param modelRouter     模型路由器（用于统计在途请求数）
+     * @param inputCostPer1k  每千输入 Token 单价
+     * @param outputCostPer1k 每千输出 Token 单价
+     */
+    public LlmTierMetricsListener(
+            ModelTier tier,
+            MeterRegistry meterRegistry,
+            ModelRouter modelRouter,
+            double inputCostPer1k,
+            double outputCostPer1k) {
+        this.modelRouter = modelRouter;
+        this.inputCostPer1k = inputCostPer1k;
+        this.outputCostPer1k = outputCostPer1k;
+        String tierTag = tier.getValue();
+        this.latencyTimer = Timer.builder("vibe.llm.latency")
+                .tag("tier", tierTag)
+                .description("LLM 请求耗时（流式为完整响应耗时）")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.inputTokens = Counter.builder("vibe.llm.tokens")
+                .tag("tier", tierTag)
+                .tag("direction", "input")
+                .register(meterRegistry);
+        this.outputTokens = Counter.builder("vibe.llm.tokens")
+                .tag("tier", tierTag)
+                .tag("direction", "output")
+                .register(meterRegistry);
+        this.cost = Counter.builder("vibe.llm.cost")
+                .tag("tier", tierTag)
+                .description("按配置单价估算的 LLM 成本")
+                .register(meterRegistry);
+        this.errors = Counter.builder("vibe.llm.errors")
+                .tag("tier", tierTag)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext requestContext) {
+        requestContext.attributes().put(START_NANOS_KEY, System.nanoTime());
+        modelRouter.requestStarted();
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        modelRouter.requestFinished();
+        recordLatency(responseContext.attributes().get(START_NANOS_KEY));
+
+        ChatResponse response = responseContext.chatResponse();
+        TokenUsage usage = response != null ? response.tokenUsage() : null;
+        if (usage == null) {
+            return;
+        }
+        int input = usage.inputTokenCount() != null ? usage.inputTokenCount() : 0;
+        int output = usage.outputTokenCount() != null ? usage.outputTokenCount() : 0;
+        inputTokens.increment(input);
+        outputTokens.increment(output);
+        cost.increment(input / 1000.0 * inputCostPer1k + output / 1000.0 * outputCostPer1k);
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext errorContext) {
+        modelRouter.requestFinished();
+        errors.increment();
+        recordLatency(errorContext.attributes().get(START_NANOS_KEY));
+    }
+
+    /**
+     * 流式请求被主动取消（如对冲落败方）：取消后的流不再回调 onResponse/onError，由取消方调用以结束在途计数
+     */
+    public void requestCancelled() {
+        modelRouter.requestFinished();
+    }
+
+    private void recordLatency(Object startNanos) {
+        if (startNanos instanceof Long start) {
+            latencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
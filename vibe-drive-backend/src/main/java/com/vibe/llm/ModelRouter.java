@@ -0,0 +1,110 @@
+package com.vibe.llm;
+
+import com.vibe.model.enums.SafetyMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 模型路由器
+ * 按轮次类型选择模型档位，默认全部走标准模型（轻量档位需单独配置模型，属可选项）：
+ * - 收尾轮、环境生成可配置走轻量模型；叙事生成与收尾轮同档
+ * - 工具选择轮走标准模型；可配置在 L2 专注模式或在途请求过多时降级到轻量模型
+ */
+@Component
+public class ModelRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRouter.class);
+
+    private final ModelTier toolSelectionTier;
+    private final ModelTier finalizationTier;
+    private final ModelTier environmentTier;
+    private final boolean lightInFocusMode;
+    private final int loadShedThreshold;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final Map<TurnType, Map<ModelTier, Counter>> routeCounters = new EnumMap<>(TurnType.class);
+
+    public ModelRouter(
+            MeterRegistry meterRegistry,
+            @Value("${vibe.llm.routing.tool-selection-tier:standard}") String toolSelectionTier,
+            @Value("${vibe.llm.routing.finalization-tier:standard}") String finalizationTier,
+            @Value("${vibe.llm.routing.environment-tier:standard}") String environmentTier,
+            @Value("${vibe.llm.routing.light-in-focus-mode:false}") boolean lightInFocusMode,
+            @Value("${vibe.llm.routing.load-shed-threshold:0}") int loadShedThreshold) {
+        this.toolSelectionTier = ModelTier.fromValue(toolSelectionTier);
+        this.finalizationTier = ModelTier.fromValue(finalizationTier);
+        this.environmentTier = ModelTier.fromValue(environmentTier);
+        this.lightInFocusMode = lightInFocusMode;
+        this.loadShedThreshold = loadShedThreshold;
+
+        for (TurnType turnType : TurnType.values()) {
+            Map<ModelTier, Counter> byTier = new EnumMap<>(ModelTier.class);
+            for (ModelTier tier : ModelTier.values()) {
+                byTier.put(tier, Counter.builder("vibe.llm.routing")
+                        .tag("turn", turnType.getValue())
+                        .tag("tier", tier.getValue())
+                        .description("模型路由决策次数")
+                        .register(meterRegistry));
+            }
+            routeCounters.put(turnType, byTier);
+        }
+        meterRegistry.gauge("vibe.llm.inflight", inFlightRequests, AtomicInteger::get);
+    }
+
+    /**
+     * 为一次 LLM 调用选择模型档位
+     *
+     * @param turnType   轮次类型
+     * @param safetyMode 当前安全模式（环境生成等无车辆状态的调用可传 null）
+     */
+    public ModelTier route(TurnType turnType, SafetyMode safetyMode) {
+        ModelTier tier = switch (turnType) {
+            case FINALIZATION, NARRATION -> finalizationTier;
+            case ENVIRONMENT_GENERATION -> environmentTier;
+            case TOOL_SELECTION -> routeToolSelection(safetyMode);
+        };
+        routeCounters.get(turnType).get(tier).increment();
+        log.debug("模型路由: turn={}, safetyMode={}, inFlight={}, tier={}",
+                turnType, safetyMode, inFlightRequests.get(), tier);
+        return tier;
+    }
+
+    private ModelTier routeToolSelection(SafetyMode safetyMode) {
+        if (lightInFocusMode && safetyMode == SafetyMode.L2_FOCUS) {
+            // 专注模式下编排较保守，优先响应速度
+            return ModelTier.LIGHT;
+        }
+        if (loadShedThreshold > 0 && inFlightRequests.get() >= loadShedThreshold) {
+            return ModelTier.LIGHT;
+        }
+        return toolSelectionTier;
+    }
+
+    /**
+     * LLM 请求开始（由 {@link LlmTierMetricsListener} 调用）
+     */
+    void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    /**
+     * LLM 请求结束（成功或失败）
+     */
+    void requestFinished() {
+        inFlightRequests.updateAndGet(n -> n > 0 ? n - 1 : 0);
+    }
+
+    /**
+     * 当前在途 LLM 请求数
+     */
+    public int inFlightRequests() {
+        return inFlightRequests.get();
+    }
+}
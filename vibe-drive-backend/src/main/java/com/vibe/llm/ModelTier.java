@@ -0,0 +1,40 @@
+package com.vibe.llm;
+
+/**
+ * 模型档位
+ * STANDARD 用于需要推理与工具选择的轮次，LIGHT 用于简单收尾和环境生成等低成本轮次
+ */
+public enum ModelTier {
+
+    /**
+     * 标准模型（质量优先）
+     */
+    STANDARD("standard"),
+
+    /**
+     * 轻量模型（延迟/成本优先）
+     */
+    LIGHT("light");
+
+    private final String value;
+
+    ModelTier(String value) {
+        this.value = value;
+    }
+
+    /**
+     * 指标标签与配置键使用的名称
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public static ModelTier fromValue(String value) {
+        for (ModelTier tier : values()) {
+            if (tier.value.equalsIgnoreCase(value) || tier.name().equalsIgnoreCase(value)) {
+                return tier;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ModelTier: " + value);
+    }
+}
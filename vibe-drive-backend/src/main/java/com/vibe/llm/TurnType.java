@@ -0,0 +1,37 @@
+package com.vibe.llm;
+
+/**
+ * LLM 调用轮次类型（模型路由依据）
+ */
+public enum TurnType {
+
+    /**
+     * 工具选择轮：首轮，模型需要理解环境并决定调用哪些工具
+     */
+    TOOL_SELECTION("tool_selection"),
+
+    /**
+     * 收尾轮：工具已执行完毕，只需输出简短的推荐理由
+     */
+    FINALIZATION("finalization"),
+
+    /**
+     * 环境生成：根据自然语言描述生成环境数据
+     */
+    ENVIRONMENT_GENERATION("environment_generation"),
+
+    /**
+     * 叙事生成：按环境流式生成简短播报文本，按句交给 TTS
+     */
+    NARRATION("narration");
+
+    private final String value;
+
+    TurnType(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -32,7 +32,10 @@ public record Narrative(
     double volume,
 
     @Description("情感色彩：NEUTRAL（中性）/WARM（温暖）/ENERGETIC（活力）/CALM（平静）/GENTLE（轻柔）")
-    NarrativeEmotion emotion
+    NarrativeEmotion emotion,
+
+    @Description("服务端预合成的语音引用（可选），为空时由车机本地合成")
+    NarrativeAudio audio
 ) {
     /**
      * 默认值常量
@@ -66,9 +69,30 @@ public record Narrative(
         }
     }
 
+    /**
+     * 不带预合成语音的构造
+     */
+    public Narrative(String text, String voice, double speed, double volume, NarrativeEmotion emotion) {
+        this(text, voice, speed, volume, emotion, null);
+    }
+
+    /**
+     * 附加预合成语音引用
+     */
+    public Narrative withAudio(NarrativeAudio newAudio) {
+        return new Narrative(text, voice, speed, volume, emotion, newAudio);
+    }
+
+    /**
+     * 判断是否带预合成语音
+     */
+    public boolean hasAudio() {
+        return audio != null;
+    }
+
     /**
      * 降低音量（用于 L3 静默模式）
-     * 返回音量降低 30% 的新实例
+     * 返回音量降低 30% 的新实例；语音参数变化后原有的预合成语音不再对应，以下 with 方法均不保留
      */
     public Narrative withReducedVolume() {
         return new Narrative(text, voice, speed, volume * VOLUME_REDUCTION_FACTOR, emotion);
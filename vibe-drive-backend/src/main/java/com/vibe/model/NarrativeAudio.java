@@ -0,0 +1,34 @@
+package com.vibe.model;
+
+import dev.langchain4j.model.output.structured.Description;
+
+/**
+ * 叙事语音引用
+ * 服务端预合成的 TTS 音频，按内容寻址：相同的文本与语音参数得到相同的 hash，车机可直接下载播放或按 hash 本地缓存
+ */
+@Description("服务端预合成的TTS音频引用，相同文本与语音参数的hash相同")
+public record NarrativeAudio(
+    @Description("音频内容地址（文本、语音角色、语速、音量、情感的哈希）")
+    String hash,
+
+    @Description("音频下载地址")
+    String url,
+
+    @Description("音频格式，如 audio/wav")
+    String mimeType,
+
+    @Description("音频字节数")
+    long bytes
+) {
+    /**
+     * 紧凑构造器：校验
+     */
+    public NarrativeAudio {
+        if (hash == null || hash.isBlank()) {
+            throw new IllegalArgumentException("Audio hash cannot be empty");
+        }
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Audio size must be non-negative");
+        }
+    }
+}
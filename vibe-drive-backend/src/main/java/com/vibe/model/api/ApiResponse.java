@@ -95,6 +95,13 @@ public record ApiResponse<T>(
         return error(ERROR_AGENT_NOT_RUNNING, "Vibe Agent 未运行");
     }
 
+    /**
+     * 便捷方法：创建 Agent 繁忙错误
+     */
+    public static <T> ApiResponse<T> agentBusy(String message) {
+        return error(ERROR_AGENT_BUSY, message);
+    }
+
     /**
      * 便捷方法：创建 LLM 错误
      */
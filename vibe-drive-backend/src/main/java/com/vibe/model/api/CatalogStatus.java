@@ -0,0 +1,23 @@
+package com.vibe.model.api;
+
+import com.vibe.catalog.CatalogLoadStats;
+import com.vibe.catalog.CatalogVariant;
+import dev.langchain4j.model.output.structured.Description;
+
+import java.util.List;
+
+/**
+ * 曲库状态
+ */
+@Description("曲库状态")
+public record CatalogStatus(
+    @Description("最近一次成功加载的统计")
+    CatalogLoadStats lastLoad,
+
+    @Description("是否正在后台重载")
+    boolean reloading,
+
+    @Description("曲库变体统计（新增 / 下架 / 加成数量与覆盖层内存估算）")
+    List<CatalogVariant.Stats> variants
+) {
+}
@@ -14,10 +14,10 @@ public record AgentStatusChangedEvent(
     boolean running,
 
     @NotBlank(message = "Event type cannot be empty")
-    @Description("状态变化事件：started/stopped/error")
+    @Description("状态变化事件：started/stopped/error/degraded/recovered")
     String event,
 
-    @Description("错误信息，仅在 event=error 时存在")
+    @Description("错误信息，仅在 event=error/degraded 时存在")
     String error,
 
     @Description("事件时间戳")
@@ -29,6 +29,8 @@ public record AgentStatusChangedEvent(
     public static final String EVENT_STARTED = "started";
     public static final String EVENT_STOPPED = "stopped";
     public static final String EVENT_ERROR = "error";
+    public static final String EVENT_DEGRADED = "degraded";
+    public static final String EVENT_RECOVERED = "recovered";
 
     /**
      * 紧凑构造器：设置默认时间戳
@@ -60,6 +62,20 @@ public record AgentStatusChangedEvent(
         return new AgentStatusChangedEvent(false, EVENT_ERROR, error, Instant.now());
     }
 
+    /**
+     * 创建降级事件（LLM 熔断，改用本地规划）
+     */
+    public static AgentStatusChangedEvent degraded(String reason) {
+        return new AgentStatusChangedEvent(false, EVENT_DEGRADED, reason, Instant.now());
+    }
+
+    /**
+     * 创建恢复事件（LLM 熔断关闭）
+     */
+    public static AgentStatusChangedEvent recovered() {
+        return new AgentStatusChangedEvent(false, EVENT_RECOVERED, null, Instant.now());
+    }
+
     /**
      * 判断是否为启动事件
      */
@@ -81,6 +97,20 @@ public record AgentStatusChangedEvent(
         return EVENT_ERROR.equals(event);
     }
 
+    /**
+     * 判断是否为降级事件
+     */
+    public boolean isDegraded() {
+        return EVENT_DEGRADED.equals(event);
+    }
+
+    /**
+     * 判断是否为恢复事件
+     */
+    public boolean isRecovered() {
+        return EVENT_RECOVERED.equals(event);
+    }
+
     /**
      * SSE 事件类型名称
      */
@@ -44,6 +44,7 @@ public record ErrorEvent(
     public static final String CODE_TOOL_ERROR = "TOOL_ERROR";
     public static final String CODE_VALIDATION_ERROR = "VALIDATION_ERROR";
     public static final String CODE_INTERNAL_ERROR = "INTERNAL_ERROR";
+    public static final String CODE_AGENT_BUSY = "AGENT_BUSY";
 
     /**
      * 创建 LLM 错误事件
@@ -66,6 +67,13 @@ public record ErrorEvent(
         return new ErrorEvent(CODE_TOOL_ERROR, message);
     }
 
+    /**
+     * 创建 Agent 繁忙事件（准入控制拒绝）
+     */
+    public static ErrorEvent agentBusy(String message) {
+        return new ErrorEvent(CODE_AGENT_BUSY, message);
+    }
+
     /**
      * 创建内部错误事件
      */
@@ -0,0 +1,55 @@
+package com.vibe.model.event;
+
+import com.vibe.model.NarrativeAudio;
+import dev.langchain4j.model.output.structured.Description;
+
+import java.time.Instant;
+
+/**
+ * 叙事分句事件
+ * 流式叙事每切出一句推送一次，车机按 index 顺序播放，不必等待全文生成
+ */
+@Description("流式叙事的一句播报文本")
+public record NarrativeSentenceEvent(
+    @Description("句子序号，从 0 开始")
+    int index,
+
+    @Description("句子文本")
+    String text,
+
+    @Description("预合成语音引用，为空时由车机本地合成")
+    NarrativeAudio audio,
+
+    @Description("自请求开始到本句就绪的耗时（毫秒）")
+    long elapsedMs,
+
+    @Description("事件时间戳")
+    Instant timestamp
+) {
+    /**
+     * 简化构造：自动设置时间戳
+     */
+    public NarrativeSentenceEvent(int index, String text, NarrativeAudio audio, long elapsedMs) {
+        this(index, text, audio, elapsedMs, Instant.now());
+    }
+
+    /**
+     * 紧凑构造器：校验和默认值
+     */
+    public NarrativeSentenceEvent {
+        if (index < 0) {
+            throw new IllegalArgumentException("Sentence index must not be negative");
+        }
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Sentence text cannot be empty");
+        }
+        if (timestamp == null) {
+            timestamp = Instant.now();
+        }
+    }
+
+    /**
+     * SSE 事件类型名称
+     */
+    public static final String EVENT_TYPE = "narrative_sentence";
+}
@@ -0,0 +1,106 @@
+package com.vibe.narrative;
+
+/**
+ * 预编译的叙事模板
+ * 模板文本在加载时按歌名槽 {@value #SONG_SLOT} 拆成固定片段，渲染时只按最终长度分配一次结果字符串，
+ * 不再对整段文本做查找替换；未指定歌名时槽位填「这首歌」，结果在编译时已算好，直接返回共享实例
+ */
+public final class NarrativeTemplate {
+
+    /**
+     * 模板中的歌名槽
+     */
+    public static final String SONG_SLOT = "{song}";
+
+    /**
+     * 未指定歌名时的槽位文本
+     */
+    static final String DEFAULT_SONG_TEXT = "这首歌";
+
+    private static final String SONG_OPEN = "《";
+    private static final String SONG_CLOSE = "》";
+
+    private final String source;
+
+    /**
+     * 未指定歌名时的渲染结果
+     */
+    private final String text;
+
+    /**
+     * 按歌名槽拆分的片段，片段数 = 槽位数 + 1；首尾片段已拼上书名号
+     */
+    private final String[] parts;
+
+    /**
+     * 所有片段（含书名号）的总长度
+     */
+    private final int fixedLength;
+
+    private NarrativeTemplate(String source, String[] parts) {
+        this.source = source;
+        this.parts = parts;
+        this.text = String.join(DEFAULT_SONG_TEXT, parts);
+        for (int i = 0; i < parts.length - 1; i++) {
+            parts[i] = parts[i] + SONG_OPEN;
+            parts[i + 1] = SONG_CLOSE + parts[i + 1];
+        }
+        int length = 0;
+        for (String part : parts) {
+            length += part.length();
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * 编译模板文本
+     */
+    public static NarrativeTemplate compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("模板文本不能为空");
+        }
+        // limit = -1 保留槽位在末尾时的空片段
+        return new NarrativeTemplate(source, source.split("\\{song}", -1));
+    }
+
+    /**
+     * 渲染模板
+     *
+     * @param song 歌曲名（可选），填入歌名槽并加书名号
+     * @return 叙事文本
+     */
+    public String render(String song) {
+        if (parts.length == 1 || song == null || song.isBlank()) {
+            return text;
+        }
+        if (parts.length == 2) {
+            // 单槽位（绝大多数模板）：字符串拼接按总长度一次分配
+            return parts[0] + song + parts[1];
+        }
+        StringBuilder builder = new StringBuilder(fixedLength + (parts.length - 1) * song.length());
+        builder.append(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            builder.append(song).append(parts[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 歌名槽数量
+     */
+    public int slots() {
+        return parts.length - 1;
+    }
+
+    /**
+     * 模板原文
+     */
+    public String source() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
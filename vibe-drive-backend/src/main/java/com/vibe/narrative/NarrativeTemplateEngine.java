@@ -0,0 +1,103 @@
+package com.vibe.narrative;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 叙事模板引擎
+ * 持有当前的 {@link NarrativeTemplatePack}，渲染时只读取一次引用；模板包可在运行时重载（管理接口触发），
+ * 编译完成后原子替换，进行中的请求继续使用旧模板包，不会看到新旧混合的状态
+ *
+ * 未配置模板包文件时使用 classpath 中的 {@value #DEFAULT_PACK}；配置的文件启动时加载失败则回退到内置模板包
+ */
+@Component
+public class NarrativeTemplateEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(NarrativeTemplateEngine.class);
+
+    static final String DEFAULT_PACK = "narrative/templates.json";
+
+    private final ObjectMapper objectMapper;
+    private final String templatesPath;
+
+    private volatile NarrativeTemplatePack pack;
+
+    public NarrativeTemplateEngine(
+            ObjectMapper objectMapper,
+            @Value("${vibe.narrative.templates-path:}") String templatesPath) {
+        this.objectMapper = objectMapper;
+        this.templatesPath = templatesPath;
+        NarrativeTemplatePack initial;
+        try {
+            initial = loadSource();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to load narrative templates {}: {}", templatesPath, e.getMessage(), e);
+            initial = loadDefault();
+        }
+        install(initial);
+    }
+
+    /**
+     * 渲染叙事文本：按 时段 × 天气 × 位置 × 情绪 查表后随机选择一条模板，填入歌曲名
+     * 各参数均为取值字符串，null / 未知取值按不限处理
+     */
+    public String render(String timeOfDay, String weather, String gpsTag, String userMood, String currentSong) {
+        return pack.render(timeOfDay, weather, gpsTag, userMood, currentSong);
+    }
+
+    /**
+     * 当前模板包
+     */
+    public NarrativeTemplatePack pack() {
+        return pack;
+    }
+
+    /**
+     * 从配置的来源重新加载模板包并原子替换；加载或校验失败时继续使用当前模板包并抛出异常
+     */
+    public synchronized NarrativeTemplatePack reload() throws IOException {
+        NarrativeTemplatePack loaded = loadSource();
+        install(loaded);
+        return loaded;
+    }
+
+    /**
+     * 替换当前模板包
+     */
+    public void install(NarrativeTemplatePack pack) {
+        this.pack = pack;
+        NarrativeTemplatePack.Stats stats = pack.stats();
+        log.info("叙事模板包已加载: name={}, source={}, rules={}, templates={}",
+            stats.name(), stats.source(), stats.rules(), stats.templates());
+    }
+
+    private boolean hasTemplatesPath() {
+        return templatesPath != null && !templatesPath.isBlank();
+    }
+
+    private NarrativeTemplatePack loadSource() throws IOException {
+        if (!hasTemplatesPath()) {
+            return loadDefault();
+        }
+        try (InputStream in = Files.newInputStream(Path.of(templatesPath))) {
+            return NarrativeTemplatePack.load(objectMapper, in, templatesPath);
+        }
+    }
+
+    private NarrativeTemplatePack loadDefault() {
+        try (InputStream in = new ClassPathResource(DEFAULT_PACK).getInputStream()) {
+            return NarrativeTemplatePack.load(objectMapper, in, "classpath:" + DEFAULT_PACK);
+        } catch (IOException e) {
+            throw new IllegalStateException("内置叙事模板包加载失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.vibe.narrative;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.TimeOfDay;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * 叙事模板包
+ * 模板包是一组按优先级排列的规则，每条规则限定时段 / 天气 / 位置 / 情绪的取值（不填表示不限），
+ * 条件命中的第一条规则决定可选模板；加载时对 时段 × 天气 × 位置 × 情绪 的每个组合预先求出命中的规则，
+ * 展开成按枚举序号下标的一维表，查询只做下标计算和一次数组读取，不再逐条比较字符串；
+ * 每个维度的第 0 格对应 null / 未知取值，只命中不限该维度的规则
+ *
+ * 模板包加载后不可变，可在多线程间共享；随机选择使用线程本地随机数，请求线程之间不争用
+ */
+public final class NarrativeTemplatePack {
+
+    private static final TimeOfDay[] TIMES = TimeOfDay.values();
+    private static final Weather[] WEATHERS = Weather.values();
+    private static final GpsTag[] GPS_TAGS = GpsTag.values();
+    private static final UserMood[] MOODS = UserMood.values();
+
+    private static final int TIME_SLOTS = TIMES.length + 1;
+    private static final int WEATHER_SLOTS = WEATHERS.length + 1;
+    private static final int GPS_SLOTS = GPS_TAGS.length + 1;
+    private static final int MOOD_SLOTS = MOODS.length + 1;
+
+    /**
+     * 取值字符串 → 格号，与原先 "x".equals(...) 的比较一致（区分大小写）
+     */
+    private static final Map<String, Integer> TIME_INDEX = index(TIMES.length, i -> TIMES[i].getValue());
+    private static final Map<String, Integer> WEATHER_INDEX = index(WEATHERS.length, i -> WEATHERS[i].getValue());
+    private static final Map<String, Integer> GPS_INDEX = index(GPS_TAGS.length, i -> GPS_TAGS[i].getValue());
+    private static final Map<String, Integer> MOOD_INDEX = index(MOODS.length, i -> MOODS[i].getValue());
+
+    private final String name;
+    private final String source;
+    private final int ruleCount;
+    private final int templateCount;
+    private final Instant loadedAt;
+
+    /**
+     * [时段][天气][位置][情绪] 展开的一维表；命中同一规则的格共享同一个模板数组
+     */
+    private final NarrativeTemplate[][] cells;
+
+    private NarrativeTemplatePack(String name, String source, int ruleCount, int templateCount,
+                                  NarrativeTemplate[][] cells) {
+        this.name = name;
+        this.source = source;
+        this.ruleCount = ruleCount;
+        this.templateCount = templateCount;
+        this.cells = cells;
+        this.loadedAt = Instant.now();
+    }
+
+    /**
+     * 从 JSON 流加载模板包
+     *
+     * @param source 来源描述（文件路径或 classpath 资源），仅用于状态展示
+     */
+    public static NarrativeTemplatePack load(ObjectMapper objectMapper, InputStream in, String source) throws IOException {
+        return compile(objectMapper.readValue(in, Definition.class), source);
+    }
+
+    /**
+     * 编译模板包：校验规则、预编译模板并展开查询表
+     *
+     * @throws IllegalArgumentException 规则引用了未知取值，或存在没有任何规则命中的组合（缺少不限条件的兜底规则）
+     */
+    public static NarrativeTemplatePack compile(Definition definition, String source) {
+        List<Rule> rules = definition.rules();
+        boolean[][] timeMasks = new boolean[rules.size()][];
+        boolean[][] weatherMasks = new boolean[rules.size()][];
+        boolean[][] gpsMasks = new boolean[rules.size()][];
+        boolean[][] moodMasks = new boolean[rules.size()][];
+        NarrativeTemplate[][] groups = new NarrativeTemplate[rules.size()][];
+        int templateCount = 0;
+        for (int r = 0; r < rules.size(); r++) {
+            Rule rule = rules.get(r);
+            timeMasks[r] = mask(TIME_SLOTS, TIME_INDEX, rule.timesOfDay(), rule.id(), "timesOfDay");
+            weatherMasks[r] = mask(WEATHER_SLOTS, WEATHER_INDEX, rule.weathers(), rule.id(), "weathers");
+            gpsMasks[r] = mask(GPS_SLOTS, GPS_INDEX, rule.gpsTags(), rule.id(), "gpsTags");
+            moodMasks[r] = mask(MOOD_SLOTS, MOOD_INDEX, rule.moods(), rule.id(), "moods");
+            groups[r] = rule.templates().stream().map(NarrativeTemplate::compile).toArray(NarrativeTemplate[]::new);
+            templateCount += groups[r].length;
+        }
+
+        NarrativeTemplate[][] cells = new NarrativeTemplate[TIME_SLOTS * WEATHER_SLOTS * GPS_SLOTS * MOOD_SLOTS][];
+        for (int t = 0; t < TIME_SLOTS; t++) {
+            for (int w = 0; w < WEATHER_SLOTS; w++) {
+                for (int g = 0; g < GPS_SLOTS; g++) {
+                    for (int m = 0; m < MOOD_SLOTS; m++) {
+                        int r = 0;
+                        while (r < rules.size()
+                            && !(timeMasks[r][t] && weatherMasks[r][w] && gpsMasks[r][g] && moodMasks[r][m])) {
+                            r++;
+                        }
+                        if (r == rules.size()) {
+                            throw new IllegalArgumentException("模板包 " + definition.name()
+                                + " 缺少兜底规则：没有规则命中 timeOfDay=" + describe(TIMES, t) + ", weather="
+                                + describe(WEATHERS, w) + ", gpsTag=" + describe(GPS_TAGS, g)
+                                + ", mood=" + describe(MOODS, m));
+                        }
+                        cells[slot(t, w, g, m)] = groups[r];
+                    }
+                }
+            }
+        }
+        return new NarrativeTemplatePack(definition.name(), source, rules.size(), templateCount, cells);
+    }
+
+    /**
+     * 查询组合可选的模板（不含随机选择）
+     */
+    public NarrativeTemplate[] templates(TimeOfDay timeOfDay, Weather weather, GpsTag gpsTag, UserMood mood) {
+        return cells[slot(ordinalSlot(timeOfDay), ordinalSlot(weather), ordinalSlot(gpsTag), ordinalSlot(mood))];
+    }
+
+    /**
+     * 按取值字符串查询组合可选的模板，null / 未知取值按不限处理
+     */
+    public NarrativeTemplate[] templates(String timeOfDay, String weather, String gpsTag, String mood) {
+        return cells[slot(valueSlot(TIME_INDEX, timeOfDay), valueSlot(WEATHER_INDEX, weather),
+            valueSlot(GPS_INDEX, gpsTag), valueSlot(MOOD_INDEX, mood))];
+    }
+
+    /**
+     * 随机选择一条模板并渲染
+     */
+    public String render(TimeOfDay timeOfDay, Weather weather, GpsTag gpsTag, UserMood mood, String song) {
+        return pick(templates(timeOfDay, weather, gpsTag, mood)).render(song);
+    }
+
+    /**
+     * 按取值字符串随机选择一条模板并渲染
+     */
+    public String render(String timeOfDay, String weather, String gpsTag, String mood, String song) {
+        return pick(templates(timeOfDay, weather, gpsTag, mood)).render(song);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Stats stats() {
+        Set<NarrativeTemplate[]> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(reachable, cells);
+        return new Stats(name, source, ruleCount, reachable.size(), templateCount, cells.length, loadedAt);
+    }
+
+    private static NarrativeTemplate pick(NarrativeTemplate[] templates) {
+        return templates.length == 1 ? templates[0] : templates[ThreadLocalRandom.current().nextInt(templates.length)];
+    }
+
+    private static int slot(int time, int weather, int gps, int mood) {
+        return ((time * WEATHER_SLOTS + weather) * GPS_SLOTS + gps) * MOOD_SLOTS + mood;
+    }
+
+    private static int ordinalSlot(Enum<?> value) {
+        return value == null ? 0 : value.ordinal() + 1;
+    }
+
+    private static int valueSlot(Map<String, Integer> index, String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer slot = index.get(value);
+        return slot != null ? slot : 0;
+    }
+
+    private static String describe(Enum<?>[] values, int slot) {
+        return slot == 0 ? "null" : values[slot - 1].name().toLowerCase();
+    }
+
+    private static Map<String, Integer> index(int size, IntFunction<String> value) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            index.put(value.apply(i), i + 1);
+        }
+        return Map.copyOf(index);
+    }
+
+    /**
+     * 规则在某一维度上命中的格；未限定时全部命中（含第 0 格）
+     */
+    private static boolean[] mask(int slots, Map<String, Integer> index, List<String> values, String ruleId, String field) {
+        boolean[] mask = new boolean[slots];
+        if (values.isEmpty()) {
+            Arrays.fill(mask, true);
+            return mask;
+        }
+        for (String value : values) {
+            Integer slot = index.get(value);
+            if (slot == null) {
+                throw new IllegalArgumentException("规则 " + ruleId + " 的 " + field + " 包含未知取值: " + value);
+            }
+            mask[slot] = true;
+        }
+        return mask;
+    }
+
+    /**
+     * 模板包定义（JSON 结构）
+     *
+     * @param name  模板包名称
+     * @param rules 按优先级排列的规则，最后应有一条不限条件的兜底规则
+     */
+    public record Definition(String name, List<Rule> rules) {
+        public Definition {
+            if (name == null || name.isBlank()) {
+                name = "unnamed";
+            }
+            if (rules == null || rules.isEmpty()) {
+                throw new IllegalArgumentException("模板包至少需要一条规则");
+            }
+            rules = List.copyOf(rules);
+        }
+    }
+
+    /**
+     * 模板规则；各条件列表为空表示不限，模板中可用 {@value NarrativeTemplate#SONG_SLOT} 引用当前歌曲
+     *
+     * @param id         规则标识（用于日志与错误信息）
+     * @param timesOfDay 时段取值
+     * @param weathers   天气取值
+     * @param gpsTags    位置标签取值
+     * @param moods      用户情绪取值
+     * @param templates  模板文本
+     */
+    public record Rule(
+        String id,
+        List<String> timesOfDay,
+        List<String> weathers,
+        List<String> gpsTags,
+        List<String> moods,
+        List<String> templates
+    ) {
+        public Rule {
+            if (templates == null || templates.isEmpty()) {
+                throw new IllegalArgumentException("规则 " + id + " 至少需要一条模板");
+            }
+            timesOfDay = timesOfDay == null ? List.of() : List.copyOf(timesOfDay);
+            weathers = weathers == null ? List.of() : List.copyOf(weathers);
+            gpsTags = gpsTags == null ? List.of() : List.copyOf(gpsTags);
+            moods = moods == null ? List.of() : List.copyOf(moods);
+            templates = List.copyOf(templates);
+        }
+    }
+
+    /**
+     * 模板包统计
+     *
+     * @param name      模板包名称
+     * @param source    来源（文件路径或 classpath 资源）
+     * @param rules     规则数
+     * @param reachable 至少命中一个组合的规则数
+     * @param templates 模板数
+     * @param cells     查询表格数
+     * @param loadedAt  加载时间
+     */
+    public record Stats(
+        String name,
+        String source,
+        int rules,
+        int reachable,
+        int templates,
+        int cells,
+        Instant loadedAt
+    ) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.vibe.narrative;
+
+import java.util.function.Consumer;
+
+/**
+ * 增量分句器
+ * 模型逐段输出文本时按句末标点切句，每凑齐一句立即交给下游（推送 / 合成语音），不必等全文生成完；
+ * 句末标点后紧跟的标点与右引号、右括号归入本句，因此看到句末标点后要等下一段输入才能确认句子结束；
+ * 英文句点只有后面跟空白时才算句末（避免切开 3.5 之类的数字）
+ *
+ * 迟迟没有句末标点时，未切出的文本超过 maxLength 个字符后在最后一个逗号处提前切出，限制首句等待时间；
+ * 非线程安全，同一条输出流的分段按顺序调用
+ */
+public final class SentenceSplitter {
+
+    private final int maxLength;
+    private final Consumer<String> sink;
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * pending 中已检查过的字符数
+     */
+    private int scanned;
+
+    /**
+     * @param maxLength 无句末标点时提前在逗号处切句的长度，0 表示不提前切句
+     * @param sink      接收切出的句子（已去除首尾空白，不含空句）
+     */
+    public SentenceSplitter(int maxLength, Consumer<String> sink) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("maxLength must not be negative");
+        }
+        this.maxLength = maxLength;
+        this.sink = sink;
+    }
+
+    /**
+     * 输入一段增量文本
+     */
+    public void accept(String delta) {
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        pending.append(delta);
+        int start = 0;
+        int i = scanned;
+        boolean waiting = false;
+        while (i < pending.length()) {
+            char c = pending.charAt(i);
+            if (!isTerminator(c) && c != '.') {
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < pending.length() && (isTerminator(pending.charAt(end)) || isCloser(pending.charAt(end)))) {
+                end++;
+            }
+            if (end == pending.length()) {
+                // 句末标点在输入末尾：等下一段确认后面没有更多标点或引号
+                waiting = true;
+                break;
+            }
+            if (c == '.' && end == i + 1 && !Character.isWhitespace(pending.charAt(end))) {
+                i = end;
+                continue;
+            }
+            emit(start, end);
+            start = end;
+            i = end;
+        }
+        if (!waiting && maxLength > 0 && pending.length() - start >= maxLength) {
+            int cut = lastSoftBreak(start);
+            if (cut > start) {
+                emit(start, cut);
+                start = cut;
+            }
+        }
+        pending.delete(0, start);
+        scanned = i - start;
+    }
+
+    /**
+     * 输出结束：剩余文本作为最后一句
+     */
+    public void flush() {
+        emit(0, pending.length());
+        pending.setLength(0);
+        scanned = 0;
+    }
+
+    private void emit(int start, int end) {
+        while (start < end && Character.isWhitespace(pending.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(pending.charAt(end - 1))) {
+            end--;
+        }
+        if (end > start) {
+            sink.accept(pending.substring(start, end));
+        }
+    }
+
+    private int lastSoftBreak(int start) {
+        for (int i = pending.length() - 1; i > start; i--) {
+            char c = pending.charAt(i);
+            if (c == '，' || c == ',' || c == '、' || c == '：' || c == ':') {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '。' || c == '！' || c == '？' || c == '!' || c == '?' || c == '；' || c == ';'
+            || c == '…' || c == '\n';
+    }
+
+    private static boolean isCloser(char c) {
+        return c == '”' || c == '’' || c == '」' || c == '』' || c == '）' || c == ')' || c == '】' || c == '》'
+            || c == '"' || c == '\'';
+    }
+}
@@ -9,6 +9,7 @@ import com.vibe.model.event.TokenEvent;
 import com.vibe.model.event.ToolEndEvent;
 import com.vibe.model.event.ToolStartEvent;
 import com.vibe.model.enums.SafetyMode;
+import com.vibe.orchestration.service.DialogRejectedException;
 import dev.langchain4j.model.chat.response.ChatResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -99,6 +100,12 @@ public class SseVibeCallback implements VibeStreamCallback {
 
     @Override
     public void onError(Throwable error) {
+        if (error instanceof DialogRejectedException rejected) {
+            log.warn("Dialog rejected: sessionId={}, reason={}", sessionId, rejected.getReason());
+            sendEvent(ErrorEvent.EVENT_TYPE, ErrorEvent.agentBusy(rejected.getMessage()));
+            completeEmitter();
+            return;
+        }
         log.error("Dialog error: sessionId={}", sessionId, error);
         String message = error != null ? error.getMessage() : "Unknown error";
         sendEvent(ErrorEvent.EVENT_TYPE, ErrorEvent.llmError(message));
@@ -0,0 +1,296 @@
+package com.vibe.orchestration.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 对话准入控制
+ * - 全局并发上限按 AIMD 自适应：对话耗时低于目标时缓慢增加，超过目标或失败时按比例收缩
+ * - 单会话并发上限（含排队中的请求），防止单车重复请求占满名额
+ * - 全局名额已满时进入有界 FIFO 队列，超过等待期限仍未获得名额则拒绝
+ * - 排队者获得名额后在独立执行器上唤醒，不占用释放名额的 LLM 回调线程或定时器线程
+ */
+@Component
+public class DialogAdmissionController {
+
+    private static final Logger log = LoggerFactory.getLogger(DialogAdmissionController.class);
+
+    /**
+     * 溢出处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 快速拒绝（ApiResponse AGENT_BUSY）
+         */
+        REJECT,
+
+        /**
+         * 使用本地规划器生成方案
+         */
+        LOCAL_PLAN;
+
+        public static OverflowPolicy fromValue(String value) {
+            return "local-plan".equalsIgnoreCase(value) || "LOCAL_PLAN".equalsIgnoreCase(value) ? LOCAL_PLAN : REJECT;
+        }
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final int perSessionLimit;
+    private final int queueCapacity;
+    private final long queueTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+    private final Executor admitter;
+    private final LongSupplier nanoClock;
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    private final Map<String, Integer> sessionCounts = new HashMap<>();
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+    private final Map<DialogRejectedException.Reason, Counter> rejections = new EnumMap<>(DialogRejectedException.Reason.class);
+
+    @Autowired
+    public DialogAdmissionController(
+            MeterRegistry meterRegistry,
+            @Value("${vibe.dialog.admission.initial-limit:8}") int initialLimit,
+            @Value("${vibe.dialog.admission.min-limit:1}") int minLimit,
+            @Value("${vibe.dialog.admission.max-limit:64}") int maxLimit,
+            @Value("${vibe.dialog.admission.target-latency-ms:15000}") long targetLatencyMs,
+            @Value("${vibe.dialog.admission.backoff-ratio:0.75}") double backoffRatio,
+            @Value("${vibe.dialog.admission.per-session-limit:2}") int perSessionLimit,
+            @Value("${vibe.dialog.admission.queue-capacity:32}") int queueCapacity,
+            @Value("${vibe.dialog.admission.queue-timeout-ms:2000}") long queueTimeoutMs,
+            @Value("${vibe.dialog.admission.overflow:reject}") String overflowPolicy) {
+        this(meterRegistry, initialLimit, minLimit, maxLimit, targetLatencyMs, backoffRatio,
+                perSessionLimit, queueCapacity, queueTimeoutMs, OverflowPolicy.fromValue(overflowPolicy),
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dialog-admit-", 0).factory()),
+                System::nanoTime);
+    }
+
+    DialogAdmissionController(
+            MeterRegistry meterRegistry,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            long targetLatencyMs,
+            double backoffRatio,
+            int perSessionLimit,
+            int queueCapacity,
+            long queueTimeoutMs,
+            OverflowPolicy overflowPolicy,
+            Executor admitter,
+            LongSupplier nanoClock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.backoffRatio = backoffRatio;
+        this.perSessionLimit = Math.max(1, perSessionLimit);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+        this.admitter = admitter;
+        this.nanoClock = nanoClock;
+
+        for (DialogRejectedException.Reason reason : DialogRejectedException.Reason.values()) {
+            rejections.put(reason, Counter.builder("vibe.dialog.admission.rejected")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        meterRegistry.gauge("vibe.dialog.admission.limit", this, DialogAdmissionController::currentLimit);
+        meterRegistry.gauge("vibe.dialog.admission.inflight", this, DialogAdmissionController::inFlight);
+        meterRegistry.gauge("vibe.dialog.admission.queued", this, DialogAdmissionController::queued);
+    }
+
+    /**
+     * 申请对话名额
+     *
+     * @return 获得名额时完成；被拒绝时以 {@link DialogRejectedException} 异常完成
+     */
+    public CompletableFuture<Ticket> acquire(String sessionId) {
+        CompletableFuture<Ticket> future = new CompletableFuture<>();
+        DialogRejectedException rejection = null;
+        Waiter waiter = null;
+
+        synchronized (this) {
+            int sessionCount = sessionCounts.getOrDefault(sessionId, 0);
+            if (sessionCount >= perSessionLimit) {
+                rejection = new DialogRejectedException(DialogRejectedException.Reason.SESSION_LIMIT,
+                        "当前会话已有进行中的分析，请稍后重试");
+            } else if (inFlight < currentLimit() && queue.isEmpty()) {
+                sessionCounts.put(sessionId, sessionCount + 1);
+                inFlight++;
+                future.complete(new Ticket(sessionId));
+                return future;
+            } else if (queue.size() < queueCapacity) {
+                sessionCounts.put(sessionId, sessionCount + 1);
+                waiter = new Waiter(sessionId, future);
+                queue.addLast(waiter);
+            } else {
+                rejection = new DialogRejectedException(DialogRejectedException.Reason.QUEUE_FULL,
+                        "服务繁忙，请稍后重试");
+            }
+        }
+
+        if (rejection != null) {
+            reject(future, rejection);
+        } else {
+            Waiter queued = waiter;
+            CompletableFuture.delayedExecutor(queueTimeoutMs, TimeUnit.MILLISECONDS)
+                    .execute(() -> expire(queued));
+        }
+        return future;
+    }
+
+    public OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public synchronized int currentLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (admitter instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (!queue.remove(waiter)) {
+                // 已获得名额
+                return;
+            }
+            decrementSession(waiter.sessionId);
+        }
+        reject(waiter.future, new DialogRejectedException(DialogRejectedException.Reason.QUEUE_TIMEOUT,
+                "排队等待超时，请稍后重试"));
+    }
+
+    private void reject(CompletableFuture<Ticket> future, DialogRejectedException rejection) {
+        rejections.get(rejection.getReason()).increment();
+        log.warn("对话准入拒绝: reason={}, limit={}, inFlight={}, queued={}",
+                rejection.getReason(), currentLimit(), inFlight(), queued());
+        future.completeExceptionally(rejection);
+    }
+
+    /**
+     * @param measured 是否计入上限调整；未真正调用 LLM（如熔断直接降级）时不产生耗时样本
+     */
+    private void release(Ticket ticket, boolean measured, boolean success, long latencyNanos) {
+        List<Admitted> admitted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            decrementSession(ticket.sessionId);
+            if (measured) {
+                adjustLimit(success, latencyNanos);
+            }
+            while (inFlight < currentLimit() && !queue.isEmpty()) {
+                Waiter next = queue.pollFirst();
+                inFlight++;
+                admitted.add(new Admitted(next, new Ticket(next.sessionId)));
+            }
+        }
+        // 在锁外、在执行器上唤醒等待者：后续对话会在 future 回调中直接启动，不能跑在释放方的线程上
+        for (Admitted a : admitted) {
+            try {
+                admitter.execute(() -> a.waiter.future.complete(a.ticket));
+            } catch (RejectedExecutionException e) {
+                // 执行器已关闭（应用停机中）：直接唤醒，避免名额泄漏
+                a.waiter.future.complete(a.ticket);
+            }
+        }
+    }
+
+    /**
+     * AIMD：成功且未超目标耗时时加 1/limit（约每轮满载 +1）；
+     * 超时或失败时乘以 backoffRatio，同一目标耗时窗口内只收缩一次，避免一批慢请求把上限打到底
+     */
+    private void adjustLimit(boolean success, long latencyNanos) {
+        if (success && latencyNanos <= targetLatencyNanos) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (now - lastDecreaseNanos < targetLatencyNanos && lastDecreaseNanos != 0) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        double previous = limit;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        log.info("对话并发上限收缩: {} -> {} (success={}, latency={}ms)",
+                (int) previous, (int) limit, success, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+    }
+
+    private void decrementSession(String sessionId) {
+        sessionCounts.computeIfPresent(sessionId, (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    private record Waiter(String sessionId, CompletableFuture<Ticket> future) {}
+
+    private record Admitted(Waiter waiter, Ticket ticket) {}
+
+    /**
+     * 对话名额，对话结束时释放一次（重复释放会被忽略）
+     */
+    public final class Ticket {
+
+        private final String sessionId;
+        private final long startNanos = nanoClock.getAsLong();
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Ticket(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        public void release(boolean success) {
+            if (released.compareAndSet(false, true)) {
+                DialogAdmissionController.this.release(this, true, success, nanoClock.getAsLong() - startNanos);
+            }
+        }
+
+        /**
+         * 未发起 LLM 调用时释放（如熔断中直接使用本地规划），不计入并发上限调整
+         */
+        public void releaseUnmeasured() {
+            if (released.compareAndSet(false, true)) {
+                DialogAdmissionController.this.release(this, false, true, 0);
+            }
+        }
+    }
+}
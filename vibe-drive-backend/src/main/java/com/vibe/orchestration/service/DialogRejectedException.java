@@ -0,0 +1,38 @@
+package com.vibe.orchestration.service;
+
+/**
+ * 对话准入被拒绝（全局/会话并发已满或排队超时）
+ */
+public class DialogRejectedException extends RuntimeException {
+
+    /**
+     * 拒绝原因
+     */
+    public enum Reason {
+        /**
+         * 同一会话的并发对话已达上限
+         */
+        SESSION_LIMIT,
+
+        /**
+         * 全局并发已满且等待队列已满
+         */
+        QUEUE_FULL,
+
+        /**
+         * 排队超过等待期限
+         */
+        QUEUE_TIMEOUT
+    }
+
+    private final Reason reason;
+
+    public DialogRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,236 @@
+package com.vibe.orchestration.service;
+
+import com.vibe.model.event.AgentStatusChangedEvent;
+import com.vibe.sse.SseEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * LLM 对话熔断器
+ * 基于最近 N 次调用的滑动窗口统计错误率与 P95 延迟：
+ * - CLOSED：正常放行，任一指标超过阈值时熔断
+ * - OPEN：全部拒绝（调用方改用本地规划），持续 openDuration
+ * - HALF_OPEN：放行一个试探请求，成功则关闭，失败则重新熔断
+ * 状态变化以 AgentStatusChangedEvent 广播给所有会话
+ */
+@Component
+public class LlmCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmCircuitBreaker.class);
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final SseEventPublisher eventPublisher;
+    private final LongSupplier nanoClock;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallP95Nanos;
+    private final long openDurationNanos;
+
+    /**
+     * 滑动窗口（环形缓冲）：latencies 为每次调用耗时，failures 标记失败
+     */
+    private final long[] latencies;
+    private final boolean[] failures;
+    private int windowCount;
+    private int windowNext;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    private final Counter rejectedCalls;
+
+    @Autowired
+    public LlmCircuitBreaker(
+            SseEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${vibe.llm.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${vibe.llm.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${vibe.llm.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${vibe.llm.circuit-breaker.slow-call-p95-ms:20000}") long slowCallP95Ms,
+            @Value("${vibe.llm.circuit-breaker.open-duration-ms:30000}") long openDurationMs) {
+        this(eventPublisher, meterRegistry, windowSize, minimumCalls, failureRateThreshold,
+                slowCallP95Ms, openDurationMs, System::nanoTime);
+    }
+
+    LlmCircuitBreaker(
+            SseEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            long slowCallP95Ms,
+            long openDurationMs,
+            LongSupplier nanoClock) {
+        this.eventPublisher = eventPublisher;
+        this.nanoClock = nanoClock;
+        this.latencies = new long[Math.max(1, windowSize)];
+        this.failures = new boolean[latencies.length];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, latencies.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallP95Nanos = TimeUnit.MILLISECONDS.toNanos(slowCallP95Ms);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.rejectedCalls = meterRegistry.counter("vibe.llm.circuit.rejected");
+        meterRegistry.gauge("vibe.llm.circuit.state", this, breaker -> breaker.state().ordinal());
+    }
+
+    /**
+     * 申请一次 LLM 调用
+     *
+     * @return 调用许可；熔断中返回 null，调用方应改用本地规划
+     */
+    public Permit tryAcquire() {
+        synchronized (this) {
+            switch (state) {
+                case CLOSED -> {
+                    return new Permit(false);
+                }
+                case OPEN -> {
+                    if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+                        break;
+                    }
+                    // 熔断期满：放行一个试探请求
+                    state = State.HALF_OPEN;
+                    trialInFlight = true;
+                    log.info("LLM 熔断器半开，放行试探请求");
+                    return new Permit(true);
+                }
+                case HALF_OPEN -> {
+                    if (!trialInFlight) {
+                        trialInFlight = true;
+                        return new Permit(true);
+                    }
+                }
+            }
+        }
+        rejectedCalls.increment();
+        return null;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void onResult(Permit permit, boolean failed, long latencyNanos) {
+        AgentStatusChangedEvent event = null;
+        synchronized (this) {
+            if (permit.trial) {
+                trialInFlight = false;
+                if (failed) {
+                    open();
+                } else {
+                    state = State.CLOSED;
+                    resetWindow();
+                    event = AgentStatusChangedEvent.recovered();
+                }
+            } else if (state == State.CLOSED) {
+                record(failed, latencyNanos);
+                String reason = tripReason();
+                if (reason != null) {
+                    open();
+                    event = AgentStatusChangedEvent.degraded(reason);
+                }
+            }
+            // 熔断期间完成的旧请求不再计入窗口
+        }
+        if (event != null) {
+            log.warn("LLM 熔断器状态变化: event={}, reason={}", event.event(), event.error());
+            eventPublisher.publishToAll(AgentStatusChangedEvent.EVENT_TYPE, event);
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+    }
+
+    private void record(boolean failed, long latencyNanos) {
+        latencies[windowNext] = latencyNanos;
+        failures[windowNext] = failed;
+        windowNext = (windowNext + 1) % latencies.length;
+        windowCount = Math.min(windowCount + 1, latencies.length);
+    }
+
+    private void resetWindow() {
+        windowCount = 0;
+        windowNext = 0;
+    }
+
+    /**
+     * 判断是否需要熔断，返回熔断原因（无需熔断时返回 null）
+     */
+    private String tripReason() {
+        if (windowCount < minimumCalls) {
+            return null;
+        }
+        int failed = 0;
+        for (int i = 0; i < windowCount; i++) {
+            if (failures[i]) {
+                failed++;
+            }
+        }
+        double failureRate = (double) failed / windowCount;
+        if (failureRate >= failureRateThreshold) {
+            return String.format("LLM error rate %.0f%% over last %d calls", failureRate * 100, windowCount);
+        }
+        long p95 = p95LatencyNanos();
+        if (p95 >= slowCallP95Nanos) {
+            return String.format("LLM p95 latency %dms over last %d calls",
+                    TimeUnit.NANOSECONDS.toMillis(p95), windowCount);
+        }
+        return null;
+    }
+
+    private long p95LatencyNanos() {
+        long[] sorted = Arrays.copyOf(latencies, windowCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(0.95 * windowCount) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * 单次调用许可，结果只记录一次（超时与迟到的完成回调不会重复计数）
+     */
+    public final class Permit {
+
+        private final boolean trial;
+        private final long startNanos = nanoClock.getAsLong();
+        private final AtomicBoolean recorded = new AtomicBoolean(false);
+
+        private Permit(boolean trial) {
+            this.trial = trial;
+        }
+
+        public void recordSuccess() {
+            if (recorded.compareAndSet(false, true)) {
+                onResult(this, false, nanoClock.getAsLong() - startNanos);
+            }
+        }
+
+        public void recordFailure() {
+            if (recorded.compareAndSet(false, true)) {
+                onResult(this, true, nanoClock.getAsLong() - startNanos);
+            }
+        }
+
+        public boolean isTrial() {
+            return trial;
+        }
+    }
+}
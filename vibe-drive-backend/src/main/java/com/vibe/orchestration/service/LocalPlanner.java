@@ -0,0 +1,130 @@
+package com.vibe.orchestration.service;
+
+import com.vibe.model.AmbiencePlan;
+import com.vibe.model.Environment;
+import com.vibe.model.LightSetting;
+import com.vibe.model.MassageSetting;
+import com.vibe.model.MusicRecommendation;
+import com.vibe.model.Narrative;
+import com.vibe.model.ScentSetting;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.UserMood;
+import com.vibe.service.LightService;
+import com.vibe.service.MusicService;
+import com.vibe.service.NarrativeService;
+import com.vibe.tool.MassageTool;
+import com.vibe.tool.ScentTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地规划器
+ * LLM 不可用（熔断/超时/过载）时，直接用现有服务与工具按规则生成氛围方案
+ */
+@Component
+public class LocalPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalPlanner.class);
+
+    static final String REASONING = "智能编排暂不可用，已根据当前环境使用本地规则生成氛围方案";
+
+    private final MusicService musicService;
+    private final LightService lightService;
+    private final NarrativeService narrativeService;
+    private final ScentTool scentTool;
+    private final MassageTool massageTool;
+    private final SafetyModeFilter safetyModeFilter;
+
+    public LocalPlanner(
+            MusicService musicService,
+            LightService lightService,
+            NarrativeService narrativeService,
+            ScentTool scentTool,
+            MassageTool massageTool,
+            SafetyModeFilter safetyModeFilter) {
+        this.musicService = musicService;
+        this.lightService = lightService;
+        this.narrativeService = narrativeService;
+        this.scentTool = scentTool;
+        this.massageTool = massageTool;
+        this.safetyModeFilter = safetyModeFilter;
+    }
+
+    /**
+     * 生成本地方案（已应用安全模式过滤）
+     *
+     * @param sessionId 会话 ID，用于音乐推荐的重复降权
+     */
+    public AmbiencePlan plan(Environment environment, SafetyMode safetyMode, String sessionId) {
+        if (safetyMode == SafetyMode.L3_SILENT) {
+            return AmbiencePlan.silent();
+        }
+
+        String mood = environment.userMood() != null ? environment.userMood().getValue() : null;
+        String timeOfDay = environment.timeOfDay() != null ? environment.timeOfDay().getValue() : null;
+        String weather = environment.weather() != null ? environment.weather().getValue() : null;
+        String gpsTag = environment.gpsTag() != null ? environment.gpsTag().getValue() : null;
+
+        MusicRecommendation music = recommendMusic(mood, timeOfDay, environment.passengerCount(), sessionId);
+        LightSetting light = lightService.calculateSetting(
+                environment.userMood(), environment.timeOfDay(), environment.weather());
+        String currentSong = music != null ? music.songs().get(0).title() : null;
+        Narrative narrative = narrativeService.generate(timeOfDay, weather, gpsTag, mood, currentSong, null);
+
+        AmbiencePlan plan = AmbiencePlan.builder()
+                .safetyMode(safetyMode)
+                .reasoning(REASONING)
+                .music(music)
+                .light(light)
+                .narrative(narrative)
+                .scent(chooseScent(environment))
+                .massage(chooseMassage(environment.userMood()))
+                .build();
+        return safetyModeFilter.apply(plan, safetyMode);
+    }
+
+    private MusicRecommendation recommendMusic(String mood, String timeOfDay, int passengerCount, String sessionId) {
+        try {
+            return musicService.recommend(mood, timeOfDay, passengerCount, null, sessionId);
+        } catch (Exception e) {
+            // 曲库为空等情况下不推荐音乐，其余组件照常生成
+            log.warn("本地规划音乐推荐失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 香氛规则与 ScentTool 描述保持一致：疲劳提神、压力放松、海边/山路对应海洋/森林
+     */
+    private ScentSetting chooseScent(Environment environment) {
+        UserMood mood = environment.userMood();
+        if (mood == UserMood.TIRED) {
+            return scentTool.setScent("peppermint", 5, ScentSetting.DEFAULT_DURATION);
+        }
+        if (mood == UserMood.STRESSED) {
+            return scentTool.setScent("lavender", 4, ScentSetting.DEFAULT_DURATION);
+        }
+        if (environment.gpsTag() == GpsTag.COASTAL) {
+            return scentTool.setScent("ocean", 3, ScentSetting.DEFAULT_DURATION);
+        }
+        if (environment.gpsTag() == GpsTag.MOUNTAIN) {
+            return scentTool.setScent("forest", 3, ScentSetting.DEFAULT_DURATION);
+        }
+        return scentTool.setScent("vanilla", 3, ScentSetting.DEFAULT_DURATION);
+    }
+
+    /**
+     * 仅在疲劳/压力场景启用按摩
+     */
+    private MassageSetting chooseMassage(UserMood mood) {
+        if (mood == UserMood.TIRED) {
+            return massageTool.setMassage("energize", "back,shoulder", 4);
+        }
+        if (mood == UserMood.STRESSED) {
+            return massageTool.setMassage("relax", "back,lumbar", 4);
+        }
+        return null;
+    }
+}
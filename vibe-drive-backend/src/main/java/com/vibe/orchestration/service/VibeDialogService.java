@@ -4,6 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vibe.agent.PromptAssembler;
 import com.vibe.agent.VibeAgent;
 import com.vibe.agent.VibeAgentFactory;
+import com.vibe.llm.ModelRouter;
+import com.vibe.llm.ModelTier;
+import com.vibe.llm.TurnType;
 import com.vibe.model.AmbiencePlan;
 import com.vibe.model.LightSetting;
 import com.vibe.model.MassageSetting;
@@ -26,8 +29,11 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -44,19 +50,37 @@ public class VibeDialogService {
     private final PromptAssembler promptAssembler;
     private final SafetyModeFilter safetyModeFilter;
     private final ObjectMapper objectMapper;
+    private final ModelRouter modelRouter;
+    private final LlmCircuitBreaker circuitBreaker;
+    private final LocalPlanner localPlanner;
+    private final DialogAdmissionController admissionController;
 
     @Value("${vibe.dialog.max-recursion-depth:5}")
     private int maxRecursionDepth;
 
+    @Value("${vibe.llm.circuit-breaker.call-timeout-ms:30000}")
+    private long callTimeoutMs;
+
+    @Value("${vibe.llm.circuit-breaker.fallback-on-failure:true}")
+    private boolean fallbackOnFailure;
+
     public VibeDialogService(
             VibeAgentFactory agentFactory,
             PromptAssembler promptAssembler,
             SafetyModeFilter safetyModeFilter,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            ModelRouter modelRouter,
+            LlmCircuitBreaker circuitBreaker,
+            LocalPlanner localPlanner,
+            DialogAdmissionController admissionController) {
         this.agentFactory = agentFactory;
         this.promptAssembler = promptAssembler;
         this.safetyModeFilter = safetyModeFilter;
         this.objectMapper = objectMapper;
+        this.modelRouter = modelRouter;
+        this.circuitBreaker = circuitBreaker;
+        this.localPlanner = localPlanner;
+        this.admissionController = admissionController;
     }
 
     /**
@@ -78,14 +102,68 @@ public class VibeDialogService {
             return;
         }
 
+        // 3. 准入控制：获得名额后（可能需要排队）再启动对话
+        admissionController.acquire(request.sessionId()).whenComplete((ticket, error) -> {
+            if (error != null) {
+                onAdmissionRejected(request, callback, safetyMode, error);
+            } else {
+                startDialog(request, callback, state, ticket);
+            }
+        });
+    }
+
+    private void startDialog(
+            VibeDialogRequest request,
+            VibeStreamCallback callback,
+            VibeLoopState state,
+            DialogAdmissionController.Ticket ticket) {
+        SafetyMode safetyMode = state.safetyMode();
+
+        // 4. 熔断检查：熔断中直接使用本地规划
+        LlmCircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == null) {
+            // 没有调用 LLM：归还名额但不产生耗时样本，避免熔断期间被当作快速成功推高并发上限
+            ticket.releaseUnmeasured();
+            log.warn("LLM 熔断中，使用本地规划: sessionId={}", request.sessionId());
+            callback.onWarning("智能编排服务降级中，已使用本地规划");
+            callback.onComplete(localPlanner.plan(request.environment(), safetyMode, request.sessionId()), null);
+            return;
+        }
+
+        // 调用期限：对话结束时完成 deadline，JDK 随之取消延迟任务，不留到期才空跑的定时器
+        CompletableFuture<Void> deadline = new CompletableFuture<Void>().orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        GuardedDialogCallback guarded = new GuardedDialogCallback(callback, permit, ticket, deadline, request, safetyMode);
+        deadline.whenCompleteAsync((v, error) -> {
+            if (error instanceof TimeoutException) {
+                guarded.onCallTimeout();
+            }
+        });
         VibeToolResults toolResults = new VibeToolResults(objectMapper);
 
-        // 3. 开始递归
+        // 5. 开始递归
         try {
-            executeTurn(request, callback, state, toolResults);
+            executeTurn(request, guarded, state, toolResults);
         } catch (Exception e) {
             log.error("对话执行异常: sessionId={}", request.sessionId(), e);
-            callback.onError(e);
+            guarded.onError(e);
+        }
+    }
+
+    /**
+     * 准入被拒绝：按溢出策略快速失败或使用本地规划
+     */
+    private void onAdmissionRejected(
+            VibeDialogRequest request,
+            VibeStreamCallback callback,
+            SafetyMode safetyMode,
+            Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (admissionController.overflowPolicy() == DialogAdmissionController.OverflowPolicy.LOCAL_PLAN) {
+            log.warn("对话准入拒绝，使用本地规划: sessionId={}, reason={}", request.sessionId(), cause.getMessage());
+            callback.onWarning("智能编排服务繁忙，已使用本地规划");
+            callback.onComplete(localPlanner.plan(request.environment(), safetyMode, request.sessionId()), null);
+        } else {
+            callback.onError(cause);
         }
     }
 
@@ -159,7 +237,7 @@ public class VibeDialogService {
      */
     private void executeTurn(
             VibeDialogRequest request,
-            VibeStreamCallback callback,
+            GuardedDialogCallback callback,
             VibeLoopState state,
             VibeToolResults toolResults) {
 
@@ -179,8 +257,10 @@ public class VibeDialogService {
             return;
         }
 
-        // 2. 创建 Agent 并构建 Prompt
-        VibeAgent agent = agentFactory.createAgent();
+        // 2. 按轮次类型选择模型档位，创建 Agent 并构建 Prompt
+        TurnType turnType = depth == 0 ? TurnType.TOOL_SELECTION : TurnType.FINALIZATION;
+        ModelTier tier = modelRouter.route(turnType, state.safetyMode());
+        VibeAgent agent = agentFactory.createAgent(tier);
         String prompt = depth == 0
                 ? promptAssembler.assembleUserPrompt(request.environment(), request.userPreferences())
                 : "请基于已经获得的工具结果，输出最终的氛围推荐理由（简短），不要再调用任何工具。";
@@ -236,7 +316,11 @@ public class VibeDialogService {
                     && response.aiMessage().text() != null
                     && !response.aiMessage().text().isBlank();
 
-            if (hasToolCall.get() && !hasFinalText) {
+            if (hasToolCall.get() && !hasFinalText && callback.timedOut()) {
+                // 已超时改用本地方案，不再发起下一轮 LLM 调用；结束本次调用以释放准入名额
+                log.info("对话已超时，不再继续递归: sessionId={}, depth={}", request.sessionId(), depth);
+                callback.onComplete(null, response);
+            } else if (hasToolCall.get() && !hasFinalText) {
                 // 有工具调用，递归继续
                 log.info("检测到工具调用，递归继续: sessionId={}, nextDepth={}",
                         request.sessionId(), depth + 1);
@@ -332,6 +416,156 @@ public class VibeDialogService {
         }
     }
 
+    /**
+     * 对话结束记账回调：对话结束（完成/失败/超时）时只记录一次熔断结果；
+     * 失败或超时时改用本地规划完成对话，之后迟到的 LLM 回调全部丢弃。
+     * 准入名额跟随真实的 LLM 调用：超时后 LLM 流（及其工具调用）仍在进行，名额保留到流结束或出错才释放，
+     * 服务商变慢时准入仍然限制着在途调用数
+     */
+    private final class GuardedDialogCallback implements VibeStreamCallback {
+
+        private final VibeStreamCallback delegate;
+        private final LlmCircuitBreaker.Permit permit;
+        private final DialogAdmissionController.Ticket ticket;
+        private final CompletableFuture<Void> deadline;
+        private final VibeDialogRequest request;
+        private final SafetyMode safetyMode;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile boolean timedOut;
+
+        private GuardedDialogCallback(
+                VibeStreamCallback delegate,
+                LlmCircuitBreaker.Permit permit,
+                DialogAdmissionController.Ticket ticket,
+                CompletableFuture<Void> deadline,
+                VibeDialogRequest request,
+                SafetyMode safetyMode) {
+            this.delegate = delegate;
+            this.permit = permit;
+            this.ticket = ticket;
+            this.deadline = deadline;
+            this.request = request;
+            this.safetyMode = safetyMode;
+        }
+
+        @Override
+        public void onTextDelta(String text) {
+            if (!finished.get()) {
+                delegate.onTextDelta(text);
+            }
+        }
+
+        @Override
+        public void onToolStart(String toolName, Object toolInput) {
+            if (!finished.get()) {
+                delegate.onToolStart(toolName, toolInput);
+            }
+        }
+
+        @Override
+        public void onToolComplete(String toolName, String result) {
+            if (!finished.get()) {
+                delegate.onToolComplete(toolName, result);
+            }
+        }
+
+        @Override
+        public void onToolError(String toolName, Throwable error) {
+            if (!finished.get()) {
+                delegate.onToolError(toolName, error);
+            }
+        }
+
+        @Override
+        public void onComplete(AmbiencePlan plan, ChatResponse response) {
+            if (finished.compareAndSet(false, true)) {
+                deadline.complete(null);
+                permit.recordSuccess();
+                ticket.release(true);
+                delegate.onComplete(plan, response);
+            } else {
+                // 超时后 LLM 流才结束：此时释放名额，按失败计入并发上限调整
+                ticket.release(false);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            if (!finished.compareAndSet(false, true)) {
+                ticket.release(false);
+                return;
+            }
+            deadline.complete(null);
+            permit.recordFailure();
+            ticket.release(false);
+            if (fallbackOnFailure) {
+                log.warn("LLM 调用失败，使用本地规划: sessionId={}, error={}", request.sessionId(), error.getMessage());
+                completeLocally("智能编排调用失败，已使用本地规划");
+            } else {
+                delegate.onError(error);
+            }
+        }
+
+        /**
+         * 调用超时：计为失败；允许降级时立即返回本地方案，不再等待 LLM
+         */
+        private void onCallTimeout() {
+            if (finished.get()) {
+                return;
+            }
+            if (!fallbackOnFailure) {
+                // 不降级时继续等待 LLM，名额在对话真正结束时释放
+                permit.recordFailure();
+                return;
+            }
+            if (finished.compareAndSet(false, true)) {
+                timedOut = true;
+                permit.recordFailure();
+                log.warn("LLM 调用超时（{}ms），使用本地规划，名额保留到 LLM 流结束: sessionId={}",
+                        callTimeoutMs, request.sessionId());
+                completeLocally("智能编排响应超时，已使用本地规划");
+            }
+        }
+
+        /**
+         * 是否已因超时改用本地方案（LLM 流可能仍在进行）
+         */
+        private boolean timedOut() {
+            return timedOut;
+        }
+
+        private void completeLocally(String warning) {
+            delegate.onWarning(warning);
+            delegate.onComplete(localPlanner.plan(request.environment(), safetyMode, request.sessionId()), null);
+        }
+
+        @Override
+        public void onSafetyModeApplied(SafetyMode mode) {
+            delegate.onSafetyModeApplied(mode);
+        }
+
+        @Override
+        public void onStateUpdate(VibeLoopState state) {
+            if (!finished.get()) {
+                delegate.onStateUpdate(state);
+            }
+        }
+
+        @Override
+        public void onDepthUpdate(int depth) {
+            if (!finished.get()) {
+                delegate.onDepthUpdate(depth);
+            }
+        }
+
+        @Override
+        public void onWarning(String message) {
+            if (!finished.get()) {
+                delegate.onWarning(message);
+            }
+        }
+    }
+
     private record ToolInFlight(String arguments, long startNanos) {}
 
     private String toJsonString(Object value) {
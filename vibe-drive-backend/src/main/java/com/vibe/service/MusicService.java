@@ -1,31 +1,77 @@
 package com.vibe.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.catalog.BpmSequencer;
+import com.vibe.catalog.CandidateTable;
+import com.vibe.catalog.CatalogFileWatcher;
+import com.vibe.catalog.CatalogLoadStats;
+import com.vibe.catalog.CatalogLoader;
+import com.vibe.catalog.CatalogOverlay;
+import com.vibe.catalog.CatalogVariant;
+import com.vibe.catalog.HeapSongCatalog;
+import com.vibe.catalog.HnswIndex;
+import com.vibe.catalog.RankingQuery;
+import com.vibe.catalog.RecentlyPlayed;
+import com.vibe.catalog.SongCatalog;
+import com.vibe.catalog.SongIndex;
+import com.vibe.catalog.SongRanker;
+import com.vibe.catalog.SongVectors;
 import com.vibe.model.BpmRange;
 import com.vibe.model.MusicRecommendation;
-import com.vibe.model.Song;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 音乐推荐服务
  * 负责加载曲库、根据条件筛选和推荐音乐
+ * 曲库加载后构建一次索引（BPM 有序数组），推荐时在索引上打分取 Top-K；
+ * 曲库可在后台重载（管理接口或文件监听触发），完成后原子替换；
+ * ranked 策略下预先物化每个 (情绪, 流派) 组合的候选，推荐时查表后按会话重排；
+ * vector 策略下另建特征向量的 HNSW 近邻索引；派生结构与曲库索引一起整体替换；
+ * 地区 / 车型曲库变体以覆盖层（新增 / 下架 / 加成）叠加在共享的基础曲库上，按会话选择
  */
 @Service
 public class MusicService {
 
     private static final Logger log = LoggerFactory.getLogger(MusicService.class);
 
+    /**
+     * 推荐策略
+     */
+    public enum Strategy {
+        /**
+         * 在 BPM 有序索引上打分取 Top-K（默认）
+         */
+        RANKED,
+
+        /**
+         * 特征向量近似最近邻（HNSW）
+         */
+        VECTOR;
+
+        public static Strategy fromValue(String value) {
+            return "vector".equalsIgnoreCase(value) ? VECTOR : RANKED;
+        }
+    }
+
     /**
      * 情绪 → BPM 范围映射
      */
@@ -50,85 +96,380 @@ public class MusicService {
         "evening", List.of("jazz", "folk", "pop")
     );
 
-    private final ObjectMapper objectMapper;
-    private List<Song> songLibrary;
+    /**
+     * 每次推荐的歌曲数
+     */
+    private static final int RESULT_LIMIT = 5;
+
+    private static final int[] NO_RECENT = new int[0];
+
+    /**
+     * 向量检索第 0 层搜索宽度
+     */
+    private static final int VECTOR_EF_SEARCH = 64;
+
+    private static final String MOCK_LIBRARY = "mock-data/mock-songs.json";
+
+    private static final long WATCH_DEBOUNCE_MS = 1000;
+
+    private final CatalogLoader catalogLoader;
+    private final RecentlyPlayedStore recentlyPlayedStore;
+    private final SessionVariantStore sessionVariants;
+    private final String catalogPath;
+    private final String variantsPath;
+    private final String defaultVariant;
+    private final boolean watchCatalog;
+    private final Strategy strategy;
+    private final int tableDepth;
+    private final Counter tableHits;
+    private final Counter tableMisses;
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    public MusicService(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    /**
+     * 当前曲库；重载时整体替换，推荐请求每次只读取一次引用，不会看到新旧混合的状态
+     */
+    private volatile Library library = Library.of(SongIndex.build(HeapSongCatalog.of(List.of())), null, null, Map.of());
+    private volatile CatalogLoadStats lastLoadStats;
+
+    /**
+     * 进行中的重载；重载期间再次触发时只标记 reloadAgain，结束后再加载一次
+     */
+    private CompletableFuture<CatalogLoadStats> pendingReload;
+    private boolean reloadAgain;
+    private CatalogFileWatcher catalogWatcher;
+
+    public MusicService(
+            ObjectMapper objectMapper,
+            RecentlyPlayedStore recentlyPlayedStore,
+            SessionVariantStore sessionVariants,
+            MeterRegistry meterRegistry,
+            @Value("${vibe.music.catalog-path:}") String catalogPath,
+            @Value("${vibe.music.variants-path:}") String variantsPath,
+            @Value("${vibe.music.default-variant:}") String defaultVariant,
+            @Value("${vibe.music.watch-catalog:false}") boolean watchCatalog,
+            @Value("${vibe.music.strategy:ranked}") String strategy,
+            @Value("${vibe.music.table-depth:64}") int tableDepth) {
+        this.catalogLoader = new CatalogLoader(objectMapper);
+        this.recentlyPlayedStore = recentlyPlayedStore;
+        this.sessionVariants = sessionVariants;
+        this.catalogPath = catalogPath;
+        this.variantsPath = variantsPath;
+        this.defaultVariant = defaultVariant;
+        this.watchCatalog = watchCatalog;
+        this.strategy = Strategy.fromValue(strategy);
+        // 候选需覆盖最近播放被降权后仍能凑满结果，否则重排结果会与实时打分不一致
+        this.tableDepth = tableDepth <= 0 ? 0 : Math.max(tableDepth, RESULT_LIMIT + recentlyPlayedStore.capacity());
+        this.tableHits = meterRegistry.counter("vibe.music.table.lookups", "result", "hit");
+        this.tableMisses = meterRegistry.counter("vibe.music.table.lookups", "result", "miss");
+        meterRegistry.gauge("vibe.music.table.hit.rate", this, MusicService::tableHitRate);
     }
 
     @PostConstruct
     public void init() {
-        loadSongLibrary();
+        try {
+            install(loadSource());
+        } catch (Exception e) {
+            log.error("Failed to load song library {}: {}", source(), e.getMessage(), e);
+            if (hasCatalogPath()) {
+                loadMockLibrary();
+            }
+        }
+        if (watchCatalog && hasCatalogPath()) {
+            try {
+                catalogWatcher = CatalogFileWatcher.start(Path.of(catalogPath), WATCH_DEBOUNCE_MS, this::reload);
+            } catch (IOException e) {
+                log.error("Failed to watch song catalog {}: {}", catalogPath, e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (catalogWatcher != null) {
+            catalogWatcher.close();
+        }
+        reloadExecutor.shutdownNow();
     }
 
     /**
-     * 加载曲库数据
+     * 后台重新加载曲库（catalog-path 未配置时重新加载 mock 曲库），完成后原子替换；
+     * 加载期间推荐请求继续使用旧曲库，加载失败时保留旧曲库
+     *
+     * @return 完成时给出加载统计；已有重载进行中时返回同一个 future
      */
-    private void loadSongLibrary() {
-        try {
-            ClassPathResource resource = new ClassPathResource("mock-data/mock-songs.json");
-            try (InputStream is = resource.getInputStream()) {
-                JsonNode root = objectMapper.readTree(is);
-                JsonNode songsNode = root.get("songs");
-                if (songsNode == null || songsNode.isNull() || !songsNode.isArray()) {
-                    log.warn("Invalid song library format: 'songs' field is missing or not an array");
-                    songLibrary = List.of();
-                    return;
+    public synchronized CompletableFuture<CatalogLoadStats> reload() {
+        if (pendingReload != null) {
+            reloadAgain = true;
+            return pendingReload;
+        }
+        CompletableFuture<CatalogLoadStats> future = new CompletableFuture<>();
+        pendingReload = future;
+        reloadExecutor.execute(() -> runReload(future));
+        return future;
+    }
+
+    public synchronized boolean isReloading() {
+        return pendingReload != null;
+    }
+
+    /**
+     * 最近一次成功加载的统计
+     */
+    public CatalogLoadStats lastLoadStats() {
+        return lastLoadStats;
+    }
+
+    private void runReload(CompletableFuture<CatalogLoadStats> future) {
+        CatalogLoadStats stats = null;
+        Exception failure = null;
+        boolean again;
+        do {
+            synchronized (this) {
+                reloadAgain = false;
+            }
+            try {
+                CatalogLoader.LoadedCatalog loaded = loadSource();
+                install(loaded);
+                stats = loaded.stats();
+                failure = null;
+            } catch (Exception e) {
+                log.error("曲库重载失败，继续使用当前曲库: {}", e.getMessage(), e);
+                failure = e;
+            }
+            synchronized (this) {
+                again = reloadAgain;
+                if (!again) {
+                    pendingReload = null;
                 }
-                songLibrary = objectMapper.convertValue(songsNode, new TypeReference<List<Song>>() {});
-                log.info("Loaded {} songs from mock library", songLibrary.size());
             }
+        } while (again);
+
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(stats);
+        }
+    }
+
+    /**
+     * 加载配置的曲库文件（列式或 JSON），未配置时加载 mock 曲库
+     */
+    private CatalogLoader.LoadedCatalog loadSource() throws IOException {
+        if (hasCatalogPath()) {
+            return catalogLoader.load(Path.of(catalogPath));
+        }
+        try (InputStream is = new ClassPathResource(MOCK_LIBRARY).getInputStream()) {
+            return catalogLoader.loadJson("classpath:" + MOCK_LIBRARY, is);
+        }
+    }
+
+    private void loadMockLibrary() {
+        try (InputStream is = new ClassPathResource(MOCK_LIBRARY).getInputStream()) {
+            install(catalogLoader.loadJson("classpath:" + MOCK_LIBRARY, is));
         } catch (Exception e) {
-            log.error("Failed to load song library: {}", e.getMessage(), e);
-            songLibrary = List.of();
+            log.error("Failed to load song library {}: {}", MOCK_LIBRARY, e.getMessage(), e);
+        }
+    }
+
+    private void install(CatalogLoader.LoadedCatalog loaded) {
+        CatalogLoadStats stats = loaded.stats();
+        log.info("Loaded {} songs from {}: load {}ms, index {}ms, peak heap {}MB",
+            stats.songs(), stats.source(), stats.loadMillis(), stats.indexMillis(), stats.peakHeapMb());
+        library = buildLibrary(loaded.index());
+        lastLoadStats = stats;
+    }
+
+    private Library buildLibrary(SongIndex index) {
+        return Library.of(index, buildCandidateTable(index), buildVectorIndex(index), buildVariants(index));
+    }
+
+    /**
+     * 加载覆盖层文件并解析到新的基础曲库上（每次加载曲库时重新读取）；
+     * 覆盖层加载失败时只提供基础曲库
+     */
+    private Map<String, CatalogVariant> buildVariants(SongIndex index) {
+        if (variantsPath == null || variantsPath.isBlank()) {
+            return Map.of();
+        }
+        long start = System.nanoTime();
+        List<CatalogOverlay> overlays;
+        try {
+            overlays = catalogLoader.loadOverlays(Path.of(variantsPath));
+        } catch (IOException e) {
+            log.error("Failed to load catalog variants {}: {}", variantsPath, e.getMessage(), e);
+            return Map.of();
+        }
+        Map<String, CatalogVariant> variants = CatalogVariant.resolveAll(index, overlays);
+        for (CatalogVariant variant : variants.values()) {
+            CatalogVariant.Stats stats = variant.stats();
+            log.info("Catalog variant {}: +{} / -{} songs, {} boosts, {} songs, overlay {}KB",
+                stats.name(), stats.additions(), stats.removals(), stats.boosts(), stats.songs(),
+                stats.overlayBytes() / 1024);
+        }
+        log.info("Catalog variants resolved: {} variants on shared index {}KB in {}ms",
+            variants.size(), index.indexBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        return variants;
+    }
+
+    /**
+     * ranked 策略下物化候选表：配置的情绪 × 曲库流派与时段推荐流派（及不限流派）
+     */
+    private CandidateTable buildCandidateTable(SongIndex index) {
+        if (strategy != Strategy.RANKED || tableDepth == 0) {
+            return null;
         }
+        long start = System.nanoTime();
+        Set<String> genres = new LinkedHashSet<>();
+        genres.add("pop");
+        TIME_GENRE_MAP.values().forEach(genres::addAll);
+        CandidateTable table = CandidateTable.build(index, MOOD_BPM_MAP, genres, tableDepth);
+        log.info("Candidate table built: {} cells x {} candidates in {}ms",
+            table.cellCount(), table.depth(), (System.nanoTime() - start) / 1_000_000);
+        return table;
+    }
+
+    /**
+     * vector 策略下构建 HNSW 近邻索引，其余策略返回 null
+     */
+    private HnswIndex buildVectorIndex(SongIndex index) {
+        if (strategy != Strategy.VECTOR) {
+            return null;
+        }
+        long start = System.nanoTime();
+        HnswIndex vectors = HnswIndex.build(SongVectors.build(index.catalog()));
+        log.info("Vector index built: {} songs, {} feature points, graph {}KB in {}ms",
+            index.size(), vectors.size(), vectors.graphBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        return vectors;
+    }
+
+    private boolean hasCatalogPath() {
+        return catalogPath != null && !catalogPath.isBlank();
+    }
+
+    private String source() {
+        return hasCatalogPath() ? catalogPath : "classpath:" + MOCK_LIBRARY;
+    }
+
+    /**
+     * 直接替换曲库并重建索引（基准测试等场景使用）
+     */
+    public void loadCatalog(SongCatalog catalog) {
+        long start = System.nanoTime();
+        SongIndex index = SongIndex.build(catalog);
+        library = buildLibrary(index);
+        log.info("Song index built: {} songs, {} moods, {} genres in {}ms",
+            index.size(), catalog.moods().size(), catalog.genres().size(),
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 推荐音乐（无会话，不做重复降权）
+     */
+    public MusicRecommendation recommend(String mood, String timeOfDay, int passengerCount, String genre) {
+        return recommend(mood, timeOfDay, passengerCount, genre, null);
     }
 
     /**
      * 推荐音乐
+     * ranked 策略在曲库中按 BPM 接近度、流派亲和度、情绪重合度打分取前 5 首
+     * （命中物化候选表时只在预先算好的候选上重排）；
+     * vector 策略把条件映射为特征向量，取最近的 5 首；
+     * 同一会话最近推荐过的歌曲降权（vector 策略下跳过），同分歌曲按会话打散；
+     * 同一会话上一首的 BPM 离目标较远时改为逐步过渡的序列，否则从上一首出发按 BPM 就近排序；
+     * 会话指定了曲库变体（或配置了默认变体）时在该变体上打分（实时打分，不使用基础曲库的候选表与向量索引）
      *
      * @param mood           目标情绪
      * @param timeOfDay      时段
      * @param passengerCount 乘客数量
      * @param genre          偏好流派（可选）
+     * @param sessionId      会话 ID（可选）
      * @return 音乐推荐结果
      */
-    public MusicRecommendation recommend(String mood, String timeOfDay, int passengerCount, String genre) {
+    public MusicRecommendation recommend(String mood, String timeOfDay, int passengerCount, String genre, String sessionId) {
         BpmRange targetBpm = MOOD_BPM_MAP.getOrDefault(mood, new BpmRange(60, 120));
         String effectiveGenre = determineGenre(genre, timeOfDay, passengerCount);
+        Library current = library;
+        SongIndex index = current.index();
+        CatalogVariant variant = current.variant(variantName(sessionId));
+        RecentlyPlayed recent = sessionId != null ? recentlyPlayedStore.forSession(sessionId) : null;
+        int[] recentOrdinals = recent != null ? recent.snapshot(variant) : NO_RECENT;
+        long seed = RankingQuery.seedOf(sessionId);
 
-        // 优先使用 mood 标签 + BPM + 流派筛选
-        List<Song> filtered = songLibrary.stream()
-            .filter(song -> song.matchesMood(mood))
-            .filter(song -> matchesBpm(song, targetBpm))
-            .filter(song -> matchesGenre(song, effectiveGenre))
-            .limit(5)
-            .toList();
-
-        // 如果筛选结果太少，放宽流派条件
-        if (filtered.size() < 3) {
-            filtered = songLibrary.stream()
-                .filter(song -> song.matchesMood(mood))
-                .filter(song -> matchesBpm(song, targetBpm))
-                .limit(5)
-                .toList();
+        int[] hits = new int[RESULT_LIMIT];
+        int count;
+        int previous = recent != null ? recent.last(variant) : RecentlyPlayed.NONE;
+        int previousBpm = previous != RecentlyPlayed.NONE ? variant.bpm(previous) : 0;
+        boolean transition = previous != RecentlyPlayed.NONE && BpmSequencer.needsTransition(previousBpm, targetBpm);
+        CandidateTable.Candidates candidates = current.table() != null
+            ? current.table().lookup(mood, effectiveGenre) : null;
+        if (transition) {
+            count = BpmSequencer.transition(variant, new RankingQuery(mood, targetBpm, effectiveGenre, seed),
+                previousBpm, recentOrdinals, RESULT_LIMIT, hits);
+        } else if (variant.hasOverlay()) {
+            count = SongRanker.topK(variant, new RankingQuery(mood, targetBpm, effectiveGenre, seed),
+                recentOrdinals, RESULT_LIMIT, hits, null);
+        } else if (current.vectors() != null) {
+            count = nearestSongs(current.vectors(), SongVectors.query(mood, targetBpm, effectiveGenre),
+                seed, recentOrdinals, hits);
+        } else if (candidates != null) {
+            tableHits.increment();
+            count = candidates.rerank(seed, recentOrdinals, RESULT_LIMIT, hits);
+        } else {
+            if (current.table() != null) {
+                tableMisses.increment();
+            }
+            count = SongRanker.topK(index, new RankingQuery(mood, targetBpm, effectiveGenre, seed),
+                recentOrdinals, RESULT_LIMIT, hits);
         }
-
-        // 如果还是太少，只用 mood 标签筛选
-        if (filtered.size() < 3) {
-            filtered = songLibrary.stream()
-                .filter(song -> song.matchesMood(mood))
-                .limit(5)
-                .toList();
+        if (previous != RecentlyPlayed.NONE && !transition) {
+            BpmSequencer.orderSmoothly(variant, previousBpm, hits, count);
         }
+        if (recent != null) {
+            recent.record(variant, hits, count);
+        }
+
+        return new MusicRecommendation(variant.songs(hits, count), mood, effectiveGenre, targetBpm);
+    }
+
+    /**
+     * 会话指定的曲库变体，未指定时使用默认变体
+     */
+    private String variantName(String sessionId) {
+        String assigned = sessionVariants.variantOf(sessionId);
+        return assigned != null ? assigned : defaultVariant;
+    }
 
-        // 如果还是太少，返回默认推荐
-        if (filtered.isEmpty()) {
-            filtered = songLibrary.stream().limit(5).toList();
+    /**
+     * 向量近邻：多取最近播放数量的候选，跳过最近播放过的歌曲，不足时再用最近播放的补齐
+     */
+    private static int nearestSongs(HnswIndex vectors, float[] query, long seed, int[] recent, int[] out) {
+        int[] candidates = new int[RESULT_LIMIT + recent.length];
+        int found = vectors.nearestSongs(query, candidates.length, VECTOR_EF_SEARCH, seed, candidates);
+        int count = 0;
+        for (int i = 0; i < found && count < out.length; i++) {
+            if (!contains(recent, candidates[i])) {
+                out[count++] = candidates[i];
+            }
+        }
+        for (int i = 0; i < found && count < out.length; i++) {
+            if (contains(recent, candidates[i])) {
+                out[count++] = candidates[i];
+            }
         }
+        return count;
+    }
 
-        return new MusicRecommendation(filtered, mood, effectiveGenre, targetBpm);
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -155,27 +496,53 @@ public class MusicService {
     }
 
     /**
-     * 检查歌曲 BPM 是否在目标范围内
+     * 获取曲库大小（用于测试）
      */
-    private boolean matchesBpm(Song song, BpmRange range) {
-        int bpm = song.bpm();
-        return bpm >= range.min() && bpm <= range.max();
+    public int getLibrarySize() {
+        return library.index().size();
+    }
+
+    public Strategy strategy() {
+        return strategy;
     }
 
     /**
-     * 检查歌曲流派是否匹配
+     * 当前曲库的各变体统计（不含基础曲库本身）
      */
-    private boolean matchesGenre(Song song, String genre) {
-        if (genre == null || genre.isBlank() || "mixed".equals(genre)) {
-            return true;
-        }
-        return genre.equalsIgnoreCase(song.genre());
+    public List<CatalogVariant.Stats> variantStats() {
+        return library.variants().values().stream().map(CatalogVariant::stats).toList();
     }
 
     /**
-     * 获取曲库大小（用于测试）
+     * 物化候选表命中率
      */
-    public int getLibrarySize() {
-        return songLibrary != null ? songLibrary.size() : 0;
+    public double tableHitRate() {
+        double total = tableHits.count() + tableMisses.count();
+        return total == 0 ? 0 : tableHits.count() / total;
+    }
+
+    /**
+     * 一次加载的曲库及其派生索引，整体替换
+     *
+     * @param index    曲库索引
+     * @param base     基础曲库本身（无覆盖层的变体）
+     * @param table    物化候选表（仅 ranked 策略）
+     * @param vectors  HNSW 近邻索引（仅 vector 策略）
+     * @param variants 变体名 → 曲库变体（共享 index）
+     */
+    private record Library(SongIndex index, CatalogVariant base, CandidateTable table, HnswIndex vectors,
+                           Map<String, CatalogVariant> variants) {
+
+        static Library of(SongIndex index, CandidateTable table, HnswIndex vectors,
+                          Map<String, CatalogVariant> variants) {
+            return new Library(index, CatalogVariant.base(index), table, vectors, variants);
+        }
+
+        /**
+         * 按名称选择变体，未指定或未知的变体使用基础曲库
+         */
+        CatalogVariant variant(String name) {
+            return name == null ? base : variants.getOrDefault(name, base);
+        }
     }
 }
@@ -3,12 +3,14 @@ package com.vibe.service;
 import com.vibe.model.Narrative;
 import com.vibe.model.enums.NarrativeEmotion;
 import com.vibe.model.enums.SafetyMode;
-import com.vibe.support.NarrativeTemplates;
+import com.vibe.narrative.NarrativeTemplateEngine;
+import com.vibe.tts.TtsService;
 import org.springframework.stereotype.Service;
 
 /**
  * 叙事生成服务
- * 负责根据环境条件生成 TTS 播报文本
+ * 负责根据环境条件生成 TTS 播报文本，并经 {@link TtsService} 附上服务端预合成的语音引用；
+ * 由模型流式生成的叙事见 {@link NarrativeStreamService}
  */
 @Service
 public class NarrativeService {
@@ -18,6 +20,14 @@ public class NarrativeService {
      */
     private static final String DEFAULT_VOICE = "gentle_female";
 
+    private final NarrativeTemplateEngine templateEngine;
+    private final TtsService ttsService;
+
+    public NarrativeService(NarrativeTemplateEngine templateEngine, TtsService ttsService) {
+        this.templateEngine = templateEngine;
+        this.ttsService = ttsService;
+    }
+
     /**
      * 生成叙事文本
      *
@@ -31,14 +41,36 @@ public class NarrativeService {
      */
     public Narrative generate(String timeOfDay, String weather, String gpsTag,
                               String userMood, String currentSong, String theme) {
-        // 生成文本
-        String text = NarrativeTemplates.generate(timeOfDay, weather, gpsTag, currentSong);
+        String text = renderText(timeOfDay, weather, gpsTag, userMood, currentSong, theme);
+        return ttsService.attachAudio(compose(text, timeOfDay, userMood));
+    }
+
+    /**
+     * 按模板生成叙事文本，不确定语音参数
+     *
+     * @return 播报文本
+     */
+    public String renderText(String timeOfDay, String weather, String gpsTag,
+                             String userMood, String currentSong, String theme) {
+        String text = templateEngine.render(timeOfDay, weather, gpsTag, userMood, currentSong);
 
-        // 如果有特定主题，可能需要调整文本（未来可扩展 LLM 生成）
+        // 如果有特定主题，可能需要调整文本（流式叙事由模型按主题生成）
         if (theme != null && !theme.isBlank()) {
             text = adjustTextForTheme(text, theme);
         }
+        return text;
+    }
 
+    /**
+     * 为给定文本确定语音参数（语音角色、语速、音量、情感），不合成语音
+     * 流式叙事逐句调用，同一条叙事的各句参数一致
+     *
+     * @param text      播报文本
+     * @param timeOfDay 时段
+     * @param userMood  用户情绪
+     * @return 不带语音引用的叙事
+     */
+    public Narrative compose(String text, String timeOfDay, String userMood) {
         // 确定情感
         NarrativeEmotion emotion = mapEmotion(userMood, timeOfDay);
 
@@ -81,7 +113,7 @@ public class NarrativeService {
         }
 
         return switch (safetyMode) {
-            case L3_SILENT -> narrative.withReducedVolume();  // 静默模式降低音量
+            case L3_SILENT -> ttsService.attachAudio(narrative.withReducedVolume());  // 静默模式降低音量，按新音量合成
             case L2_FOCUS, L1_NORMAL -> narrative;  // 其他模式不过滤
         };
     }
@@ -0,0 +1,409 @@
+package com.vibe.service;
+
+import com.vibe.agent.NarrativeAgent;
+import com.vibe.agent.NarrativeAgentFactory;
+import com.vibe.model.Environment;
+import com.vibe.model.Narrative;
+import com.vibe.model.event.NarrativeSentenceEvent;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.narrative.SentenceSplitter;
+import com.vibe.orchestration.service.DialogAdmissionController;
+import com.vibe.orchestration.service.LlmCircuitBreaker;
+import com.vibe.tts.TtsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 流式叙事服务
+ * 叙事文本由模型生成时，整段文本生成完才能开始播报；这里在 TokenStream 逐段输出时用 {@link SentenceSplitter} 切句，
+ * 每切出一句立即确定语音参数、合成语音（可选）并推送，首句播报不再等待全文，目标是缩短首句可播时间
+ *
+ * 同一条流的句子在合成线程池上串行执行，按序号顺序推送，模型回调线程不被语音合成阻塞；
+ * 熔断中、模型出错且尚未切出任何句子时回退到模板文本，同样按句推送
+ *
+ * 模型调用与对话共用 {@link DialogAdmissionController} 的名额（同一会话的叙事与对话合并计数），
+ * 准入被拒时按溢出策略处理：LOCAL_PLAN 回退到模板，REJECT 直接报错；
+ * 模型调用有期限（与对话共用 call-timeout-ms），到期未结束时计为失败、释放名额并按失败回退，
+ * 卡住的流或已断开的客户端不会一直占着准入名额与熔断试探名额
+ */
+@Service
+public class NarrativeStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(NarrativeStreamService.class);
+
+    private final NarrativeAgentFactory agentFactory;
+    private final NarrativeService narrativeService;
+    private final TtsService ttsService;
+    private final LlmCircuitBreaker circuitBreaker;
+    private final DialogAdmissionController admissionController;
+    private final Executor executor;
+    private final long callTimeoutMs;
+    private final int maxSentenceChars;
+    private final int maxChars;
+    private final Timer firstSentenceTimer;
+    private final Counter sentences;
+    private final Counter fallbacks;
+
+    @Autowired
+    public NarrativeStreamService(
+            NarrativeAgentFactory agentFactory,
+            NarrativeService narrativeService,
+            TtsService ttsService,
+            LlmCircuitBreaker circuitBreaker,
+            DialogAdmissionController admissionController,
+            MeterRegistry meterRegistry,
+            @Value("${vibe.narrative.stream.max-sentence-chars:40}") int maxSentenceChars,
+            @Value("${vibe.narrative.stream.max-chars:200}") int maxChars,
+            @Value("${vibe.narrative.stream.tts-threads:2}") int ttsThreads,
+            @Value("${vibe.llm.circuit-breaker.call-timeout-ms:30000}") long callTimeoutMs) {
+        this(agentFactory, narrativeService, ttsService, circuitBreaker, admissionController, meterRegistry,
+            maxSentenceChars, maxChars, callTimeoutMs,
+            Executors.newFixedThreadPool(Math.max(1, ttsThreads), daemon("narrative-tts")));
+    }
+
+    NarrativeStreamService(
+            NarrativeAgentFactory agentFactory,
+            NarrativeService narrativeService,
+            TtsService ttsService,
+            LlmCircuitBreaker circuitBreaker,
+            DialogAdmissionController admissionController,
+            MeterRegistry meterRegistry,
+            int maxSentenceChars,
+            int maxChars,
+            long callTimeoutMs,
+            Executor executor) {
+        this.agentFactory = agentFactory;
+        this.narrativeService = narrativeService;
+        this.ttsService = ttsService;
+        this.circuitBreaker = circuitBreaker;
+        this.admissionController = admissionController;
+        this.executor = executor;
+        this.callTimeoutMs = callTimeoutMs;
+        this.maxSentenceChars = Math.max(0, maxSentenceChars);
+        this.maxChars = Math.max(1, maxChars);
+        this.firstSentenceTimer = Timer.builder("vibe.narrative.stream.first_sentence")
+                .description("自请求开始到首句就绪（含语音合成）的耗时")
+                .register(meterRegistry);
+        this.sentences = meterRegistry.counter("vibe.narrative.stream.sentences");
+        this.fallbacks = meterRegistry.counter("vibe.narrative.stream.fallbacks");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * 流式叙事回调；同一条流的回调按顺序调用，不会并发
+     */
+    public interface Listener {
+
+        /**
+         * 一句就绪（已附上语音引用，如启用）
+         */
+        void onSentence(NarrativeSentenceEvent event);
+
+        /**
+         * 全部句子已推送；narrative 为全文及其语音参数，不带语音引用（语音已按句下发）
+         */
+        void onComplete(Narrative narrative);
+
+        /**
+         * 生成失败且无法回退
+         */
+        void onError(Throwable error);
+    }
+
+    /**
+     * 开始一条流式叙事，立即返回；结果经 listener 回调
+     *
+     * @param sessionId   会话 ID（准入按会话计数）
+     * @param environment 环境数据
+     * @param currentSong 当前歌曲（可选）
+     * @param theme       叙事主题（可选）
+     * @param synthesize  是否逐句合成语音
+     * @param listener    回调
+     */
+    public void stream(String sessionId, Environment environment, String currentSong, String theme,
+                       boolean synthesize, Listener listener) {
+        NarrativeStream stream = new NarrativeStream(environment, currentSong, theme, synthesize, listener);
+        admissionController.acquire(sessionId).whenComplete((ticket, error) -> {
+            if (error != null) {
+                onAdmissionRejected(sessionId, stream, listener, error);
+            } else {
+                startStream(stream, ticket, environment, currentSong, theme);
+            }
+        });
+    }
+
+    private void startStream(NarrativeStream stream, DialogAdmissionController.Ticket ticket,
+                             Environment environment, String currentSong, String theme) {
+        LlmCircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == null) {
+            ticket.releaseUnmeasured();
+            log.info("LLM 熔断中，流式叙事使用模板");
+            stream.fallback(null);
+            return;
+        }
+        // 完成、失败、超时只结算一次；对话结束时完成 deadline，JDK 随之取消延迟任务
+        AtomicBoolean finished = new AtomicBoolean(false);
+        CompletableFuture<Void> deadline = new CompletableFuture<Void>().orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        deadline.whenCompleteAsync((v, error) -> {
+            if (error instanceof TimeoutException timeout && finished.compareAndSet(false, true)) {
+                log.warn("流式叙事模型调用超时（{}ms），按失败回退", callTimeoutMs);
+                permit.recordFailure();
+                ticket.release(false);
+                stream.fallback(timeout);
+            }
+        });
+        try {
+            NarrativeAgent agent = agentFactory.createAgent(stream.safetyMode);
+            agent.narrate(buildPrompt(environment, currentSong, theme))
+                .onPartialResponse(stream::onDelta)
+                .onCompleteResponse(response -> {
+                    if (finished.compareAndSet(false, true)) {
+                        deadline.complete(null);
+                        permit.recordSuccess();
+                        ticket.release(true);
+                        stream.finish();
+                    }
+                })
+                .onError(error -> {
+                    if (finished.compareAndSet(false, true)) {
+                        deadline.complete(null);
+                        permit.recordFailure();
+                        ticket.release(false);
+                        stream.fallback(error);
+                    }
+                })
+                .start();
+        } catch (RuntimeException e) {
+            if (finished.compareAndSet(false, true)) {
+                deadline.complete(null);
+                permit.recordFailure();
+                ticket.release(false);
+                stream.fallback(e);
+            }
+        }
+    }
+
+    private void onAdmissionRejected(String sessionId, NarrativeStream stream, Listener listener, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (admissionController.overflowPolicy() == DialogAdmissionController.OverflowPolicy.LOCAL_PLAN) {
+            log.warn("流式叙事准入拒绝，使用模板: sessionId={}, reason={}", sessionId, cause.getMessage());
+            stream.fallback(null);
+        } else {
+            listener.onError(cause);
+        }
+    }
+
+    private String buildPrompt(Environment environment, String currentSong, String theme) {
+        StringBuilder prompt = new StringBuilder(128)
+            .append("时段: ").append(value(environment.timeOfDay() != null ? environment.timeOfDay().getValue() : null))
+            .append("\n天气: ").append(value(environment.weather() != null ? environment.weather().getValue() : null))
+            .append("\n位置: ").append(value(environment.gpsTag() != null ? environment.gpsTag().getValue() : null))
+            .append("\n情绪: ").append(value(environment.userMood() != null ? environment.userMood().getValue() : null))
+            .append("\n车速: ").append(Math.round(environment.speed())).append(" km/h")
+            .append("\n乘客: ").append(environment.passengerCount()).append(" 人");
+        if (environment.location() != null && !environment.location().getFullAddress().isEmpty()) {
+            prompt.append("\n地点: ").append(environment.location().getFullAddress());
+        }
+        if (currentSong != null && !currentSong.isBlank()) {
+            prompt.append("\n当前歌曲: ").append(currentSong);
+        }
+        if (theme != null && !theme.isBlank()) {
+            prompt.append("\n叙事主题: ").append(theme);
+        }
+        return prompt.toString();
+    }
+
+    private static String value(String value) {
+        return value != null ? value : "unknown";
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 一条流式叙事的状态
+     * 模型回调（切句、结束、出错）在 this 上同步；句子的合成与推送串在 tail 上，按序号依次执行
+     */
+    private final class NarrativeStream {
+
+        private final long startNanos = System.nanoTime();
+        private final Environment environment;
+        private final String currentSong;
+        private final String theme;
+        private final boolean synthesize;
+        private final Listener listener;
+        private final SafetyMode safetyMode;
+        private final String timeOfDay;
+        private final String userMood;
+        private final SentenceSplitter splitter;
+        private final StringBuilder text = new StringBuilder();
+
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private int count;
+        private boolean done;
+
+        private NarrativeStream(Environment environment, String currentSong, String theme,
+                                boolean synthesize, Listener listener) {
+            this.environment = environment;
+            this.currentSong = currentSong;
+            this.theme = theme;
+            this.synthesize = synthesize;
+            this.listener = listener;
+            this.safetyMode = environment.getSafetyMode();
+            this.timeOfDay = environment.timeOfDay() != null ? environment.timeOfDay().getValue() : null;
+            this.userMood = environment.userMood() != null ? environment.userMood().getValue() : "calm";
+            this.splitter = new SentenceSplitter(maxSentenceChars, this::onSentence);
+        }
+
+        synchronized void onDelta(String delta) {
+            if (!done) {
+                splitter.accept(delta);
+            }
+        }
+
+        synchronized void finish() {
+            if (done) {
+                return;
+            }
+            splitter.flush();
+            complete();
+        }
+
+        private void complete() {
+            if (count == 0) {
+                // 模型没有输出任何文本
+                fallback(null);
+                return;
+            }
+            done = true;
+            String full = text.toString();
+            tail = tail.thenRunAsync(() -> {
+                Narrative narrative = voice(full);
+                log.debug("流式叙事完成: sentences={}, chars={}, elapsedMs={}",
+                    count, full.length(), elapsedMillis());
+                listener.onComplete(narrative);
+            }, executor).exceptionally(this::deliveryFailed);
+        }
+
+        /**
+         * 模型不可用：已切出句子时推送已有部分，否则改用模板文本
+         */
+        synchronized void fallback(Throwable error) {
+            if (done) {
+                return;
+            }
+            if (count > 0) {
+                // 已推送的句子无法撤回：以已切出的完整句子结束，未成句的残片丢弃
+                log.warn("流式叙事中断，保留已生成部分: sentences={}, error={}",
+                    count, error != null ? error.getMessage() : null);
+                complete();
+                return;
+            }
+            if (error != null) {
+                log.warn("流式叙事生成失败，使用模板: error={}", error.getMessage());
+            }
+            fallbacks.increment();
+            String template;
+            try {
+                template = narrativeService.renderText(
+                    timeOfDay,
+                    environment.weather() != null ? environment.weather().getValue() : null,
+                    environment.gpsTag() != null ? environment.gpsTag().getValue() : null,
+                    userMood, currentSong, theme);
+            } catch (RuntimeException e) {
+                done = true;
+                listener.onError(error != null ? error : e);
+                return;
+            }
+            // 模型未成句的残片还留在 splitter 里，模板用新的分句器切，残片随之丢弃
+            SentenceSplitter templateSplitter = new SentenceSplitter(maxSentenceChars, this::onSentence);
+            templateSplitter.accept(template);
+            templateSplitter.flush();
+            if (count == 0) {
+                done = true;
+                listener.onError(error != null ? error : new IllegalStateException("Empty narrative template"));
+                return;
+            }
+            complete();
+        }
+
+        /**
+         * 切句回调（持有 this 锁）：超出全文上限的部分丢弃，其余排入合成队列
+         */
+        private void onSentence(String sentence) {
+            int remaining = maxChars - text.length();
+            if (remaining <= 0) {
+                return;
+            }
+            if (sentence.length() > remaining) {
+                sentence = sentence.substring(0, remaining);
+            }
+            text.append(sentence);
+            int index = count++;
+            String s = sentence;
+            tail = tail.thenRunAsync(() -> deliver(index, s), executor).exceptionally(this::deliveryFailed);
+        }
+
+        private void deliver(int index, String sentence) {
+            Narrative narrative = voice(sentence);
+            if (synthesize) {
+                narrative = ttsService.attachAudio(narrative);
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            if (index == 0) {
+                firstSentenceTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            }
+            sentences.increment();
+            listener.onSentence(new NarrativeSentenceEvent(index, sentence, narrative.audio(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+        }
+
+        /**
+         * 语音参数；静默模式降低音量，与 {@link NarrativeService#applySafetyFilter} 一致
+         */
+        private Narrative voice(String sentence) {
+            Narrative narrative = narrativeService.compose(sentence, timeOfDay, userMood);
+            return safetyMode == SafetyMode.L3_SILENT ? narrative.withReducedVolume() : narrative;
+        }
+
+        private Void deliveryFailed(Throwable error) {
+            // 单句推送失败（连接已关闭等）不中断队列，后续句子与完成回调照常执行
+            log.warn("流式叙事推送失败: error={}", error.getMessage());
+            return null;
+        }
+
+        private long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+}
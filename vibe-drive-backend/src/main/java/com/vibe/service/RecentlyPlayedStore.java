@@ -0,0 +1,49 @@
+package com.vibe.service;
+
+import com.vibe.catalog.RecentlyPlayed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 各会话的最近播放记录
+ * 按访问顺序淘汰，最多保留 maxSessions 个会话
+ */
+@Component
+public class RecentlyPlayedStore {
+
+    private final int capacity;
+    private final Map<String, RecentlyPlayed> sessions;
+
+    public RecentlyPlayedStore(
+            @Value("${vibe.music.recent.capacity:30}") int capacity,
+            @Value("${vibe.music.recent.max-sessions:10000}") int maxSessions) {
+        this.capacity = capacity;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RecentlyPlayed> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * 获取（或创建）会话的最近播放记录
+     */
+    public synchronized RecentlyPlayed forSession(String sessionId) {
+        return sessions.computeIfAbsent(sessionId, id -> new RecentlyPlayed(capacity));
+    }
+
+    /**
+     * 每个会话保留的最近播放数量
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized int sessionCount() {
+        return sessions.size();
+    }
+}
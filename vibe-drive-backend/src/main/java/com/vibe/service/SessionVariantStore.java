@@ -0,0 +1,49 @@
+package com.vibe.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 各会话使用的曲库变体（由请求中的车辆元数据指定）
+ * 按访问顺序淘汰，最多保留 maxSessions 个会话
+ */
+@Component
+public class SessionVariantStore {
+
+    /**
+     * 请求偏好中指定曲库变体的键
+     */
+    public static final String PREFERENCE_KEY = "catalogVariant";
+
+    private final Map<String, String> sessions;
+
+    public SessionVariantStore(@Value("${vibe.music.recent.max-sessions:10000}") int maxSessions) {
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * 指定会话的曲库变体，variant 为空时恢复默认
+     */
+    public synchronized void assign(String sessionId, String variant) {
+        if (variant == null || variant.isBlank()) {
+            sessions.remove(sessionId);
+        } else {
+            sessions.put(sessionId, variant);
+        }
+    }
+
+    /**
+     * 会话的曲库变体，未指定时返回 null
+     */
+    public synchronized String variantOf(String sessionId) {
+        return sessionId == null ? null : sessions.get(sessionId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.vibe.sse;
+
+/**
+ * 与 SSE 并行的事件下行通道（如二进制 WebSocket）
+ * {@link SseEventPublisher} 发布的事件经过合并后同时交给已注册的通道，编码与发送由通道自行负责；
+ * 通道不参与 SSE 的事件编号与断线重放
+ */
+public interface EventChannel {
+
+    /**
+     * 会话在本通道上是否有连接
+     */
+    boolean hasSession(String sessionId);
+
+    /**
+     * 发布事件到指定会话；不支持的事件类型直接忽略
+     */
+    void publish(String sessionId, String eventType, Object data);
+
+    /**
+     * 发布事件到本通道的所有会话；不支持的事件类型直接忽略
+     */
+    void publishToAll(String eventType, Object data);
+}
@@ -0,0 +1,159 @@
+package com.vibe.sse;
+
+import com.vibe.timer.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * 按 (会话, 事件类型) 合并高频事件
+ * 环境更新、Agent 状态等只关心最新值的事件，发布时只记下最新的数据；每个 (会话, 类型) 两次下发至少间隔 interval：
+ * 距上次下发已超过间隔时立即下发，否则在时间轮上等到间隔期满再下发期间的最后一个值，被覆盖的值不会序列化；
+ * 合并类型的事件相对其他类型不保证顺序，氛围、安全模式等未配置合并的事件不经过这里
+ */
+final class SseConflator {
+
+    /**
+     * 合并后的下发出口
+     */
+    interface Sink {
+        void deliver(String sessionId, String eventType, Object data);
+    }
+
+    private final TimingWheel timingWheel;
+    private final Map<String, Integer> typeIndexes;
+    private final String[] eventTypes;
+    private final long intervalMillis;
+    private final LongSupplier clock;
+    private final Executor dispatcher;
+    private final Sink sink;
+    private final Map<String, Slot[]> sessions = new ConcurrentHashMap<>();
+    private final Counter conflated;
+
+    SseConflator(TimingWheel timingWheel, List<String> eventTypes, long intervalMillis, LongSupplier clock,
+                 Executor dispatcher, Sink sink, MeterRegistry meterRegistry) {
+        this.timingWheel = timingWheel;
+        this.eventTypes = eventTypes.toArray(String[]::new);
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < this.eventTypes.length; i++) {
+            indexes.put(this.eventTypes[i], i);
+        }
+        this.typeIndexes = Map.copyOf(indexes);
+        this.intervalMillis = intervalMillis;
+        this.clock = clock;
+        this.dispatcher = dispatcher;
+        this.sink = sink;
+        this.conflated = meterRegistry.counter("vibe.sse.conflated");
+    }
+
+    boolean handles(String eventType) {
+        return typeIndexes.containsKey(eventType);
+    }
+
+    /**
+     * 记下最新值；需要立即下发时在调用线程上下发
+     */
+    void offer(String sessionId, String eventType, Object data) {
+        Slot slot = sessions.computeIfAbsent(sessionId, this::newSlots)[typeIndexes.get(eventType)];
+        long now = clock.getAsLong();
+        synchronized (slot) {
+            if (slot.scheduled) {
+                if (slot.latest != null) {
+                    conflated.increment();
+                }
+                slot.latest = data;
+                return;
+            }
+            long due = slot.lastDeliveredMillis + intervalMillis;
+            if (due > now) {
+                slot.latest = data;
+                slot.scheduled = true;
+                timingWheel.schedule(slot, due);
+                return;
+            }
+            slot.lastDeliveredMillis = now;
+        }
+        sink.deliver(sessionId, eventType, data);
+    }
+
+    /**
+     * 会话的最后一个连接断开：丢弃待下发的值
+     */
+    void release(String sessionId) {
+        Slot[] slots = sessions.remove(sessionId);
+        if (slots == null) {
+            return;
+        }
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                slot.latest = null;
+                slot.scheduled = false;
+                timingWheel.cancel(slot);
+            }
+        }
+    }
+
+    /**
+     * 有待下发值的 (会话, 类型) 数
+     */
+    int pending() {
+        int pending = 0;
+        for (Slot[] slots : sessions.values()) {
+            for (Slot slot : slots) {
+                synchronized (slot) {
+                    if (slot.scheduled) {
+                        pending++;
+                    }
+                }
+            }
+        }
+        return pending;
+    }
+
+    private Slot[] newSlots(String sessionId) {
+        Slot[] slots = new Slot[eventTypes.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(sessionId, eventTypes[i]);
+        }
+        return slots;
+    }
+
+    /**
+     * 一个 (会话, 类型) 的待下发值，同时是时间轮上可复用的定时任务
+     */
+    private final class Slot extends TimingWheel.Timeout {
+
+        private final String sessionId;
+        private final String eventType;
+        private Object latest;
+        private boolean scheduled;
+        private long lastDeliveredMillis = Long.MIN_VALUE / 2;
+
+        private Slot(String sessionId, String eventType) {
+            this.sessionId = sessionId;
+            this.eventType = eventType;
+        }
+
+        @Override
+        protected void expire(long tickMillis) {
+            Object data;
+            synchronized (this) {
+                data = latest;
+                if (!scheduled || data == null) {
+                    return;
+                }
+                latest = null;
+                scheduled = false;
+                lastDeliveredMillis = tickMillis;
+            }
+            // 序列化与入队不占用时间轮线程
+            dispatcher.execute(() -> sink.deliver(sessionId, eventType, data));
+        }
+    }
+}
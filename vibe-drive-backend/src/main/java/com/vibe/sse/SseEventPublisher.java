@@ -6,54 +6,368 @@ import com.vibe.model.event.AmbienceChangedEvent;
 import com.vibe.model.event.EnvironmentUpdateEvent;
 import com.vibe.model.event.HeartbeatEvent;
 import com.vibe.model.event.SafetyModeChangedEvent;
+import com.vibe.timer.KeepAliveTimer;
+import com.vibe.timer.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 /**
  * SSE 事件发布器
  * 管理所有 SSE 连接，支持按会话和主题发布事件
+ *
+ * 每个连接有独立的有界发送队列，发布只做入队，由发送执行器（默认每个排空任务一个虚拟线程）按顺序写出：
+ * 弱网下写出阻塞的车机只占住自己的发送任务，不会拖慢其他连接、发布方与心跳；
+ * 队列满时按事件类型的溢出策略处理（丢弃最旧 / 合并为最新 / 断开连接）；
+ * 配置为合并的高频事件（环境更新、Agent 状态）在入队前先经 {@link SseConflator} 按 (会话, 类型) 限速，只下发最新值。
+ * 开启重放时，除心跳外的事件按会话分配单调递增的 ID 并写入 {@link SseReplayBuffer}；
+ * 会话最后一个连接断开后继续缓冲，车机带 Last-Event-ID 重连时补发期间的事件，空闲超过 TTL 后释放。
+ * 事件同时交给通过 {@link #addChannel} 注册的其他下行通道（如二进制 WebSocket）。
+ * 心跳与空闲超时按连接挂在共享时间轮上（{@link KeepAliveTimer}）：各连接的心跳按建立时间与随机相位错开，
+ * 不再由定时任务在同一时刻遍历全部连接；超过空闲超时没有业务事件的连接被正常关闭，车机按需重连
  */
 @Component
 public class SseEventPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(SseEventPublisher.class);
 
+    /**
+     * 发送队列溢出策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 丢弃队列中最旧的一帧
+         */
+        DROP_OLDEST("drop-oldest"),
+
+        /**
+         * 丢弃队列中同类型的上一帧，只保留最新值；队列中没有同类型的帧时丢弃最旧的一帧
+         */
+        CONFLATE("conflate"),
+
+        /**
+         * 断开连接，由车机重连后重新同步状态
+         */
+        DISCONNECT("disconnect");
+
+        private final String value;
+
+        OverflowPolicy(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public static OverflowPolicy fromValue(String value) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.value.equalsIgnoreCase(value) || policy.name().equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown SSE overflow policy: " + value);
+        }
+    }
+
     private final ObjectMapper objectMapper;
-    private final Map<String, Set<EmitterInfo>> sessionEmitters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Executor sender;
+    private final int queueCapacity;
+    private final OverflowPolicy defaultPolicy;
+    private final Map<String, OverflowPolicy> policies;
+    private final Map<String, Set<SseSubscriber>> sessionEmitters = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<String, Counter> dropCounters = new ConcurrentHashMap<>();
+    private final Counter overflowDisconnects;
+    private final Counter errorDisconnects;
+
+    /**
+     * 断线重连补发配置
+     *
+     * @param maxEvents 每个会话缓冲的最大事件数，0 表示不编号、不重放
+     * @param maxBytes  每个会话缓冲的最大字节数
+     * @param ttlMillis 会话最后一个连接断开后缓冲的保留时长
+     */
+    record Replay(int maxEvents, int maxBytes, long ttlMillis) {
+
+        static final Replay DISABLED = new Replay(0, 0, 0);
+
+        Replay {
+            if (maxEvents < 0 || maxBytes < 0 || ttlMillis < 0) {
+                throw new IllegalArgumentException("SSE replay limits must not be negative");
+            }
+            if (maxEvents > 0 && maxBytes == 0) {
+                throw new IllegalArgumentException("SSE replay maxBytes must be positive when replay is enabled");
+            }
+        }
+
+        boolean enabled() {
+            return maxEvents > 0;
+        }
+    }
+
+    /**
+     * 连接保活配置
+     *
+     * @param heartbeatMillis   心跳间隔，0 表示不发心跳
+     * @param idleTimeoutMillis 没有业务事件（心跳不算）多久后关闭连接，0 表示不关闭
+     */
+    record KeepAlive(long heartbeatMillis, long idleTimeoutMillis) {
 
+        static final KeepAlive DISABLED = new KeepAlive(0, 0);
+
+        KeepAlive {
+            if (heartbeatMillis < 0 || idleTimeoutMillis < 0) {
+                throw new IllegalArgumentException("SSE keep-alive intervals must not be negative");
+            }
+        }
+
+        boolean enabled() {
+            return heartbeatMillis > 0 || idleTimeoutMillis > 0;
+        }
+    }
+
+    /**
+     * 按时间轮刻度缓存的心跳帧：同一刻度到期的连接共享一份
+     */
+    private record HeartbeatFrame(long tickMillis, SseFrame frame) {
+    }
+
+    /**
+     * 合并高频事件；未配置合并类型时为 null
+     */
+    private final SseConflator conflator;
+
+    private final Replay replay;
+    private final LongSupplier clock;
+    private final Map<String, SseReplayBuffer> replayBuffers = new ConcurrentHashMap<>();
+    private final Counter replayedEvents;
+    private final Counter replayGaps;
+    private final List<EventChannel> channels = new CopyOnWriteArrayList<>();
+
+    /**
+     * 保活定时器挂在其上的时间轮；未配置时为 null（不发心跳、不检查空闲）
+     */
+    private final TimingWheel timingWheel;
+    private final KeepAlive keepAlive;
+    private final Counter idleDisconnects;
+    private volatile HeartbeatFrame heartbeatFrame;
+
+    /**
+     * 同步发送（在发布线程上写出）、不合并事件、不编号重放、不发心跳、不导出指标，用于测试与基准
+     */
     public SseEventPublisher(ObjectMapper objectMapper) {
+        this(objectMapper, new SimpleMeterRegistry(), Runnable::run, Integer.MAX_VALUE,
+            OverflowPolicy.DROP_OLDEST, Map.of(), null, List.of(), 0, Replay.DISABLED, KeepAlive.DISABLED,
+            System::currentTimeMillis);
+    }
+
+    @Autowired
+    public SseEventPublisher(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            TimingWheel timingWheel,
+            @Value("${vibe.sse.queue-capacity:64}") int queueCapacity,
+            @Value("${vibe.sse.overflow.default:drop-oldest}") String defaultPolicy,
+            @Value("${vibe.sse.overflow.policies:}") String policies,
+            @Value("${vibe.sse.conflation.event-types:}") String conflatedTypes,
+            @Value("${vibe.sse.conflation.interval-ms:200}") long conflationIntervalMs,
+            @Value("${vibe.sse.replay.max-events:64}") int replayMaxEvents,
+            @Value("${vibe.sse.replay.max-bytes:16384}") int replayMaxBytes,
+            @Value("${vibe.sse.replay.ttl-ms:600000}") long replayTtlMs,
+            @Value("${vibe.sse.heartbeat-ms:30000}") long heartbeatMs,
+            @Value("${vibe.sse.idle-timeout-ms:300000}") long idleTimeoutMs) {
+        this(objectMapper, meterRegistry,
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory()),
+            queueCapacity, OverflowPolicy.fromValue(defaultPolicy), parsePolicies(policies),
+            timingWheel, parseEventTypes(conflatedTypes), conflationIntervalMs,
+            new Replay(replayMaxEvents, replayMaxBytes, replayTtlMs), new KeepAlive(heartbeatMs, idleTimeoutMs),
+            System::currentTimeMillis);
+    }
+
+    SseEventPublisher(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            Executor sender,
+            int queueCapacity,
+            OverflowPolicy defaultPolicy,
+            Map<String, OverflowPolicy> policies,
+            TimingWheel timingWheel,
+            List<String> conflatedTypes,
+            long conflationIntervalMs,
+            Replay replay,
+            KeepAlive keepAlive,
+            LongSupplier clock) {
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.sender = sender;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.defaultPolicy = defaultPolicy;
+        this.policies = Map.copyOf(policies);
+        this.overflowDisconnects = meterRegistry.counter("vibe.sse.disconnects", "reason", "overflow");
+        this.errorDisconnects = meterRegistry.counter("vibe.sse.disconnects", "reason", "send_error");
+        meterRegistry.gauge("vibe.sse.queue.depth", queued, AtomicInteger::get);
+        meterRegistry.gauge("vibe.sse.connections", this, SseEventPublisher::countConnections);
+        this.replay = replay;
+        this.clock = clock;
+        this.replayedEvents = meterRegistry.counter("vibe.sse.replay.events");
+        this.replayGaps = meterRegistry.counter("vibe.sse.replay.gaps");
+        meterRegistry.gauge("vibe.sse.replay.sessions", replayBuffers, Map::size);
+        this.timingWheel = timingWheel;
+        this.keepAlive = keepAlive;
+        this.idleDisconnects = meterRegistry.counter("vibe.sse.disconnects", "reason", "idle");
+        this.conflator = timingWheel != null && !conflatedTypes.isEmpty() && conflationIntervalMs > 0
+            ? new SseConflator(timingWheel, conflatedTypes, conflationIntervalMs, clock, sender, this::deliver,
+                meterRegistry)
+            : null;
+    }
+
+    /**
+     * 解析合并的事件类型，格式 "event_type,event_type"
+     */
+    static List<String> parseEventTypes(String eventTypes) {
+        if (eventTypes == null || eventTypes.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(eventTypes.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .map(String::toLowerCase)
+            .distinct()
+            .toList();
+    }
+
+    /**
+     * 解析按事件类型的溢出策略，格式 "event_type=policy,event_type=policy"
+     */
+    static Map<String, OverflowPolicy> parsePolicies(String policies) {
+        Map<String, OverflowPolicy> parsed = new HashMap<>();
+        if (policies == null || policies.isBlank()) {
+            return parsed;
+        }
+        for (String entry : policies.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid SSE overflow policy entry: " + entry.trim());
+            }
+            parsed.put(entry.substring(0, separator).trim().toLowerCase(),
+                OverflowPolicy.fromValue(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    /**
+     * 注册其他下行通道；此后发布的事件同时交给该通道
+     */
+    public void addChannel(EventChannel channel) {
+        channels.add(Objects.requireNonNull(channel));
+    }
+
+    /**
+     * 下行通道上会话的最后一个连接断开：会话在 SSE 上也没有连接或重放缓冲时，释放其合并状态
+     */
+    public void channelSessionClosed(String sessionId) {
+        releaseIfIdle(sessionId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
     }
 
     /**
      * 注册 SSE 连接
      */
     public void register(String sessionId, SseEmitter emitter, Set<String> topics) {
-        sessionEmitters
-            .computeIfAbsent(sessionId, k -> new CopyOnWriteArraySet<>())
-            .add(new EmitterInfo(emitter, normalizeTopics(topics)));
-        log.debug("注册 SSE 连接: sessionId={}, topics={}", sessionId, topics);
+        register(sessionId, emitter, topics, null);
     }
 
     /**
-     * 注销 SSE 连接
+     * 注册 SSE 连接，并补发 lastEventId（重连时客户端带上的 Last-Event-ID）之后的事件
+     * 缓冲中已淘汰的事件无法补发，客户端可以从补发的第一个 ID 不连续判断出缺口并重新拉取状态
+     */
+    public void register(String sessionId, SseEmitter emitter, Set<String> topics, String lastEventId) {
+        SseSubscriber subscriber = new SseSubscriber(sessionId, emitter, normalizeTopics(topics), queueCapacity);
+        if (!replay.enabled()) {
+            sessionEmitters.computeIfAbsent(sessionId, k -> new CopyOnWriteArraySet<>()).add(subscriber);
+            startKeepAlive(subscriber);
+            log.debug("注册 SSE 连接: sessionId={}, topics={}", sessionId, topics);
+            return;
+        }
+
+        // 在 compute 内登记连接，与过期清理互斥
+        SseReplayBuffer buffer = replayBuffers.compute(sessionId, (k, existing) -> {
+            SseReplayBuffer created = existing != null
+                ? existing
+                : new SseReplayBuffer(replay.maxEvents(), replay.maxBytes(), clock.getAsLong());
+            synchronized (created) {
+                created.connected();
+            }
+            return created;
+        });
+        synchronized (buffer) {
+            sessionEmitters.computeIfAbsent(sessionId, k -> new CopyOnWriteArraySet<>()).add(subscriber);
+            replay(subscriber, buffer, lastEventId);
+        }
+        startKeepAlive(subscriber);
+        log.debug("注册 SSE 连接: sessionId={}, topics={}, lastEventId={}", sessionId, topics, lastEventId);
+    }
+
+    /**
+     * 注销 SSE 连接，丢弃其未发送的事件
      */
     public void unregister(String sessionId, SseEmitter emitter) {
-        Set<EmitterInfo> emitters = sessionEmitters.get(sessionId);
+        Set<SseSubscriber> emitters = sessionEmitters.get(sessionId);
         if (emitters != null) {
-            emitters.removeIf(info -> info.emitter() == emitter);
-            if (emitters.isEmpty()) {
-                sessionEmitters.remove(sessionId);
+            int removed = 0;
+            for (SseSubscriber subscriber : emitters) {
+                if (subscriber.emitter() == emitter && emitters.remove(subscriber)) {
+                    discard(subscriber);
+                    removed++;
+                }
+            }
+            SseReplayBuffer buffer = removed > 0 ? replayBuffers.get(sessionId) : null;
+            if (buffer != null) {
+                synchronized (buffer) {
+                    buffer.disconnected(removed, clock.getAsLong());
+                }
+            }
+            // 开启重放时断线期间仍要合并、缓冲，合并状态随缓冲过期释放
+            if (emitters.isEmpty() && sessionEmitters.remove(sessionId, emitters)) {
+                releaseIfIdle(sessionId);
             }
         }
         log.debug("注销 SSE 连接: sessionId={}", sessionId);
@@ -63,43 +377,178 @@ public class SseEventPublisher {
      * 发布事件到指定会话
      */
     public void publish(String sessionId, String eventType, Object data) {
-        Set<EmitterInfo> emitters = sessionEmitters.get(sessionId);
-        if (emitters == null || emitters.isEmpty()) {
+        Set<SseSubscriber> emitters = sessionEmitters.get(sessionId);
+        if ((emitters == null || emitters.isEmpty()) && !replayBuffers.containsKey(sessionId)
+                && !hasChannelSession(sessionId)) {
+            return;
+        }
+        if (conflator != null && conflator.handles(eventType)) {
+            conflator.offer(sessionId, eventType, data);
             return;
         }
+        deliver(sessionId, eventType, data);
+    }
+
+    /**
+     * 下发到会话的 SSE 连接与其他通道
+     */
+    private void deliver(String sessionId, String eventType, Object data) {
+        deliverSse(sessionId, eventType, data);
+        for (EventChannel channel : channels) {
+            channel.publish(sessionId, eventType, data);
+        }
+    }
 
-        for (EmitterInfo info : emitters) {
-            if (info.shouldReceive(eventType)) {
-                sendEvent(sessionId, info.emitter(), eventType, data);
+    /**
+     * 序列化一次并放入会话各连接的发送队列
+     */
+    private void deliverSse(String sessionId, String eventType, Object data) {
+        long activity = activityMillis(eventType);
+        SseReplayBuffer buffer = replayable(eventType) ? replayBuffers.get(sessionId) : null;
+        if (buffer != null) {
+            SseFrame frame = encode(eventType, data);
+            if (frame != null) {
+                deliverNumbered(sessionId, buffer, frame, policyFor(eventType), activity);
+            }
+            return;
+        }
+        Set<SseSubscriber> emitters = sessionEmitters.get(sessionId);
+        if (emitters == null) {
+            return;
+        }
+        SseFrame frame = null;
+        OverflowPolicy policy = policyFor(eventType);
+        for (SseSubscriber subscriber : emitters) {
+            if (subscriber.shouldReceive(eventType)) {
+                if (frame == null && (frame = encode(eventType, data)) == null) {
+                    return;
+                }
+                subscriber.touch(activity);
+                enqueue(subscriber, frame, policy);
             }
         }
     }
 
     /**
      * 发布事件到所有会话
+     * 事件只序列化一次，所有连接共享同一份帧字节
      */
     public void publishToAll(String eventType, Object data) {
-        for (Map.Entry<String, Set<EmitterInfo>> entry : sessionEmitters.entrySet()) {
-            for (EmitterInfo info : entry.getValue()) {
-                if (info.shouldReceive(eventType)) {
-                    sendEvent(entry.getKey(), info.emitter(), eventType, data);
+        publishToAllSse(eventType, data);
+        for (EventChannel channel : channels) {
+            channel.publishToAll(eventType, data);
+        }
+    }
+
+    private void publishToAllSse(String eventType, Object data) {
+        SseFrame frame = null;
+        OverflowPolicy policy = policyFor(eventType);
+        long activity = activityMillis(eventType);
+        if (replayable(eventType)) {
+            // 包括暂时断线、仍在缓冲的会话
+            for (Map.Entry<String, SseReplayBuffer> entry : replayBuffers.entrySet()) {
+                if (frame == null && (frame = encode(eventType, data)) == null) {
+                    return;
+                }
+                deliverNumbered(entry.getKey(), entry.getValue(), frame, policy, activity);
+            }
+            return;
+        }
+        for (Set<SseSubscriber> emitters : sessionEmitters.values()) {
+            for (SseSubscriber subscriber : emitters) {
+                if (subscriber.shouldReceive(eventType)) {
+                    if (frame == null && (frame = encode(eventType, data)) == null) {
+                        return;
+                    }
+                    subscriber.touch(activity);
+                    enqueue(subscriber, frame, policy);
                 }
             }
         }
     }
 
     /**
-     * 心跳定时任务（每30秒）
+     * 为连接启动保活定时器
      */
-    @Scheduled(fixedRate = 30000)
-    public void sendHeartbeat() {
-        if (sessionEmitters.isEmpty()) {
-            return;
+    private void startKeepAlive(SseSubscriber subscriber) {
+        if (timingWheel != null && keepAlive.enabled()) {
+            subscriber.startKeepAlive(new SubscriberKeepAlive(subscriber), clock.getAsLong());
         }
+    }
 
-        HeartbeatEvent heartbeat = new HeartbeatEvent();
-        publishToAll(HeartbeatEvent.EVENT_TYPE, heartbeat);
-        log.trace("发送心跳: connections={}", countConnections());
+    /**
+     * 给单个连接发心跳（时间轮线程，只入队）
+     */
+    private void sendHeartbeat(SseSubscriber subscriber, long tickMillis) {
+        HeartbeatFrame cached = heartbeatFrame;
+        if (cached == null || cached.tickMillis() != tickMillis) {
+            SseFrame frame = encode(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(Instant.ofEpochMilli(tickMillis)));
+            if (frame == null) {
+                return;
+            }
+            cached = new HeartbeatFrame(tickMillis, frame);
+            heartbeatFrame = cached;
+        }
+        enqueue(subscriber, cached.frame(), policyFor(HeartbeatEvent.EVENT_TYPE));
+        log.trace("发送心跳: sessionId={}", subscriber.sessionId());
+    }
+
+    /**
+     * 空闲超时：注销并正常结束连接，车机按需重连（开启重放时可带 Last-Event-ID 续上）
+     */
+    private void closeIdle(SseSubscriber subscriber) {
+        idleDisconnects.increment();
+        log.debug("SSE 连接空闲超时，关闭连接: sessionId={}, idleTimeout={}ms",
+            subscriber.sessionId(), keepAlive.idleTimeoutMillis());
+        unregister(subscriber.sessionId(), subscriber.emitter());
+        try {
+            subscriber.emitter().complete();
+        } catch (Exception e) {
+            log.debug("Failed to complete idle SSE emitter", e);
+        }
+    }
+
+    /**
+     * 释放空闲超过 TTL 的会话重放缓冲（每分钟）
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleReplayBuffers() {
+        if (replay.enabled()) {
+            evictIdle(clock.getAsLong());
+        }
+    }
+
+    /**
+     * 释放空闲超过 TTL 的会话重放缓冲
+     *
+     * @return 释放的会话数
+     */
+    int evictIdle(long nowMillis) {
+        int evicted = 0;
+        for (String sessionId : replayBuffers.keySet()) {
+            boolean[] expired = new boolean[1];
+            replayBuffers.computeIfPresent(sessionId, (k, buffer) -> {
+                synchronized (buffer) {
+                    expired[0] = buffer.idleExpired(nowMillis, replay.ttlMillis());
+                }
+                return expired[0] ? null : buffer;
+            });
+            if (expired[0]) {
+                evicted++;
+                releaseIfIdle(sessionId);
+            }
+        }
+        if (evicted > 0) {
+            log.debug("释放空闲 SSE 重放缓冲: count={}", evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * 持有重放缓冲的会话数（含暂时断线的会话）
+     */
+    public int replaySessions() {
+        return replayBuffers.size();
     }
 
     /**
@@ -111,23 +560,185 @@ public class SseEventPublisher {
             .sum();
     }
 
-    private void sendEvent(String sessionId, SseEmitter emitter, String eventType, Object data) {
+    /**
+     * 所有连接发送队列中待发送的事件总数
+     */
+    public int queuedEvents() {
+        return queued.get();
+    }
+
+    private boolean hasChannelSession(String sessionId) {
+        for (EventChannel channel : channels) {
+            if (channel.hasSession(sessionId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 会话在各通道上都没有连接、也没有重放缓冲时释放合并状态
+     */
+    private void releaseIfIdle(String sessionId) {
+        if (conflator != null && !sessionEmitters.containsKey(sessionId) && !replayBuffers.containsKey(sessionId)
+                && !hasChannelSession(sessionId)) {
+            conflator.release(sessionId);
+        }
+    }
+
+    /**
+     * 业务事件的下发时间，用于推迟连接的空闲超时；心跳不算业务往来，返回 Long.MIN_VALUE（不推迟）
+     */
+    private long activityMillis(String eventType) {
+        return HeartbeatEvent.EVENT_TYPE.equals(eventType) ? Long.MIN_VALUE : clock.getAsLong();
+    }
+
+    /**
+     * 心跳不编号、不缓冲（SSE 中不带 id: 的事件不改变客户端的 Last-Event-ID）
+     */
+    private boolean replayable(String eventType) {
+        return replay.enabled() && !HeartbeatEvent.EVENT_TYPE.equals(eventType);
+    }
+
+    /**
+     * 分配 ID、写入重放缓冲并放入会话各连接的发送队列
+     * 持有缓冲锁：同一会话的 ID 顺序与入队顺序一致，且与重连补发互斥，不会漏发或重复
+     */
+    private void deliverNumbered(String sessionId, SseReplayBuffer buffer, SseFrame frame, OverflowPolicy policy,
+                                 long activityMillis) {
+        synchronized (buffer) {
+            SseFrame numbered = frame.withId(buffer.append(frame));
+            Set<SseSubscriber> emitters = sessionEmitters.get(sessionId);
+            if (emitters == null) {
+                return;
+            }
+            for (SseSubscriber subscriber : emitters) {
+                if (subscriber.shouldReceive(frame.eventType())) {
+                    subscriber.touch(activityMillis);
+                    enqueue(subscriber, numbered, policy);
+                }
+            }
+        }
+    }
+
+    /**
+     * 补发 lastEventId 之后的缓冲事件；调用方持有缓冲锁
+     */
+    private void replay(SseSubscriber subscriber, SseReplayBuffer buffer, String lastEventId) {
+        long after = parseEventId(lastEventId);
+        if (after < 0) {
+            return;
+        }
+        if (!buffer.covers(after)) {
+            replayGaps.increment();
+            log.warn("SSE 重放缓冲不足，部分事件无法补发: sessionId={}, lastEventId={}",
+                subscriber.sessionId(), lastEventId);
+        }
+        buffer.forEachAfter(after, (frame, id) -> {
+            if (subscriber.shouldReceive(frame.eventType())) {
+                enqueue(subscriber, frame.withId(id), policyFor(frame.eventType()));
+                replayedEvents.increment();
+            }
+        });
+    }
+
+    private static long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return -1;
+        }
         try {
-            String json = objectMapper.writeValueAsString(data);
-            emitter.send(SseEmitter.event()
-                .name(eventType)
-                .data(json));
-        } catch (Exception e) {
-            log.warn("发送 SSE 事件失败: sessionId={}, eventType={}", sessionId, eventType, e);
-            unregister(sessionId, emitter);
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            log.debug("忽略无法识别的 Last-Event-ID: {}", lastEventId);
+            return -1;
+        }
+    }
+
+    OverflowPolicy policyFor(String eventType) {
+        return eventType != null ? policies.getOrDefault(eventType, defaultPolicy) : defaultPolicy;
+    }
+
+    private void enqueue(SseSubscriber subscriber, SseFrame frame, OverflowPolicy policy) {
+        switch (subscriber.offer(frame, policy)) {
+            case SCHEDULE -> {
+                queued.incrementAndGet();
+                try {
+                    sender.execute(() -> drain(subscriber));
+                } catch (RejectedExecutionException e) {
+                    // 正在关闭
+                    discard(subscriber);
+                }
+            }
+            case QUEUED -> queued.incrementAndGet();
+            case DROPPED -> dropCounter(frame.eventType(), policy).increment();
+            case OVERFLOW -> {
+                overflowDisconnects.increment();
+                log.warn("SSE 发送队列已满，断开连接: sessionId={}, eventType={}, capacity={}",
+                    subscriber.sessionId(), frame.eventType(), queueCapacity);
+                disconnect(subscriber, new IOException("SSE send queue overflow"));
+            }
+            case CLOSED -> {
+                // 连接已在注销中
+            }
+        }
+    }
+
+    /**
+     * 排空任务：每个连接同一时刻最多一个，按入队顺序写出
+     */
+    private void drain(SseSubscriber subscriber) {
+        SseFrame frame;
+        while ((frame = subscriber.poll()) != null) {
+            queued.decrementAndGet();
             try {
-                emitter.completeWithError(e);
-            } catch (Exception completeError) {
-                log.debug("Failed to complete SSE emitter after send error", completeError);
+                frame.sendTo(subscriber.emitter());
+            } catch (Exception e) {
+                errorDisconnects.increment();
+                log.warn("发送 SSE 事件失败: sessionId={}, eventType={}",
+                    subscriber.sessionId(), frame.eventType(), e);
+                disconnect(subscriber, e);
+                return;
             }
         }
     }
 
+    private void disconnect(SseSubscriber subscriber, Exception cause) {
+        unregister(subscriber.sessionId(), subscriber.emitter());
+        try {
+            subscriber.emitter().completeWithError(cause);
+        } catch (Exception completeError) {
+            log.debug("Failed to complete SSE emitter after send error", completeError);
+        }
+    }
+
+    private void discard(SseSubscriber subscriber) {
+        int discarded = subscriber.close();
+        if (discarded > 0) {
+            queued.addAndGet(-discarded);
+        }
+    }
+
+    private Counter dropCounter(String eventType, OverflowPolicy policy) {
+        return dropCounters.computeIfAbsent(eventType + '\u0000' + policy.getValue(), k ->
+            Counter.builder("vibe.sse.queue.dropped")
+                .tag("event", eventType)
+                .tag("policy", policy.getValue())
+                .description("发送队列溢出丢弃的事件数")
+                .register(meterRegistry));
+    }
+
+    /**
+     * 序列化事件；失败时记录日志并返回 null（序列化错误与连接无关，不应断开任何连接）
+     */
+    private SseFrame encode(String eventType, Object data) {
+        try {
+            return SseFrame.encode(objectMapper, eventType, data);
+        } catch (Exception e) {
+            log.error("序列化 SSE 事件失败: eventType={}", eventType, e);
+            return null;
+        }
+    }
+
     private static Set<String> normalizeTopics(Set<String> topics) {
         if (topics == null || topics.isEmpty()) {
             return Set.of();
@@ -140,7 +751,7 @@ public class SseEventPublisher {
             .collect(Collectors.toUnmodifiableSet());
     }
 
-    private static String topicForEventType(String eventType) {
+    static String topicForEventType(String eventType) {
         if (eventType == null) {
             return null;
         }
@@ -154,28 +765,25 @@ public class SseEventPublisher {
     }
 
     /**
-     * Emitter 信息（包含订阅的主题）
+     * 连接的保活定时器
      */
-    private record EmitterInfo(SseEmitter emitter, Set<String> topics) {
-        boolean shouldReceive(String eventType) {
-            // 如果没有指定主题，接收所有事件
-            if (topics == null || topics.isEmpty()) {
-                return true;
-            }
-            // 心跳事件始终发送
-            if (HeartbeatEvent.EVENT_TYPE.equals(eventType)) {
-                return true;
-            }
-            String normalizedEventType = eventType != null ? eventType.toLowerCase() : "";
+    private final class SubscriberKeepAlive extends KeepAliveTimer {
 
-            // 允许两种订阅方式：
-            // 1) 直接订阅事件类型（ambience_changed 等）
-            // 2) 订阅主题分类（ambience/safety/status/environment）
-            if (topics.contains(normalizedEventType)) {
-                return true;
-            }
-            String topic = topicForEventType(normalizedEventType);
-            return topic != null && topics.contains(topic);
+        private final SseSubscriber subscriber;
+
+        private SubscriberKeepAlive(SseSubscriber subscriber) {
+            super(timingWheel, keepAlive.heartbeatMillis(), keepAlive.idleTimeoutMillis());
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        protected void onHeartbeat(long tickMillis) {
+            sendHeartbeat(subscriber, tickMillis);
+        }
+
+        @Override
+        protected void onIdle(long tickMillis) {
+            closeIdle(subscriber);
         }
     }
 }
@@ -0,0 +1,110 @@
+package com.vibe.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 编码好的 SSE 帧（event: / data: 行及结尾空行，UTF-8 字节）
+ * 同一事件发往多个连接时只做一次 JSON 序列化与 UTF-8 编码，各连接共享同一份只读字节；
+ * 字节数组经 ByteArrayHttpMessageConverter 原样写出，不再经过 SseEventBuilder 与字符串编码。
+ * 带 ID 的帧在共享字节前单独写出 id: 行，各会话编号不同也不复制事件字节
+ */
+public final class SseFrame {
+
+    /**
+     * 未编号
+     */
+    public static final long NO_ID = -1;
+
+    private final String eventType;
+    private final long id;
+    private final int size;
+    private final Set<ResponseBodyEmitter.DataWithMediaType> payload;
+
+    private SseFrame(String eventType, byte[] bytes) {
+        this.eventType = eventType;
+        this.id = NO_ID;
+        this.size = bytes.length;
+        this.payload = Set.of(new ResponseBodyEmitter.DataWithMediaType(bytes, MediaType.TEXT_PLAIN));
+    }
+
+    private SseFrame(SseFrame body, long id) {
+        byte[] idLine = ("id:" + id + "\n").getBytes(StandardCharsets.US_ASCII);
+        this.eventType = body.eventType;
+        this.id = id;
+        this.size = idLine.length + body.size;
+        // 与 SseEventBuilder 一样用 LinkedHashSet 保持分段的写出顺序
+        Set<ResponseBodyEmitter.DataWithMediaType> parts = new LinkedHashSet<>(4);
+        parts.add(new ResponseBodyEmitter.DataWithMediaType(idLine, MediaType.TEXT_PLAIN));
+        parts.addAll(body.payload);
+        this.payload = Collections.unmodifiableSet(parts);
+    }
+
+    /**
+     * 序列化并编码事件
+     */
+    public static SseFrame encode(ObjectMapper objectMapper, String eventType, Object data)
+            throws JsonProcessingException {
+        String json = objectMapper.writeValueAsString(data);
+        StringBuilder frame = new StringBuilder(eventType.length() + json.length() + 16)
+            .append("event:").append(eventType).append('\n')
+            .append("data:");
+        // 多行数据每行都要带 data: 前缀（与 SseEmitter 的编码一致）
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            frame.append(c);
+            if (c == '\n') {
+                frame.append("data:");
+            }
+        }
+        frame.append("\n\n");
+        return new SseFrame(eventType, frame.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 加上事件 ID（id: 行）的帧，与本帧共享事件字节
+     */
+    public SseFrame withId(long id) {
+        if (this.id != NO_ID) {
+            throw new IllegalStateException("SSE frame already has id " + this.id);
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("SSE event id must not be negative: " + id);
+        }
+        return new SseFrame(this, id);
+    }
+
+    public String eventType() {
+        return eventType;
+    }
+
+    /**
+     * 事件 ID；未编号时为 {@link #NO_ID}
+     */
+    public long id() {
+        return id;
+    }
+
+    /**
+     * 帧字节数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 写出到连接；不修改共享字节
+     */
+    public void sendTo(SseEmitter emitter) throws IOException {
+        emitter.send(payload);
+    }
+}
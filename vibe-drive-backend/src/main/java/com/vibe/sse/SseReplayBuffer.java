@@ -0,0 +1,135 @@
+package com.vibe.sse;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * 单个会话的事件编号与重放缓冲
+ * 为会话内的事件分配单调递增的 ID，并在环形缓冲中保留最近的帧（条数与字节数上限先到者为准，至少保留最新一帧），
+ * 车机断线重连时携带 Last-Event-ID 即可补发期间错过的事件。
+ * 缓冲按需扩容、只引用未编号的帧（广播事件的帧字节在所有会话间共享），空闲会话的内存占用很小；
+ * 编号从缓冲创建时的时间戳（毫秒）开始，缓冲过期释放后重建的会话编号仍大于旧编号，旧 ID 会被识别为缺口。
+ * 非线程安全，由 SseEventPublisher 以缓冲自身为锁串行访问
+ */
+final class SseReplayBuffer {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int maxEvents;
+    private final int maxBytes;
+    private long[] ids;
+    private SseFrame[] frames;
+    private int head;
+    private int size;
+    private int bytes;
+    private long lastId;
+    private int connections;
+    private long idleSince;
+
+    SseReplayBuffer(int maxEvents, int maxBytes, long createdMillis) {
+        if (maxEvents <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("maxEvents and maxBytes must be positive");
+        }
+        this.maxEvents = maxEvents;
+        this.maxBytes = maxBytes;
+        this.lastId = createdMillis;
+        this.idleSince = createdMillis;
+        int capacity = Math.min(INITIAL_CAPACITY, maxEvents);
+        this.ids = new long[capacity];
+        this.frames = new SseFrame[capacity];
+    }
+
+    /**
+     * 分配下一个 ID 并缓冲帧，超出上限时淘汰最旧的帧
+     *
+     * @param frame 未编号的帧
+     * @return 分配的 ID
+     */
+    long append(SseFrame frame) {
+        long id = ++lastId;
+        while (size > 0 && (size >= maxEvents || bytes + frame.size() > maxBytes)) {
+            removeOldest();
+        }
+        if (size == frames.length) {
+            grow();
+        }
+        int index = (head + size) % frames.length;
+        ids[index] = id;
+        frames[index] = frame;
+        size++;
+        bytes += frame.size();
+        return id;
+    }
+
+    /**
+     * 按顺序遍历 ID 大于 lastEventId 的帧
+     */
+    void forEachAfter(long lastEventId, ObjLongConsumer<SseFrame> consumer) {
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % frames.length;
+            if (ids[index] > lastEventId) {
+                consumer.accept(frames[index], ids[index]);
+            }
+        }
+    }
+
+    /**
+     * lastEventId 之后的事件是否都还在缓冲中
+     */
+    boolean covers(long lastEventId) {
+        if (lastEventId >= lastId) {
+            return true;
+        }
+        return size > 0 && ids[head] <= lastEventId + 1;
+    }
+
+    long lastId() {
+        return lastId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int bytes() {
+        return bytes;
+    }
+
+    void connected() {
+        connections++;
+    }
+
+    void disconnected(int count, long nowMillis) {
+        connections = Math.max(0, connections - count);
+        if (connections == 0) {
+            idleSince = nowMillis;
+        }
+    }
+
+    /**
+     * 没有连接且空闲超过 ttlMillis
+     */
+    boolean idleExpired(long nowMillis, long ttlMillis) {
+        return connections == 0 && nowMillis - idleSince >= ttlMillis;
+    }
+
+    private void removeOldest() {
+        bytes -= frames[head].size();
+        frames[head] = null;
+        head = (head + 1) % frames.length;
+        size--;
+    }
+
+    private void grow() {
+        int capacity = Math.min(maxEvents, frames.length * 2);
+        long[] grownIds = new long[capacity];
+        SseFrame[] grownFrames = new SseFrame[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % frames.length;
+            grownIds[i] = ids[index];
+            grownFrames[i] = frames[index];
+        }
+        ids = grownIds;
+        frames = grownFrames;
+        head = 0;
+    }
+}
@@ -0,0 +1,186 @@
+package com.vibe.sse;
+
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.timer.KeepAliveTimer;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * 一个 SSE 连接及其有界发送队列
+ * 发布线程只入队，由发送执行器上的单个排空任务按顺序写出；写出阻塞只影响本连接，
+ * 队列满时按事件类型的 {@link SseEventPublisher.OverflowPolicy} 处理；
+ * 心跳与空闲超时由挂在共享时间轮上的 {@link KeepAliveTimer} 按连接触发
+ */
+final class SseSubscriber {
+
+    /**
+     * 入队结果
+     */
+    enum Offer {
+        /**
+         * 已入队，且需要提交排空任务
+         */
+        SCHEDULE,
+
+        /**
+         * 已入队，排空任务已在运行
+         */
+        QUEUED,
+
+        /**
+         * 队列已满，丢弃了一帧（最旧的一帧或同类型的旧帧）后入队
+         */
+        DROPPED,
+
+        /**
+         * 队列已满且策略为断开
+         */
+        OVERFLOW,
+
+        /**
+         * 连接已关闭
+         */
+        CLOSED
+    }
+
+    private final String sessionId;
+    private final SseEmitter emitter;
+    private final Set<String> topics;
+    private final int capacity;
+    private final ArrayDeque<SseFrame> queue;
+    private boolean draining;
+    private boolean closed;
+    private volatile KeepAliveTimer keepAlive;
+
+    SseSubscriber(String sessionId, SseEmitter emitter, Set<String> topics, int capacity) {
+        this.sessionId = sessionId;
+        this.emitter = emitter;
+        this.topics = topics;
+        this.capacity = capacity;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 16));
+    }
+
+    String sessionId() {
+        return sessionId;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * 启动保活定时器；连接已关闭时不启动
+     */
+    synchronized void startKeepAlive(KeepAliveTimer timer, long nowMillis) {
+        if (closed) {
+            return;
+        }
+        keepAlive = timer;
+        timer.start(nowMillis);
+    }
+
+    /**
+     * 记录一次业务事件下发，推迟空闲超时
+     */
+    void touch(long nowMillis) {
+        KeepAliveTimer timer = keepAlive;
+        if (timer != null) {
+            timer.touch(nowMillis);
+        }
+    }
+
+    /**
+     * 入队；队列满时按策略丢弃或拒绝
+     */
+    synchronized Offer offer(SseFrame frame, SseEventPublisher.OverflowPolicy policy) {
+        if (closed) {
+            return Offer.CLOSED;
+        }
+        Offer result = draining ? Offer.QUEUED : Offer.SCHEDULE;
+        if (queue.size() >= capacity) {
+            switch (policy) {
+                case DISCONNECT -> {
+                    return Offer.OVERFLOW;
+                }
+                case CONFLATE -> {
+                    if (!removeLast(frame.eventType())) {
+                        queue.pollFirst();
+                    }
+                }
+                case DROP_OLDEST -> queue.pollFirst();
+            }
+            result = Offer.DROPPED;
+        }
+        queue.addLast(frame);
+        draining = true;
+        return result;
+    }
+
+    /**
+     * 取下一帧；队列为空时结束排空（之后的入队会重新提交排空任务）
+     */
+    synchronized SseFrame poll() {
+        SseFrame frame = closed ? null : queue.pollFirst();
+        if (frame == null) {
+            draining = false;
+        }
+        return frame;
+    }
+
+    /**
+     * 关闭连接并清空队列
+     *
+     * @return 被丢弃的未发送帧数；已关闭时返回 -1
+     */
+    synchronized int close() {
+        if (closed) {
+            return -1;
+        }
+        closed = true;
+        if (keepAlive != null) {
+            keepAlive.stop();
+        }
+        int discarded = queue.size();
+        queue.clear();
+        return discarded;
+    }
+
+    synchronized int depth() {
+        return queue.size();
+    }
+
+    private boolean removeLast(String eventType) {
+        Iterator<SseFrame> iterator = queue.descendingIterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().eventType().equals(eventType)) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean shouldReceive(String eventType) {
+        // 如果没有指定主题，接收所有事件
+        if (topics == null || topics.isEmpty()) {
+            return true;
+        }
+        // 心跳事件始终发送
+        if (HeartbeatEvent.EVENT_TYPE.equals(eventType)) {
+            return true;
+        }
+        String normalizedEventType = eventType != null ? eventType.toLowerCase() : "";
+
+        // 允许两种订阅方式：
+        // 1) 直接订阅事件类型（ambience_changed 等）
+        // 2) 订阅主题分类（ambience/safety/status/environment）
+        if (topics.contains(normalizedEventType)) {
+            return true;
+        }
+        String topic = SseEventPublisher.topicForEventType(normalizedEventType);
+        return topic != null && topics.contains(topic);
+    }
+}
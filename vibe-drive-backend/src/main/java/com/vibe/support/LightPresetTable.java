@@ -0,0 +1,162 @@
+package com.vibe.support;
+
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.ZoneSetting;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.TimeOfDay;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+
+import java.util.List;
+
+/**
+ * 灯光预设查表
+ * 情绪 × 时段 × 天气 × 安全模式的组合有限，类加载时按 {@link LightPresets} 一次性算出全部 {@link LightSetting}
+ * （含分区设置与安全模式过滤），之后查询只按枚举序号取数组元素，返回共享的不可变实例，不分配对象；
+ * 每个维度的第 0 格对应 null / 未知取值（使用 LightPresets 的默认值）
+ */
+public final class LightPresetTable {
+
+    /**
+     * 默认过渡时长（毫秒）
+     */
+    static final int DEFAULT_TRANSITION_MS = 1500;
+
+    private static final UserMood[] MOODS = UserMood.values();
+    private static final TimeOfDay[] TIMES = TimeOfDay.values();
+    private static final Weather[] WEATHERS = Weather.values();
+    private static final SafetyMode[] SAFETY_MODES = SafetyMode.values();
+
+    private static final int MOOD_SLOTS = MOODS.length + 1;
+    private static final int TIME_SLOTS = TIMES.length + 1;
+    private static final int WEATHER_SLOTS = WEATHERS.length + 1;
+
+    /**
+     * [安全模式][情绪][时段][天气] 展开的一维表；L3 静默模式的格为 null
+     */
+    private static final LightSetting[] SETTINGS = build();
+
+    private LightPresetTable() {
+        // 工具类，禁止实例化
+    }
+
+    private static LightSetting[] build() {
+        LightSetting[] settings = new LightSetting[SAFETY_MODES.length * MOOD_SLOTS * TIME_SLOTS * WEATHER_SLOTS];
+        for (int m = 0; m < MOOD_SLOTS; m++) {
+            String mood = m == 0 ? null : MOODS[m - 1].getValue();
+            for (int t = 0; t < TIME_SLOTS; t++) {
+                String timeOfDay = t == 0 ? null : TIMES[t - 1].getValue();
+                for (int w = 0; w < WEATHER_SLOTS; w++) {
+                    String weather = w == 0 ? null : WEATHERS[w - 1].getValue();
+                    LightSetting setting = compute(mood, timeOfDay, weather);
+                    for (SafetyMode safetyMode : SAFETY_MODES) {
+                        settings[slot(safetyMode.ordinal(), m, t, w)] = switch (safetyMode) {
+                            case L3_SILENT -> null;  // 静默模式禁用灯光
+                            case L2_FOCUS -> setting.forFocusMode();  // 专注模式仅静态
+                            case L1_NORMAL -> setting;
+                        };
+                    }
+                }
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * 按预设计算一组灯光设置（仅在建表时调用）
+     */
+    private static LightSetting compute(String mood, String timeOfDay, String weather) {
+        LightColor color = LightPresets.getColorForMood(mood);
+        int brightness = adjustBrightnessForMood(LightPresets.getBrightnessForTime(timeOfDay), mood);
+        LightMode mode = LightPresets.getModeForWeather(weather);
+        return new LightSetting(color, brightness, mode, DEFAULT_TRANSITION_MS, createDefaultZones(color, brightness));
+    }
+
+    /**
+     * 根据情绪微调亮度
+     */
+    private static int adjustBrightnessForMood(int baseBrightness, String mood) {
+        if (mood == null) {
+            return baseBrightness;
+        }
+        return switch (mood) {
+            case "tired", "stressed" -> Math.max(20, baseBrightness - 10);  // 降低亮度
+            case "excited" -> Math.min(100, baseBrightness + 10);  // 提高亮度
+            default -> baseBrightness;
+        };
+    }
+
+    /**
+     * 创建默认分区设置
+     */
+    private static List<ZoneSetting> createDefaultZones(LightColor baseColor, int brightness) {
+        return List.of(
+            new ZoneSetting(ZoneSetting.ZONE_DASHBOARD, baseColor.hex(), brightness),
+            new ZoneSetting(ZoneSetting.ZONE_DOOR, baseColor.hex(), Math.max(10, brightness - 10)),
+            new ZoneSetting(ZoneSetting.ZONE_FOOTWELL, baseColor.hex(), Math.max(10, brightness - 20))
+        );
+    }
+
+    /**
+     * 查表
+     *
+     * @param mood       情绪，null 使用默认颜色
+     * @param timeOfDay  时段，null 使用默认亮度
+     * @param weather    天气，null 使用静态模式
+     * @param safetyMode 安全模式，null 视为 L1 正常模式
+     * @return 共享的灯光设置；L3 静默模式返回 null
+     */
+    public static LightSetting lookup(UserMood mood, TimeOfDay timeOfDay, Weather weather, SafetyMode safetyMode) {
+        return SETTINGS[slot(
+            safetyMode == null ? SafetyMode.L1_NORMAL.ordinal() : safetyMode.ordinal(),
+            mood == null ? 0 : mood.ordinal() + 1,
+            timeOfDay == null ? 0 : timeOfDay.ordinal() + 1,
+            weather == null ? 0 : weather.ordinal() + 1)];
+    }
+
+    /**
+     * 按字符串查表（工具调用入口）；取值与预设键完全一致时命中，其余取值使用默认值
+     */
+    public static LightSetting lookup(String mood, String timeOfDay, String weather, SafetyMode safetyMode) {
+        return SETTINGS[slot(
+            safetyMode == null ? SafetyMode.L1_NORMAL.ordinal() : safetyMode.ordinal(),
+            moodSlot(mood), timeSlot(timeOfDay), weatherSlot(weather))];
+    }
+
+    private static int slot(int safetyMode, int mood, int time, int weather) {
+        return ((safetyMode * MOOD_SLOTS + mood) * TIME_SLOTS + time) * WEATHER_SLOTS + weather;
+    }
+
+    /*
+     * 字符串 → 格序号：枚举取值只有 5~7 个，顺序比较不分配对象
+     */
+
+    private static int moodSlot(String value) {
+        for (int i = 0; i < MOODS.length; i++) {
+            if (MOODS[i].getValue().equals(value)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int timeSlot(String value) {
+        for (int i = 0; i < TIMES.length; i++) {
+            if (TIMES[i].getValue().equals(value)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int weatherSlot(String value) {
+        for (int i = 0; i < WEATHERS.length; i++) {
+            if (WEATHERS[i].getValue().equals(value)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Map;
 /**
  * 灯光预设配置
  * 定义情绪、时段、天气与灯光设置的映射关系
+ * 运行时不直接查这些映射，而是由 {@link LightPresetTable} 建表时展开
  */
 public final class LightPresets {
 
@@ -54,20 +55,20 @@ public final class LightPresets {
      * 获取情绪对应的颜色，如果不存在则返回默认暖白色
      */
     public static LightColor getColorForMood(String mood) {
-        return MOOD_COLORS.getOrDefault(mood, LightColor.warmWhite());
+        return mood == null ? LightColor.warmWhite() : MOOD_COLORS.getOrDefault(mood, LightColor.warmWhite());
     }
 
     /**
      * 获取时段对应的亮度，如果不存在则返回默认50%
      */
     public static int getBrightnessForTime(String timeOfDay) {
-        return TIME_BRIGHTNESS.getOrDefault(timeOfDay, 50);
+        return timeOfDay == null ? 50 : TIME_BRIGHTNESS.getOrDefault(timeOfDay, 50);
     }
 
     /**
      * 获取天气对应的灯光模式，如果不存在则返回静态模式
      */
     public static LightMode getModeForWeather(String weather) {
-        return WEATHER_MODE.getOrDefault(weather, LightMode.STATIC);
+        return weather == null ? LightMode.STATIC : WEATHER_MODE.getOrDefault(weather, LightMode.STATIC);
     }
 }
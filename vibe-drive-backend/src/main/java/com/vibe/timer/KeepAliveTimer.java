@@ -0,0 +1,113 @@
+package com.vibe.timer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 长连接保活定时器（每个连接一个）
+ * 按心跳间隔触发心跳；连接超过空闲超时没有业务往来（心跳不算）时触发空闲回调，此后不再触发。
+ * 首次心跳在 (0, 间隔] 内随机错开，同一时刻建立的大量连接（如服务重启后的重连潮）不会挤在同一刻度发心跳；
+ * 心跳与空闲检查共用一个时间轮节点，业务往来只记录时间戳、不改动时间轮，检查到期时再按最近往来时间顺延
+ */
+public abstract class KeepAliveTimer extends TimingWheel.Timeout {
+
+    private final TimingWheel timingWheel;
+    private final long heartbeatMillis;
+    private final long idleTimeoutMillis;
+    private volatile long lastActivityMillis;
+    private long nextHeartbeatMillis = Long.MAX_VALUE;
+    private boolean stopped;
+
+    /**
+     * @param heartbeatMillis   心跳间隔，0 表示不发心跳
+     * @param idleTimeoutMillis 空闲超时，0 表示不检查空闲
+     */
+    protected KeepAliveTimer(TimingWheel timingWheel, long heartbeatMillis, long idleTimeoutMillis) {
+        if (heartbeatMillis < 0 || idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException("heartbeatMillis and idleTimeoutMillis must not be negative");
+        }
+        this.timingWheel = timingWheel;
+        this.heartbeatMillis = heartbeatMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * 连接建立时调用
+     */
+    public synchronized void start(long nowMillis) {
+        if (stopped) {
+            return;
+        }
+        lastActivityMillis = nowMillis;
+        if (heartbeatMillis > 0) {
+            nextHeartbeatMillis = nowMillis + 1 + ThreadLocalRandom.current().nextLong(heartbeatMillis);
+        }
+        reschedule();
+    }
+
+    /**
+     * 记录一次业务往来
+     */
+    public void touch(long nowMillis) {
+        if (nowMillis > lastActivityMillis) {
+            lastActivityMillis = nowMillis;
+        }
+    }
+
+    /**
+     * 连接关闭时调用；之后不再触发任何回调
+     */
+    public synchronized void stop() {
+        stopped = true;
+        timingWheel.cancel(this);
+    }
+
+    @Override
+    protected final void expire(long tickMillis) {
+        boolean idle = false;
+        boolean heartbeat = false;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            if (idleTimeoutMillis > 0 && tickMillis >= lastActivityMillis + idleTimeoutMillis) {
+                stopped = true;
+                idle = true;
+            } else {
+                if (tickMillis >= nextHeartbeatMillis) {
+                    heartbeat = true;
+                    // 保持错开后的相位；刻度落后太多时从当前刻度重新计
+                    nextHeartbeatMillis += heartbeatMillis;
+                    if (nextHeartbeatMillis <= tickMillis) {
+                        nextHeartbeatMillis = tickMillis + heartbeatMillis;
+                    }
+                }
+                reschedule();
+            }
+        }
+        if (idle) {
+            onIdle(tickMillis);
+        } else if (heartbeat) {
+            onHeartbeat(tickMillis);
+        }
+    }
+
+    private void reschedule() {
+        long deadline = nextHeartbeatMillis;
+        if (idleTimeoutMillis > 0) {
+            deadline = Math.min(deadline, lastActivityMillis + idleTimeoutMillis);
+        }
+        if (deadline != Long.MAX_VALUE) {
+            timingWheel.schedule(this, deadline);
+        }
+    }
+
+    /**
+     * 到了发心跳的时间，在时间轮线程上执行，必须快速返回（只入队，不写网络）
+     */
+    protected abstract void onHeartbeat(long tickMillis);
+
+    /**
+     * 空闲超时，在时间轮线程上执行
+     */
+    protected abstract void onIdle(long tickMillis);
+}
@@ -0,0 +1,288 @@
+package com.vibe.timer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 共享时间轮（分层时间轮）
+ * 所有会话与连接的定时任务挂在同一个轮上，由一个线程按固定刻度推进，而不是每个会话 / 每辆车各开一个定时器；
+ * 共 {@value #LEVELS} 层，每层 wheelSize 个桶，第 n 层一个桶跨 wheelSize^n 个刻度：
+ * 任务按距到期的刻度数放到能容纳它的最低一层，第 0 层的桶恰好在到期刻度被处理；
+ * 上层的桶在下层转完一圈时整体降级（按剩余刻度数重新放置），每个任务最多降级 LEVELS - 1 次。
+ * 心跳、空闲超时这类几十秒到几分钟的长定时不会在第 0 层的桶里一圈圈被反复检查，
+ * 每个刻度的开销只与到期和降级的任务数有关，几十万连接各挂一个定时任务也不会拖慢推进
+ *
+ * 任务对象即链表节点（{@link Timeout}），调用方可以复用同一个对象反复调度，调度本身不分配对象；
+ * 到期任务在时间轮线程上执行，必须快速返回
+ */
+@Component
+public class TimingWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    /**
+     * Timeout.bucket 的特殊取值：未调度 / 已摘下等待执行
+     */
+    private static final int IDLE = -1;
+    private static final int EXPIRING = -2;
+
+    /**
+     * 层数；默认配置（10ms × 512）下依次覆盖约 5 秒、43 分钟、15 天、21 年，更远的任务先放在最高层
+     */
+    static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final int bits;
+    private final int mask;
+
+    /**
+     * 各层的桶依次排列：第 n 层第 i 个桶位于 n * wheelSize + i
+     */
+    private final Timeout[] buckets;
+
+    /**
+     * 已处理到的刻度（含）
+     */
+    private long currentTick;
+    private int pending;
+
+    private volatile Thread worker;
+
+    public TimingWheel(
+            @Value("${vibe.timer.tick-ms:10}") long tickMillis,
+            @Value("${vibe.timer.wheel-size:512}") int wheelSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.buckets = new Timeout[LEVELS * wheelSize];
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        Thread thread = new Thread(this::run, "timing-wheel");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        log.info("时间轮启动: tick={}ms, wheelSize={}, levels={}", tickMillis, wheelSize, LEVELS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            long now = System.currentTimeMillis();
+            advanceTo(now);
+            long nextTick = (now / tickMillis + 1) * tickMillis;
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, nextTick - now)));
+        }
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * 调度任务在 deadlineMillis（墙钟毫秒）之后的第一个刻度执行；已调度的任务会先取消再重新调度，
+     * 已过期的截止时间在下一个刻度执行
+     */
+    public synchronized void schedule(Timeout timeout, long deadlineMillis) {
+        if (timeout.bucket >= 0) {
+            unlink(timeout);
+        }
+        // 已摘下等待执行的任务被重新调度时，这次到期作废（执行前检查状态）
+        timeout.deadlineTick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        link(timeout, currentTick);
+        pending++;
+    }
+
+    /**
+     * 取消任务
+     *
+     * @return 任务是否处于已调度状态
+     */
+    public synchronized boolean cancel(Timeout timeout) {
+        if (timeout.bucket == EXPIRING) {
+            timeout.bucket = IDLE;
+            return true;
+        }
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * 已调度未执行的任务数
+     */
+    public synchronized int pending() {
+        return pending;
+    }
+
+    /**
+     * 按距 fromTick 的刻度数放入能容纳它的最低一层
+     */
+    private void link(Timeout timeout, long fromTick) {
+        long delta = timeout.deadlineTick - fromTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        // 超出最高层跨度的任务先放在最高层最远的桶，降级时按真实截止刻度重新放置
+        long tick = Math.max(fromTick, Math.min(timeout.deadlineTick, fromTick + (1L << (bits * LEVELS)) - 1));
+        int bucket = level * wheelSize + (int) ((tick >>> (bits * level)) & mask);
+        timeout.bucket = bucket;
+        timeout.prev = null;
+        timeout.next = buckets[bucket];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        buckets[bucket] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = IDLE;
+        pending--;
+    }
+
+    /**
+     * 下层转完一圈时，把上层对应的桶整体降级；从高层到低层，降下来的任务可以在同一刻度继续降级或到期
+     */
+    private void cascade(long tick) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1L << (bits * level)) - 1)) != 0) {
+                continue;
+            }
+            int bucket = level * wheelSize + (int) ((tick >>> (bits * level)) & mask);
+            Timeout timeout = buckets[bucket];
+            buckets[bucket] = null;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                link(timeout, tick);
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * 推进到 nowMillis 所在刻度，依次执行到期任务（时间轮线程调用；测试中直接调用以控制时间）
+     */
+    public void advanceTo(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        while (true) {
+            Timeout expired;
+            long tick;
+            synchronized (this) {
+                if (currentTick >= targetTick) {
+                    return;
+                }
+                tick = ++currentTick;
+                cascade(tick);
+                expired = collectExpired(tick);
+            }
+            // 在锁外执行，任务中可以重新调度自己
+            while (expired != null) {
+                Timeout timeout = expired;
+                expired = timeout.expiredNext;
+                timeout.expiredNext = null;
+                if (!claim(timeout)) {
+                    continue;
+                }
+                try {
+                    timeout.expire(tick * tickMillis);
+                } catch (RuntimeException e) {
+                    log.error("时间轮任务执行失败", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 摘下后未被取消或重新调度的任务才执行
+     */
+    private synchronized boolean claim(Timeout timeout) {
+        if (timeout.bucket != EXPIRING) {
+            return false;
+        }
+        timeout.bucket = IDLE;
+        return true;
+    }
+
+    /**
+     * 从第 0 层刻度对应的桶中摘下到期任务，串成单链表返回（桶内新任务在前，逆序串接后按调度顺序执行）
+     */
+    private Timeout collectExpired(long tick) {
+        Timeout expired = null;
+        Timeout timeout = buckets[(int) (tick & mask)];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.deadlineTick <= tick) {
+                unlink(timeout);
+                timeout.bucket = EXPIRING;
+                timeout.expiredNext = expired;
+                expired = timeout;
+            }
+            timeout = next;
+        }
+        return expired;
+    }
+
+    /**
+     * 时间轮任务：同时是桶内双向链表的节点，可反复调度
+     */
+    public abstract static class Timeout {
+
+        private Timeout prev;
+        private Timeout next;
+        private Timeout expiredNext;
+        private int bucket = IDLE;
+        private long deadlineTick;
+
+        /**
+         * 是否已调度且未执行
+         */
+        public boolean isScheduled() {
+            return bucket != IDLE;
+        }
+
+        /**
+         * 到期回调，在时间轮线程上执行
+         *
+         * @param tickMillis 到期刻度对应的墙钟毫秒
+         */
+        protected abstract void expire(long tickMillis);
+    }
+}
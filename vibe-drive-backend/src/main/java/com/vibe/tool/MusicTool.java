@@ -4,6 +4,7 @@ import com.vibe.model.MusicRecommendation;
 import com.vibe.service.MusicService;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
 import org.springframework.stereotype.Component;
 
 /**
@@ -26,6 +27,7 @@ public class MusicTool {
      * @param timeOfDay      时段
      * @param passengerCount 乘客数量
      * @param genre          偏好流派（可选）
+     * @param sessionId      会话 ID（由框架注入，用于避免同一会话重复推荐）
      * @return 音乐推荐结果
      */
     @Tool("""
@@ -39,8 +41,9 @@ public class MusicTool {
         @P("目标情绪: happy/calm/tired/stressed/excited") String mood,
         @P("时段: dawn/morning/noon/afternoon/evening/night/midnight") String timeOfDay,
         @P("乘客数量: 1-7") int passengerCount,
-        @P("偏好流派，可选: pop/rock/jazz/classical/folk/electronic/ambient") String genre
+        @P("偏好流派，可选: pop/rock/jazz/classical/folk/electronic/ambient") String genre,
+        @ToolMemoryId String sessionId
     ) {
-        return musicService.recommend(mood, timeOfDay, passengerCount, genre);
+        return musicService.recommend(mood, timeOfDay, passengerCount, genre, sessionId);
     }
 }
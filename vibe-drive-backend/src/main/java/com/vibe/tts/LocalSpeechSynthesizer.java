@@ -0,0 +1,104 @@
+package com.vibe.tts;
+
+import com.vibe.model.Narrative;
+import com.vibe.model.enums.NarrativeEmotion;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 本地占位语音合成器
+ * 不依赖外部 TTS 服务：每个字生成一个按情感定调、按字符微调音高的短音节，标点处停顿，
+ * 输出 16kHz 单声道 16 位 PCM 的 WAV；时长随语速缩放，振幅随音量缩放，相同输入得到逐字节相同的音频，
+ * 用于开发联调与缓存链路验证；接入真实 TTS 时提供另一个 {@link SpeechSynthesizer} 并设置 vibe.tts.synthesizer
+ */
+@Component
+@ConditionalOnProperty(name = "vibe.tts.synthesizer", havingValue = "local", matchIfMissing = true)
+public class LocalSpeechSynthesizer implements SpeechSynthesizer {
+
+    static final int SAMPLE_RATE = 16_000;
+    static final int HEADER_BYTES = 44;
+
+    private static final int SYLLABLE_MS = 180;
+    private static final int PAUSE_MS = 120;
+
+    /**
+     * 满音量时的峰值振幅（占满量程的比例）
+     */
+    private static final double PEAK = 0.25;
+
+    @Override
+    public String name() {
+        return "local-tone-v1";
+    }
+
+    @Override
+    public String mimeType() {
+        return "audio/wav";
+    }
+
+    @Override
+    public byte[] synthesize(Narrative narrative) {
+        String text = narrative.text();
+        int syllableSamples = (int) (SAMPLE_RATE * SYLLABLE_MS / 1000 / narrative.speed());
+        int pauseSamples = (int) (SAMPLE_RATE * PAUSE_MS / 1000 / narrative.speed());
+
+        int samples = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            samples += Character.isLetterOrDigit(codePoint) ? syllableSamples : pauseSamples;
+            i += Character.charCount(codePoint);
+        }
+
+        ByteBuffer wav = ByteBuffer.allocate(HEADER_BYTES + samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        writeHeader(wav, samples * 2);
+        double amplitude = narrative.volume() * PEAK * Short.MAX_VALUE;
+        double base = baseFrequency(narrative.emotion());
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (!Character.isLetterOrDigit(codePoint)) {
+                // 停顿：缓冲区初始即为静音
+                wav.position(wav.position() + pauseSamples * 2);
+                continue;
+            }
+            double step = 2 * Math.PI * base * Math.pow(2, (codePoint % 7 - 3) / 12.0) / SAMPLE_RATE;
+            for (int s = 0; s < syllableSamples; s++) {
+                double envelope = Math.sin(Math.PI * s / syllableSamples);
+                wav.putShort((short) (amplitude * envelope * Math.sin(step * s)));
+            }
+        }
+        return wav.array();
+    }
+
+    private static double baseFrequency(NarrativeEmotion emotion) {
+        return switch (emotion) {
+            case CALM -> 196.0;
+            case WARM -> 220.0;
+            case ROMANTIC -> 233.1;
+            case ENERGETIC -> 261.6;
+            case ADVENTUROUS -> 293.7;
+        };
+    }
+
+    /**
+     * RIFF/WAVE 头：PCM、单声道、16 位
+     */
+    private static void writeHeader(ByteBuffer wav, int dataBytes) {
+        wav.put((byte) 'R').put((byte) 'I').put((byte) 'F').put((byte) 'F');
+        wav.putInt(36 + dataBytes);
+        wav.put((byte) 'W').put((byte) 'A').put((byte) 'V').put((byte) 'E');
+        wav.put((byte) 'f').put((byte) 'm').put((byte) 't').put((byte) ' ');
+        wav.putInt(16);
+        wav.putShort((short) 1);
+        wav.putShort((short) 1);
+        wav.putInt(SAMPLE_RATE);
+        wav.putInt(SAMPLE_RATE * 2);
+        wav.putShort((short) 2);
+        wav.putShort((short) 16);
+        wav.put((byte) 'd').put((byte) 'a').put((byte) 't').put((byte) 'a');
+        wav.putInt(dataBytes);
+    }
+}
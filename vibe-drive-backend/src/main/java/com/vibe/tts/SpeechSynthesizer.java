@@ -0,0 +1,28 @@
+package com.vibe.tts;
+
+import com.vibe.model.Narrative;
+
+/**
+ * 语音合成器
+ * 将叙事文本按语音参数合成为音频；实现需保证相同输入得到等价的音频（合成结果按内容缓存），并且线程安全
+ */
+public interface SpeechSynthesizer {
+
+    /**
+     * 合成器标识，参与缓存键计算：更换合成器或其版本后不会命中旧音频
+     */
+    String name();
+
+    /**
+     * 合成音频的 MIME 类型
+     */
+    String mimeType();
+
+    /**
+     * 合成叙事语音
+     *
+     * @param narrative 叙事文本及语音参数
+     * @return 完整的音频文件内容
+     */
+    byte[] synthesize(Narrative narrative);
+}
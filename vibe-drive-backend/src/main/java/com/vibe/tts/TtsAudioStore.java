@@ -0,0 +1,240 @@
+package com.vibe.tts;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址的语音缓存（磁盘文件 + 内存映射）
+ * 每段音频以 hash 为文件名存放在缓存目录下，首次读取时只读映射进内存：
+ * 音频数据驻留在操作系统页缓存而不是 Java 堆里，进程重启后目录中的音频仍可直接命中；
+ * 条目总字节数超过上限时按最近最少使用淘汰（删除文件并丢弃映射），刚写入的条目不会被淘汰。
+ * 映射不主动解除（JDK 没有安全的解除方式，解除后仍在下发的请求会访问失效内存）：
+ * 被淘汰的文件在最后一个引用它的缓冲区被 GC 回收前仍占用磁盘空间，目录实际占用可能短暂超过上限
+ *
+ * 写入先落到临时文件再原子改名，读到的文件总是完整的；索引操作加锁，文件写入在锁外进行
+ */
+public final class TtsAudioStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TtsAudioStore.class);
+
+    private static final String SUFFIX = ".audio";
+    private static final int MAX_HASH_LENGTH = 128;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * hash → 条目，按访问顺序排列（最久未访问的在前）
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private long evictions;
+
+    private TtsAudioStore(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 打开缓存目录（不存在时创建），按文件修改时间恢复已有条目的 LRU 顺序；超出上限的部分立即淘汰
+     */
+    public static TtsAudioStore open(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        Files.createDirectories(directory);
+        TtsAudioStore store = new TtsAudioStore(directory, maxBytes);
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.forEach(files::add);
+        }
+        List<Path> existing = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(SUFFIX) && isValidHash(name.substring(0, name.length() - SUFFIX.length()))) {
+                existing.add(file);
+            } else if (name.endsWith(".tmp")) {
+                // 上次进程写入中途退出留下的临时文件
+                Files.deleteIfExists(file);
+            }
+        }
+        existing.sort(Comparator.comparing(TtsAudioStore::lastModified));
+        synchronized (store) {
+            for (Path file : existing) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                store.entries.put(name.substring(0, name.length() - SUFFIX.length()), new Entry(size));
+                store.totalBytes += size;
+            }
+            store.evictOverflow(null);
+        }
+        log.info("语音缓存已打开: dir={}, entries={}, bytes={}, maxBytes={}",
+            directory, store.entries.size(), store.totalBytes, maxBytes);
+        return store;
+    }
+
+    /**
+     * hash 只允许小写十六进制，避免经由下载接口访问缓存目录以外的文件
+     */
+    public static boolean isValidHash(String hash) {
+        if (hash == null || hash.isEmpty() || hash.length() > MAX_HASH_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取音频
+     *
+     * @return 只读视图（独立的读写位置），不存在时返回 null
+     */
+    public synchronized ByteBuffer get(String hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.buffer == null) {
+            try {
+                entry.buffer = map(file(hash), entry.bytes);
+            } catch (IOException e) {
+                // 文件被外部删除或损坏：丢弃条目，按未命中处理
+                log.warn("语音缓存文件不可读，丢弃条目: hash={}, error={}", hash, e.getMessage());
+                entries.remove(hash);
+                totalBytes -= entry.bytes;
+                return null;
+            }
+        }
+        return entry.buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * 音频字节数（同时刷新访问顺序），不存在时返回 -1
+     */
+    public synchronized long sizeOf(String hash) {
+        Entry entry = entries.get(hash);
+        return entry != null ? entry.bytes : -1;
+    }
+
+    /**
+     * 写入音频；相同 hash 的已有条目被替换
+     *
+     * @return 写入后的只读视图
+     */
+    public ByteBuffer put(String hash, byte[] audio) throws IOException {
+        if (!isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid audio hash: " + hash);
+        }
+        Path target = file(hash);
+        Path temp = Files.createTempFile(directory, hash, ".tmp");
+        try {
+            Files.write(temp, audio);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        MappedByteBuffer buffer = map(target, audio.length);
+        synchronized (this) {
+            Entry entry = new Entry(audio.length);
+            entry.buffer = buffer;
+            Entry previous = entries.put(hash, entry);
+            if (previous != null) {
+                totalBytes -= previous.bytes;
+            }
+            totalBytes += audio.length;
+            evictOverflow(hash);
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    private void evictOverflow(String keep) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue().bytes;
+            evictions++;
+            try {
+                // 已映射的缓冲区在文件删除后仍然可读，正在下发的请求不受影响；磁盘空间在映射被 GC 回收后才释放
+                Files.deleteIfExists(file(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("删除语音缓存文件失败: hash={}, error={}", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private Path file(String hash) {
+        return directory.resolve(hash + SUFFIX);
+    }
+
+    private static MappedByteBuffer map(Path file, long bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != bytes) {
+                throw new IOException("size mismatch: expected " + bytes + ", actual " + channel.size());
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * 缓存条目；映射延迟到首次读取，启动时不必映射整个目录
+     */
+    private static final class Entry {
+
+        private final long bytes;
+        private MappedByteBuffer buffer;
+
+        private Entry(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
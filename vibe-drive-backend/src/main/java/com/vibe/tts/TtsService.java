@@ -0,0 +1,174 @@
+package com.vibe.tts;
+
+import com.vibe.model.Narrative;
+import com.vibe.model.NarrativeAudio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 叙事语音合成服务
+ * 叙事生成后的 TTS 阶段：按 (合成器, 文本, 语音角色, 语速, 音量, 情感) 计算内容地址，
+ * 命中缓存直接附上音频引用，未命中时调用合成器并写入 {@link TtsAudioStore}；
+ * 叙事来自有限的模板集合，稳态下几乎都是命中，车机下载音频即可播放，不必在本地合成
+ *
+ * 同一 hash 的并发合成只执行一次；合成或写入失败时返回不带音频的叙事，由车机回退到本地合成
+ */
+@Service
+public class TtsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TtsService.class);
+
+    /**
+     * 音频下载地址前缀，见 TtsController
+     */
+    public static final String AUDIO_PATH = "/api/vibe/tts/";
+
+    private final SpeechSynthesizer synthesizer;
+    private final TtsAudioStore store;
+    private final Map<String, CompletableFuture<NarrativeAudio>> inflight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter failures;
+    private final Timer synthesisTimer;
+
+    public TtsService(
+            SpeechSynthesizer synthesizer,
+            MeterRegistry meterRegistry,
+            @Value("${vibe.tts.enabled:true}") boolean enabled,
+            @Value("${vibe.tts.cache-dir:}") String cacheDir,
+            @Value("${vibe.tts.cache-max-mb:256}") long cacheMaxMb) {
+        this.synthesizer = synthesizer;
+        this.store = enabled ? openStore(cacheDir, cacheMaxMb) : null;
+        this.hits = meterRegistry.counter("vibe.tts.cache.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("vibe.tts.cache.lookups", "result", "miss");
+        this.failures = meterRegistry.counter("vibe.tts.failures");
+        this.synthesisTimer = Timer.builder("vibe.tts.synthesis")
+                .tag("synthesizer", synthesizer.name())
+                .description("语音合成耗时（仅缓存未命中）")
+                .register(meterRegistry);
+        if (store != null) {
+            meterRegistry.gauge("vibe.tts.cache.bytes", store, TtsAudioStore::totalBytes);
+            meterRegistry.gauge("vibe.tts.cache.entries", store, TtsAudioStore::size);
+        }
+    }
+
+    private static TtsAudioStore openStore(String cacheDir, long cacheMaxMb) {
+        Path directory = cacheDir == null || cacheDir.isBlank()
+            ? Path.of(System.getProperty("java.io.tmpdir"), "vibe-tts")
+            : Path.of(cacheDir);
+        try {
+            return TtsAudioStore.open(directory, cacheMaxMb << 20);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to open TTS cache {}, server-side TTS disabled: {}", directory, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 是否启用服务端合成
+     */
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * 为叙事附上预合成语音引用；未启用或合成失败时原样返回
+     */
+    public Narrative attachAudio(Narrative narrative) {
+        if (store == null || narrative == null) {
+            return narrative;
+        }
+        String hash = hash(synthesizer.name(), narrative);
+        long bytes = store.sizeOf(hash);
+        if (bytes >= 0) {
+            hits.increment();
+            return narrative.withAudio(reference(hash, bytes));
+        }
+
+        CompletableFuture<NarrativeAudio> pending = new CompletableFuture<>();
+        CompletableFuture<NarrativeAudio> existing = inflight.putIfAbsent(hash, pending);
+        if (existing != null) {
+            // 同一内容正在合成，等待其结果
+            hits.increment();
+            NarrativeAudio audio = existing.join();
+            return audio != null ? narrative.withAudio(audio) : narrative;
+        }
+        NarrativeAudio audio = null;
+        try {
+            // 查缓存与登记合成之间，可能有另一请求刚合成完
+            long cached = store.sizeOf(hash);
+            if (cached >= 0) {
+                hits.increment();
+                audio = reference(hash, cached);
+            } else {
+                misses.increment();
+                long start = System.nanoTime();
+                byte[] data = synthesizer.synthesize(narrative);
+                synthesisTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                store.put(hash, data);
+                audio = reference(hash, data.length);
+                log.debug("语音已合成: hash={}, bytes={}, text={}", hash, data.length, narrative.text());
+            }
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            log.warn("语音合成失败，由车机本地合成: hash={}, error={}", hash, e.getMessage());
+        } finally {
+            pending.complete(audio);
+            inflight.remove(hash, pending);
+        }
+        return audio != null ? narrative.withAudio(audio) : narrative;
+    }
+
+    /**
+     * 读取已合成的音频
+     *
+     * @return 只读视图，hash 非法或不在缓存中时返回 null
+     */
+    public ByteBuffer audio(String hash) {
+        if (store == null || !TtsAudioStore.isValidHash(hash)) {
+            return null;
+        }
+        return store.get(hash);
+    }
+
+    public String mimeType() {
+        return synthesizer.mimeType();
+    }
+
+    /**
+     * 内容地址：SHA-256 的前 128 位（32 位十六进制）
+     * 语速与音量按千分位规整，避免 0.7 * 0.8 之类的浮点误差得到不同的 hash
+     */
+    static String hash(String synthesizerName, Narrative narrative) {
+        String key = synthesizerName + '\u0000' + narrative.text() + '\u0000' + narrative.voice() + '\u0000'
+            + Math.round(narrative.speed() * 1000) + '\u0000' + Math.round(narrative.volume() * 1000) + '\u0000'
+            + narrative.emotion().getValue();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private NarrativeAudio reference(String hash, long bytes) {
+        return new NarrativeAudio(hash, AUDIO_PATH + hash, synthesizer.mimeType(), bytes);
+    }
+}
@@ -0,0 +1,473 @@
+package com.vibe.ws;
+
+import com.vibe.model.BpmRange;
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.MusicRecommendation;
+import com.vibe.model.Narrative;
+import com.vibe.model.NarrativeAudio;
+import com.vibe.model.Song;
+import com.vibe.model.ZoneSetting;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.NarrativeEmotion;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.Weather;
+import com.vibe.model.event.AmbienceChangedEvent;
+import com.vibe.model.event.EnvironmentUpdateEvent;
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.model.event.SafetyModeChangedEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 事件二进制编码
+ * WebSocket 事件通道使用的紧凑编码：不带字段名，枚举用序号、车速用定点数、颜色用 RGB 字节、时间戳用毫秒整数；
+ * 心跳、环境更新、安全模式变化编码后只有 10~14 字节，同一事件在 SSE 上是 event:/data: 行加 JSON 文本
+ *
+ * 帧格式（大端）：
+ * <pre>
+ * 0   u8   版本（1）
+ * 1   u8   事件类型：1 心跳 / 2 环境更新 / 3 安全模式变化 / 4 氛围方案变化
+ * 2   i64  事件时间戳（毫秒）
+ * 10  消息体
+ *
+ * 心跳          无
+ * 环境更新      enum gpsTag, enum weather, speed
+ * 安全模式变化  enum previousMode, enum currentMode, speed
+ * 氛围方案变化  str planId, enum safetyMode, str trigger, ?light, ?music, ?narrative
+ *   light      ?color(rgb hex, u16 色温，0 为 null), u8 brightness, enum mode, i32 transitionDuration,
+ *              list zones(str zone, rgb color, u8 brightness)
+ *   music      list songs(str id, str title, str artist, str album, u16 duration, u16 bpm, str genre,
+ *              list mood(str), str coverUrl), str mood, str genre, ?bpmRange(u16 min, u16 max)
+ *   narrative  str text, str voice, u8 speed（0.01）, u8 volume（0.01）, enum emotion,
+ *              ?audio(str hash, str url, str mimeType, i64 bytes)
+ *
+ * enum   u8，序号 + 1，0 为 null
+ * str    u16 字节数 + UTF-8，0xFFFF 为 null
+ * rgb    u8 标记 + R、G、B，标记 0 为 null（解码为大写的 #RRGGBB）
+ * speed  u16，单位 0.1 km/h
+ * ?x     u8 标记，0 为 null，1 后接 x
+ * list   u8 元素数，0xFF 为 null
+ * </pre>
+ * 上行只接受环境更新
+ */
+public final class EventFrameCodec {
+
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 10;
+
+    public static final int TYPE_HEARTBEAT = 1;
+    public static final int TYPE_ENVIRONMENT_UPDATE = 2;
+    public static final int TYPE_SAFETY_MODE_CHANGED = 3;
+    public static final int TYPE_AMBIENCE_CHANGED = 4;
+
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int NULL_LIST = 0xFF;
+
+    private static final GpsTag[] GPS_TAGS = GpsTag.values();
+    private static final Weather[] WEATHERS = Weather.values();
+    private static final SafetyMode[] SAFETY_MODES = SafetyMode.values();
+    private static final LightMode[] LIGHT_MODES = LightMode.values();
+    private static final NarrativeEmotion[] EMOTIONS = NarrativeEmotion.values();
+
+    private EventFrameCodec() {
+    }
+
+    /**
+     * 事件类型是否有二进制编码
+     */
+    public static boolean supports(String eventType) {
+        return typeOf(eventType) != 0;
+    }
+
+    /**
+     * 编码事件
+     *
+     * @throws IllegalArgumentException 事件类型不支持、数据与类型不符或字段超出编码范围
+     */
+    public static byte[] encode(String eventType, Object data) {
+        int type = typeOf(eventType);
+        Writer out = new Writer(type == TYPE_AMBIENCE_CHANGED ? 256 : 16);
+        out.u8(VERSION);
+        out.u8(type);
+        switch (data) {
+            case HeartbeatEvent heartbeat when type == TYPE_HEARTBEAT -> out.i64(millis(heartbeat.timestamp()));
+            case EnvironmentUpdateEvent update when type == TYPE_ENVIRONMENT_UPDATE -> {
+                out.i64(millis(update.timestamp()));
+                out.enumeration(update.gpsTag());
+                out.enumeration(update.weather());
+                out.speed(update.speed());
+            }
+            case SafetyModeChangedEvent change when type == TYPE_SAFETY_MODE_CHANGED -> {
+                out.i64(millis(change.timestamp()));
+                out.enumeration(change.previousMode());
+                out.enumeration(change.currentMode());
+                out.speed(change.speed());
+            }
+            case AmbienceChangedEvent ambience when type == TYPE_AMBIENCE_CHANGED -> {
+                out.i64(millis(ambience.timestamp()));
+                out.string(ambience.planId());
+                out.enumeration(ambience.safetyMode());
+                out.string(ambience.trigger());
+                writeLight(out, ambience.light());
+                writeMusic(out, ambience.music());
+                writeNarrative(out, ambience.narrative());
+            }
+            case null, default -> throw new IllegalArgumentException(
+                "Unsupported binary event: " + eventType + " / " + (data != null ? data.getClass().getSimpleName() : null));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码事件帧
+     *
+     * @return HeartbeatEvent / EnvironmentUpdateEvent / SafetyModeChangedEvent / AmbienceChangedEvent
+     * @throws IllegalArgumentException 帧格式错误
+     */
+    public static Object decode(ByteBuffer frame) {
+        ByteBuffer in = frame.duplicate();
+        try {
+            int version = Byte.toUnsignedInt(in.get());
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported event frame version: " + version);
+            }
+            int type = Byte.toUnsignedInt(in.get());
+            Instant timestamp = Instant.ofEpochMilli(in.getLong());
+            Object event = switch (type) {
+                case TYPE_HEARTBEAT -> new HeartbeatEvent(timestamp);
+                case TYPE_ENVIRONMENT_UPDATE -> new EnvironmentUpdateEvent(
+                    readEnum(in, GPS_TAGS), readEnum(in, WEATHERS), readSpeed(in), timestamp);
+                case TYPE_SAFETY_MODE_CHANGED -> new SafetyModeChangedEvent(
+                    readEnum(in, SAFETY_MODES), readEnum(in, SAFETY_MODES), readSpeed(in), timestamp);
+                case TYPE_AMBIENCE_CHANGED -> {
+                    String planId = readString(in);
+                    SafetyMode safetyMode = readEnum(in, SAFETY_MODES);
+                    String trigger = readString(in);
+                    LightSetting light = readLight(in);
+                    MusicRecommendation music = readMusic(in);
+                    Narrative narrative = readNarrative(in);
+                    yield new AmbienceChangedEvent(planId, music, light, narrative, safetyMode, trigger, timestamp);
+                }
+                default -> throw new IllegalArgumentException("Unknown event frame type: " + type);
+            };
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes in event frame: " + in.remaining());
+            }
+            return event;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event frame", e);
+        }
+    }
+
+    private static int typeOf(String eventType) {
+        if (eventType == null) {
+            return 0;
+        }
+        return switch (eventType) {
+            case HeartbeatEvent.EVENT_TYPE -> TYPE_HEARTBEAT;
+            case EnvironmentUpdateEvent.EVENT_TYPE -> TYPE_ENVIRONMENT_UPDATE;
+            case SafetyModeChangedEvent.EVENT_TYPE -> TYPE_SAFETY_MODE_CHANGED;
+            case AmbienceChangedEvent.EVENT_TYPE -> TYPE_AMBIENCE_CHANGED;
+            default -> 0;
+        };
+    }
+
+    private static long millis(Instant timestamp) {
+        return timestamp != null ? timestamp.toEpochMilli() : System.currentTimeMillis();
+    }
+
+    private static void writeLight(Writer out, LightSetting light) {
+        if (!out.present(light)) {
+            return;
+        }
+        LightColor color = light.color();
+        if (out.present(color)) {
+            out.rgb(color.hex());
+            out.u16(color.temperature() != null ? color.temperature() : 0, "temperature");
+        }
+        out.u8(light.brightness());
+        out.enumeration(light.mode());
+        out.i32(light.transitionDuration());
+        List<ZoneSetting> zones = light.zones();
+        if (out.list(zones)) {
+            for (ZoneSetting zone : zones) {
+                out.string(zone.zone());
+                out.rgb(zone.color());
+                out.u8(zone.brightness());
+            }
+        }
+    }
+
+    private static LightSetting readLight(ByteBuffer in) {
+        if (!readPresent(in)) {
+            return null;
+        }
+        LightColor color = null;
+        if (readPresent(in)) {
+            String hex = readRgb(in);
+            int temperature = Short.toUnsignedInt(in.getShort());
+            color = new LightColor(hex, temperature != 0 ? temperature : null);
+        }
+        int brightness = Byte.toUnsignedInt(in.get());
+        LightMode mode = readEnum(in, LIGHT_MODES);
+        int transitionDuration = in.getInt();
+        int zoneCount = readListSize(in);
+        List<ZoneSetting> zones = null;
+        if (zoneCount >= 0) {
+            zones = new ArrayList<>(zoneCount);
+            for (int i = 0; i < zoneCount; i++) {
+                zones.add(new ZoneSetting(readString(in), readRgb(in), Byte.toUnsignedInt(in.get())));
+            }
+        }
+        return new LightSetting(color, brightness, mode, transitionDuration, zones);
+    }
+
+    private static void writeMusic(Writer out, MusicRecommendation music) {
+        if (!out.present(music)) {
+            return;
+        }
+        out.list(music.songs());
+        for (Song song : music.songs()) {
+            out.string(song.id());
+            out.string(song.title());
+            out.string(song.artist());
+            out.string(song.album());
+            out.u16(song.duration(), "duration");
+            out.u16(song.bpm(), "bpm");
+            out.string(song.genre());
+            if (out.list(song.mood())) {
+                for (String mood : song.mood()) {
+                    out.string(mood);
+                }
+            }
+            out.string(song.coverUrl());
+        }
+        out.string(music.mood());
+        out.string(music.genre());
+        BpmRange bpmRange = music.bpmRange();
+        if (out.present(bpmRange)) {
+            out.u16(bpmRange.min(), "bpmRange.min");
+            out.u16(bpmRange.max(), "bpmRange.max");
+        }
+    }
+
+    private static MusicRecommendation readMusic(ByteBuffer in) {
+        if (!readPresent(in)) {
+            return null;
+        }
+        int songCount = readListSize(in);
+        List<Song> songs = new ArrayList<>(Math.max(songCount, 0));
+        for (int i = 0; i < songCount; i++) {
+            String id = readString(in);
+            String title = readString(in);
+            String artist = readString(in);
+            String album = readString(in);
+            int duration = Short.toUnsignedInt(in.getShort());
+            int bpm = Short.toUnsignedInt(in.getShort());
+            String genre = readString(in);
+            int moodCount = readListSize(in);
+            List<String> moods = null;
+            if (moodCount >= 0) {
+                moods = new ArrayList<>(moodCount);
+                for (int j = 0; j < moodCount; j++) {
+                    moods.add(readString(in));
+                }
+            }
+            songs.add(new Song(id, title, artist, album, duration, bpm, genre, moods, readString(in)));
+        }
+        String mood = readString(in);
+        String genre = readString(in);
+        BpmRange bpmRange = readPresent(in)
+            ? new BpmRange(Short.toUnsignedInt(in.getShort()), Short.toUnsignedInt(in.getShort()))
+            : null;
+        return new MusicRecommendation(songs, mood, genre, bpmRange);
+    }
+
+    private static void writeNarrative(Writer out, Narrative narrative) {
+        if (!out.present(narrative)) {
+            return;
+        }
+        out.string(narrative.text());
+        out.string(narrative.voice());
+        out.u8((int) Math.round(narrative.speed() * 100));
+        out.u8((int) Math.round(narrative.volume() * 100));
+        out.enumeration(narrative.emotion());
+        NarrativeAudio audio = narrative.audio();
+        if (out.present(audio)) {
+            out.string(audio.hash());
+            out.string(audio.url());
+            out.string(audio.mimeType());
+            out.i64(audio.bytes());
+        }
+    }
+
+    private static Narrative readNarrative(ByteBuffer in) {
+        if (!readPresent(in)) {
+            return null;
+        }
+        String text = readString(in);
+        String voice = readString(in);
+        double speed = Byte.toUnsignedInt(in.get()) / 100.0;
+        double volume = Byte.toUnsignedInt(in.get()) / 100.0;
+        NarrativeEmotion emotion = readEnum(in, EMOTIONS);
+        NarrativeAudio audio = readPresent(in)
+            ? new NarrativeAudio(readString(in), readString(in), readString(in), in.getLong())
+            : null;
+        return new Narrative(text, voice, speed, volume, emotion, audio);
+    }
+
+    private static boolean readPresent(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer in, E[] values) {
+        int value = Byte.toUnsignedInt(in.get());
+        if (value == 0) {
+            return null;
+        }
+        if (value > values.length) {
+            throw new IllegalArgumentException("Unknown " + values[0].getDeclaringClass().getSimpleName() + ": " + value);
+        }
+        return values[value - 1];
+    }
+
+    private static double readSpeed(ByteBuffer in) {
+        return Short.toUnsignedInt(in.getShort()) / 10.0;
+    }
+
+    private static int readListSize(ByteBuffer in) {
+        int size = Byte.toUnsignedInt(in.get());
+        return size == NULL_LIST ? -1 : size;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static String readRgb(ByteBuffer in) {
+        if (!readPresent(in)) {
+            return null;
+        }
+        return String.format("#%02X%02X%02X",
+            Byte.toUnsignedInt(in.get()), Byte.toUnsignedInt(in.get()), Byte.toUnsignedInt(in.get()));
+    }
+
+    /**
+     * 按需扩容的大端写缓冲
+     */
+    private static final class Writer {
+
+        private byte[] bytes;
+        private int size;
+
+        private Writer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        void u8(int value) {
+            if (value < 0 || value > 0xFF) {
+                throw new IllegalArgumentException("Value out of u8 range: " + value);
+            }
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void u16(int value, String field) {
+            if (value < 0 || value > 0xFFFF) {
+                throw new IllegalArgumentException(field + " out of u16 range: " + value);
+            }
+            ensure(2);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void i32(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void i64(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void enumeration(Enum<?> value) {
+            u8(value != null ? value.ordinal() + 1 : 0);
+        }
+
+        void speed(double speed) {
+            u16((int) Math.round(speed * 10), "speed");
+        }
+
+        boolean present(Object value) {
+            u8(value != null ? 1 : 0);
+            return value != null;
+        }
+
+        boolean list(List<?> values) {
+            if (values == null) {
+                u8(NULL_LIST);
+                return false;
+            }
+            if (values.size() >= NULL_LIST) {
+                throw new IllegalArgumentException("List too long for event frame: " + values.size());
+            }
+            u8(values.size());
+            return true;
+        }
+
+        void string(String value) {
+            if (value == null) {
+                u16(NULL_STRING, "string");
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length >= NULL_STRING) {
+                throw new IllegalArgumentException("String too long for event frame: " + utf8.length + " bytes");
+            }
+            u16(utf8.length, "string");
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void rgb(String hex) {
+            if (!present(hex)) {
+                return;
+            }
+            int rgb = Integer.parseInt(hex.substring(1), 16);
+            ensure(3);
+            bytes[size++] = (byte) (rgb >>> 16);
+            bytes[size++] = (byte) (rgb >>> 8);
+            bytes[size++] = (byte) rgb;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.vibe.ws;
+
+import com.vibe.light.LightCueScheduler;
+import com.vibe.model.Environment;
+import com.vibe.model.api.VibeStatus;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.event.EnvironmentUpdateEvent;
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.model.event.SafetyModeChangedEvent;
+import com.vibe.sse.SseEventPublisher;
+import com.vibe.status.VibeSessionStatusStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+
+/**
+ * 事件 WebSocket 端点：ws://host/ws/events?sessionId=xxx
+ * 下行推送心跳、环境更新、安全模式变化、氛围方案变化的二进制帧（格式见 {@link EventFrameCodec}）；
+ * 上行接受车端采集的环境更新：更新会话状态，车速跨越安全模式阈值时发布安全模式变化，
+ * 并把环境更新转发给会话的其他订阅者（SSE 与 WebSocket）；
+ * 上行环境更新推迟连接的空闲超时，上行心跳只用于保持链路、不推迟空闲超时
+ */
+@Component
+public class EventWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(EventWebSocketHandler.class);
+
+    static final String SESSION_ID_PARAM = "sessionId";
+
+    private final WsEventChannel channel;
+    private final SseEventPublisher eventPublisher;
+    private final VibeSessionStatusStore statusStore;
+    private final LightCueScheduler lightCues;
+
+    public EventWebSocketHandler(
+            WsEventChannel channel,
+            SseEventPublisher eventPublisher,
+            VibeSessionStatusStore statusStore,
+            LightCueScheduler lightCues) {
+        this.channel = channel;
+        this.eventPublisher = eventPublisher;
+        this.statusStore = statusStore;
+        this.lightCues = lightCues;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String sessionId = sessionIdOf(session);
+        if (sessionId == null || sessionId.isBlank()) {
+            session.close(CloseStatus.BAD_DATA.withReason("sessionId is required"));
+            return;
+        }
+        channel.register(sessionId, session);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        String sessionId = sessionIdOf(session);
+        Object event;
+        try {
+            event = EventFrameCodec.decode(message.getPayload());
+        } catch (IllegalArgumentException e) {
+            log.warn("无法解析上行事件帧: sessionId={}, error={}", sessionId, e.getMessage());
+            session.close(CloseStatus.BAD_DATA.withReason("malformed event frame"));
+            return;
+        }
+        switch (event) {
+            case EnvironmentUpdateEvent update -> {
+                channel.touch(sessionId, session);
+                onEnvironmentUpdate(sessionId, update);
+            }
+            case HeartbeatEvent heartbeat -> {
+                // 客户端保活，不推迟空闲超时
+            }
+            default -> session.close(CloseStatus.NOT_ACCEPTABLE.withReason("only environment updates are accepted"));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        log.debug("事件 WebSocket 连接异常: id={}, error={}", session.getId(), exception.getMessage());
+        if (session.isOpen()) {
+            session.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        String sessionId = sessionIdOf(session);
+        if (sessionId != null) {
+            channel.unregister(sessionId, session);
+        }
+    }
+
+    /**
+     * 上行环境更新：合并到会话的最近环境，按车速更新安全模式，再转发给会话的订阅者
+     */
+    void onEnvironmentUpdate(String sessionId, EnvironmentUpdateEvent update) {
+        VibeStatus previous = statusStore.getOrInitial(sessionId);
+        SafetyMode safetyMode = SafetyMode.fromSpeed(update.speed());
+        statusStore.put(sessionId, new VibeStatus(
+            sessionId,
+            previous.agentRunning(),
+            safetyMode,
+            previous.currentPlan(),
+            merge(previous.lastEnvironment(), update),
+            Instant.now()
+        ));
+        if (previous.currentSafetyMode() != safetyMode) {
+            eventPublisher.publish(sessionId, SafetyModeChangedEvent.EVENT_TYPE,
+                new SafetyModeChangedEvent(previous.currentSafetyMode(), safetyMode, update.speed()));
+            lightCues.onSafetyModeChanged(sessionId, safetyMode);
+        }
+        eventPublisher.publish(sessionId, EnvironmentUpdateEvent.EVENT_TYPE, update);
+    }
+
+    /**
+     * 环境更新只带位置标签、天气与车速，其余字段沿用会话的最近环境（没有时取默认值）
+     */
+    static Environment merge(Environment last, EnvironmentUpdateEvent update) {
+        if (last == null) {
+            Environment.Builder builder = Environment.builder()
+                .speed(update.speed())
+                .timestamp(update.timestamp());
+            if (update.gpsTag() != null) {
+                builder.gpsTag(update.gpsTag());
+            }
+            if (update.weather() != null) {
+                builder.weather(update.weather());
+            }
+            return builder.build();
+        }
+        return new Environment(
+            update.gpsTag() != null ? update.gpsTag() : last.gpsTag(),
+            update.weather() != null ? update.weather() : last.weather(),
+            update.speed(),
+            last.userMood(),
+            last.timeOfDay(),
+            last.passengerCount(),
+            last.routeType(),
+            last.biometrics(),
+            last.location(),
+            update.timestamp()
+        );
+    }
+
+    private static String sessionIdOf(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return null;
+        }
+        return UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst(SESSION_ID_PARAM);
+    }
+}
@@ -0,0 +1,350 @@
+package com.vibe.ws;
+
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.sse.EventChannel;
+import com.vibe.sse.SseEventPublisher;
+import com.vibe.timer.KeepAliveTimer;
+import com.vibe.timer.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * 二进制 WebSocket 事件通道
+ * 作为 {@link EventChannel} 注册到 SseEventPublisher，与 SSE 接收同一套事件（合并之后）：
+ * 心跳、环境更新、安全模式变化、氛围方案变化按 {@link EventFrameCodec} 编码，每个事件只编码一次，
+ * 各连接共享同一份帧字节；其他事件类型不经过此通道。
+ * 心跳不走发布器，由每个连接挂在共享时间轮上的保活定时器按错开的相位触发；
+ * 超过空闲超时上下行都没有业务事件（心跳不算）的连接被正常关闭
+ */
+@Component
+public class WsEventChannel implements EventChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(WsEventChannel.class);
+
+    private final SseEventPublisher eventPublisher;
+    private final Executor sender;
+    private final int queueCapacity;
+    private final Map<String, Set<WsEventSubscriber>> sessions = new ConcurrentHashMap<>();
+    private final Counter framesSent;
+    private final Counter bytesSent;
+    private final Counter overflowDisconnects;
+    private final Counter errorDisconnects;
+    private final Counter idleDisconnects;
+
+    /**
+     * 保活定时器挂在其上的时间轮；为 null 时不发心跳、不检查空闲
+     */
+    private final TimingWheel timingWheel;
+    private final long heartbeatMillis;
+    private final long idleTimeoutMillis;
+    private final LongSupplier clock;
+    private volatile HeartbeatFrame heartbeatFrame;
+
+    /**
+     * 按时间轮刻度缓存的心跳帧：同一刻度到期的连接共享一份
+     */
+    private record HeartbeatFrame(long tickMillis, byte[] frame) {
+    }
+
+    @Autowired
+    public WsEventChannel(
+            SseEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            TimingWheel timingWheel,
+            @Value("${vibe.ws.events.queue-capacity:64}") int queueCapacity,
+            @Value("${vibe.ws.events.heartbeat-ms:30000}") long heartbeatMs,
+            @Value("${vibe.ws.events.idle-timeout-ms:300000}") long idleTimeoutMs) {
+        this(eventPublisher, meterRegistry,
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-event-send-", 0).factory()),
+            queueCapacity, timingWheel, heartbeatMs, idleTimeoutMs, System::currentTimeMillis);
+    }
+
+    /**
+     * 指定发送执行器、不发心跳、不检查空闲（测试与基准中传入同步执行器）
+     */
+    public WsEventChannel(SseEventPublisher eventPublisher, MeterRegistry meterRegistry, Executor sender,
+                          int queueCapacity) {
+        this(eventPublisher, meterRegistry, sender, queueCapacity, null, 0, 0, System::currentTimeMillis);
+    }
+
+    WsEventChannel(SseEventPublisher eventPublisher, MeterRegistry meterRegistry, Executor sender,
+                   int queueCapacity, TimingWheel timingWheel, long heartbeatMillis, long idleTimeoutMillis,
+                   LongSupplier clock) {
+        if (heartbeatMillis < 0 || idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException("WebSocket keep-alive intervals must not be negative");
+        }
+        this.eventPublisher = eventPublisher;
+        this.sender = sender;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.timingWheel = timingWheel;
+        this.heartbeatMillis = heartbeatMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.clock = clock;
+        this.framesSent = meterRegistry.counter("vibe.ws.events.sent");
+        this.bytesSent = meterRegistry.counter("vibe.ws.events.bytes");
+        this.overflowDisconnects = meterRegistry.counter("vibe.ws.events.disconnects", "reason", "overflow");
+        this.errorDisconnects = meterRegistry.counter("vibe.ws.events.disconnects", "reason", "send_error");
+        this.idleDisconnects = meterRegistry.counter("vibe.ws.events.disconnects", "reason", "idle");
+        meterRegistry.gauge("vibe.ws.events.connections", this, WsEventChannel::countConnections);
+        eventPublisher.addChannel(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 注册连接
+     */
+    public void register(String sessionId, WebSocketSession session) {
+        WsEventSubscriber subscriber = new WsEventSubscriber(sessionId, session, queueCapacity);
+        sessions.computeIfAbsent(sessionId, k -> new CopyOnWriteArraySet<>()).add(subscriber);
+        if (timingWheel != null && (heartbeatMillis > 0 || idleTimeoutMillis > 0)) {
+            subscriber.startKeepAlive(new ConnectionKeepAlive(subscriber), clock.getAsLong());
+        }
+        log.debug("注册事件 WebSocket 连接: sessionId={}, id={}", sessionId, session.getId());
+    }
+
+    /**
+     * 注销连接，丢弃其未发送的事件
+     */
+    public void unregister(String sessionId, WebSocketSession session) {
+        Set<WsEventSubscriber> subscribers = sessions.get(sessionId);
+        if (subscribers == null) {
+            return;
+        }
+        for (WsEventSubscriber subscriber : subscribers) {
+            if (subscriber.session() == session && subscribers.remove(subscriber)) {
+                subscriber.close();
+            }
+        }
+        if (subscribers.isEmpty() && sessions.remove(sessionId, subscribers)) {
+            eventPublisher.channelSessionClosed(sessionId);
+        }
+        log.debug("注销事件 WebSocket 连接: sessionId={}, id={}", sessionId, session.getId());
+    }
+
+    /**
+     * 记录连接上的上行业务事件，推迟其空闲超时
+     */
+    public void touch(String sessionId, WebSocketSession session) {
+        Set<WsEventSubscriber> subscribers = sessions.get(sessionId);
+        if (subscribers == null) {
+            return;
+        }
+        for (WsEventSubscriber subscriber : subscribers) {
+            if (subscriber.session() == session) {
+                subscriber.touch(clock.getAsLong());
+            }
+        }
+    }
+
+    @Override
+    public boolean hasSession(String sessionId) {
+        Set<WsEventSubscriber> subscribers = sessions.get(sessionId);
+        return subscribers != null && !subscribers.isEmpty();
+    }
+
+    @Override
+    public void publish(String sessionId, String eventType, Object data) {
+        Set<WsEventSubscriber> subscribers = sessions.get(sessionId);
+        if (subscribers == null || subscribers.isEmpty() || !EventFrameCodec.supports(eventType)) {
+            return;
+        }
+        byte[] frame = encode(eventType, data);
+        if (frame == null) {
+            return;
+        }
+        long activity = activityMillis(eventType);
+        for (WsEventSubscriber subscriber : subscribers) {
+            subscriber.touch(activity);
+            enqueue(subscriber, frame);
+        }
+    }
+
+    @Override
+    public void publishToAll(String eventType, Object data) {
+        if (sessions.isEmpty() || !EventFrameCodec.supports(eventType)) {
+            return;
+        }
+        byte[] frame = null;
+        long activity = activityMillis(eventType);
+        for (Set<WsEventSubscriber> subscribers : sessions.values()) {
+            for (WsEventSubscriber subscriber : subscribers) {
+                if (frame == null && (frame = encode(eventType, data)) == null) {
+                    return;
+                }
+                subscriber.touch(activity);
+                enqueue(subscriber, frame);
+            }
+        }
+    }
+
+    /**
+     * 获取当前连接数
+     */
+    public int countConnections() {
+        return sessions.values().stream()
+            .mapToInt(Set::size)
+            .sum();
+    }
+
+    /**
+     * 业务事件的下发时间，用于推迟连接的空闲超时；心跳不算业务往来，返回 Long.MIN_VALUE（不推迟）
+     */
+    private long activityMillis(String eventType) {
+        return HeartbeatEvent.EVENT_TYPE.equals(eventType) ? Long.MIN_VALUE : clock.getAsLong();
+    }
+
+    /**
+     * 给单个连接发心跳（时间轮线程，只入队）
+     */
+    private void sendHeartbeat(WsEventSubscriber subscriber, long tickMillis) {
+        HeartbeatFrame cached = heartbeatFrame;
+        if (cached == null || cached.tickMillis() != tickMillis) {
+            byte[] frame = encode(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(Instant.ofEpochMilli(tickMillis)));
+            if (frame == null) {
+                return;
+            }
+            cached = new HeartbeatFrame(tickMillis, frame);
+            heartbeatFrame = cached;
+        }
+        enqueue(subscriber, cached.frame());
+    }
+
+    /**
+     * 空闲超时：正常关闭连接
+     */
+    private void closeIdle(WsEventSubscriber subscriber) {
+        idleDisconnects.increment();
+        log.debug("事件 WebSocket 连接空闲超时，关闭连接: sessionId={}, idleTimeout={}ms",
+            subscriber.sessionId(), idleTimeoutMillis);
+        disconnectLater(subscriber, CloseStatus.NORMAL.withReason("idle timeout"));
+    }
+
+    /**
+     * 立即注销连接，关闭握手要写网络，交给发送执行器：调用方是发布线程或时间轮线程，
+     * 而连接往往正卡在写出上，在调用方线程上关闭会把它一起卡住
+     */
+    private void disconnectLater(WsEventSubscriber subscriber, CloseStatus status) {
+        unregister(subscriber.sessionId(), subscriber.session());
+        try {
+            sender.execute(() -> closeSession(subscriber, status));
+        } catch (RejectedExecutionException e) {
+            // 正在关闭，连接随容器一起关闭
+        }
+    }
+
+    private void enqueue(WsEventSubscriber subscriber, byte[] frame) {
+        switch (subscriber.offer(frame)) {
+            case SCHEDULE -> {
+                try {
+                    sender.execute(() -> drain(subscriber));
+                } catch (RejectedExecutionException e) {
+                    // 正在关闭
+                    subscriber.close();
+                }
+            }
+            case QUEUED, CLOSED -> {
+                // 排空任务已在运行，或连接已在注销中
+            }
+            case OVERFLOW -> {
+                overflowDisconnects.increment();
+                log.warn("事件 WebSocket 发送队列已满，断开连接: sessionId={}, capacity={}",
+                    subscriber.sessionId(), queueCapacity);
+                disconnectLater(subscriber, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    /**
+     * 排空任务：每个连接同一时刻最多一个，按入队顺序写出
+     */
+    private void drain(WsEventSubscriber subscriber) {
+        byte[] frame;
+        while ((frame = subscriber.poll()) != null) {
+            try {
+                // BinaryMessage 各自包装共享的帧字节，写出时不会互相移动读位置
+                subscriber.session().sendMessage(new BinaryMessage(frame));
+                framesSent.increment();
+                bytesSent.increment(frame.length);
+            } catch (Exception e) {
+                errorDisconnects.increment();
+                log.warn("发送事件 WebSocket 帧失败: sessionId={}", subscriber.sessionId(), e);
+                disconnect(subscriber, CloseStatus.SERVER_ERROR);
+                return;
+            }
+        }
+    }
+
+    private void disconnect(WsEventSubscriber subscriber, CloseStatus status) {
+        unregister(subscriber.sessionId(), subscriber.session());
+        closeSession(subscriber, status);
+    }
+
+    private static void closeSession(WsEventSubscriber subscriber, CloseStatus status) {
+        try {
+            subscriber.session().close(status);
+        } catch (Exception closeError) {
+            log.debug("Failed to close event WebSocket session", closeError);
+        }
+    }
+
+    /**
+     * 编码事件；失败时记录日志并返回 null（编码错误与连接无关，不应断开任何连接）
+     */
+    private static byte[] encode(String eventType, Object data) {
+        try {
+            return EventFrameCodec.encode(eventType, data);
+        } catch (RuntimeException e) {
+            log.error("编码事件 WebSocket 帧失败: eventType={}", eventType, e);
+            return null;
+        }
+    }
+
+    /**
+     * 连接的保活定时器
+     */
+    private final class ConnectionKeepAlive extends KeepAliveTimer {
+
+        private final WsEventSubscriber subscriber;
+
+        private ConnectionKeepAlive(WsEventSubscriber subscriber) {
+            super(timingWheel, heartbeatMillis, idleTimeoutMillis);
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        protected void onHeartbeat(long tickMillis) {
+            sendHeartbeat(subscriber, tickMillis);
+        }
+
+        @Override
+        protected void onIdle(long tickMillis) {
+            closeIdle(subscriber);
+        }
+    }
+}
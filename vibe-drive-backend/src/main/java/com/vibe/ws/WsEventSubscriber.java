@@ -0,0 +1,129 @@
+package com.vibe.ws;
+
+import com.vibe.timer.KeepAliveTimer;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+
+/**
+ * 一个事件 WebSocket 连接及其有界发送队列
+ * 与 SSE 连接相同：发布线程只入队，由发送执行器上的单个排空任务按顺序写出；
+ * 队列满时不丢单条事件，而是断开连接，由车机重连后重新同步状态；心跳与空闲超时由 {@link KeepAliveTimer} 按连接触发
+ */
+final class WsEventSubscriber {
+
+    /**
+     * 入队结果
+     */
+    enum Offer {
+        /**
+         * 已入队，且需要提交排空任务
+         */
+        SCHEDULE,
+
+        /**
+         * 已入队，排空任务已在运行
+         */
+        QUEUED,
+
+        /**
+         * 队列已满
+         */
+        OVERFLOW,
+
+        /**
+         * 连接已关闭
+         */
+        CLOSED
+    }
+
+    private final String sessionId;
+    private final WebSocketSession session;
+    private final int capacity;
+    private final ArrayDeque<byte[]> queue;
+    private boolean draining;
+    private boolean closed;
+    private volatile KeepAliveTimer keepAlive;
+
+    WsEventSubscriber(String sessionId, WebSocketSession session, int capacity) {
+        this.sessionId = sessionId;
+        this.session = session;
+        this.capacity = capacity;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 16));
+    }
+
+    String sessionId() {
+        return sessionId;
+    }
+
+    WebSocketSession session() {
+        return session;
+    }
+
+    /**
+     * 启动保活定时器；连接已关闭时不启动
+     */
+    synchronized void startKeepAlive(KeepAliveTimer timer, long nowMillis) {
+        if (closed) {
+            return;
+        }
+        keepAlive = timer;
+        timer.start(nowMillis);
+    }
+
+    /**
+     * 记录一次业务往来（上下行均算），推迟空闲超时
+     */
+    void touch(long nowMillis) {
+        KeepAliveTimer timer = keepAlive;
+        if (timer != null) {
+            timer.touch(nowMillis);
+        }
+    }
+
+    synchronized Offer offer(byte[] frame) {
+        if (closed) {
+            return Offer.CLOSED;
+        }
+        if (queue.size() >= capacity) {
+            return Offer.OVERFLOW;
+        }
+        Offer result = draining ? Offer.QUEUED : Offer.SCHEDULE;
+        queue.addLast(frame);
+        draining = true;
+        return result;
+    }
+
+    /**
+     * 取下一帧；队列为空时结束排空（之后的入队会重新提交排空任务）
+     */
+    synchronized byte[] poll() {
+        byte[] frame = closed ? null : queue.pollFirst();
+        if (frame == null) {
+            draining = false;
+        }
+        return frame;
+    }
+
+    /**
+     * 关闭并清空队列
+     *
+     * @return 被丢弃的未发送帧数；已关闭时返回 -1
+     */
+    synchronized int close() {
+        if (closed) {
+            return -1;
+        }
+        closed = true;
+        if (keepAlive != null) {
+            keepAlive.stop();
+        }
+        int discarded = queue.size();
+        queue.clear();
+        return discarded;
+    }
+
+    synchronized int depth() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,243 @@
+package com.vibe.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.MusicRecommendation;
+import com.vibe.model.Narrative;
+import com.vibe.model.Song;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.NarrativeEmotion;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.Weather;
+import com.vibe.model.event.AmbienceChangedEvent;
+import com.vibe.model.event.EnvironmentUpdateEvent;
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.model.event.SafetyModeChangedEvent;
+import com.vibe.sse.SseEventPublisher;
+import com.vibe.sse.SseFrame;
+import com.vibe.ws.EventFrameCodec;
+import com.vibe.ws.WsEventChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件通道基准：向全部连接广播一个事件，SSE（JSON 文本帧）对比二进制 WebSocket（{@link EventFrameCodec}）
+ * 两边都在发布线程上同步写出到空实现的连接，测得的是每次广播的服务端 CPU；
+ * 预热后打印每个事件的线上字节数与每次广播分摊到每个连接的堆分配字节数
+ *
+ * 运行：mvn -Pbenchmark verify -Djmh.includes=EventChannelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventChannelBenchmark {
+
+    private static final int SAMPLE_ROUNDS = 5;
+
+    @Param({"10000"})
+    private int connections;
+
+    @Param({"heartbeat", "environment_update", "safety_mode_changed", "ambience_changed"})
+    private String eventType;
+
+    private Object event;
+    private SseEventPublisher ssePublisher;
+    private SseEventPublisher wsPublisher;
+
+    /**
+     * 丢弃写出内容的 SSE 连接
+     */
+    private static final class DiscardingEmitter extends SseEmitter {
+
+        private long items;
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> payload) {
+            items += payload.size();
+        }
+    }
+
+    /**
+     * 丢弃写出内容的 WebSocket 连接
+     */
+    private static final class DiscardingSession implements WebSocketSession {
+
+        private long bytes;
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            bytes += message.getPayloadLength();
+        }
+
+        @Override
+        public String getId() {
+            return "discarding";
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return Map.of();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+
+    private static Object sampleEvent(String eventType) {
+        return switch (eventType) {
+            case HeartbeatEvent.EVENT_TYPE -> new HeartbeatEvent();
+            case EnvironmentUpdateEvent.EVENT_TYPE -> new EnvironmentUpdateEvent(GpsTag.HIGHWAY, Weather.RAINY, 87.5);
+            case SafetyModeChangedEvent.EVENT_TYPE ->
+                new SafetyModeChangedEvent(SafetyMode.L1_NORMAL, SafetyMode.L2_FOCUS, 87.5);
+            case AmbienceChangedEvent.EVENT_TYPE -> new AmbienceChangedEvent("plan-1",
+                new MusicRecommendation(List.of(
+                    new Song("s-1", "夜曲", "周杰伦", "十一月的萧邦", 226, 72, "pop", List.of("calm"), null),
+                    new Song("s-2", "Night Drive", "Artist", null, 198, 96, "electronic", List.of("focus"), null)),
+                    "calm", "pop", null),
+                new LightSetting(LightColor.amber(), 60, LightMode.BREATHING, 1500, null),
+                new Narrative("雨夜的高速，慢一点，音乐陪你。", "gentle", 0.9, 0.6, NarrativeEmotion.CALM, null),
+                SafetyMode.L2_FOCUS, AmbienceChangedEvent.TRIGGER_ENVIRONMENT_CHANGE, null);
+            default -> throw new IllegalArgumentException(eventType);
+        };
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        event = sampleEvent(eventType);
+        ssePublisher = new SseEventPublisher(objectMapper);
+        wsPublisher = new SseEventPublisher(objectMapper);
+        WsEventChannel channel = new WsEventChannel(wsPublisher, new SimpleMeterRegistry(), Runnable::run, 64);
+        for (int i = 0; i < connections; i++) {
+            ssePublisher.register("session-" + i, new DiscardingEmitter(), null);
+            channel.register("session-" + i, new DiscardingSession());
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < SAMPLE_ROUNDS; i++) {
+            sse();
+            ws();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < SAMPLE_ROUNDS; i++) {
+            sse();
+        }
+        long sseBytes = threads.getCurrentThreadAllocatedBytes() - before;
+        before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < SAMPLE_ROUNDS; i++) {
+            ws();
+        }
+        long wsBytes = threads.getCurrentThreadAllocatedBytes() - before;
+        System.out.printf("%n%s: wire bytes sse=%d ws=%d; allocated sse %.1f B per connection, ws %.1f B per connection%n",
+            eventType, SseFrame.encode(objectMapper, eventType, event).size(),
+            EventFrameCodec.encode(eventType, event).length,
+            (double) sseBytes / SAMPLE_ROUNDS / connections, (double) wsBytes / SAMPLE_ROUNDS / connections);
+    }
+
+    @Benchmark
+    public int sse() {
+        ssePublisher.publishToAll(eventType, event);
+        return connections;
+    }
+
+    @Benchmark
+    public int ws() {
+        wsPublisher.publishToAll(eventType, event);
+        return connections;
+    }
+}
@@ -0,0 +1,95 @@
+package com.vibe.benchmark;
+
+import com.vibe.light.LightFrameRenderer;
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.ZoneSetting;
+import com.vibe.model.enums.LightMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 氛围灯帧渲染基准：一帧内渲染全部车辆（混合静态 / 呼吸 / 渐变 / 脉冲，半数处于过渡中）
+ * 预热后打印每帧耗时占 30Hz 帧预算（33.3ms）的比例和每帧堆分配字节数，再测延迟
+ *
+ * 运行：mvn -Pbenchmark verify -Djmh.includes=LightFrameBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LightFrameBenchmark {
+
+    private static final long FRAME_BUDGET_NANOS = TimeUnit.SECONDS.toNanos(1) / 30;
+    private static final int SAMPLE_TICKS = 300;
+    private static final LightMode[] MODES = LightMode.values();
+
+    @Param({"1000", "4096", "10000"})
+    private int vehicles;
+
+    @Param({"1", "16"})
+    private int ledsPerZone;
+
+    private LightFrameRenderer renderer;
+    private byte[][] frames;
+    private long now;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        renderer = new LightFrameRenderer(vehicles, ledsPerZone);
+        frames = new byte[vehicles][renderer.frameBytes()];
+        for (int i = 0; i < vehicles; i++) {
+            int slot = renderer.allocate();
+            LightSetting setting = new LightSetting(LightColor.oceanBlue(), 40 + i % 60, MODES[i % MODES.length],
+                3000, List.of(ZoneSetting.dashboard("#FF4500", 70), ZoneSetting.door("#FFE4B5", 50)));
+            if (i % 2 == 0) {
+                renderer.reset(slot, setting);
+            } else {
+                renderer.apply(slot, setting, 0L);
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < SAMPLE_TICKS; i++) {
+            tick();
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < SAMPLE_TICKS; i++) {
+            tick();
+        }
+        long perTick = (System.nanoTime() - start) / SAMPLE_TICKS;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%nvehicles=%d, leds/zone=%d, frame=%d B: %.1f µs per tick (%.2f%% of 30Hz budget), "
+                + "allocated %.1f B per tick%n", vehicles, ledsPerZone, renderer.frameBytes(), perTick / 1000.0,
+            100.0 * perTick / FRAME_BUDGET_NANOS, (double) allocated / SAMPLE_TICKS);
+    }
+
+    @Benchmark
+    public int tick() {
+        now += 33;
+        int frame = ++sequence;
+        int bytes = 0;
+        for (int slot = 0; slot < vehicles; slot++) {
+            bytes += renderer.render(slot, now, frame, frames[slot]);
+        }
+        return bytes;
+    }
+}
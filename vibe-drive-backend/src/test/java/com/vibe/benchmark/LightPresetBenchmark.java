@@ -0,0 +1,118 @@
+package com.vibe.benchmark;
+
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.ZoneSetting;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.TimeOfDay;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+import com.vibe.service.LightService;
+import com.vibe.support.LightPresetTable;
+import com.vibe.support.LightPresets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 灯光预设基准：逐次计算（查字符串映射 + 新建分区列表与 LightSetting）vs 枚举下标查表
+ * 预热后先统计每次调用的堆分配字节数并打印（线程分配计数），再测延迟
+ *
+ * 运行：mvn -Pbenchmark verify -Djmh.includes=LightPresetBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LightPresetBenchmark {
+
+    private static final int ALLOCATION_SAMPLES = 1_000_000;
+
+    private static final UserMood[] MOODS = UserMood.values();
+    private static final TimeOfDay[] TIMES = TimeOfDay.values();
+    private static final Weather[] WEATHERS = Weather.values();
+
+    private final LightService lightService = new LightService();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.out.printf("%nallocated per call: computed %.1f B, table(string) %.1f B, table(enum) %.1f B%n",
+            allocatedPerCall(this::computed), allocatedPerCall(this::tableByString), allocatedPerCall(this::tableByEnum));
+    }
+
+    @Benchmark
+    public LightSetting computed() {
+        int i = next++;
+        return computeSetting(MOODS[i % MOODS.length].getValue(), TIMES[i % TIMES.length].getValue(),
+            WEATHERS[i % WEATHERS.length].getValue(), SafetyMode.L2_FOCUS);
+    }
+
+    @Benchmark
+    public LightSetting tableByString() {
+        int i = next++;
+        return lightService.calculateSettingWithSafety(MOODS[i % MOODS.length].getValue(),
+            TIMES[i % TIMES.length].getValue(), WEATHERS[i % WEATHERS.length].getValue(), SafetyMode.L2_FOCUS);
+    }
+
+    @Benchmark
+    public LightSetting tableByEnum() {
+        int i = next++;
+        return LightPresetTable.lookup(MOODS[i % MOODS.length], TIMES[i % TIMES.length],
+            WEATHERS[i % WEATHERS.length], SafetyMode.L2_FOCUS);
+    }
+
+    private static double allocatedPerCall(Supplier<LightSetting> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ALLOCATION_SAMPLES; i++) {
+            call.get();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int sink = 0;
+        for (int i = 0; i < ALLOCATION_SAMPLES; i++) {
+            sink += call.get().brightness();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        return sink == Integer.MIN_VALUE ? -1 : (double) allocated / ALLOCATION_SAMPLES;
+    }
+
+    /**
+     * 查表前 LightService.calculateSettingWithSafety 的逐次计算实现（基线）
+     */
+    private static LightSetting computeSetting(String mood, String timeOfDay, String weather, SafetyMode safetyMode) {
+        LightColor color = LightPresets.getColorForMood(mood);
+        int brightness = LightPresets.getBrightnessForTime(timeOfDay);
+        LightMode mode = LightPresets.getModeForWeather(weather);
+        brightness = switch (mood) {
+            case "tired", "stressed" -> Math.max(20, brightness - 10);
+            case "excited" -> Math.min(100, brightness + 10);
+            default -> brightness;
+        };
+        LightSetting setting = new LightSetting(color, brightness, mode, 1500, List.of(
+            new ZoneSetting("dashboard", color.hex(), brightness),
+            new ZoneSetting("door", color.hex(), Math.max(10, brightness - 10)),
+            new ZoneSetting("footwell", color.hex(), Math.max(10, brightness - 20))
+        ));
+        return switch (safetyMode) {
+            case L3_SILENT -> null;
+            case L2_FOCUS -> setting.forFocusMode();
+            case L1_NORMAL -> setting;
+        };
+    }
+}
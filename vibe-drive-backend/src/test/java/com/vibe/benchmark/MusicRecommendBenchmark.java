@@ -0,0 +1,128 @@
+package com.vibe.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.catalog.HeapSongCatalog;
+import com.vibe.catalog.SyntheticCatalogGenerator;
+import com.vibe.model.BpmRange;
+import com.vibe.model.Song;
+import com.vibe.service.MusicService;
+import com.vibe.service.RecentlyPlayedStore;
+import com.vibe.service.SessionVariantStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音乐推荐基准：逐条扫描 vs 索引
+ * 查询轮换覆盖常见命中、需要放宽流派、需要放宽到只按情绪三种情况
+ *
+ * 运行：mvn -Pbenchmark verify -Djmh.includes=MusicRecommendBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class MusicRecommendBenchmark {
+
+    private static final String[][] QUERIES = {
+        {"calm", "evening", "1", null},
+        {"happy", "morning", "4", null},
+        {"excited", "noon", "1", "classical"},
+        {"tired", "midnight", "1", "metal"},
+        {"stressed", "afternoon", "1", "jazz"},
+    };
+
+    private static final BpmRange DEFAULT_BPM = new BpmRange(60, 120);
+
+    @Param({"10000", "1000000", "10000000"})
+    private int songs;
+
+    private List<Song> library;
+    private MusicService musicService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = SyntheticCatalogGenerator.generate(songs, 7L);
+        musicService = new MusicService(new ObjectMapper(), new RecentlyPlayedStore(30, 1000),
+            new SessionVariantStore(1000), new SimpleMeterRegistry(), "", "", "", false, "ranked", 64);
+        musicService.loadCatalog(HeapSongCatalog.of(library));
+    }
+
+    @Benchmark
+    public void scan(Blackhole bh) {
+        String[] q = nextQuery();
+        bh.consume(scanCascade(q[0], q[1], Integer.parseInt(q[2]), q[3]));
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) {
+        String[] q = nextQuery();
+        bh.consume(musicService.recommend(q[0], q[1], Integer.parseInt(q[2]), q[3]));
+    }
+
+    private String[] nextQuery() {
+        String[] q = QUERIES[next];
+        next = (next + 1) % QUERIES.length;
+        return q;
+    }
+
+    /**
+     * 建索引前 MusicService.recommend 的逐条过滤实现（基线）
+     */
+    private List<Song> scanCascade(String mood, String timeOfDay, int passengerCount, String genre) {
+        BpmRange bpm = switch (mood) {
+            case "happy" -> new BpmRange(100, 140);
+            case "calm" -> new BpmRange(60, 90);
+            case "tired" -> new BpmRange(50, 80);
+            case "stressed" -> new BpmRange(60, 100);
+            case "excited" -> new BpmRange(120, 180);
+            default -> DEFAULT_BPM;
+        };
+        String effectiveGenre = genre != null ? genre : passengerCount >= 3 ? "pop" : switch (timeOfDay) {
+            case "midnight", "night", "evening" -> "jazz";
+            case "dawn" -> "classical";
+            default -> "pop";
+        };
+
+        List<Song> filtered = library.stream()
+            .filter(song -> song.matchesMood(mood))
+            .filter(song -> bpm.contains(song.bpm()))
+            .filter(song -> effectiveGenre.equalsIgnoreCase(song.genre()))
+            .limit(5)
+            .toList();
+        if (filtered.size() < 3) {
+            filtered = library.stream()
+                .filter(song -> song.matchesMood(mood))
+                .filter(song -> bpm.contains(song.bpm()))
+                .limit(5)
+                .toList();
+        }
+        if (filtered.size() < 3) {
+            filtered = library.stream()
+                .filter(song -> song.matchesMood(mood))
+                .limit(5)
+                .toList();
+        }
+        if (filtered.isEmpty()) {
+            filtered = library.stream().limit(5).toList();
+        }
+        return filtered;
+    }
+}
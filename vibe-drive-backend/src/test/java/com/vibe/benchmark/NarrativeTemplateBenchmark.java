@@ -0,0 +1,177 @@
+package com.vibe.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.TimeOfDay;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+import com.vibe.narrative.NarrativeTemplate;
+import com.vibe.narrative.NarrativeTemplateEngine;
+import com.vibe.narrative.NarrativeTemplatePack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * 叙事模板基准：64 个线程并发生成叙事文本的吞吐
+ * 逐次匹配（共享 Random + 字符串比较链 + String.replace 替换歌名）vs 枚举下标查表（线程本地随机数 + 预编译歌名槽）；
+ * 输入在 时段 × 天气 × 位置 × 情绪 的组合间轮换，一半请求带歌名；
+ * 预热后先统计每次调用的堆分配字节数并打印（线程分配计数），再测吞吐
+ *
+ * 运行：mvn -Pbenchmark verify -Djmh.includes=NarrativeTemplateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class NarrativeTemplateBenchmark {
+
+    private static final int ALLOCATION_SAMPLES = 1_000_000;
+
+    private static final TimeOfDay[] TIMES = TimeOfDay.values();
+    private static final Weather[] WEATHERS = Weather.values();
+    private static final GpsTag[] GPS_TAGS = GpsTag.values();
+    private static final UserMood[] MOODS = UserMood.values();
+    private static final String SONG = "夜空中最亮的星";
+
+    private NarrativeTemplateEngine engine;
+    private LegacyTemplates legacy;
+
+    /**
+     * 每个线程各自轮换输入
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new NarrativeTemplateEngine(new ObjectMapper(), "");
+        legacy = new LegacyTemplates(engine.pack());
+        Cursor cursor = new Cursor();
+        System.out.printf("%nallocated per call: legacy %.1f B, table %.1f B%n",
+            allocatedPerCall(i -> legacy(cursor)), allocatedPerCall(i -> table(cursor)));
+    }
+
+    @Benchmark
+    public String legacy(Cursor cursor) {
+        int i = cursor.next++;
+        return legacy.generate(TIMES[i % TIMES.length].getValue(), WEATHERS[i % WEATHERS.length].getValue(),
+            GPS_TAGS[i % GPS_TAGS.length].getValue(), (i & 1) == 0 ? SONG : null);
+    }
+
+    @Benchmark
+    public String table(Cursor cursor) {
+        int i = cursor.next++;
+        return engine.render(TIMES[i % TIMES.length].getValue(), WEATHERS[i % WEATHERS.length].getValue(),
+            GPS_TAGS[i % GPS_TAGS.length].getValue(), MOODS[i % MOODS.length].getValue(), (i & 1) == 0 ? SONG : null);
+    }
+
+    private static double allocatedPerCall(IntFunction<String> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ALLOCATION_SAMPLES; i++) {
+            call.apply(i);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int sink = 0;
+        for (int i = 0; i < ALLOCATION_SAMPLES; i++) {
+            sink += call.apply(i).length();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        return sink == Integer.MIN_VALUE ? -1 : (double) allocated / ALLOCATION_SAMPLES;
+    }
+
+    /**
+     * 模板引擎之前 NarrativeTemplates 的实现（基线）；模板文本取自内置模板包，与引擎的候选一致
+     */
+    private static final class LegacyTemplates {
+
+        private static final Random RANDOM = new Random();
+
+        private final List<String> midnightRain;
+        private final List<String> morningSunny;
+        private final List<String> eveningCoastal;
+        private final List<String> nightHighway;
+        private final List<String> afternoonUrban;
+        private final List<String> eveningMountain;
+        private final List<String> snowy;
+        private final List<String> foggy;
+        private final List<String> fallback;
+
+        LegacyTemplates(NarrativeTemplatePack pack) {
+            midnightRain = texts(pack.templates(TimeOfDay.MIDNIGHT, Weather.RAINY, null, null));
+            morningSunny = texts(pack.templates(TimeOfDay.MORNING, Weather.SUNNY, null, null));
+            eveningCoastal = texts(pack.templates(TimeOfDay.EVENING, null, GpsTag.COASTAL, null));
+            nightHighway = texts(pack.templates(TimeOfDay.NIGHT, null, GpsTag.HIGHWAY, null));
+            afternoonUrban = texts(pack.templates(TimeOfDay.AFTERNOON, null, GpsTag.URBAN, null));
+            eveningMountain = texts(pack.templates(TimeOfDay.EVENING, null, GpsTag.MOUNTAIN, null));
+            snowy = texts(pack.templates(null, Weather.SNOWY, null, null));
+            foggy = texts(pack.templates(null, Weather.FOGGY, null, null));
+            fallback = texts(pack.templates((TimeOfDay) null, null, null, null));
+        }
+
+        private static List<String> texts(NarrativeTemplate[] templates) {
+            return Arrays.stream(templates).map(template -> template.render(null)).toList();
+        }
+
+        String generate(String timeOfDay, String weather, String gpsTag, String currentSong) {
+            String template = selectTemplate(timeOfDay, weather, gpsTag);
+            if (currentSong != null && !currentSong.isBlank()) {
+                template = template.replace("这首歌", "《" + currentSong + "》");
+            }
+            return template;
+        }
+
+        private String selectTemplate(String timeOfDay, String weather, String gpsTag) {
+            if ("snowy".equals(weather)) {
+                return randomFrom(snowy);
+            }
+            if ("foggy".equals(weather)) {
+                return randomFrom(foggy);
+            }
+            if ("midnight".equals(timeOfDay) && "rainy".equals(weather)) {
+                return randomFrom(midnightRain);
+            }
+            if ("morning".equals(timeOfDay) && "sunny".equals(weather)) {
+                return randomFrom(morningSunny);
+            }
+            if ("evening".equals(timeOfDay) && "coastal".equals(gpsTag)) {
+                return randomFrom(eveningCoastal);
+            }
+            if (("night".equals(timeOfDay) || "midnight".equals(timeOfDay)) && "highway".equals(gpsTag)) {
+                return randomFrom(nightHighway);
+            }
+            if ("afternoon".equals(timeOfDay) && "urban".equals(gpsTag)) {
+                return randomFrom(afternoonUrban);
+            }
+            if ("evening".equals(timeOfDay) && "mountain".equals(gpsTag)) {
+                return randomFrom(eveningMountain);
+            }
+            return randomFrom(fallback);
+        }
+
+        private static String randomFrom(List<String> templates) {
+            return templates.get(RANDOM.nextInt(templates.size()));
+        }
+    }
+}
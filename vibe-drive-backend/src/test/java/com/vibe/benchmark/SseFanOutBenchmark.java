@@ -0,0 +1,116 @@
+package com.vibe.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.sse.SseEventPublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SSE 广播基准：向全部连接广播一次心跳
+ * legacy 为原实现（每个连接各自序列化并经 SseEventBuilder 组帧），shared 为 SseEventPublisher 的一次编码、共享帧字节；
+ * 连接写出由空实现代替，只比较发布端的 CPU 与分配；预热后打印每次广播分摊到每个连接的堆分配字节数
+ *
+ * 运行：mvn -Pbenchmark verify -Djmh.includes=SseFanOutBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SseFanOutBenchmark {
+
+    private static final int SAMPLE_ROUNDS = 5;
+
+    @Param({"1000", "10000", "100000"})
+    private int emitters;
+
+    private ObjectMapper objectMapper;
+    private SseEventPublisher publisher;
+    private List<DiscardingEmitter> connections;
+
+    /**
+     * 丢弃写出内容的连接；同时覆盖两条写出路径，legacy 与 shared 的写出成本相同
+     */
+    private static final class DiscardingEmitter extends SseEmitter {
+
+        private long items;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            items += builder.build().size();
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> payload) {
+            items += payload.size();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        publisher = new SseEventPublisher(objectMapper);
+        connections = new ArrayList<>(emitters);
+        for (int i = 0; i < emitters; i++) {
+            DiscardingEmitter emitter = new DiscardingEmitter();
+            connections.add(emitter);
+            publisher.register("session-" + i, emitter, null);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < SAMPLE_ROUNDS; i++) {
+            legacy();
+            shared();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < SAMPLE_ROUNDS; i++) {
+            legacy();
+        }
+        long legacyBytes = threads.getCurrentThreadAllocatedBytes() - before;
+        before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < SAMPLE_ROUNDS; i++) {
+            shared();
+        }
+        long sharedBytes = threads.getCurrentThreadAllocatedBytes() - before;
+        System.out.printf("%nemitters=%d: legacy allocated %.1f B per connection, shared %.1f B per connection%n",
+            emitters, (double) legacyBytes / SAMPLE_ROUNDS / emitters, (double) sharedBytes / SAMPLE_ROUNDS / emitters);
+    }
+
+    @Benchmark
+    public int legacy() throws Exception {
+        HeartbeatEvent heartbeat = new HeartbeatEvent();
+        for (DiscardingEmitter emitter : connections) {
+            String json = objectMapper.writeValueAsString(heartbeat);
+            emitter.send(SseEmitter.event()
+                .name(HeartbeatEvent.EVENT_TYPE)
+                .data(json));
+        }
+        return connections.size();
+    }
+
+    @Benchmark
+    public int shared() {
+        publisher.publishToAll(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent());
+        return connections.size();
+    }
+}
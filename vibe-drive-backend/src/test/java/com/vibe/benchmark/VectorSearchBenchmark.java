@@ -0,0 +1,126 @@
+package com.vibe.benchmark;
+
+import com.vibe.catalog.HeapSongCatalog;
+import com.vibe.catalog.HnswIndex;
+import com.vibe.catalog.SongVectors;
+import com.vibe.catalog.SyntheticCatalogGenerator;
+import com.vibe.model.BpmRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向量近邻基准：HNSW vs 精确扫描（全部特征点）
+ * 建索引后先用同一批查询统计 recall@10（距离与精确第 10 名相同的歌曲算命中）并打印，再测延迟
+ *
+ * 运行：mvn -Pbenchmark verify -Djmh.includes=VectorSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class VectorSearchBenchmark {
+
+    private static final String[] MOODS = {"happy", "calm", "tired", "stressed", "excited"};
+    private static final String[] GENRES = {"pop", "jazz", "rock", "classical", "electronic", "mixed"};
+    private static final int QUERY_COUNT = 256;
+    private static final int K = 10;
+
+    @Param({"100000", "1000000", "10000000"})
+    private int songs;
+
+    @Param({"32", "64"})
+    private int ef;
+
+    private SongVectors vectors;
+    private HnswIndex index;
+    private float[][] queries;
+    private int[] out;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vectors = SongVectors.build(HeapSongCatalog.of(SyntheticCatalogGenerator.generate(songs, 7L)));
+        long start = System.nanoTime();
+        index = HnswIndex.build(vectors);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        SplittableRandom random = new SplittableRandom(1);
+        queries = new float[QUERY_COUNT][];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            int low = 50 + random.nextInt(100);
+            queries[i] = SongVectors.query(MOODS[random.nextInt(MOODS.length)],
+                new BpmRange(low, low + random.nextInt(60)), GENRES[random.nextInt(GENRES.length)]);
+        }
+        out = new int[K];
+
+        System.out.printf("%n%d songs, %d feature points, build %dms, graph %dKB, recall@%d (ef=%d) = %.4f%n",
+            songs, vectors.pointCount(), buildMillis, index.graphBytes() / 1024, K, ef, recall());
+    }
+
+    @Benchmark
+    public void hnsw(Blackhole bh) {
+        bh.consume(index.nearestSongs(nextQuery(), K, ef, 0L, out));
+    }
+
+    @Benchmark
+    public void exact(Blackhole bh) {
+        bh.consume(vectors.exactNearest(nextQuery(), K, 0L, out));
+    }
+
+    private float[] nextQuery() {
+        float[] query = queries[next];
+        next = (next + 1) % QUERY_COUNT;
+        return query;
+    }
+
+    private double recall() {
+        int[] points = new int[K];
+        double total = 0;
+        for (float[] query : queries) {
+            float kth = kthExactDistance(query);
+            int count = index.search(query, K, ef, points);
+            int hits = 0;
+            for (int i = 0; i < count; i++) {
+                if (vectors.distance(query, points[i]) <= kth) {
+                    hits++;
+                }
+            }
+            total += (double) hits / K;
+        }
+        return total / queries.length;
+    }
+
+    private float kthExactDistance(float[] query) {
+        float[] nearest = new float[K];
+        Arrays.fill(nearest, Float.MAX_VALUE);
+        for (int point = 0; point < vectors.pointCount(); point++) {
+            float distance = vectors.distance(query, point);
+            if (distance < nearest[K - 1]) {
+                int i = K - 1;
+                while (i > 0 && nearest[i - 1] > distance) {
+                    nearest[i] = nearest[i - 1];
+                    i--;
+                }
+                nearest[i] = distance;
+            }
+        }
+        return nearest[K - 1];
+    }
+}
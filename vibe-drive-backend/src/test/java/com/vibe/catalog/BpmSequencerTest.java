@@ -0,0 +1,99 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.vibe.testsupport.SongFixture.song;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BpmSequencer 单元测试
+ */
+class BpmSequencerTest {
+
+    private static final BpmRange CALM = new BpmRange(60, 90);
+
+    @Nested
+    @DisplayName("过渡序列测试")
+    class TransitionTest {
+
+        private final CatalogVariant variant = CatalogVariant.base(
+            SongIndex.build(HeapSongCatalog.of(SyntheticCatalogGenerator.generate(20_000, 3L))));
+
+        private int[] transition(int previousBpm, int[] recent) {
+            int[] out = new int[5];
+            int count = BpmSequencer.transition(variant, new RankingQuery("calm", CALM, "jazz", 1L),
+                previousBpm, recent, 5, out);
+            return Arrays.stream(out, 0, count).map(variant::bpm).toArray();
+        }
+
+        @Test
+        void shouldOnlyTransitionWhenFarFromTarget() {
+            assertThat(BpmSequencer.needsTransition(150, CALM)).isTrue();
+            assertThat(BpmSequencer.needsTransition(40, CALM)).isTrue();
+            assertThat(BpmSequencer.needsTransition(95, CALM)).isFalse();
+            assertThat(BpmSequencer.needsTransition(75, CALM)).isFalse();
+        }
+
+        @Test
+        void shouldStepSmoothlyTowardTarget() {
+            int[] bpms = transition(150, new int[0]);
+
+            assertThat(bpms.length).isEqualTo(5);
+            int previous = 150;
+            for (int bpm : bpms) {
+                assertThat(Math.abs(bpm - previous)).isLessThanOrEqualTo(2 * BpmSequencer.MAX_STEP);
+                assertThat(bpm).isLessThan(150);
+                previous = bpm;
+            }
+            assertThat(bpms[4]).isLessThan(bpms[0]);
+        }
+
+        @Test
+        void shouldReachTargetOverConsecutiveRecommendations() {
+            int previous = 170;
+            for (int round = 0; round < 4 && BpmSequencer.needsTransition(previous, CALM); round++) {
+                int[] bpms = transition(previous, new int[0]);
+                previous = bpms[bpms.length - 1];
+            }
+
+            assertThat(BpmSequencer.needsTransition(previous, CALM)).isFalse();
+        }
+
+        @Test
+        void shouldNotRepeatSongsWithinSequence() {
+            CatalogVariant small = CatalogVariant.base(
+                SongIndex.build(HeapSongCatalog.of(List.of(
+                    song("a").bpm(140).build(), song("b").bpm(130).build(), song("c").bpm(120).build()))));
+            int[] out = new int[5];
+            int count = BpmSequencer.transition(small, new RankingQuery("calm", CALM, "jazz", 0L), 150, new int[0], 5, out);
+
+            assertThat(count).isEqualTo(3);
+            assertThat(Arrays.stream(out, 0, count).distinct().count()).isEqualTo(3);
+            assertThat(Arrays.stream(out, 0, count).map(small::bpm).toArray())
+                .containsExactly(140, 130, 120);
+        }
+    }
+
+    @Nested
+    @DisplayName("就近排序测试")
+    class OrderTest {
+
+        @Test
+        void shouldOrderFromPreviousBpm() {
+            CatalogVariant variant = CatalogVariant.base(
+                SongIndex.build(HeapSongCatalog.of(List.of(song("a").bpm(60).build(), song("b").bpm(90).build(),
+                    song("c").bpm(75).build(), song("d").bpm(85).build()))));
+            int[] ordinals = {0, 1, 2, 3};
+
+            BpmSequencer.orderSmoothly(variant, 92, ordinals, 4);
+
+            assertThat(ordinals).containsExactly(1, 3, 2, 0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.vibe.testsupport.SongFixture.song;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CandidateTable 单元测试
+ */
+class CandidateTableTest {
+
+    private static final Map<String, BpmRange> MOOD_RANGES = Map.of(
+        "happy", new BpmRange(100, 140),
+        "calm", new BpmRange(60, 90),
+        "tired", new BpmRange(50, 80),
+        "stressed", new BpmRange(60, 100),
+        "excited", new BpmRange(120, 180)
+    );
+
+    @Nested
+    @DisplayName("查表测试")
+    class LookupTest {
+
+        private final SongIndex index = SongIndex.build(HeapSongCatalog.of(List.of(
+            song("1", 75, "Jazz", "calm"),
+            song("2", 120, "pop", "happy")
+        )));
+        private final CandidateTable table = CandidateTable.build(index, MOOD_RANGES, List.of("folk"), 8);
+
+        @Test
+        void shouldCoverCatalogAndExtraGenres() {
+            assertThat(table.lookup("calm", "jazz")).isNotNull();
+            assertThat(table.lookup("calm", "JAZZ")).isNotNull();
+            assertThat(table.lookup("calm", "folk")).isNotNull();
+            assertThat(table.lookup("calm", "mixed")).isNotNull();
+            assertThat(table.lookup("calm", null)).isNotNull();
+            assertThat(table.cellCount()).isEqualTo(5 * 4);
+        }
+
+        @Test
+        void shouldMissUnknownCombinations() {
+            assertThat(table.lookup("calm", "metal")).isNull();
+            assertThat(table.lookup("romantic", "jazz")).isNull();
+            assertThat(table.lookup("CALM", "jazz")).isNull();
+            assertThat(table.lookup(null, "jazz")).isNull();
+        }
+
+        @Test
+        void shouldKeepCandidatesInScoreOrder() {
+            CandidateTable.Candidates candidates = table.lookup("calm", "jazz");
+
+            assertThat(candidates.count()).isEqualTo(2);
+            assertThat(candidates.ordinals()[0]).isEqualTo(0);
+            assertThat(candidates.scores()[0]).isGreaterThan(candidates.scores()[1]);
+        }
+    }
+
+    @Nested
+    @DisplayName("与实时打分一致性测试")
+    class ParityTest {
+
+        private final SongIndex index = SongIndex.build(HeapSongCatalog.of(SyntheticCatalogGenerator.generate(50_000, 21L)));
+        private final CandidateTable table = CandidateTable.build(index, MOOD_RANGES, List.of("metal"), 64);
+
+        @Test
+        void shouldMatchLiveRankingForEverySessionState() {
+            int[][] recents = {
+                new int[0],
+                live("calm", "jazz", 0L, new int[0], 30),
+                live("excited", "rock", 5L, new int[0], 30)
+            };
+            for (String mood : MOOD_RANGES.keySet()) {
+                for (String genre : List.of("pop", "jazz", "rock", "metal", "mixed")) {
+                    for (long seed : new long[]{0L, 17L, RankingQuery.seedOf("vehicle-9")}) {
+                        for (int[] recent : recents) {
+                            int[] expected = live(mood, genre, seed, recent, 5);
+                            int[] actual = new int[5];
+                            int count = table.lookup(mood, genre).rerank(seed, recent, 5, actual);
+
+                            assertThat(Arrays.copyOf(actual, count)).isEqualTo(expected);
+                        }
+                    }
+                }
+            }
+        }
+
+        private int[] live(String mood, String genre, long seed, int[] recent, int k) {
+            int[] out = new int[k];
+            int count = SongRanker.topK(index, new RankingQuery(mood, MOOD_RANGES.get(mood), genre, seed), recent, k, out);
+            return Arrays.copyOf(out, count);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.vibe.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CatalogLoader 单元测试
+ */
+class CatalogLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CatalogLoader loader = new CatalogLoader(new ObjectMapper());
+
+    private CatalogLoader.LoadedCatalog loadJson(String json) throws IOException {
+        return loader.loadJson("test", new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Nested
+    @DisplayName("JSON 流式加载测试")
+    class JsonTest {
+
+        @Test
+        void shouldLoadSongsAndSkipOtherFields() throws IOException {
+            CatalogLoader.LoadedCatalog loaded = loadJson("""
+                {
+                  "version": {"major": 1, "tags": ["a", "b"]},
+                  "songs": [
+                    {"id": "s1", "title": "T1", "artist": "A", "duration": 200, "bpm": 80, "genre": "jazz", "mood": ["calm"]},
+                    {"id": "s2", "title": "T2", "artist": "A", "duration": 180, "bpm": 120, "genre": "pop", "mood": []}
+                  ],
+                  "trailer": true
+                }
+                """);
+
+            assertThat(loaded.index().size()).isEqualTo(2);
+            assertThat(loaded.index().catalog().song(1).id()).isEqualTo("s2");
+            assertThat(loaded.stats().songs()).isEqualTo(2);
+            assertThat(loaded.stats().source()).isEqualTo("test");
+            assertThat(loaded.stats().peakHeapBytes()).isPositive();
+        }
+
+        @Test
+        void shouldRejectMissingSongsField() {
+            assertThatThrownBy(() -> loadJson("{\"tracks\": []}"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("'songs' field is missing");
+        }
+
+        @Test
+        void shouldRejectNonArraySongsField() {
+            assertThatThrownBy(() -> loadJson("{\"songs\": {}}"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("not an array");
+        }
+    }
+
+    @Nested
+    @DisplayName("文件加载测试")
+    class FileTest {
+
+        @Test
+        void shouldDetectColumnarCatalogByHeader() throws IOException {
+            Path vcat = tempDir.resolve("songs.bin");
+            CatalogTool.generate(1_000, vcat, 3L);
+
+            CatalogLoader.LoadedCatalog loaded = loader.load(vcat);
+
+            assertThat(loaded.index().catalog()).isInstanceOf(ColumnarSongCatalog.class);
+            assertThat(loaded.stats().songs()).isEqualTo(1_000);
+        }
+
+        @Test
+        void shouldLoadJsonFile() throws IOException {
+            Path json = tempDir.resolve("songs.json");
+            CatalogTool.generate(1_000, json, 3L);
+
+            CatalogLoader.LoadedCatalog loaded = loader.load(json);
+
+            assertThat(loaded.index().catalog()).isInstanceOf(HeapSongCatalog.class);
+            assertThat(loaded.stats().songs()).isEqualTo(1_000);
+        }
+
+        @Test
+        void shouldTreatEmptyFileAsJson() throws IOException {
+            Path empty = Files.createFile(tempDir.resolve("empty"));
+
+            assertThat(ColumnarSongCatalog.isCatalogFile(empty)).isFalse();
+        }
+    }
+}
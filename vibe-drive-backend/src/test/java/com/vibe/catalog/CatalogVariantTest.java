@@ -0,0 +1,136 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+import com.vibe.model.Song;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.vibe.testsupport.SongFixture.song;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CatalogVariant 单元测试
+ */
+class CatalogVariantTest {
+
+    private static final RankingQuery CALM_JAZZ = new RankingQuery("calm", new BpmRange(60, 90), "jazz", 7L);
+
+    private final List<Song> library = SyntheticCatalogGenerator.generate(20_000, 5L);
+    private final SongIndex index = SongIndex.build(HeapSongCatalog.of(library));
+
+    private static List<String> topIds(CatalogVariant variant, RankingQuery query, int k) {
+        int[] out = new int[k];
+        int count = SongRanker.topK(variant, query, new int[0], k, out, null);
+        return variant.songs(out, count).stream().map(Song::id).toList();
+    }
+
+    private CatalogVariant resolve(CatalogOverlay overlay) {
+        return CatalogVariant.resolveAll(index, List.of(overlay)).get(overlay.name());
+    }
+
+    @Nested
+    @DisplayName("覆盖层打分测试")
+    class RankingTest {
+
+        @Test
+        void shouldMatchBaseRankingWithoutOverlay() {
+            int[] expected = new int[20];
+            int count = SongRanker.topK(index, CALM_JAZZ, new int[0], 20, expected);
+            int[] actual = new int[20];
+
+            assertThat(SongRanker.topK(CatalogVariant.base(index), CALM_JAZZ, new int[0], 20, actual, null))
+                .isEqualTo(count);
+            assertThat(actual).isEqualTo(expected);
+        }
+
+        @Test
+        void shouldSkipRemovedSongs() {
+            List<String> baseTop = topIds(CatalogVariant.base(index), CALM_JAZZ, 10);
+            CatalogVariant variant = resolve(new CatalogOverlay("eu", null, Set.copyOf(baseTop.subList(0, 5)), null));
+
+            List<String> top = topIds(variant, CALM_JAZZ, 10);
+
+            assertThat(top).doesNotContainAnyElementsOf(baseTop.subList(0, 5));
+            assertThat(top).startsWith(baseTop.subList(5, 10).toArray(new String[0]));
+            assertThat(variant.songCount()).isEqualTo(library.size() - 5);
+        }
+
+        @Test
+        void shouldMergeAdditionsWithBaseSongs() {
+            CatalogVariant variant = resolve(new CatalogOverlay("eu",
+                List.of(song("eu-center").bpm(75).build(), song("eu-far").bpm(200).build()), null, null));
+
+            List<String> top = topIds(variant, CALM_JAZZ, 10);
+
+            assertThat(top).contains("eu-center").doesNotContain("eu-far");
+            assertThat(variant.size()).isEqualTo(library.size() + 2);
+        }
+
+        @Test
+        void shouldRaiseBoostedSongs() {
+            String buried = library.stream().filter(song -> song.bpm() > 170).findFirst().orElseThrow().id();
+            CatalogVariant variant = resolve(new CatalogOverlay("eu", null, null, Map.of(buried, 10f)));
+
+            assertThat(topIds(variant, CALM_JAZZ, 5)).first().isEqualTo(buried);
+            assertThat(topIds(CatalogVariant.base(index), CALM_JAZZ, 5)).doesNotContain(buried);
+        }
+
+        @Test
+        void shouldReplaceBaseSongWithSameId() {
+            String replaced = library.get(0).id();
+            CatalogVariant variant = resolve(new CatalogOverlay("eu", List.of(song(replaced).bpm(75).build()), null, null));
+
+            assertThat(variant.stats().removals()).isEqualTo(1);
+            assertThat(variant.songCount()).isEqualTo(library.size());
+            assertThat(topIds(variant, CALM_JAZZ, 20)).contains(replaced);
+        }
+    }
+
+    @Nested
+    @DisplayName("共享与内存测试")
+    class SharingTest {
+
+        @Test
+        void shouldShareBaseIndexAcrossVariants() {
+            Map<String, CatalogVariant> variants = CatalogVariant.resolveAll(index, List.of(
+                new CatalogOverlay("eu", List.of(song("eu-1").bpm(75).build()), Set.of(library.get(1).id()), null),
+                new CatalogOverlay("us", null, null, Map.of(library.get(2).id(), 0.5f))));
+
+            assertThat(variants).containsOnlyKeys("eu", "us");
+            for (CatalogVariant variant : variants.values()) {
+                assertThat(variant.base()).isSameAs(index);
+            }
+            assertThat(variants.get("eu").generation()).isNotEqualTo(variants.get("us").generation());
+            assertThat(CatalogVariant.base(index).generation()).isEqualTo(index.generation());
+        }
+
+        @Test
+        void shouldEstimateOverlayFarBelowBaseIndex() {
+            List<Song> additions = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                additions.add(song("eu-" + i).bpm(60 + i % 60).build());
+            }
+            Set<String> removals = Set.of(library.get(10).id(), library.get(11).id());
+            CatalogVariant variant = resolve(new CatalogOverlay("eu", additions, removals, null));
+
+            // 1% 的改动只占一份基础索引结构（不含歌曲本身）的一小部分
+            assertThat(variant.overlayBytes()).isPositive().isLessThan(index.indexBytes() / 2);
+            assertThat(CatalogVariant.base(index).overlayBytes()).isZero();
+            assertThat(CatalogVariant.base(index).hasOverlay()).isFalse();
+        }
+
+        @Test
+        void shouldIgnoreUnknownIds() {
+            CatalogVariant variant = resolve(new CatalogOverlay("eu", null, Set.of("missing"), Map.of("missing", 1f)));
+
+            assertThat(variant.hasOverlay()).isFalse();
+            assertThat(variant.songCount()).isEqualTo(library.size());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.vibe.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.Song;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ColumnarSongCatalog 单元测试
+ */
+class ColumnarSongCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Song> readMockSongs() throws IOException {
+        List<Song> songs = new ArrayList<>();
+        try (InputStream in = ColumnarSongCatalogTest.class.getClassLoader()
+                .getResourceAsStream("mock-data/mock-songs.json")) {
+            new SongJsonReader(new ObjectMapper()).read(in, songs::add);
+        }
+        return songs;
+    }
+
+    /**
+     * 情绪以位掩码存储，还原后按字典顺序排列，比较时忽略标签顺序
+     */
+    private static Song normalized(Song song) {
+        List<String> mood = song.mood() == null ? List.of() : song.mood().stream().sorted().toList();
+        return new Song(song.id(), song.title(), song.artist(), song.album(), song.duration(), song.bpm(),
+            song.genre(), mood, song.coverUrl());
+    }
+
+    private ColumnarSongCatalog write(List<Song> songs) throws IOException {
+        Path file = tempDir.resolve("songs.vcat");
+        try (ColumnarCatalogWriter writer = new ColumnarCatalogWriter(file)) {
+            songs.forEach(writer::add);
+            writer.finish();
+        }
+        return ColumnarSongCatalog.open(file);
+    }
+
+    @Nested
+    @DisplayName("读写往返测试")
+    class RoundTripTest {
+
+        @Test
+        void shouldRoundTripMockLibrary() throws IOException {
+            List<Song> songs = readMockSongs();
+            ColumnarSongCatalog catalog = write(songs);
+
+            assertThat(catalog.size()).isEqualTo(30);
+            for (int i = 0; i < songs.size(); i++) {
+                assertThat(normalized(catalog.song(i))).isEqualTo(normalized(songs.get(i)));
+            }
+        }
+
+        @Test
+        void shouldPreserveNullableFieldsAndUntaggedSongs() throws IOException {
+            List<Song> songs = List.of(
+                new Song("a", "标题 A", "艺术家", null, 180, 90, null, List.of(), null),
+                new Song("b", "Title B", "艺术家", "专辑", 200, 120, "Jazz", List.of("calm", "happy"), "https://c/b.png")
+            );
+            ColumnarSongCatalog catalog = write(songs);
+
+            assertThat(catalog.song(0)).isEqualTo(songs.get(0));
+            assertThat(normalized(catalog.song(1))).isEqualTo(normalized(songs.get(1)));
+            assertThat(catalog.genreId(0)).isEqualTo(TagDictionary.NONE);
+            assertThat(catalog.moodMask(0)).isEqualTo(0);
+            assertThat(catalog.genres().idOf("JAZZ")).isEqualTo(catalog.genreId(1));
+        }
+
+        @Test
+        void shouldUseWideMoodColumnBeyondEightMoods() throws IOException {
+            List<Song> songs = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                songs.add(new Song("s" + i, "T" + i, "A", null, 100, 100, "pop", List.of("mood" + i), null));
+            }
+            ColumnarSongCatalog catalog = write(songs);
+
+            assertThat(catalog.moods().size()).isEqualTo(12);
+            assertThat(catalog.moodMask(11)).isEqualTo(1 << 11);
+            assertThat(catalog.song(11)).isEqualTo(songs.get(11));
+        }
+
+        @Test
+        void shouldRejectNonCatalogFile() throws IOException {
+            Path file = tempDir.resolve("songs.json");
+            Files.writeString(file, "{\"songs\": []}");
+
+            assertThatThrownBy(() -> ColumnarSongCatalog.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not a columnar song catalog");
+        }
+    }
+
+    @Nested
+    @DisplayName("离线工具测试")
+    class CatalogToolTest {
+
+        @Test
+        void shouldBuildCatalogFromGeneratedJson() throws IOException {
+            Path json = tempDir.resolve("synthetic.json");
+            Path vcat = tempDir.resolve("synthetic.vcat");
+            CatalogTool.generate(2_000, json, 5L);
+
+            assertThat(CatalogTool.build(json, vcat)).isEqualTo(2_000);
+
+            ColumnarSongCatalog catalog = ColumnarSongCatalog.open(vcat);
+            List<Song> expected = SyntheticCatalogGenerator.generate(2_000, 5L);
+            assertThat(catalog.size()).isEqualTo(2_000);
+            assertThat(normalized(catalog.song(0))).isEqualTo(normalized(expected.get(0)));
+            assertThat(normalized(catalog.song(1_999))).isEqualTo(normalized(expected.get(1_999)));
+        }
+    }
+}
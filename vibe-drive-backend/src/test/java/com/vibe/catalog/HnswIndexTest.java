@@ -0,0 +1,155 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static com.vibe.testsupport.SongFixture.song;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SongVectors / HnswIndex 单元测试
+ */
+class HnswIndexTest {
+
+    private static final String[] MOODS = {"happy", "calm", "tired", "stressed", "excited"};
+    private static final String[] GENRES = {"pop", "jazz", "rock", "classical", "electronic", "mixed", "metal"};
+
+    private static List<String> nearest(HnswIndex index, SongCatalog catalog, float[] query, int k) {
+        int[] out = new int[k];
+        int count = index.nearestSongs(query, k, 64, 0L, out);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(catalog.song(out[i]).id());
+        }
+        return ids;
+    }
+
+    @Nested
+    @DisplayName("特征向量测试")
+    class VectorsTest {
+
+        private final SongCatalog catalog = HeapSongCatalog.of(List.of(
+            song("calm-jazz", 75, "jazz", "calm"),
+            song("calm-jazz-2", 75, "Jazz", "calm"),
+            song("calm-classical", 72, "classical", "calm"),
+            song("tired-jazz", 70, "jazz", "tired"),
+            song("happy-pop", 120, "pop", "happy"),
+            song("excited-rock", 160, "rock", "excited")
+        ));
+        private final SongVectors vectors = SongVectors.build(catalog);
+
+        @Test
+        void shouldShareFeaturePointForIdenticalFeatures() {
+            assertThat(vectors.songCount()).isEqualTo(6);
+            assertThat(vectors.pointCount()).isEqualTo(5);
+        }
+
+        @Test
+        void shouldRankSimilarSongsFirst() {
+            float[] query = SongVectors.query("calm", new BpmRange(60, 90), "jazz");
+            int[] out = new int[6];
+            int count = vectors.exactNearest(query, 6, 0L, out);
+
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ids.add(catalog.song(out[i]).id());
+            }
+            assertThat(ids.subList(0, 2)).containsExactlyInAnyOrder("calm-jazz", "calm-jazz-2");
+            assertThat(ids.subList(2, 4)).containsExactlyInAnyOrder("calm-classical", "tired-jazz");
+            assertThat(ids.get(5)).isEqualTo("excited-rock");
+        }
+
+        @Test
+        void shouldRotateSongsWithinPointBySeed() {
+            float[] query = SongVectors.query("calm", new BpmRange(60, 90), "jazz");
+            Set<Integer> firstPicks = new HashSet<>();
+            int[] out = new int[1];
+            for (long seed = 0; seed < 8; seed++) {
+                vectors.exactNearest(query, 1, seed, out);
+                firstPicks.add(out[0]);
+            }
+
+            assertThat(firstPicks).containsExactlyInAnyOrder(0, 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("近似近邻测试")
+    class SearchTest {
+
+        @Test
+        void shouldMatchExactSearchOnSmallCatalog() {
+            SongCatalog catalog = HeapSongCatalog.of(List.of(
+                song("calm-jazz", 75, "jazz", "calm"),
+                song("happy-pop", 120, "pop", "happy"),
+                song("excited-rock", 160, "rock", "excited")
+            ));
+            HnswIndex index = HnswIndex.build(SongVectors.build(catalog));
+
+            assertThat(nearest(index, catalog, SongVectors.query("excited", new BpmRange(120, 180), "rock"), 3))
+                .containsExactly("excited-rock", "happy-pop", "calm-jazz");
+        }
+
+        @Test
+        void shouldHandleEmptyCatalog() {
+            SongCatalog catalog = HeapSongCatalog.of(List.of());
+            HnswIndex index = HnswIndex.build(SongVectors.build(catalog));
+
+            assertThat(nearest(index, catalog, SongVectors.query("calm", new BpmRange(60, 90), null), 5)).isEmpty();
+        }
+
+        @Test
+        void shouldFillFromFurtherPointsWhenNearestPointIsSmall() {
+            SongCatalog catalog = HeapSongCatalog.of(SyntheticCatalogGenerator.generate(2_000, 5L));
+            HnswIndex index = HnswIndex.build(SongVectors.build(catalog));
+
+            assertThat(nearest(index, catalog, SongVectors.query("calm", new BpmRange(60, 90), "jazz"), 50)).hasSize(50);
+        }
+
+        @Test
+        void shouldReachHighRecallAgainstBruteForce() {
+            SongCatalog catalog = HeapSongCatalog.of(SyntheticCatalogGenerator.generate(100_000, 11L));
+            SongVectors vectors = SongVectors.build(catalog);
+            HnswIndex index = HnswIndex.build(vectors);
+            int k = 10;
+            SplittableRandom random = new SplittableRandom(3);
+
+            int queries = 200;
+            double recall = 0;
+            int[] approximate = new int[k];
+            for (int q = 0; q < queries; q++) {
+                int low = 50 + random.nextInt(100);
+                float[] query = SongVectors.query(MOODS[random.nextInt(MOODS.length)],
+                    new BpmRange(low, low + random.nextInt(60)), GENRES[random.nextInt(GENRES.length)]);
+
+                // 精确结果：全部特征点按距离排序取前 k；距离与第 k 名相同的点同样算命中
+                TopKHeap heap = new TopKHeap(k);
+                for (int point = 0; point < vectors.pointCount(); point++) {
+                    heap.offer(point, -vectors.distance(query, point));
+                }
+                int[] exact = new int[k];
+                heap.drainDescending(exact);
+                float kth = vectors.distance(query, exact[k - 1]);
+
+                int count = index.search(query, k, 64, approximate);
+                int hits = 0;
+                for (int i = 0; i < count; i++) {
+                    if (vectors.distance(query, approximate[i]) <= kth) {
+                        hits++;
+                    }
+                }
+                recall += (double) hits / k;
+            }
+
+            assertThat(recall / queries).isGreaterThan(0.95);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.vibe.catalog;
+
+import com.vibe.model.BpmRange;
+import com.vibe.model.Song;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.vibe.testsupport.SongFixture.song;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SongRanker 单元测试
+ */
+class SongRankerTest {
+
+    private static final int[] NO_RECENT = new int[0];
+
+    private static List<String> rank(SongIndex index, RankingQuery query, int[] recent, int k) {
+        int[] out = new int[k];
+        int count = SongRanker.topK(index, query, recent, k, out);
+        return index.songs(out, count).stream().map(Song::id).toList();
+    }
+
+    @Nested
+    @DisplayName("打分测试")
+    class ScoringTest {
+
+        private final SongIndex index = SongIndex.build(HeapSongCatalog.of(List.of(
+            song("far-match", 150, "jazz", "calm"),
+            song("center-pop", 75, "pop", "happy"),
+            song("center-match", 75, "jazz", "calm"),
+            song("edge-match", 80, "jazz", "calm"),
+            song("center-untagged", 76, "jazz"),
+            song("center-related", 74, "classical", "tired")
+        )));
+
+        @Test
+        void shouldRankByBpmGenreAndMood() {
+            RankingQuery query = new RankingQuery("calm", new BpmRange(60, 90), "jazz", 0L);
+
+            assertThat(rank(index, query, NO_RECENT, 6)).containsExactly(
+                "center-match", "edge-match", "center-untagged", "center-related", "center-pop", "far-match");
+        }
+
+        @Test
+        void shouldDemoteRecentlyPlayedSongs() {
+            RankingQuery query = new RankingQuery("calm", new BpmRange(60, 90), "jazz", 0L);
+
+            assertThat(rank(index, query, new int[]{2}, 2)).containsExactly("edge-match", "center-untagged");
+        }
+
+        @Test
+        void shouldStillReturnRepeatsWhenCatalogIsTooSmall() {
+            RankingQuery query = new RankingQuery("calm", new BpmRange(60, 90), "jazz", 0L);
+
+            assertThat(rank(index, query, new int[]{0, 1, 2, 3, 4, 5}, 6)).hasSize(6);
+        }
+
+        @Test
+        void shouldHandleEmptyCatalog() {
+            SongIndex empty = SongIndex.build(HeapSongCatalog.of(List.of()));
+
+            assertThat(rank(empty, new RankingQuery("calm", new BpmRange(60, 90), null, 0L), NO_RECENT, 5)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Top-K 与全量排序一致性测试")
+    class TopKTest {
+
+        private final List<Song> songs = SyntheticCatalogGenerator.generate(20_000, 9L);
+        private final SongIndex index = SongIndex.build(HeapSongCatalog.of(songs));
+
+        @Test
+        void shouldMatchPrefixOfFullRanking() {
+            List<RankingQuery> queries = List.of(
+                new RankingQuery("calm", new BpmRange(60, 90), "jazz", 1L),
+                new RankingQuery("excited", new BpmRange(120, 180), "metal", 2L),
+                new RankingQuery("happy", new BpmRange(100, 140), "mixed", 3L),
+                new RankingQuery(null, new BpmRange(60, 120), null, 4L),
+                new RankingQuery("angry", new BpmRange(0, 10), "pop", 5L)
+            );
+            int[] recent = {10, 20, 30, 40, 50};
+
+            for (RankingQuery query : queries) {
+                // k 等于曲库大小时堆永远不满，不会提前结束，即全量排序
+                List<String> full = rank(index, query, recent, songs.size());
+                assertThat(rank(index, query, recent, 5)).isEqualTo(full.subList(0, 5));
+                assertThat(rank(index, query, recent, 50)).isEqualTo(full.subList(0, 50));
+            }
+        }
+
+        @Test
+        void shouldVaryTiedResultsAcrossSessions() {
+            Set<String> firstPicks = new HashSet<>();
+            for (int session = 0; session < 20; session++) {
+                RankingQuery query = new RankingQuery("calm", new BpmRange(60, 90), "jazz",
+                    RankingQuery.seedOf("vehicle-" + session));
+                firstPicks.add(rank(index, query, NO_RECENT, 1).get(0));
+            }
+
+            assertThat(firstPicks.size()).isGreaterThan(3);
+        }
+
+        @Test
+        void shouldBeDeterministicForSameSession() {
+            RankingQuery query = new RankingQuery("tired", new BpmRange(50, 80), "classical",
+                RankingQuery.seedOf("vehicle-1"));
+
+            assertThat(rank(index, query, NO_RECENT, 5)).isEqualTo(rank(index, query, NO_RECENT, 5));
+        }
+    }
+
+    @Nested
+    @DisplayName("最近播放记录测试")
+    class RecentlyPlayedTest {
+
+        @Test
+        void shouldKeepLatestEntriesInRing() {
+            CatalogVariant variant = CatalogVariant.base(SongIndex.build(HeapSongCatalog.of(List.of())));
+            RecentlyPlayed recent = new RecentlyPlayed(3);
+
+            recent.record(variant, new int[]{1, 2}, 2);
+            recent.record(variant, new int[]{3, 4}, 2);
+
+            int[] snapshot = recent.snapshot(variant);
+            Arrays.sort(snapshot);
+            assertThat(Arrays.stream(snapshot).boxed().toList()).containsExactly(2, 3, 4);
+        }
+
+        @Test
+        void shouldForgetEntriesAfterCatalogReload() {
+            CatalogVariant before = CatalogVariant.base(SongIndex.build(HeapSongCatalog.of(List.of())));
+            CatalogVariant after = CatalogVariant.base(SongIndex.build(HeapSongCatalog.of(List.of())));
+            RecentlyPlayed recent = new RecentlyPlayed(3);
+
+            recent.record(before, new int[]{1, 2}, 2);
+
+            assertThat(recent.snapshot(after).length).isEqualTo(0);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.vibe.light;
+
+import com.vibe.model.AmbiencePlan;
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.MusicRecommendation;
+import com.vibe.model.Song;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.service.LightService;
+import com.vibe.status.VibeSessionStatusStore;
+import com.vibe.testsupport.RecordingWebSocketSession;
+import com.vibe.timer.TimingWheel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.vibe.testsupport.SongFixture.song;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LightCueScheduler 与 BeatGrid 单元测试（手动推进时间轮与帧引擎）
+ */
+class LightCueSchedulerTest {
+
+    private static final String SESSION = "s1";
+    private static final Song SONG_120_BPM = song("a").bpm(120).durationSeconds(60).build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TimingWheel wheel = new TimingWheel(10, 64);
+    private final long start = (System.currentTimeMillis() / 1000 + 1) * 1000;
+    private final RecordingWebSocketSession session = new RecordingWebSocketSession();
+    private LightFrameEngine engine;
+    private LightCueScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        engine = new LightFrameEngine(new VibeSessionStatusStore(), meterRegistry, false, 30, 4, 1, 1, 500);
+        engine.useSenderExecutor(Runnable::run);
+        engine.subscribe(SESSION, session);
+        scheduler = new LightCueScheduler(wheel, engine, new LightService(), meterRegistry);
+    }
+
+    private static AmbiencePlan plan(LightMode mode, SafetyMode safetyMode, Song... songs) {
+        return AmbiencePlan.builder()
+            .music(new MusicRecommendation(List.of(songs), "happy", "pop", null))
+            .light(new LightSetting(LightColor.fromHex("#FFFFFF"), 100, mode, 1, null))
+            .safetyMode(safetyMode)
+            .build();
+    }
+
+    /**
+     * 渲染 at 时刻的一帧，返回仪表盘区域亮度
+     */
+    private int brightnessAt(long at) {
+        engine.tick(at);
+        byte[] frame = session.frames.get(session.frames.size() - 1);
+        return frame[LightFrameRenderer.HEADER_BYTES + 3];
+    }
+
+    /**
+     * 最近渲染的一帧中的灯光模式
+     */
+    private LightMode lastMode() {
+        byte[] frame = session.frames.get(session.frames.size() - 1);
+        return LightMode.values()[frame[1]];
+    }
+
+    private double cueCount() {
+        return meterRegistry.counter("vibe.light.cues").count();
+    }
+
+    @Nested
+    @DisplayName("节拍网格测试")
+    class BeatGridTest {
+
+        @Test
+        void shouldPrecomputeBeatOffsets() {
+            BeatGrid grid = BeatGrid.of(120, 10);
+
+            assertThat(grid.beatCount()).isEqualTo(20);
+            assertThat(grid.beatMillis()).isEqualTo(500);
+            assertThat(grid.offsetMillis(0)).isZero();
+            assertThat(grid.offsetMillis(19)).isEqualTo(9_500);
+        }
+
+        @Test
+        void shouldNotAccumulateRoundingError() {
+            BeatGrid grid = BeatGrid.of(127, 600);
+
+            // 60000 / 127 ≈ 472.44ms，第 1000 拍仍按精确值取整
+            assertThat(grid.offsetMillis(1000)).isEqualTo((int) Math.round(1000 * 60_000.0 / 127));
+        }
+
+        @Test
+        void shouldShareGridsAndSkipUnknownBpm() {
+            assertThat(BeatGrid.of(song("a").bpm(96).build())).isSameAs(BeatGrid.of(song("b").bpm(96).build()));
+            assertThat(BeatGrid.of(song("c").bpm(0).build())).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("节拍提示调度测试")
+    class SchedulingTest {
+
+        @Test
+        void shouldPulseOnBeatsAnchoredToSong() {
+            // 120 BPM：拍长 500ms
+            scheduler.apply(SESSION, plan(LightMode.PULSE, SafetyMode.L1_NORMAL, SONG_120_BPM), start);
+            wheel.advanceTo(start);
+
+            assertThat(cueCount()).isEqualTo(1.0);
+            // 强拍起点最亮，拍中回落，下一拍再次亮起但弱于强拍
+            int downbeat = brightnessAt(start + 50);
+            int between = brightnessAt(start + 400);
+            int weakBeat = brightnessAt(start + 550);
+            assertThat(downbeat).isGreaterThan(between);
+            assertThat(weakBeat).isGreaterThan(between).isLessThan(downbeat);
+            assertThat(brightnessAt(start + 2_050)).isEqualTo(downbeat);
+        }
+
+        @Test
+        void shouldCueOncePerBarAndFollowPlaylist() {
+            scheduler.apply(SESSION, plan(LightMode.BREATHING, SafetyMode.L1_NORMAL,
+                song("a").bpm(120).durationSeconds(8).build(), song("b").bpm(60).durationSeconds(8).build()), start);
+
+            // 第一首 16 拍 = 4 小节，第二首 8 拍 = 2 小节
+            wheel.advanceTo(start + 16_100);
+
+            assertThat(cueCount()).isEqualTo(6.0);
+            assertThat(scheduler.activeSessions()).isZero();
+            assertThat(wheel.pending()).isZero();
+        }
+
+        @Test
+        void shouldNotScheduleWithoutDynamicLighting() {
+            scheduler.apply(SESSION, plan(LightMode.PULSE, SafetyMode.L2_FOCUS, SONG_120_BPM), start);
+            scheduler.apply("s2", plan(LightMode.STATIC, SafetyMode.L1_NORMAL, SONG_120_BPM), start);
+
+            assertThat(scheduler.activeSessions()).isZero();
+            assertThat(wheel.pending()).isZero();
+        }
+
+        @Test
+        void shouldStopWhenSafetyModeDisallowsDynamicLighting() {
+            scheduler.apply(SESSION, plan(LightMode.PULSE, SafetyMode.L1_NORMAL, SONG_120_BPM), start);
+            wheel.advanceTo(start + 1_000);
+
+            scheduler.onSafetyModeChanged(SESSION, SafetyMode.L1_NORMAL);
+            assertThat(scheduler.activeSessions()).isEqualTo(1);
+            scheduler.onSafetyModeChanged(SESSION, SafetyMode.L2_FOCUS);
+            wheel.advanceTo(start + 10_000);
+
+            assertThat(scheduler.activeSessions()).isZero();
+            assertThat(cueCount()).isEqualTo(1.0);
+        }
+
+        @Test
+        void shouldRenderStaticLightAfterSwitchingToFocus() {
+            scheduler.apply(SESSION, plan(LightMode.PULSE, SafetyMode.L1_NORMAL, SONG_120_BPM), start);
+            wheel.advanceTo(start);
+
+            scheduler.onSafetyModeChanged(SESSION, SafetyMode.L2_FOCUS);
+
+            // 过渡结束后不再脉冲：模式为静态，亮度恒定为方案亮度
+            long settled = System.currentTimeMillis() + 10_000;
+            assertThat(brightnessAt(settled)).isEqualTo(100);
+            assertThat(lastMode()).isEqualTo(LightMode.STATIC);
+            assertThat(brightnessAt(settled + 300)).isEqualTo(100);
+            assertThat(brightnessAt(settled + 600)).isEqualTo(100);
+        }
+
+        @Test
+        void shouldFadeOutAfterSwitchingToSilent() {
+            scheduler.apply(SESSION, plan(LightMode.BREATHING, SafetyMode.L1_NORMAL, SONG_120_BPM), start);
+            wheel.advanceTo(start);
+
+            scheduler.onSafetyModeChanged(SESSION, SafetyMode.L3_SILENT);
+
+            long settled = System.currentTimeMillis() + 10_000;
+            assertThat(brightnessAt(settled)).isZero();
+            assertThat(lastMode()).isEqualTo(LightMode.STATIC);
+            assertThat(brightnessAt(settled + 2_000)).isZero();
+        }
+
+        @Test
+        void shouldRestorePlanLightWhenBackToNormal() {
+            scheduler.apply(SESSION, plan(LightMode.PULSE, SafetyMode.L1_NORMAL, SONG_120_BPM), start);
+            scheduler.onSafetyModeChanged(SESSION, SafetyMode.L3_SILENT);
+
+            scheduler.onSafetyModeChanged(SESSION, SafetyMode.L1_NORMAL);
+
+            brightnessAt(System.currentTimeMillis() + 10_000);
+            assertThat(lastMode()).isEqualTo(LightMode.PULSE);
+        }
+
+        @Test
+        void shouldSkipSongsWithUnknownBpm() {
+            scheduler.apply(SESSION, plan(LightMode.PULSE, SafetyMode.L1_NORMAL,
+                song("a").bpm(0).durationSeconds(4).build(), song("b").bpm(120).durationSeconds(4).build()), start);
+
+            wheel.advanceTo(start + 3_900);
+            assertThat(cueCount()).isZero();
+
+            wheel.advanceTo(start + 4_000);
+            assertThat(cueCount()).isEqualTo(1.0);
+        }
+    }
+}
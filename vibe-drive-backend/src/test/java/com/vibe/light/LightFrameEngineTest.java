@@ -0,0 +1,172 @@
+package com.vibe.light;
+
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.status.VibeSessionStatusStore;
+import com.vibe.testsupport.RecordingWebSocketSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LightFrameEngine 单元测试
+ */
+class LightFrameEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private LightFrameEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new LightFrameEngine(new VibeSessionStatusStore(), meterRegistry, false, 30, 2, 1, 1, 500);
+        engine.useSenderExecutor(Runnable::run);
+    }
+
+    private static int level(byte[] frame, int zone) {
+        return frame[LightFrameRenderer.HEADER_BYTES + zone * LightFrameRenderer.BYTES_PER_LED + 3];
+    }
+
+    @Nested
+    @DisplayName("订阅与推送测试")
+    class SubscriptionTest {
+
+        @Test
+        void shouldPushOneFramePerTick() {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            engine.subscribe("s1", session);
+
+            engine.tick(1_000L);
+            engine.tick(1_033L);
+
+            assertThat(session.frames).hasSize(2);
+            assertThat(session.frames.get(0).length).isEqualTo(engine.frameBytes());
+            assertThat((int) session.frames.get(1)[7]).isEqualTo(2);
+            assertThat(meterRegistry.counter("vibe.light.frames.sent").count()).isEqualTo(2.0);
+        }
+
+        @Test
+        void shouldApplySettingWithTransition() {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            engine.subscribe("s1", session);
+
+            engine.apply("s1", LightSetting.staticLight(LightColor.warmWhite(), 90));
+            engine.tick(System.currentTimeMillis() + LightSetting.DEFAULT_TRANSITION_DURATION);
+
+            assertThat(level(session.frames.get(0), 0)).isEqualTo(90);
+        }
+
+        @Test
+        void shouldReplacePreviousConnectionOfSameSession() {
+            RecordingWebSocketSession first = new RecordingWebSocketSession();
+            RecordingWebSocketSession second = new RecordingWebSocketSession();
+            engine.subscribe("s1", first);
+
+            engine.subscribe("s1", second);
+            engine.tick(1_000L);
+
+            assertThat(first.closeStatus).isNotNull();
+            assertThat(first.frames).isEmpty();
+            assertThat(second.frames).hasSize(1);
+            assertThat(engine.subscriberCount()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldRejectWhenCapacityReachedAndReleaseOnUnsubscribe() {
+            RecordingWebSocketSession first = new RecordingWebSocketSession();
+            engine.subscribe("s1", first);
+            engine.subscribe("s2", new RecordingWebSocketSession());
+
+            assertThat(engine.subscribe("s3", new RecordingWebSocketSession())).isFalse();
+
+            engine.unsubscribe("s1", first);
+            assertThat(engine.subscribe("s3", new RecordingWebSocketSession())).isTrue();
+            engine.tick(1_000L);
+            assertThat(first.frames).isEmpty();
+        }
+
+        @Test
+        void shouldIgnoreUnsubscribeOfReplacedConnection() {
+            RecordingWebSocketSession first = new RecordingWebSocketSession();
+            RecordingWebSocketSession second = new RecordingWebSocketSession();
+            engine.subscribe("s1", first);
+            engine.subscribe("s1", second);
+
+            engine.unsubscribe("s1", first);
+            engine.tick(1_000L);
+
+            assertThat(second.frames).hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("帧预算测试")
+    class BudgetTest {
+
+        @Test
+        void shouldDropFramesWhileStripeIsStillSending() {
+            engine.useSenderExecutor(pendingSends::add);
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            engine.subscribe("s1", session);
+
+            engine.tick(1_000L);
+            engine.tick(1_033L);
+
+            assertThat(pendingSends).hasSize(1);
+            assertThat(meterRegistry.counter("vibe.light.frames.dropped").count()).isEqualTo(1.0);
+
+            pendingSends.get(0).run();
+            engine.tick(1_066L);
+
+            assertThat(session.frames).hasSize(1);
+            assertThat(pendingSends).hasSize(2);
+        }
+
+        @Test
+        void shouldCloseConnectionThatFailsToSend() {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            session.failSends = true;
+            engine.subscribe("s1", session);
+
+            engine.tick(1_000L);
+
+            assertThat(session.closeStatus).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE);
+        }
+
+        @Test
+        void shouldCloseStalledConnectionOffRenderThread() throws Exception {
+            engine = new LightFrameEngine(new VibeSessionStatusStore(), meterRegistry, false, 30, 2, 1, 1, 20);
+            engine.useSenderExecutor(task -> Thread.ofVirtual().start(task));
+            List<Runnable> pendingCloses = new ArrayList<>();
+            engine.useCloseExecutor(pendingCloses::add);
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            session.blockSends = new CountDownLatch(1);
+            engine.subscribe("s1", session);
+
+            engine.tick(1_000L);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            long now = 1_000L;
+            while (pendingCloses.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(30);
+                engine.tick(now += 33);
+            }
+
+            // 渲染线程只记下阻塞的连接，关闭交给关闭执行器
+            assertThat(pendingCloses).hasSize(1);
+            assertThat(session.closeStatus).isNull();
+
+            pendingCloses.get(0).run();
+            assertThat(session.closeStatus).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.vibe.light;
+
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.ZoneSetting;
+import com.vibe.model.enums.LightMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LightFrameRenderer 单元测试
+ */
+class LightFrameRendererTest {
+
+    private static final int DASHBOARD = 0;
+    private static final int DOOR = 1;
+    private static final int ROOF = 2;
+
+    private final LightFrameRenderer renderer = new LightFrameRenderer(4, 1);
+    private final byte[] frame = new byte[renderer.frameBytes()];
+
+    private static LightSetting setting(String hex, int brightness, LightMode mode, int transitionMs) {
+        return new LightSetting(LightColor.fromHex(hex), brightness, mode, transitionMs, null);
+    }
+
+    private static int level(byte[] frame, int led) {
+        return frame[LightFrameRenderer.HEADER_BYTES + led * LightFrameRenderer.BYTES_PER_LED + 3];
+    }
+
+    private static int rgb(byte[] frame, int led) {
+        int pos = LightFrameRenderer.HEADER_BYTES + led * LightFrameRenderer.BYTES_PER_LED;
+        return (frame[pos] & 0xFF) << 16 | (frame[pos + 1] & 0xFF) << 8 | frame[pos + 2] & 0xFF;
+    }
+
+    @Nested
+    @DisplayName("帧格式测试")
+    class FormatTest {
+
+        @Test
+        void shouldWriteHeaderAndZonesInFixedOrder() {
+            int slot = renderer.allocate();
+            renderer.reset(slot, new LightSetting(LightColor.fromHex("#00FF00"), 60, LightMode.STATIC, 1000, List.of(
+                ZoneSetting.dashboard("#FF0000", 80),
+                ZoneSetting.roof("#0000FF", 40))));
+
+            int length = renderer.render(slot, 1_000L, 7, frame);
+
+            assertThat(length).isEqualTo(12 + 5 * 4).isEqualTo(renderer.frameBytes());
+            assertThat((int) frame[0]).isEqualTo(LightFrameRenderer.FRAME_VERSION);
+            assertThat((int) frame[1]).isEqualTo(LightMode.STATIC.ordinal());
+            assertThat((int) frame[2]).isEqualTo(LightFrameRenderer.ZONES.length);
+            assertThat((int) frame[3]).isEqualTo(1);
+            assertThat((int) frame[7]).isEqualTo(7);
+            assertThat(rgb(frame, DASHBOARD)).isEqualTo(0xFF0000);
+            assertThat(level(frame, DASHBOARD)).isEqualTo(80);
+            assertThat(rgb(frame, ROOF)).isEqualTo(0x0000FF);
+            assertThat(level(frame, ROOF)).isEqualTo(40);
+            // 未列出的分区使用整体颜色与亮度
+            assertThat(rgb(frame, DOOR)).isEqualTo(0x00FF00);
+            assertThat(level(frame, DOOR)).isEqualTo(60);
+        }
+
+        @Test
+        void shouldConvertTemperatureOnlyColor() {
+            int slot = renderer.allocate();
+            renderer.reset(slot, new LightSetting(LightColor.fromTemperature(2700), 50, LightMode.STATIC, 1000, null));
+
+            renderer.render(slot, 0L, 1, frame);
+
+            // 暖色：红色通道饱和，蓝色最弱
+            assertThat(rgb(frame, DASHBOARD) >>> 16).isEqualTo(0xFF);
+            assertThat(rgb(frame, DASHBOARD) & 0xFF).isLessThan(rgb(frame, DASHBOARD) >>> 8 & 0xFF);
+        }
+
+        @Test
+        void shouldRenderEveryLedOfEachZone() {
+            LightFrameRenderer perLed = new LightFrameRenderer(1, 8);
+            byte[] ledFrame = new byte[perLed.frameBytes()];
+            int slot = perLed.allocate();
+            perLed.reset(slot, new LightSetting(LightColor.fromHex("#FF0000"), 80, LightMode.GRADIENT, 1000, List.of(
+                ZoneSetting.door("#0000FF", 80))));
+
+            assertThat(perLed.render(slot, 1_000L, 1, ledFrame)).isEqualTo(12 + 5 * 8 * 4);
+            assertThat((int) ledFrame[3]).isEqualTo(8);
+            // 渐变沿灯珠流动：同一分区内的灯珠颜色不同
+            assertThat(rgb(ledFrame, 0)).isNotEqualTo(rgb(ledFrame, 4));
+        }
+    }
+
+    @Nested
+    @DisplayName("过渡插值测试")
+    class TransitionTest {
+
+        @Test
+        void shouldInterpolateOverTransitionDuration() {
+            int slot = renderer.allocate();
+            renderer.apply(slot, setting("#FFFFFF", 100, LightMode.STATIC, 1000), 10_000L);
+
+            renderer.render(slot, 10_000L, 1, frame);
+            assertThat(level(frame, DASHBOARD)).isZero();
+            renderer.render(slot, 10_500L, 2, frame);
+            assertThat(level(frame, DASHBOARD)).isEqualTo(50);
+            renderer.render(slot, 10_250L, 3, frame);
+            assertThat(level(frame, DASHBOARD)).isBetween(1, 49);
+            renderer.render(slot, 11_000L, 4, frame);
+            assertThat(level(frame, DASHBOARD)).isEqualTo(100);
+        }
+
+        @Test
+        void shouldContinueFromCurrentValueWhenInterrupted() {
+            int slot = renderer.allocate();
+            renderer.apply(slot, setting("#FFFFFF", 100, LightMode.STATIC, 1000), 0L);
+            renderer.render(slot, 500L, 1, frame);
+            int midway = level(frame, DASHBOARD);
+
+            renderer.apply(slot, setting("#FFFFFF", 0, LightMode.STATIC, 2000), 500L);
+
+            renderer.render(slot, 500L, 2, frame);
+            assertThat(level(frame, DASHBOARD)).isEqualTo(midway);
+            renderer.render(slot, 2_500L, 3, frame);
+            assertThat(level(frame, DASHBOARD)).isZero();
+        }
+
+        @Test
+        void shouldFadeOutWhenLightIsDisabled() {
+            int slot = renderer.allocate();
+            renderer.reset(slot, setting("#FFFFFF", 70, LightMode.BREATHING, 1000));
+
+            renderer.apply(slot, null, 0L);
+
+            renderer.render(slot, LightSetting.DEFAULT_TRANSITION_DURATION, 1, frame);
+            for (int zone = 0; zone < LightFrameRenderer.ZONES.length; zone++) {
+                assertThat(level(frame, zone)).isZero();
+            }
+            assertThat((int) frame[1]).isEqualTo(LightMode.STATIC.ordinal());
+        }
+    }
+
+    @Nested
+    @DisplayName("动态效果测试")
+    class EffectTest {
+
+        @Test
+        void shouldSynchronizeBreathingAcrossZonesAndVehicles() {
+            LightSetting breathing = LightSetting.breathing(LightColor.oceanBlue(), 80);
+            int first = renderer.allocate();
+            int second = renderer.allocate();
+            renderer.reset(first, breathing);
+            renderer.reset(second, breathing);
+            byte[] other = new byte[renderer.frameBytes()];
+
+            renderer.render(first, 1_234L, 1, frame);
+            renderer.render(second, 1_234L, 1, other);
+
+            assertThat(Arrays.equals(frame, other)).isTrue();
+            for (int zone = 1; zone < LightFrameRenderer.ZONES.length; zone++) {
+                assertThat(level(frame, zone)).isEqualTo(level(frame, DASHBOARD));
+            }
+        }
+
+        @Test
+        void shouldModulateBrightnessOverPeriod() {
+            int slot = renderer.allocate();
+            renderer.reset(slot, setting("#FFFFFF", 100, LightMode.BREATHING, 1000));
+
+            renderer.render(slot, 0L, 1, frame);
+            int trough = level(frame, DASHBOARD);
+            renderer.render(slot, LightFrameRenderer.BREATHING_PERIOD_MS / 2, 2, frame);
+            int peak = level(frame, DASHBOARD);
+            renderer.render(slot, LightFrameRenderer.BREATHING_PERIOD_MS, 3, frame);
+
+            assertThat(trough).isEqualTo(30);
+            assertThat(peak).isEqualTo(100);
+            assertThat(level(frame, DASHBOARD)).isEqualTo(trough);
+        }
+
+        @Test
+        void shouldKeepStaticBrightnessConstant() {
+            int slot = renderer.allocate();
+            renderer.reset(slot, setting("#FFFFFF", 65, LightMode.STATIC, 1000));
+
+            for (long now = 0; now < 5_000; now += 333) {
+                renderer.render(slot, now, 1, frame);
+                assertThat(level(frame, DASHBOARD)).isEqualTo(65);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("槽位分配测试")
+    class SlotTest {
+
+        @Test
+        void shouldRejectAllocationWhenFull() {
+            for (int i = 0; i < renderer.capacity(); i++) {
+                assertThat(renderer.allocate()).isEqualTo(i);
+            }
+
+            assertThat(renderer.allocate()).isEqualTo(-1);
+            renderer.release(2);
+            assertThat(renderer.allocate()).isEqualTo(2);
+            assertThat(renderer.activeCount()).isEqualTo(renderer.capacity());
+        }
+    }
+}
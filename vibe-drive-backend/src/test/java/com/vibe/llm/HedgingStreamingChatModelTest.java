@@ -0,0 +1,251 @@
+package com.vibe.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.PartialThinking;
+import dev.langchain4j.model.chat.response.PartialThinkingContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * HedgingStreamingChatModel 测试（两个本地替身服务分别作为主/备端点）
+ */
+@DisplayName("HedgingStreamingChatModel 测试")
+class HedgingStreamingChatModelTest {
+
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(200);
+
+    private OpenAiStandInServer primaryServer;
+    private OpenAiStandInServer secondaryServer;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicInteger cancelledAttempts = new AtomicInteger();
+    private HedgingStreamingChatModel model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primaryServer = new OpenAiStandInServer(0).reply("from primary");
+        secondaryServer = new OpenAiStandInServer(0).reply("from secondary");
+        meterRegistry = new SimpleMeterRegistry();
+        model = new HedgingStreamingChatModel(ModelTier.STANDARD,
+                openAiModel(primaryServer), openAiModel(secondaryServer), HEDGE_DELAY, meterRegistry,
+                cancelledAttempts::incrementAndGet);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryServer.close();
+        secondaryServer.close();
+    }
+
+    @Test
+    @DisplayName("主端点及时输出时不发出对冲请求")
+    void shouldNotHedgeWhenPrimaryIsFast() throws Exception {
+        String text = chat();
+
+        assertThat(text).isEqualTo("from primary");
+        assertThat(secondaryServer.chatRequestCount()).isZero();
+        assertThat(model.hedgeRate()).isZero();
+    }
+
+    @Test
+    @DisplayName("主端点首 Token 超过对冲延迟时备用端点胜出，主端点输出被丢弃")
+    void shouldHedgeWhenPrimaryIsSlow() throws Exception {
+        primaryServer.firstTokenDelayMs(1500);
+
+        long start = System.nanoTime();
+        String text = chat();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(text).isEqualTo("from secondary");
+        assertThat(elapsedMs).isLessThan(1500);
+        assertThat(primaryServer.chatRequestCount()).isEqualTo(1);
+        assertThat(secondaryServer.chatRequestCount()).isEqualTo(1);
+        assertThat(model.hedgeRate()).isEqualTo(1.0);
+        assertThat(model.hedgeWinRate()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("vibe.llm.hedge.wins").tags("tier", "standard", "winner", "secondary")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("落败方产出首个输出时被取消，并补记请求结束")
+    void shouldCancelLosingAttempt() throws Exception {
+        primaryServer.firstTokenDelayMs(600);
+
+        assertThat(chat()).isEqualTo("from secondary");
+
+        // 主端点首 Token 到达时发现已落败，取消其流
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (cancelledAttempts.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(cancelledAttempts.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("vibe.llm.hedge.cancelled").tags("tier", "standard")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("落败方始终无输出时被标记取消，句柄到达即取消且输出不转发")
+    void shouldCancelSilentLoserWhenHandleArrives() throws Exception {
+        ScriptedModel silentPrimary = new ScriptedModel(null);
+        model = new HedgingStreamingChatModel(ModelTier.STANDARD,
+                silentPrimary, new ScriptedModel("from secondary"), HEDGE_DELAY, meterRegistry,
+                cancelledAttempts::incrementAndGet);
+
+        assertThat(chat()).isEqualTo("from secondary");
+        assertThat(cancelledAttempts.get()).isZero();
+
+        // 主端点在胜负已分后才产出首个输出：句柄到达即取消，输出不转发
+        RecordingHandle handle = new RecordingHandle();
+        silentPrimary.handler.onPartialResponse(new PartialResponse("late"), new PartialResponseContext(handle));
+        silentPrimary.handler.onPartialResponse(new PartialResponse("late"), new PartialResponseContext(handle));
+
+        assertThat(handle.cancelCalls).isEqualTo(1);
+        assertThat(cancelledAttempts.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("vibe.llm.hedge.cancelled").tags("tier", "standard")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("落败方已交出句柄时在另一方胜出的同时被取消")
+    void shouldCancelLoserAsSoonAsWinnerIsClaimed() throws Exception {
+        RecordingHandle handle = new RecordingHandle();
+        ScriptedModel thinkingPrimary = new ScriptedModel(null) {
+            @Override
+            public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+                super.chat(chatRequest, handler);
+                handler.onPartialThinking(new PartialThinking("..."), new PartialThinkingContext(handle));
+            }
+        };
+        model = new HedgingStreamingChatModel(ModelTier.STANDARD,
+                thinkingPrimary, new ScriptedModel("from secondary"), HEDGE_DELAY, meterRegistry,
+                cancelledAttempts::incrementAndGet);
+
+        assertThat(chat()).isEqualTo("from secondary");
+
+        assertThat(handle.cancelCalls).isEqualTo(1);
+        assertThat(cancelledAttempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("主端点直接失败时立即切换到备用端点")
+    void shouldFailOverImmediatelyOnPrimaryError() throws Exception {
+        primaryServer.failChat(true);
+        model = new HedgingStreamingChatModel(ModelTier.STANDARD,
+                openAiModel(primaryServer), openAiModel(secondaryServer), Duration.ofSeconds(5), meterRegistry,
+                cancelledAttempts::incrementAndGet);
+
+        long start = System.nanoTime();
+        String text = chat();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(text).isEqualTo("from secondary");
+        assertThat(elapsedMs).isLessThan(5000);
+    }
+
+    @Test
+    @DisplayName("两个端点都失败时向调用方报告错误")
+    void shouldReportErrorWhenBothFail() {
+        primaryServer.failChat(true);
+        secondaryServer.failChat(true);
+
+        CompletableFuture<String> result = chatAsync();
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+    }
+
+    private String chat() throws Exception {
+        return chatAsync().get(5, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<String> chatAsync() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        StringBuilder text = new StringBuilder();
+        ChatRequest request = ChatRequest.builder()
+                .messages(UserMessage.from("hello"))
+                .build();
+        model.chat(request, new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                text.append(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                future.complete(text.toString());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 脚本化模型：reply 为 null 时保持沉默（只记下回调），否则立即流式返回 reply
+     */
+    private static class ScriptedModel implements StreamingChatModel {
+
+        private final String reply;
+        private volatile StreamingChatResponseHandler handler;
+
+        private ScriptedModel(String reply) {
+            this.reply = reply;
+        }
+
+        @Override
+        public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+            this.handler = handler;
+            if (reply == null) {
+                return;
+            }
+            handler.onPartialResponse(new PartialResponse(reply), new PartialResponseContext(new RecordingHandle()));
+            handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from(reply)).build());
+        }
+    }
+
+    private static class RecordingHandle implements StreamingHandle {
+
+        private volatile int cancelCalls;
+
+        @Override
+        public void cancel() {
+            cancelCalls++;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelCalls > 0;
+        }
+    }
+
+    private static StreamingChatModel openAiModel(OpenAiStandInServer server) {
+        return OpenAiStreamingChatModel.builder()
+                .apiKey("test")
+                .baseUrl(server.baseUrl())
+                .modelName("stand-in")
+                .build();
+    }
+}
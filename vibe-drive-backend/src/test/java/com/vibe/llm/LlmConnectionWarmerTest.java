@@ -0,0 +1,78 @@
+package com.vibe.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LlmConnectionWarmer 测试（本地替身服务模拟建连开销）
+ */
+@DisplayName("LlmConnectionWarmer 测试")
+class LlmConnectionWarmerTest {
+
+    private static final long SETUP_DELAY_MS = 200;
+
+    private OpenAiStandInServer server;
+    private LlmHttpClientFactory httpClientFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new OpenAiStandInServer(SETUP_DELAY_MS);
+        // 本地替身为明文 HTTP/1.1
+        httpClientFactory = new LlmHttpClientFactory(1000, 5000, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("预热测得首请求惩罚，后续请求复用已建立的连接")
+    void shouldMeasureFirstRequestPenaltyAndReuseConnection() throws Exception {
+        LlmConnectionWarmer warmer = new LlmConnectionWarmer(
+            httpClientFactory, new SimpleMeterRegistry(), server.baseUrl(), "test-key", true, 1);
+
+        LlmConnectionWarmer.WarmupResult result = warmer.warmUp().get(10, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.coldMillis()).isGreaterThanOrEqualTo(SETUP_DELAY_MS);
+        assertThat(result.warmMillis()).isLessThan(SETUP_DELAY_MS);
+        assertThat(warmer.firstRequestPenaltyMillis()).isPositive();
+
+        // 预热后的“首个业务请求”不再承担建连开销
+        long start = System.nanoTime();
+        HttpResponse<Void> response = httpClientFactory.sharedClient().send(
+            HttpRequest.newBuilder(URI.create(server.baseUrl() + "/models")).GET().build(),
+            HttpResponse.BodyHandlers.discarding());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(elapsedMs).isLessThan(SETUP_DELAY_MS);
+        assertThat(server.connectionCount()).isEqualTo(1);
+        assertThat(server.requestCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("服务不可达时预热失败但不抛异常")
+    void shouldReportFailureWhenServerUnreachable() throws Exception {
+        String baseUrl = server.baseUrl();
+        server.close();
+        LlmConnectionWarmer warmer = new LlmConnectionWarmer(
+            httpClientFactory, new SimpleMeterRegistry(), baseUrl, "test-key", true, 1);
+
+        LlmConnectionWarmer.WarmupResult result = warmer.warmUp().get(10, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isFalse();
+        assertThat(warmer.firstRequestPenaltyMillis()).isEqualTo(-1);
+    }
+}
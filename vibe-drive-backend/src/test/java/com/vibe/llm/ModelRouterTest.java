@@ -0,0 +1,93 @@
+package com.vibe.llm;
+
+import com.vibe.model.enums.SafetyMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ModelRouter 单元测试
+ */
+@DisplayName("ModelRouter 测试")
+class ModelRouterTest {
+
+    private static ModelRouter router(boolean lightInFocusMode, int loadShedThreshold) {
+        return new ModelRouter(new SimpleMeterRegistry(), "standard", "light", "light",
+                lightInFocusMode, loadShedThreshold);
+    }
+
+    @Nested
+    @DisplayName("按轮次类型路由")
+    class ByTurnType {
+
+        @Test
+        @DisplayName("工具选择轮使用标准模型")
+        void shouldRouteToolSelectionToStandard() {
+            assertThat(router(true, 0).route(TurnType.TOOL_SELECTION, SafetyMode.L1_NORMAL))
+                    .isEqualTo(ModelTier.STANDARD);
+        }
+
+        @Test
+        @DisplayName("收尾轮、叙事生成与环境生成使用轻量模型")
+        void shouldRouteCheapTurnsToLight() {
+            ModelRouter router = router(true, 0);
+
+            assertThat(router.route(TurnType.FINALIZATION, SafetyMode.L1_NORMAL)).isEqualTo(ModelTier.LIGHT);
+            assertThat(router.route(TurnType.NARRATION, SafetyMode.L1_NORMAL)).isEqualTo(ModelTier.LIGHT);
+            assertThat(router.route(TurnType.ENVIRONMENT_GENERATION, null)).isEqualTo(ModelTier.LIGHT);
+        }
+
+        @Test
+        @DisplayName("档位可通过配置覆盖")
+        void shouldHonorConfiguredTiers() {
+            ModelRouter router = new ModelRouter(new SimpleMeterRegistry(), "light", "STANDARD", "standard", false, 0);
+
+            assertThat(router.route(TurnType.TOOL_SELECTION, SafetyMode.L1_NORMAL)).isEqualTo(ModelTier.LIGHT);
+            assertThat(router.route(TurnType.FINALIZATION, SafetyMode.L1_NORMAL)).isEqualTo(ModelTier.STANDARD);
+            assertThat(router.route(TurnType.ENVIRONMENT_GENERATION, null)).isEqualTo(ModelTier.STANDARD);
+        }
+    }
+
+    @Nested
+    @DisplayName("按安全模式与负载降级")
+    class Degradation {
+
+        @Test
+        @DisplayName("L2 专注模式下工具选择轮降级到轻量模型")
+        void shouldUseLightInFocusMode() {
+            assertThat(router(true, 0).route(TurnType.TOOL_SELECTION, SafetyMode.L2_FOCUS))
+                    .isEqualTo(ModelTier.LIGHT);
+            assertThat(router(false, 0).route(TurnType.TOOL_SELECTION, SafetyMode.L2_FOCUS))
+                    .isEqualTo(ModelTier.STANDARD);
+        }
+
+        @Test
+        @DisplayName("在途请求达到阈值时降级，回落后恢复")
+        void shouldShedLoadAboveThreshold() {
+            ModelRouter router = router(false, 2);
+
+            router.requestStarted();
+            assertThat(router.route(TurnType.TOOL_SELECTION, SafetyMode.L1_NORMAL)).isEqualTo(ModelTier.STANDARD);
+
+            router.requestStarted();
+            assertThat(router.inFlightRequests()).isEqualTo(2);
+            assertThat(router.route(TurnType.TOOL_SELECTION, SafetyMode.L1_NORMAL)).isEqualTo(ModelTier.LIGHT);
+
+            router.requestFinished();
+            assertThat(router.route(TurnType.TOOL_SELECTION, SafetyMode.L1_NORMAL)).isEqualTo(ModelTier.STANDARD);
+        }
+
+        @Test
+        @DisplayName("在途计数不会减到负数")
+        void shouldNotGoNegative() {
+            ModelRouter router = router(false, 1);
+
+            router.requestFinished();
+
+            assertThat(router.inFlightRequests()).isZero();
+        }
+    }
+}
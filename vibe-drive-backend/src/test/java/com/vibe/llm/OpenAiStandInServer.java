@@ -0,0 +1,149 @@
+package com.vibe.llm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地 OpenAI 兼容替身服务（测试用）
+ * 对每个新连接的首个请求注入固定延迟，模拟 DNS/TLS/建连开销；
+ * /chat/completions 以 SSE 分块返回固定回复，可配置首 Token 延迟或直接失败
+ */
+class OpenAiStandInServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final long connectionSetupDelayMs;
+    private final Set<String> knownConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger chatRequestCount = new AtomicInteger();
+    private volatile long firstTokenDelayMs;
+    private volatile String reply = "ok";
+    private volatile boolean failChat;
+
+    OpenAiStandInServer(long connectionSetupDelayMs) throws IOException {
+        this.connectionSetupDelayMs = connectionSetupDelayMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/models", this::handleModels);
+        this.server.createContext("/chat/completions", this::handleChatCompletions);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int requestCount() {
+        return requestCount.get();
+    }
+
+    int connectionCount() {
+        return knownConnections.size();
+    }
+
+    int chatRequestCount() {
+        return chatRequestCount.get();
+    }
+
+    OpenAiStandInServer firstTokenDelayMs(long firstTokenDelayMs) {
+        this.firstTokenDelayMs = firstTokenDelayMs;
+        return this;
+    }
+
+    /**
+     * 回复内容按空格切分为多个增量块（仅支持无需 JSON 转义的文本）
+     */
+    OpenAiStandInServer reply(String reply) {
+        this.reply = reply;
+        return this;
+    }
+
+    OpenAiStandInServer failChat(boolean failChat) {
+        this.failChat = failChat;
+        return this;
+    }
+
+    private void handleModels(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        simulateConnectionSetup(exchange);
+        byte[] body = "{\"object\":\"list\",\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private void handleChatCompletions(HttpExchange exchange) throws IOException {
+        chatRequestCount.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        simulateConnectionSetup(exchange);
+        if (failChat) {
+            byte[] body = "{\"error\":{\"message\":\"stand-in failure\",\"type\":\"server_error\"}}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(500, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+            return;
+        }
+        sleep(firstTokenDelayMs);
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream os = exchange.getResponseBody()) {
+            String[] words = reply.split(" ");
+            for (int i = 0; i < words.length; i++) {
+                String content = i == 0 ? words[i] : " " + words[i];
+                writeChunk(os, "{\"role\":\"assistant\",\"content\":\"" + content + "\"}", null);
+            }
+            writeChunk(os, "{}", "\"stop\"");
+            os.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            os.flush();
+        } catch (IOException e) {
+            // 客户端已放弃该流
+        }
+    }
+
+    private static void writeChunk(OutputStream os, String delta, String finishReason) throws IOException {
+        String chunk = "data: {\"id\":\"stand-in\",\"object\":\"chat.completion.chunk\",\"created\":0,"
+                + "\"model\":\"stand-in\",\"choices\":[{\"index\":0,\"delta\":" + delta
+                + ",\"finish_reason\":" + finishReason + "}]}\n\n";
+        os.write(chunk.getBytes(StandardCharsets.UTF_8));
+        os.flush();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 同一客户端端口即同一 TCP 连接，只有首个请求承担建连延迟
+     */
+    private void simulateConnectionSetup(HttpExchange exchange) {
+        String connection = exchange.getRemoteAddress().toString();
+        if (knownConnections.add(connection)) {
+            sleep(connectionSetupDelayMs);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.vibe.narrative;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * NarrativeTemplateEngine 单元测试
+ */
+class NarrativeTemplateEngineTest {
+
+    private static final String CUSTOM_PACK = """
+        {"name": "custom", "rules": [
+          {"id": "rain", "weathers": ["rainy"], "templates": ["雨天听{song}"]},
+          {"id": "default", "templates": ["出发吧"]}
+        ]}
+        """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("模板包加载测试")
+    class LoadTest {
+
+        @Test
+        void shouldUseBuiltInPackByDefault() {
+            NarrativeTemplateEngine engine = new NarrativeTemplateEngine(objectMapper, "");
+
+            assertThat(engine.pack().name()).isEqualTo("default");
+            assertThat(engine.render("midnight", "rainy", "urban", "calm", null)).isNotBlank();
+        }
+
+        @Test
+        void shouldLoadConfiguredPack() throws Exception {
+            Path file = Files.writeString(tempDir.resolve("templates.json"), CUSTOM_PACK);
+
+            NarrativeTemplateEngine engine = new NarrativeTemplateEngine(objectMapper, file.toString());
+
+            assertThat(engine.pack().stats().source()).isEqualTo(file.toString());
+            assertThat(engine.render("noon", "rainy", null, null, "稻香")).isEqualTo("雨天听《稻香》");
+            assertThat(engine.render("noon", "sunny", null, null, "稻香")).isEqualTo("出发吧");
+        }
+
+        @Test
+        void shouldFallBackToBuiltInPackWhenConfiguredPackIsMissing() {
+            NarrativeTemplateEngine engine = new NarrativeTemplateEngine(objectMapper,
+                tempDir.resolve("missing.json").toString());
+
+            assertThat(engine.pack().name()).isEqualTo("default");
+        }
+    }
+
+    @Nested
+    @DisplayName("热替换测试")
+    class ReloadTest {
+
+        @Test
+        void shouldSwapPackOnReload() throws Exception {
+            Path file = Files.writeString(tempDir.resolve("templates.json"), CUSTOM_PACK);
+            NarrativeTemplateEngine engine = new NarrativeTemplateEngine(objectMapper, file.toString());
+            NarrativeTemplatePack before = engine.pack();
+
+            Files.writeString(file, CUSTOM_PACK.replace("出发吧", "一路顺风"));
+            NarrativeTemplatePack reloaded = engine.reload();
+
+            assertThat(engine.pack()).isSameAs(reloaded).isNotSameAs(before);
+            assertThat(engine.render("noon", "sunny", null, null, null)).isEqualTo("一路顺风");
+            // 旧模板包不受影响
+            assertThat(before.render("noon", "sunny", null, null, null)).isEqualTo("出发吧");
+        }
+
+        @Test
+        void shouldKeepCurrentPackWhenReloadFails() throws Exception {
+            Path file = Files.writeString(tempDir.resolve("templates.json"), CUSTOM_PACK);
+            NarrativeTemplateEngine engine = new NarrativeTemplateEngine(objectMapper, file.toString());
+            NarrativeTemplatePack before = engine.pack();
+
+            Files.writeString(file, """
+                {"name": "broken", "rules": [{"id": "rain", "weathers": ["rainy"], "templates": ["雨天"]}]}
+                """);
+
+            assertThatThrownBy(engine::reload).isInstanceOf(IllegalArgumentException.class);
+            assertThat(engine.pack()).isSameAs(before);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.vibe.narrative;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.TimeOfDay;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * NarrativeTemplatePack 单元测试
+ */
+class NarrativeTemplatePackTest {
+
+    private static NarrativeTemplatePack pack;
+
+    @BeforeAll
+    static void loadDefaultPack() throws Exception {
+        try (InputStream in = NarrativeTemplatePackTest.class.getClassLoader()
+                .getResourceAsStream(NarrativeTemplateEngine.DEFAULT_PACK)) {
+            pack = NarrativeTemplatePack.load(new ObjectMapper(), in, NarrativeTemplateEngine.DEFAULT_PACK);
+        }
+    }
+
+    private static List<String> sources(NarrativeTemplate[] templates) {
+        return Arrays.stream(templates).map(NarrativeTemplate::source).toList();
+    }
+
+    @Nested
+    @DisplayName("规则匹配测试")
+    class SelectTest {
+
+        @Test
+        void shouldPreferSpecialWeatherOverTimeAndLocation() {
+            NarrativeTemplate[] snowy = pack.templates(TimeOfDay.MIDNIGHT, Weather.SNOWY, GpsTag.HIGHWAY, UserMood.TIRED);
+
+            assertThat(sources(snowy)).contains("窗外飘着雪，让温暖的音乐陪伴你。");
+            assertThat(pack.templates("evening", "foggy", "coastal", "happy")[0].source()).startsWith("雾气弥漫");
+        }
+
+        @Test
+        void shouldMatchTimeAndLocationCombinations() {
+            assertThat(pack.templates(TimeOfDay.MIDNIGHT, Weather.RAINY, GpsTag.URBAN, null)[0].source())
+                .startsWith("夜深了");
+            assertThat(pack.templates(TimeOfDay.NIGHT, Weather.CLOUDY, GpsTag.HIGHWAY, null)[0].source())
+                .startsWith("夜色中的高速路");
+            assertThat(pack.templates(TimeOfDay.MIDNIGHT, Weather.CLOUDY, GpsTag.HIGHWAY, null))
+                .isSameAs(pack.templates(TimeOfDay.NIGHT, Weather.CLOUDY, GpsTag.HIGHWAY, null));
+            assertThat(pack.templates("evening", "sunny", "mountain", "calm")[0].source()).startsWith("山间的黄昏");
+        }
+
+        @Test
+        void shouldFallBackToMoodThenDefault() {
+            assertThat(pack.templates(TimeOfDay.NOON, Weather.CLOUDY, GpsTag.TUNNEL, UserMood.TIRED)[0].source())
+                .startsWith("感觉有些疲惫");
+            assertThat(pack.templates(TimeOfDay.NOON, Weather.CLOUDY, GpsTag.TUNNEL, UserMood.EXCITED))
+                .isSameAs(pack.templates(TimeOfDay.NOON, Weather.CLOUDY, GpsTag.TUNNEL, UserMood.HAPPY));
+            assertThat(pack.templates(TimeOfDay.NOON, Weather.CLOUDY, GpsTag.TUNNEL, UserMood.CALM)[0].source())
+                .startsWith("享受旅途");
+        }
+
+        @Test
+        void shouldTreatUnknownOrMissingValuesAsUnconstrained() {
+            assertThat(pack.templates("dusk", "windy", null, "angry"))
+                .isSameAs(pack.templates((TimeOfDay) null, null, null, null));
+            assertThat(pack.templates(null, "snowy", null, null)[0].source()).startsWith("窗外飘着雪");
+            // 区分大小写，与原先的字符串比较一致
+            assertThat(pack.templates(null, "SNOWY", null, null)[0].source()).startsWith("享受旅途");
+        }
+
+        @Test
+        void shouldReportStats() {
+            NarrativeTemplatePack.Stats stats = pack.stats();
+
+            assertThat(stats.name()).isEqualTo("default");
+            assertThat(stats.rules()).isEqualTo(12);
+            assertThat(stats.reachable()).isEqualTo(12);
+            assertThat(stats.templates()).isEqualTo(29);
+            assertThat(stats.cells()).isEqualTo(8 * 6 * 9 * 6);
+        }
+    }
+
+    @Nested
+    @DisplayName("模板渲染测试")
+    class RenderTest {
+
+        @Test
+        void shouldFillSongSlot() {
+            NarrativeTemplate template = NarrativeTemplate.compile("雨夜的路上，愿{song}温暖你的归途。");
+
+            assertThat(template.slots()).isEqualTo(1);
+            assertThat(template.render("晴天")).isEqualTo("雨夜的路上，愿《晴天》温暖你的归途。");
+            assertThat(template.render(null)).isEqualTo("雨夜的路上，愿这首歌温暖你的归途。");
+            assertThat(template.render(" ")).isSameAs(template.render(null));
+        }
+
+        @Test
+        void shouldFillSlotsAtEdgesAndRepeated() {
+            NarrativeTemplate template = NarrativeTemplate.compile("{song}之后还是{song}");
+
+            assertThat(template.slots()).isEqualTo(2);
+            assertThat(template.render("稻香")).isEqualTo("《稻香》之后还是《稻香》");
+            assertThat(template.render(null)).isEqualTo("这首歌之后还是这首歌");
+        }
+
+        @Test
+        void shouldReturnSharedTextWithoutSlot() {
+            NarrativeTemplate template = NarrativeTemplate.compile("一路有歌，一路有你。");
+
+            assertThat(template.slots()).isZero();
+            assertThat(template.render("晴天")).isSameAs(template.render(null));
+        }
+
+        @Test
+        void shouldRenderOneOfMatchingTemplates() {
+            List<String> candidates = sources(pack.templates(TimeOfDay.MORNING, Weather.SUNNY, GpsTag.URBAN, UserMood.HAPPY))
+                .stream().map(source -> source.replace(NarrativeTemplate.SONG_SLOT, "《晴天》")).toList();
+
+            for (int i = 0; i < 50; i++) {
+                assertThat(pack.render(TimeOfDay.MORNING, Weather.SUNNY, GpsTag.URBAN, UserMood.HAPPY, "晴天"))
+                    .isIn(candidates);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("模板包校验测试")
+    class ValidationTest {
+
+        @Test
+        void shouldRejectPackWithoutCatchAllRule() {
+            NarrativeTemplatePack.Definition definition = new NarrativeTemplatePack.Definition("partial", List.of(
+                new NarrativeTemplatePack.Rule("snowy", null, List.of("snowy"), null, null, List.of("下雪了"))));
+
+            assertThatThrownBy(() -> NarrativeTemplatePack.compile(definition, "test"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("兜底");
+        }
+
+        @Test
+        void shouldRejectUnknownValue() {
+            NarrativeTemplatePack.Definition definition = new NarrativeTemplatePack.Definition("typo", List.of(
+                new NarrativeTemplatePack.Rule("windy", null, List.of("windy"), null, null, List.of("起风了")),
+                new NarrativeTemplatePack.Rule("default", null, null, null, null, List.of("一路有歌"))));
+
+            assertThatThrownBy(() -> NarrativeTemplatePack.compile(definition, "test"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("windy");
+        }
+
+        @Test
+        void shouldRejectRuleWithoutTemplates() {
+            assertThatThrownBy(() -> new NarrativeTemplatePack.Rule("empty", null, null, null, null, List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.vibe.narrative;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SentenceSplitter 单元测试
+ */
+class SentenceSplitterTest {
+
+    private final List<String> sentences = new ArrayList<>();
+
+    private SentenceSplitter splitter(int maxLength) {
+        return new SentenceSplitter(maxLength, sentences::add);
+    }
+
+    @Nested
+    @DisplayName("切句测试")
+    class SplitTest {
+
+        @Test
+        void shouldEmitSentenceAsSoonAsNextDeltaArrives() {
+            SentenceSplitter splitter = splitter(0);
+
+            splitter.accept("夜深了");
+            assertThat(sentences).isEmpty();
+            splitter.accept("。");
+            // 句号在末尾，可能还有右引号，先不切
+            assertThat(sentences).isEmpty();
+            splitter.accept("雨");
+            assertThat(sentences).containsExactly("夜深了。");
+
+            splitter.accept("声很轻！");
+            splitter.flush();
+            assertThat(sentences).containsExactly("夜深了。", "雨声很轻！");
+        }
+
+        @Test
+        void shouldSplitSeveralSentencesInOneDelta() {
+            SentenceSplitter splitter = splitter(0);
+
+            splitter.accept("早安。阳光正好！出发吧？");
+            splitter.flush();
+
+            assertThat(sentences).containsExactly("早安。", "阳光正好！", "出发吧？");
+        }
+
+        @Test
+        void shouldKeepClosingQuotesAndRepeatedTerminators() {
+            SentenceSplitter splitter = splitter(0);
+
+            splitter.accept("他说：“到家了。”");
+            splitter.accept("真好！！");
+            splitter.accept("走吧");
+            splitter.flush();
+
+            assertThat(sentences).containsExactly("他说：“到家了。”", "真好！！", "走吧");
+        }
+
+        @Test
+        void shouldNotSplitDecimalNumbers() {
+            SentenceSplitter splitter = splitter(0);
+
+            splitter.accept("还有 3.5 公里. Almost home.");
+            splitter.flush();
+
+            assertThat(sentences).containsExactly("还有 3.5 公里.", "Almost home.");
+        }
+
+        @Test
+        void shouldTrimWhitespaceAndSkipEmptySentences() {
+            SentenceSplitter splitter = splitter(0);
+
+            splitter.accept("  第一句。\n\n  第二句。  ");
+            splitter.flush();
+            splitter.flush();
+
+            assertThat(sentences).containsExactly("第一句。", "第二句。");
+        }
+    }
+
+    @Nested
+    @DisplayName("超长句测试")
+    class LongSentenceTest {
+
+        @Test
+        void shouldCutAtLastCommaWhenTooLong() {
+            SentenceSplitter splitter = splitter(12);
+
+            splitter.accept("窗外的雨一直下，路灯");
+            assertThat(sentences).isEmpty();
+            splitter.accept("一盏盏亮起，音乐");
+
+            assertThat(sentences).containsExactly("窗外的雨一直下，路灯一盏盏亮起，");
+            splitter.flush();
+            assertThat(sentences).containsExactly("窗外的雨一直下，路灯一盏盏亮起，", "音乐");
+        }
+
+        @Test
+        void shouldWaitWhenNoCommaAvailable() {
+            SentenceSplitter splitter = splitter(4);
+
+            splitter.accept("一二三四五六");
+            assertThat(sentences).isEmpty();
+        }
+
+        @Test
+        void shouldRejectNegativeLength() {
+            assertThatThrownBy(() -> new SentenceSplitter(-1, sentences::add))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
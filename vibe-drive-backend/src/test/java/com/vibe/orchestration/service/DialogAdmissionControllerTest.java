@@ -0,0 +1,204 @@
+package com.vibe.orchestration.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * DialogAdmissionController 单元测试
+ */
+@DisplayName("DialogAdmissionController 测试")
+class DialogAdmissionControllerTest {
+
+    private static final long TARGET_LATENCY_MS = 1000;
+
+    private final AtomicLong clock = new AtomicLong(1);
+
+    private DialogAdmissionController controller(int initialLimit, int perSessionLimit, int queueCapacity, long queueTimeoutMs) {
+        return controller(initialLimit, perSessionLimit, queueCapacity, queueTimeoutMs, Runnable::run);
+    }
+
+    private DialogAdmissionController controller(int initialLimit, int perSessionLimit, int queueCapacity, long queueTimeoutMs,
+                                                 Executor admitter) {
+        return new DialogAdmissionController(new SimpleMeterRegistry(), initialLimit, 1, 16, TARGET_LATENCY_MS, 0.5,
+                perSessionLimit, queueCapacity, queueTimeoutMs, DialogAdmissionController.OverflowPolicy.REJECT,
+                admitter, clock::get);
+    }
+
+    @Nested
+    @DisplayName("并发与排队")
+    class Admission {
+
+        @Test
+        @DisplayName("名额充足时立即放行")
+        void shouldAdmitImmediatelyUnderLimit() {
+            DialogAdmissionController controller = controller(2, 2, 4, 1000);
+
+            assertThat(controller.acquire("a").isDone()).isTrue();
+            assertThat(controller.acquire("b").isDone()).isTrue();
+            assertThat(controller.inFlight()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("同一会话超过上限时立即拒绝")
+        void shouldRejectSessionOverLimit() {
+            DialogAdmissionController controller = controller(4, 1, 4, 1000);
+            controller.acquire("a");
+
+            CompletableFuture<DialogAdmissionController.Ticket> second = controller.acquire("a");
+
+            assertRejected(second, DialogRejectedException.Reason.SESSION_LIMIT);
+        }
+
+        @Test
+        @DisplayName("全局名额满时排队，释放后按 FIFO 放行")
+        void shouldQueueAndAdmitInOrder() throws Exception {
+            DialogAdmissionController controller = controller(1, 2, 4, 5000);
+            DialogAdmissionController.Ticket first = controller.acquire("a").get();
+            CompletableFuture<DialogAdmissionController.Ticket> second = controller.acquire("b");
+            CompletableFuture<DialogAdmissionController.Ticket> third = controller.acquire("c");
+
+            assertThat(second.isDone()).isFalse();
+            assertThat(controller.queued()).isEqualTo(2);
+
+            // 慢完成：上限保持为 1，只放行队首
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS * 2));
+            first.release(true);
+
+            assertThat(second.isDone()).isTrue();
+            assertThat(third.isDone()).isFalse();
+        }
+
+        @Test
+        @DisplayName("队列已满时立即拒绝")
+        void shouldRejectWhenQueueFull() {
+            DialogAdmissionController controller = controller(1, 2, 1, 5000);
+            controller.acquire("a");
+            controller.acquire("b");
+
+            assertRejected(controller.acquire("c"), DialogRejectedException.Reason.QUEUE_FULL);
+        }
+
+        @Test
+        @DisplayName("排队超过期限时拒绝并归还会话名额")
+        void shouldRejectAfterQueueTimeout() throws Exception {
+            DialogAdmissionController controller = controller(1, 1, 4, 50);
+            controller.acquire("a");
+
+            CompletableFuture<DialogAdmissionController.Ticket> waiting = controller.acquire("b");
+
+            assertThatThrownBy(() -> waiting.get(2, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(DialogRejectedException.class);
+            assertThat(controller.queued()).isZero();
+            // 会话 b 的名额已归还，可以重新排队
+            assertThat(controller.acquire("b").isCompletedExceptionally()).isFalse();
+        }
+
+        @Test
+        @DisplayName("重复释放只生效一次")
+        void shouldReleaseOnce() throws Exception {
+            DialogAdmissionController controller = controller(2, 2, 4, 1000);
+            DialogAdmissionController.Ticket ticket = controller.acquire("a").get();
+            controller.acquire("b");
+
+            ticket.release(true);
+            ticket.release(true);
+
+            assertThat(controller.inFlight()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("排队者在执行器上被唤醒，不在释放方线程上启动")
+        void shouldAdmitWaitersOnExecutor() throws Exception {
+            List<Runnable> pending = new ArrayList<>();
+            DialogAdmissionController controller = controller(1, 2, 4, 5000, pending::add);
+            DialogAdmissionController.Ticket first = controller.acquire("a").get();
+            CompletableFuture<DialogAdmissionController.Ticket> second = controller.acquire("b");
+
+            first.release(true);
+
+            assertThat(second.isDone()).isFalse();
+            assertThat(controller.inFlight()).isEqualTo(1);
+            assertThat(pending).hasSize(1);
+
+            pending.forEach(Runnable::run);
+            assertThat(second.isDone()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("自适应上限")
+    class AdaptiveLimit {
+
+        @Test
+        @DisplayName("快速完成时逐步提高上限")
+        void shouldIncreaseOnFastCompletions() throws Exception {
+            DialogAdmissionController controller = controller(2, 8, 4, 1000);
+
+            for (int i = 0; i < 10; i++) {
+                DialogAdmissionController.Ticket ticket = controller.acquire("a").get();
+                clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+                ticket.release(true);
+            }
+
+            assertThat(controller.currentLimit()).isGreaterThan(2);
+        }
+
+        @Test
+        @DisplayName("慢调用或失败时按比例收缩，同一窗口内只收缩一次")
+        void shouldDecreaseOnSlowCompletions() throws Exception {
+            DialogAdmissionController controller = controller(8, 8, 4, 1000);
+            DialogAdmissionController.Ticket slow1 = controller.acquire("a").get();
+            DialogAdmissionController.Ticket slow2 = controller.acquire("b").get();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS * 2));
+
+            slow1.release(true);
+            slow2.release(false);
+
+            assertThat(controller.currentLimit()).isEqualTo(4);
+
+            DialogAdmissionController.Ticket slow3 = controller.acquire("c").get();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS * 2));
+            slow3.release(false);
+
+            assertThat(controller.currentLimit()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("未调用 LLM 的释放不调整上限")
+        void shouldNotAdjustOnUnmeasuredRelease() throws Exception {
+            DialogAdmissionController controller = controller(2, 8, 4, 1000);
+
+            for (int i = 0; i < 10; i++) {
+                controller.acquire("a").get().releaseUnmeasured();
+            }
+
+            assertThat(controller.currentLimit()).isEqualTo(2);
+            assertThat(controller.inFlight()).isZero();
+        }
+    }
+
+    private static void assertRejected(CompletableFuture<DialogAdmissionController.Ticket> future,
+                                       DialogRejectedException.Reason reason) {
+        assertThat(future.isCompletedExceptionally()).isTrue();
+        try {
+            future.join();
+        } catch (Exception e) {
+            assertThat(e.getCause()).isInstanceOf(DialogRejectedException.class);
+            assertThat(((DialogRejectedException) e.getCause()).getReason()).isEqualTo(reason);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.vibe.orchestration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.event.AgentStatusChangedEvent;
+import com.vibe.sse.SseEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LlmCircuitBreaker 单元测试（手动推进时钟）
+ */
+@DisplayName("LlmCircuitBreaker 测试")
+class LlmCircuitBreakerTest {
+
+    private static final long OPEN_DURATION_MS = 30_000;
+    private static final long SLOW_P95_MS = 10_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<AgentStatusChangedEvent> events = new CopyOnWriteArrayList<>();
+    private LlmCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        SseEventPublisher publisher = new SseEventPublisher(new ObjectMapper()) {
+            @Override
+            public void publishToAll(String eventType, Object data) {
+                events.add((AgentStatusChangedEvent) data);
+            }
+        };
+        breaker = new LlmCircuitBreaker(publisher, new SimpleMeterRegistry(),
+                10, 5, 0.5, SLOW_P95_MS, OPEN_DURATION_MS, clock::get);
+    }
+
+    @Nested
+    @DisplayName("熔断")
+    class Tripping {
+
+        @Test
+        @DisplayName("样本不足时不熔断")
+        void shouldNotTripBelowMinimumCalls() {
+            for (int i = 0; i < 4; i++) {
+                call(false, 100);
+            }
+
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+        }
+
+        @Test
+        @DisplayName("错误率达到阈值时熔断并广播降级事件")
+        void shouldTripOnFailureRate() {
+            call(true, 100);
+            call(true, 100);
+            call(false, 100);
+            call(false, 100);
+            call(true, 100);
+
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).isDegraded()).isTrue();
+            assertThat(breaker.tryAcquire()).isNull();
+        }
+
+        @Test
+        @DisplayName("P95 延迟超过阈值时熔断")
+        void shouldTripOnSlowCalls() {
+            for (int i = 0; i < 5; i++) {
+                call(false, SLOW_P95_MS + 1);
+            }
+
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+            assertThat(events.get(0).error()).contains("p95");
+        }
+
+        @Test
+        @DisplayName("同一许可重复记录只计一次")
+        void shouldRecordPermitOnce() {
+            for (int i = 0; i < 4; i++) {
+                LlmCircuitBreaker.Permit permit = breaker.tryAcquire();
+                permit.recordSuccess();
+                permit.recordFailure();
+                permit.recordFailure();
+            }
+            call(true, 100);
+
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+        }
+    }
+
+    @Nested
+    @DisplayName("恢复")
+    class Recovery {
+
+        @BeforeEach
+        void trip() {
+            for (int i = 0; i < 5; i++) {
+                call(true, 100);
+            }
+            events.clear();
+        }
+
+        @Test
+        @DisplayName("熔断期内拒绝，期满后只放行一个试探请求")
+        void shouldAllowSingleTrialAfterOpenDuration() {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MS - 1));
+            assertThat(breaker.tryAcquire()).isNull();
+
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            LlmCircuitBreaker.Permit trial = breaker.tryAcquire();
+
+            assertThat(trial).isNotNull();
+            assertThat(trial.isTrial()).isTrue();
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.HALF_OPEN);
+            assertThat(breaker.tryAcquire()).isNull();
+        }
+
+        @Test
+        @DisplayName("试探成功后关闭并广播恢复事件")
+        void shouldCloseAfterSuccessfulTrial() {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MS));
+
+            breaker.tryAcquire().recordSuccess();
+
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).isRecovered()).isTrue();
+            // 窗口已清空，单次失败不会立即熔断
+            call(true, 100);
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+        }
+
+        @Test
+        @DisplayName("试探失败后重新熔断，不重复广播降级事件")
+        void shouldReopenAfterFailedTrial() {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MS));
+
+            breaker.tryAcquire().recordFailure();
+
+            assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+            assertThat(breaker.tryAcquire()).isNull();
+            assertThat(events).isEmpty();
+        }
+    }
+
+    private void call(boolean fail, long latencyMs) {
+        LlmCircuitBreaker.Permit permit = breaker.tryAcquire();
+        assertThat(permit).isNotNull();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        if (fail) {
+            permit.recordFailure();
+        } else {
+            permit.recordSuccess();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.vibe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.catalog.CatalogLoadStats;
+import com.vibe.model.MusicRecommendation;
+import com.vibe.model.Song;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MusicService 曲库重载测试
+ */
+class MusicServiceReloadTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SessionVariantStore sessionVariants = new SessionVariantStore(1000);
+    private MusicService musicService;
+
+    private static String library(String id, String genre) {
+        return """
+            {"songs": [
+              {"id": "%s", "title": "Song", "artist": "Artist", "duration": 200, "bpm": 75, "genre": "%s", "mood": ["calm"]}
+            ]}
+            """.formatted(id, genre);
+    }
+
+    private MusicService start(Path catalog) {
+        return start(catalog, "ranked");
+    }
+
+    private MusicService start(Path catalog, String strategy) {
+        return start(catalog, strategy, "");
+    }
+
+    private MusicService start(Path catalog, String strategy, String variantsPath) {
+        musicService = new MusicService(new ObjectMapper(), new RecentlyPlayedStore(30, 1000), sessionVariants,
+            new SimpleMeterRegistry(), catalog.toString(), variantsPath, "", false, strategy, 64);
+        musicService.init();
+        return musicService;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (musicService != null) {
+            musicService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldSwapCatalogAfterReload() throws Exception {
+        Path catalog = tempDir.resolve("songs.json");
+        Files.writeString(catalog, library("v1", "jazz"));
+        start(catalog);
+        assertThat(musicService.recommend("calm", "evening", 1, null).songs().get(0).id()).isEqualTo("v1");
+
+        Files.writeString(catalog, library("v2", "jazz"));
+        CatalogLoadStats stats = musicService.reload().get(10, TimeUnit.SECONDS);
+
+        MusicRecommendation after = musicService.recommend("calm", "evening", 1, null);
+        assertThat(after.songs().get(0).id()).isEqualTo("v2");
+        // 候选表随曲库一起替换，两次推荐都命中
+        assertThat(musicService.tableHitRate()).isEqualTo(1.0);
+        assertThat(stats.songs()).isEqualTo(1);
+        assertThat(musicService.lastLoadStats()).isEqualTo(stats);
+        assertThat(musicService.isReloading()).isFalse();
+    }
+
+    @Test
+    void shouldSwapVectorIndexAfterReload() throws Exception {
+        Path catalog = tempDir.resolve("songs.json");
+        Files.writeString(catalog, library("v1", "jazz"));
+        start(catalog, "vector");
+        assertThat(musicService.strategy()).isEqualTo(MusicService.Strategy.VECTOR);
+        assertThat(musicService.recommend("calm", "evening", 1, null).songs().get(0).id()).isEqualTo("v1");
+
+        Files.writeString(catalog, library("v2", "folk"));
+        musicService.reload().get(10, TimeUnit.SECONDS);
+
+        assertThat(musicService.recommend("calm", "evening", 1, null).songs().get(0).id()).isEqualTo("v2");
+    }
+
+    @Test
+    void shouldApplyVariantOverlayPerSessionAndAcrossReload() throws Exception {
+        Path catalog = tempDir.resolve("songs.json");
+        Files.writeString(catalog, library("v1", "jazz"));
+        Path variants = tempDir.resolve("variants.json");
+        Files.writeString(variants, """
+            {"variants": [{"name": "eu", "removals": ["v1", "v2"], "additions": [
+              {"id": "eu-1", "title": "Regional", "artist": "Artist", "duration": 200, "bpm": 75, "genre": "jazz", "mood": ["calm"]}
+            ]}]}
+            """);
+        start(catalog, "ranked", variants.toString());
+        sessionVariants.assign("car-eu", "eu");
+
+        assertThat(musicService.recommend("calm", "evening", 1, null, "car-eu").songs())
+            .extracting(Song::id).containsExactly("eu-1");
+        assertThat(musicService.recommend("calm", "evening", 1, null, "car-cn").songs())
+            .extracting(Song::id).containsExactly("v1");
+        assertThat(musicService.variantStats()).hasSize(1);
+        assertThat(musicService.variantStats().get(0).removals()).isEqualTo(1);
+
+        // 覆盖层随曲库一起重新解析到新的基础曲库上
+        Files.writeString(catalog, library("v2", "jazz"));
+        musicService.reload().get(10, TimeUnit.SECONDS);
+
+        assertThat(musicService.recommend("calm", "evening", 1, null, "car-eu").songs())
+            .extracting(Song::id).containsExactly("eu-1");
+        assertThat(musicService.recommend("calm", "evening", 1, null, "car-cn").songs())
+            .extracting(Song::id).containsExactly("v2");
+    }
+
+    @Test
+    void shouldKeepCurrentCatalogWhenReloadFails() throws Exception {
+        Path catalog = tempDir.resolve("songs.json");
+        Files.writeString(catalog, library("v1", "jazz"));
+        start(catalog);
+
+        Files.writeString(catalog, "{\"songs\": [ broken");
+
+        assertThatThrownBy(() -> musicService.reload().get(10, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class);
+        assertThat(musicService.recommend("calm", "evening", 1, null).songs().get(0).id()).isEqualTo("v1");
+        assertThat(musicService.getLibrarySize()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFallBackToMockLibraryWhenCatalogMissing() {
+        start(tempDir.resolve("missing.vcat"));
+
+        assertThat(musicService.getLibrarySize()).isEqualTo(30);
+    }
+}
@@ -88,6 +88,14 @@ class MusicServiceTest {
             assertThat(result.songs()).isNotEmpty();
         }
 
+        @Test
+        void shouldAvoidRepeatingSongsWithinSession() {
+            MusicRecommendation first = musicService.recommend("calm", "evening", 1, null, "repeat-session");
+            MusicRecommendation second = musicService.recommend("calm", "evening", 1, null, "repeat-session");
+
+            assertThat(second.songs()).doesNotContainAnyElementsOf(first.songs());
+        }
+
         @Test
         void shouldLimitSongsToFive() {
             MusicRecommendation result = musicService.recommend("calm", "evening", 1, null);
@@ -0,0 +1,387 @@
+package com.vibe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.agent.NarrativeAgent;
+import com.vibe.agent.NarrativeAgentFactory;
+import com.vibe.model.Environment;
+import com.vibe.model.Narrative;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.TimeOfDay;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+import com.vibe.model.event.NarrativeSentenceEvent;
+import com.vibe.narrative.NarrativeTemplateEngine;
+import com.vibe.orchestration.service.DialogAdmissionController;
+import com.vibe.orchestration.service.DialogRejectedException;
+import com.vibe.orchestration.service.LlmCircuitBreaker;
+import com.vibe.sse.SseEventPublisher;
+import com.vibe.tts.LocalSpeechSynthesizer;
+import com.vibe.tts.TtsService;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.tool.BeforeToolExecution;
+import dev.langchain4j.service.tool.ToolExecution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * NarrativeStreamService 单元测试
+ */
+class NarrativeStreamServiceTest {
+
+    private static final String SESSION = "narrative-session";
+
+    private static final Environment NIGHT = Environment.builder()
+        .gpsTag(GpsTag.HIGHWAY)
+        .weather(Weather.RAINY)
+        .speed(60)
+        .userMood(UserMood.TIRED)
+        .timeOfDay(TimeOfDay.MIDNIGHT)
+        .build();
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DialogAdmissionController admissionController = admission(8, "reject");
+
+    private DialogAdmissionController admission(int perSessionLimit, String overflow) {
+        return new DialogAdmissionController(meterRegistry, 8, 1, 64, 15_000, 0.75, perSessionLimit, 0, 1000, overflow);
+    }
+
+    private NarrativeStreamService service(FakeTokenStream tokens) {
+        return service(tokens, admissionController);
+    }
+
+    private NarrativeStreamService service(FakeTokenStream tokens, DialogAdmissionController admissionController) {
+        return service(tokens, admissionController, 30_000);
+    }
+
+    private NarrativeStreamService service(FakeTokenStream tokens, DialogAdmissionController admissionController,
+                                           long callTimeoutMs) {
+        TtsService ttsService = new TtsService(new LocalSpeechSynthesizer(), meterRegistry, true, dir.toString(), 16);
+        NarrativeService narrativeService = new NarrativeService(
+            new NarrativeTemplateEngine(new ObjectMapper(), ""), ttsService);
+        NarrativeAgentFactory agentFactory = new NarrativeAgentFactory(null, null, null) {
+            @Override
+            public NarrativeAgent createAgent(SafetyMode safetyMode) {
+                return prompt -> tokens;
+            }
+        };
+        LlmCircuitBreaker circuitBreaker = new LlmCircuitBreaker(new SseEventPublisher(new ObjectMapper()),
+            meterRegistry, 20, 10, 0.5, 20_000, 30_000);
+        // 同步执行器：合成与推送在调用线程上完成，便于断言顺序
+        return new NarrativeStreamService(agentFactory, narrativeService, ttsService, circuitBreaker,
+            admissionController, meterRegistry, 40, 200, callTimeoutMs, Runnable::run);
+    }
+
+    /**
+     * 按给定分段同步回放的 TokenStream；error 非空时输出分段后以错误结束，hanging 时输出分段后永不结束
+     */
+    private static final class FakeTokenStream implements TokenStream {
+
+        private final List<String> deltas;
+        private final RuntimeException error;
+        private final List<String> trace;
+        private boolean hanging;
+        private Consumer<String> partial = s -> { };
+        private Consumer<ChatResponse> complete = r -> { };
+        private Consumer<Throwable> onError = e -> { };
+
+        private FakeTokenStream(List<String> deltas, RuntimeException error, List<String> trace) {
+            this.deltas = deltas;
+            this.error = error;
+            this.trace = trace;
+        }
+
+        private FakeTokenStream hanging() {
+            this.hanging = true;
+            return this;
+        }
+
+        @Override
+        public TokenStream onPartialResponse(Consumer<String> consumer) {
+            this.partial = consumer;
+            return this;
+        }
+
+        @Override
+        public TokenStream onRetrieved(Consumer<List<Content>> consumer) {
+            return this;
+        }
+
+        @Override
+        public TokenStream beforeToolExecution(Consumer<BeforeToolExecution> consumer) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onToolExecuted(Consumer<ToolExecution> consumer) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onCompleteResponse(Consumer<ChatResponse> consumer) {
+            this.complete = consumer;
+            return this;
+        }
+
+        @Override
+        public TokenStream onError(Consumer<Throwable> consumer) {
+            this.onError = consumer;
+            return this;
+        }
+
+        @Override
+        public TokenStream ignoreErrors() {
+            return this;
+        }
+
+        @Override
+        public void start() {
+            for (String delta : deltas) {
+                trace.add("delta:" + delta);
+                partial.accept(delta);
+            }
+            if (hanging) {
+                return;
+            }
+            if (error != null) {
+                onError.accept(error);
+            } else {
+                complete.accept(null);
+            }
+        }
+    }
+
+    /**
+     * 记录回调顺序的监听器
+     */
+    private static final class RecordingListener implements NarrativeStreamService.Listener {
+
+        private final List<String> trace;
+        private final List<NarrativeSentenceEvent> sentences = new ArrayList<>();
+        private volatile Narrative completed;
+        private Throwable error;
+
+        private RecordingListener(List<String> trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public void onSentence(NarrativeSentenceEvent event) {
+            trace.add("sentence:" + event.text());
+            sentences.add(event);
+        }
+
+        @Override
+        public void onComplete(Narrative narrative) {
+            trace.add("complete");
+            completed = narrative;
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    @Nested
+    @DisplayName("逐句推送测试")
+    class SentenceTest {
+
+        @Test
+        void shouldEmitEachSentenceBeforeModelFinishes() {
+            List<String> trace = new ArrayList<>();
+            FakeTokenStream tokens = new FakeTokenStream(List.of("夜深了，", "雨很轻。", "慢慢开", "，注意休息。"), null, trace);
+            RecordingListener listener = new RecordingListener(trace);
+
+            service(tokens).stream(SESSION, NIGHT, null, null, true, listener);
+
+            // 首句在模型输出下一段时即推送，不等全文
+            assertThat(trace).containsExactly(
+                "delta:夜深了，", "delta:雨很轻。", "delta:慢慢开", "sentence:夜深了，雨很轻。",
+                "delta:，注意休息。", "sentence:慢慢开，注意休息。", "complete");
+            assertThat(listener.sentences.get(0).index()).isZero();
+            assertThat(listener.sentences.get(1).index()).isEqualTo(1);
+            assertThat(listener.completed.text()).isEqualTo("夜深了，雨很轻。慢慢开，注意休息。");
+            assertThat(listener.error).isNull();
+        }
+
+        @Test
+        void shouldAttachAudioPerSentence() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("夜深了。雨很轻。"), null, new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, true, listener);
+
+            assertThat(listener.sentences).hasSize(2);
+            for (NarrativeSentenceEvent event : listener.sentences) {
+                assertThat(event.audio()).isNotNull();
+            }
+            assertThat(listener.sentences.get(0).audio().hash())
+                .isNotEqualTo(listener.sentences.get(1).audio().hash());
+            assertThat(listener.completed.audio()).isNull();
+            assertThat(meterRegistry.get("vibe.narrative.stream.first_sentence").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("vibe.narrative.stream.sentences").counter().count()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldSkipAudioWhenDisabled() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("夜深了。"), null, new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            assertThat(listener.sentences).hasSize(1);
+            assertThat(listener.sentences.get(0).audio()).isNull();
+        }
+
+        @Test
+        void shouldUseSameVoiceAsTemplateNarrative() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("夜深了。"), null, new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            assertThat(listener.completed.speed()).isEqualTo(0.85);
+            assertThat(listener.completed.volume()).isEqualTo(0.6);
+        }
+    }
+
+    @Nested
+    @DisplayName("回退测试")
+    class FallbackTest {
+
+        @Test
+        void shouldFallBackToTemplateWhenModelFailsBeforeFirstSentence() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of(), new RuntimeException("boom"), new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            assertThat(listener.error).isNull();
+            assertThat(listener.sentences).isNotEmpty();
+            assertThat(listener.completed.text()).isNotBlank();
+            assertThat(meterRegistry.get("vibe.narrative.stream.fallbacks").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldDropUnfinishedTextWhenFallingBackToTemplate() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("残片XYZ"), new RuntimeException("boom"), new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            // 模型出错前的残片不成句，不能拼到模板前面播报
+            assertThat(listener.completed.text()).isNotBlank().doesNotContain("残片XYZ");
+            for (NarrativeSentenceEvent sentence : listener.sentences) {
+                assertThat(sentence.text()).doesNotContain("残片XYZ");
+            }
+            assertThat(meterRegistry.get("vibe.narrative.stream.fallbacks").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldKeepPartialTextWhenModelFailsMidway() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("夜深了。", "雨很"), new RuntimeException("boom"), new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            // 未成句的残片不播报
+            assertThat(listener.sentences).hasSize(1);
+            assertThat(listener.completed.text()).isEqualTo("夜深了。");
+            assertThat(meterRegistry.get("vibe.narrative.stream.fallbacks").counter().count()).isZero();
+        }
+
+        @Test
+        void shouldFallBackToTemplateWhenModelReturnsNothing() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("  "), null, new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            assertThat(listener.completed.text()).isNotBlank();
+            assertThat(meterRegistry.get("vibe.narrative.stream.fallbacks").counter().count()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("准入测试")
+    class AdmissionTest {
+
+        @Test
+        void shouldReleaseTicketWhenStreamCompletes() {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("夜深了。"), null, new ArrayList<>()))
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            assertThat(listener.completed).isNotNull();
+            assertThat(admissionController.inFlight()).isZero();
+        }
+
+        @Test
+        void shouldFallBackToTemplateWhenRejectedWithLocalPlan() {
+            DialogAdmissionController admission = admission(1, "local-plan");
+            admission.acquire(SESSION);
+            List<String> trace = new ArrayList<>();
+            RecordingListener listener = new RecordingListener(trace);
+
+            service(new FakeTokenStream(List.of("夜深了。"), null, trace), admission)
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            // 会话名额已被对话占用：不调用模型，直接使用模板
+            assertThat(trace).noneMatch(entry -> entry.startsWith("delta:"));
+            assertThat(listener.completed.text()).isNotBlank();
+            assertThat(admission.inFlight()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldReportRejectionWhenPolicyIsReject() {
+            DialogAdmissionController admission = admission(1, "reject");
+            admission.acquire(SESSION);
+            List<String> trace = new ArrayList<>();
+            RecordingListener listener = new RecordingListener(trace);
+
+            service(new FakeTokenStream(List.of("夜深了。"), null, trace), admission)
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            assertThat(trace).noneMatch(entry -> entry.startsWith("delta:"));
+            assertThat(listener.error).isInstanceOf(DialogRejectedException.class);
+            assertThat(listener.sentences).isEmpty();
+        }
+
+        @Test
+        void shouldReleaseTicketAndFallBackWhenModelHangs() throws Exception {
+            RecordingListener listener = new RecordingListener(new ArrayList<>());
+
+            service(new FakeTokenStream(List.of("残片"), null, new ArrayList<>()).hanging(), admissionController, 50)
+                .stream(SESSION, NIGHT, null, null, false, listener);
+
+            // 超时回调在公共线程池上执行
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            while (listener.completed == null && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(listener.completed).isNotNull();
+            assertThat(listener.completed.text()).isNotBlank().doesNotContain("残片");
+            assertThat(admissionController.inFlight()).isZero();
+            assertThat(meterRegistry.get("vibe.narrative.stream.fallbacks").counter().count()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.vibe.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 测试用 SSE 连接：记录写出的帧文本，不依赖 Servlet 容器
+ */
+final class RecordingSseEmitter extends SseEmitter {
+
+    final List<String> frames = new ArrayList<>();
+    final List<Object> payloads = new ArrayList<>();
+    boolean failSends;
+    boolean completed;
+
+    @Override
+    public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+        if (failSends) {
+            throw new IOException("broken pipe");
+        }
+        StringBuilder frame = new StringBuilder();
+        for (ResponseBodyEmitter.DataWithMediaType item : items) {
+            payloads.add(item.getData());
+            frame.append(item.getData() instanceof byte[] bytes
+                ? new String(bytes, StandardCharsets.UTF_8)
+                : String.valueOf(item.getData()));
+        }
+        frames.add(frame.toString());
+    }
+
+    @Override
+    public void completeWithError(Throwable ex) {
+        completed = true;
+    }
+
+    @Override
+    public void complete() {
+        completed = true;
+    }
+}
@@ -0,0 +1,681 @@
+package com.vibe.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.model.event.AmbienceChangedEvent;
+import com.vibe.model.event.EnvironmentUpdateEvent;
+import com.vibe.model.event.SafetyModeChangedEvent;
+import com.vibe.timer.TimingWheel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SseEventPublisher 单元测试
+ */
+class SseEventPublisherTest {
+
+    /**
+     * 统计序列化次数的 ObjectMapper
+     */
+    private static final class CountingObjectMapper extends ObjectMapper {
+
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public String writeValueAsString(Object value) throws JsonProcessingException {
+            writes.incrementAndGet();
+            return super.writeValueAsString(value);
+        }
+    }
+
+    private final CountingObjectMapper objectMapper = new CountingObjectMapper();
+    private final SseEventPublisher publisher = new SseEventPublisher(objectMapper);
+
+    @Nested
+    @DisplayName("一次序列化测试")
+    class SerializeOnceTest {
+
+        @Test
+        void shouldSerializeOncePerPublishToAll() {
+            RecordingSseEmitter[] emitters = new RecordingSseEmitter[20];
+            for (int i = 0; i < emitters.length; i++) {
+                emitters[i] = new RecordingSseEmitter();
+                publisher.register("session-" + (i % 5), emitters[i], null);
+            }
+
+            publisher.publishToAll("heartbeat", Map.of("seq", 1));
+
+            assertThat(objectMapper.writes.get()).isEqualTo(1);
+            for (RecordingSseEmitter emitter : emitters) {
+                assertThat(emitter.frames).containsExactly("event:heartbeat\ndata:{\"seq\":1}\n\n");
+                // 所有连接共享同一份字节
+                assertThat(emitter.payloads.get(0)).isSameAs(emitters[0].payloads.get(0));
+            }
+        }
+
+        @Test
+        void shouldSerializeOncePerSessionPublish() {
+            RecordingSseEmitter first = new RecordingSseEmitter();
+            RecordingSseEmitter second = new RecordingSseEmitter();
+            publisher.register("s1", first, null);
+            publisher.register("s1", second, null);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("k", "v"));
+
+            assertThat(objectMapper.writes.get()).isEqualTo(1);
+            assertThat(first.frames).hasSize(1);
+            assertThat(second.frames).isEqualTo(first.frames);
+        }
+
+        @Test
+        void shouldNotSerializeWhenNoSubscriberMatches() {
+            publisher.register("s1", new RecordingSseEmitter(), Set.of("safety"));
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("k", "v"));
+            publisher.publish("s2", SafetyModeChangedEvent.EVENT_TYPE, Map.of("k", "v"));
+
+            assertThat(objectMapper.writes.get()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("发送失败测试")
+    class FailureTest {
+
+        @Test
+        void shouldUnregisterBrokenConnection() {
+            RecordingSseEmitter healthy = new RecordingSseEmitter();
+            RecordingSseEmitter broken = new RecordingSseEmitter();
+            broken.failSends = true;
+            publisher.register("s1", healthy, null);
+            publisher.register("s1", broken, null);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("k", "v"));
+
+            assertThat(broken.completed).isTrue();
+            assertThat(publisher.countConnections()).isEqualTo(1);
+            assertThat(healthy.frames).hasSize(1);
+        }
+
+        @Test
+        void shouldKeepConnectionsWhenSerializationFails() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, new Object());
+
+            assertThat(emitter.frames).isEmpty();
+            assertThat(publisher.countConnections()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("帧编码测试")
+    class FrameTest {
+
+        @Test
+        void shouldEncodeEventAndDataLines() throws Exception {
+            SseFrame frame = SseFrame.encode(new ObjectMapper(), "token", "a\nb");
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+
+            frame.sendTo(emitter);
+
+            // JSON 字符串中的换行已转义，只有原始换行需要拆行
+            assertThat(emitter.frames).containsExactly("event:token\ndata:\"a\\nb\"\n\n");
+            assertThat(frame.size()).isEqualTo(emitter.frames.get(0).length());
+        }
+
+        @Test
+        void shouldPrefixIdLineAndShareEventBytes() throws Exception {
+            SseFrame frame = SseFrame.encode(new ObjectMapper(), "token", 1);
+            SseFrame numbered = frame.withId(42);
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+
+            frame.sendTo(emitter);
+            numbered.sendTo(emitter);
+
+            assertThat(emitter.frames).containsExactly("event:token\ndata:1\n\n", "id:42\nevent:token\ndata:1\n\n");
+            assertThat(emitter.payloads.get(2)).isSameAs(emitter.payloads.get(0));
+            assertThat(numbered.id()).isEqualTo(42);
+            assertThat(numbered.size()).isEqualTo(emitter.frames.get(1).length());
+            assertThatThrownBy(() -> numbered.withId(43)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("断线重放测试")
+    class ReplayTest {
+
+        private static final long CREATED = 1_000_000L;
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final AtomicLong now = new AtomicLong(CREATED);
+
+        private SseEventPublisher publisher(int maxEvents, int maxBytes) {
+            return new SseEventPublisher(new ObjectMapper(), meterRegistry, Runnable::run, 64,
+                SseEventPublisher.OverflowPolicy.DROP_OLDEST, Map.of(), null, List.of(), 0,
+                new SseEventPublisher.Replay(maxEvents, maxBytes, 60_000), SseEventPublisher.KeepAlive.DISABLED,
+                now::get);
+        }
+
+        private String frame(long id, String eventType, int seq) {
+            return "id:" + (CREATED + id) + "\nevent:" + eventType + "\ndata:{\"seq\":" + seq + "}\n\n";
+        }
+
+        @Test
+        void shouldNumberEventsPerSession() {
+            SseEventPublisher publisher = publisher(8, 4096);
+            RecordingSseEmitter first = new RecordingSseEmitter();
+            RecordingSseEmitter second = new RecordingSseEmitter();
+            publisher.register("s1", first, null);
+            publisher.register("s2", second, null);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.publishToAll(SafetyModeChangedEvent.EVENT_TYPE, Map.of("seq", 2));
+            publisher.publishToAll("heartbeat", Map.of("seq", 3));
+
+            assertThat(first.frames).containsExactly(
+                frame(1, AmbienceChangedEvent.EVENT_TYPE, 1),
+                frame(2, SafetyModeChangedEvent.EVENT_TYPE, 2),
+                "event:heartbeat\ndata:{\"seq\":3}\n\n");
+            assertThat(second.frames).containsExactly(
+                frame(1, SafetyModeChangedEvent.EVENT_TYPE, 2),
+                "event:heartbeat\ndata:{\"seq\":3}\n\n");
+        }
+
+        @Test
+        void shouldReplayEventsMissedWhileDisconnected() {
+            SseEventPublisher publisher = publisher(8, 4096);
+            RecordingSseEmitter before = new RecordingSseEmitter();
+            publisher.register("s1", before, null);
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.unregister("s1", before);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 2));
+            publisher.publishToAll(SafetyModeChangedEvent.EVENT_TYPE, Map.of("seq", 3));
+            RecordingSseEmitter after = new RecordingSseEmitter();
+            publisher.register("s1", after, null, String.valueOf(CREATED + 1));
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 4));
+
+            assertThat(after.frames).containsExactly(
+                frame(2, AmbienceChangedEvent.EVENT_TYPE, 2),
+                frame(3, SafetyModeChangedEvent.EVENT_TYPE, 3),
+                frame(4, AmbienceChangedEvent.EVENT_TYPE, 4));
+            assertThat(meterRegistry.get("vibe.sse.replay.events").counter().count()).isEqualTo(2);
+            assertThat(meterRegistry.get("vibe.sse.replay.gaps").counter().count()).isZero();
+        }
+
+        @Test
+        void shouldReplayOnlySubscribedTopics() {
+            SseEventPublisher publisher = publisher(8, 4096);
+            publisher.register("s1", new RecordingSseEmitter(), null);
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.publish("s1", SafetyModeChangedEvent.EVENT_TYPE, Map.of("seq", 2));
+
+            RecordingSseEmitter safetyOnly = new RecordingSseEmitter();
+            publisher.register("s1", safetyOnly, Set.of("safety"), String.valueOf(CREATED));
+
+            assertThat(safetyOnly.frames).containsExactly(frame(2, SafetyModeChangedEvent.EVENT_TYPE, 2));
+        }
+
+        @Test
+        void shouldKeepOnlyNewestEventsAndCountGap() {
+            SseEventPublisher publisher = publisher(2, 4096);
+            RecordingSseEmitter before = new RecordingSseEmitter();
+            publisher.register("s1", before, null);
+            publisher.unregister("s1", before);
+            for (int seq = 1; seq <= 4; seq++) {
+                publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", seq));
+            }
+
+            RecordingSseEmitter after = new RecordingSseEmitter();
+            publisher.register("s1", after, null, String.valueOf(CREATED));
+
+            assertThat(after.frames).containsExactly(
+                frame(3, AmbienceChangedEvent.EVENT_TYPE, 3),
+                frame(4, AmbienceChangedEvent.EVENT_TYPE, 4));
+            assertThat(meterRegistry.get("vibe.sse.replay.gaps").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldBoundBufferedBytes() {
+            // 每帧 "event:ambience_changed\ndata:{\"seq\":N}\n\n" 共 39 字节，预算只够两帧
+            SseEventPublisher publisher = publisher(64, 80);
+            RecordingSseEmitter before = new RecordingSseEmitter();
+            publisher.register("s1", before, null);
+            for (int seq = 1; seq <= 5; seq++) {
+                publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", seq));
+            }
+
+            RecordingSseEmitter after = new RecordingSseEmitter();
+            publisher.register("s1", after, null, String.valueOf(CREATED));
+
+            assertThat(after.frames).containsExactly(
+                frame(4, AmbienceChangedEvent.EVENT_TYPE, 4),
+                frame(5, AmbienceChangedEvent.EVENT_TYPE, 5));
+        }
+
+        @Test
+        void shouldIgnoreMalformedLastEventId() {
+            SseEventPublisher publisher = publisher(8, 4096);
+            publisher.register("s1", new RecordingSseEmitter(), null);
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 1));
+
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null, "not-a-number");
+
+            assertThat(emitter.frames).isEmpty();
+        }
+
+        @Test
+        void shouldReleaseIdleBufferAfterTtl() {
+            SseEventPublisher publisher = publisher(8, 4096);
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 1));
+            now.set(CREATED + 1_000);
+            publisher.unregister("s1", emitter);
+
+            assertThat(publisher.evictIdle(CREATED + 60_999)).isZero();
+            assertThat(publisher.replaySessions()).isEqualTo(1);
+            assertThat(publisher.evictIdle(CREATED + 61_000)).isEqualTo(1);
+            assertThat(publisher.replaySessions()).isZero();
+
+            // 重建的会话从新的时间戳编号，旧 ID 被识别为缺口
+            now.set(CREATED + 70_000);
+            RecordingSseEmitter after = new RecordingSseEmitter();
+            publisher.register("s1", after, null, String.valueOf(CREATED + 1));
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 2));
+
+            assertThat(after.frames).containsExactly(frame(70_001, AmbienceChangedEvent.EVENT_TYPE, 2));
+            assertThat(meterRegistry.get("vibe.sse.replay.gaps").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldKeepBufferWhileConnected() {
+            SseEventPublisher publisher = publisher(8, 4096);
+            publisher.register("s1", new RecordingSseEmitter(), null);
+
+            assertThat(publisher.evictIdle(CREATED + 600_000)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("高频事件合并测试")
+    class ConflationTest {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final TimingWheel wheel = new TimingWheel(10, 64);
+        private final long start = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        private final AtomicLong now = new AtomicLong(start);
+        private final SseEventPublisher publisher = new SseEventPublisher(new ObjectMapper(), meterRegistry,
+            Runnable::run, 64, SseEventPublisher.OverflowPolicy.DROP_OLDEST, Map.of(), wheel,
+            List.of(EnvironmentUpdateEvent.EVENT_TYPE, "agent_status_changed"), 200,
+            SseEventPublisher.Replay.DISABLED, SseEventPublisher.KeepAlive.DISABLED, now::get);
+
+        private void advance(long millis) {
+            now.set(start + millis);
+            wheel.advanceTo(start + millis);
+        }
+
+        @Test
+        void shouldDeliverFirstValueImmediately() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 1));
+
+            assertThat(emitter.frames).containsExactly("event:environment_update\ndata:{\"seq\":1}\n\n");
+            assertThat(wheel.pending()).isZero();
+        }
+
+        @Test
+        void shouldDeliverOnlyLatestValueWithinInterval() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 1));
+            advance(50);
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 2));
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 3));
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 4));
+
+            assertThat(emitter.frames).hasSize(1);
+            advance(200);
+
+            assertThat(emitter.frames).containsExactly(
+                "event:environment_update\ndata:{\"seq\":1}\n\n",
+                "event:environment_update\ndata:{\"seq\":4}\n\n");
+            assertThat(meterRegistry.get("vibe.sse.conflated").counter().count()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldRateLimitEachSessionAndTypeIndependently() {
+            RecordingSseEmitter first = new RecordingSseEmitter();
+            RecordingSseEmitter second = new RecordingSseEmitter();
+            publisher.register("s1", first, null);
+            publisher.register("s2", second, null);
+
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.publish("s1", "agent_status_changed", Map.of("seq", 1));
+            publisher.publish("s2", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 1));
+
+            assertThat(first.frames).hasSize(2);
+            assertThat(second.frames).hasSize(1);
+        }
+
+        @Test
+        void shouldDeliverAmbienceAndSafetyEventsInFullAndInOrder() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 2));
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 2));
+            publisher.publish("s1", SafetyModeChangedEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("seq", 3));
+
+            assertThat(emitter.frames).containsExactly(
+                "event:environment_update\ndata:{\"seq\":1}\n\n",
+                "event:ambience_changed\ndata:{\"seq\":1}\n\n",
+                "event:ambience_changed\ndata:{\"seq\":2}\n\n",
+                "event:safety_mode_changed\ndata:{\"seq\":1}\n\n",
+                "event:ambience_changed\ndata:{\"seq\":3}\n\n");
+        }
+
+        @Test
+        void shouldDropPendingValuesWhenLastConnectionCloses() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 1));
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("seq", 2));
+            assertThat(wheel.pending()).isEqualTo(1);
+
+            publisher.unregister("s1", emitter);
+
+            assertThat(wheel.pending()).isZero();
+            advance(200);
+            assertThat(emitter.frames).hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("心跳与空闲超时测试")
+    class KeepAliveTest {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final TimingWheel wheel = new TimingWheel(10, 64);
+        private final long start = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        private final AtomicLong now = new AtomicLong(start);
+        private final SseEventPublisher publisher = new SseEventPublisher(new ObjectMapper().findAndRegisterModules(),
+            meterRegistry, Runnable::run, 64, SseEventPublisher.OverflowPolicy.DROP_OLDEST, Map.of(), wheel,
+            List.of(), 0, SseEventPublisher.Replay.DISABLED, new SseEventPublisher.KeepAlive(1_000, 5_000), now::get);
+
+        private void advance(long millis) {
+            now.set(start + millis);
+            wheel.advanceTo(start + millis);
+        }
+
+        private long heartbeats(RecordingSseEmitter emitter) {
+            return emitter.frames.stream().filter(frame -> frame.startsWith("event:heartbeat\n")).count();
+        }
+
+        @Test
+        void shouldSendOneHeartbeatPerIntervalToEachConnection() {
+            RecordingSseEmitter[] emitters = new RecordingSseEmitter[3];
+            for (int i = 0; i < emitters.length; i++) {
+                emitters[i] = new RecordingSseEmitter();
+                publisher.register("session-" + i, emitters[i], Set.of("ambience"));
+            }
+
+            advance(1_000);
+            for (RecordingSseEmitter emitter : emitters) {
+                assertThat(heartbeats(emitter)).isEqualTo(1);
+            }
+
+            advance(3_000);
+            for (RecordingSseEmitter emitter : emitters) {
+                assertThat(heartbeats(emitter)).isEqualTo(3);
+            }
+            assertThat(wheel.pending()).isEqualTo(emitters.length);
+        }
+
+        @Test
+        void shouldStaggerHeartbeatsOfConnectionsOpenedTogether() {
+            List<RecordingSseEmitter> emitters = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                RecordingSseEmitter emitter = new RecordingSseEmitter();
+                emitters.add(emitter);
+                publisher.register("session-" + i, emitter, null);
+            }
+
+            advance(1_000);
+
+            // 心跳帧带到期刻度的时间戳，同一时刻建立的连接分散在不同刻度
+            Set<String> firstHeartbeats = new HashSet<>();
+            for (RecordingSseEmitter emitter : emitters) {
+                assertThat(emitter.frames).hasSize(1);
+                firstHeartbeats.add(emitter.frames.get(0));
+            }
+            assertThat(firstHeartbeats.size()).isGreaterThan(1);
+        }
+
+        @Test
+        void shouldCloseConnectionWithoutEventsAfterIdleTimeout() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            advance(4_990);
+            assertThat(emitter.completed).isFalse();
+            assertThat(heartbeats(emitter)).isGreaterThanOrEqualTo(4);
+
+            advance(5_000);
+            assertThat(emitter.completed).isTrue();
+            assertThat(publisher.countConnections()).isZero();
+            assertThat(wheel.pending()).isZero();
+            assertThat(meterRegistry.get("vibe.sse.disconnects").tag("reason", "idle").counter().count())
+                .isEqualTo(1.0);
+        }
+
+        @Test
+        void shouldPostponeIdleTimeoutWhenEventsAreDelivered() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            advance(3_000);
+            publisher.publish("s1", SafetyModeChangedEvent.EVENT_TYPE, Map.of("seq", 1));
+            advance(7_990);
+            assertThat(emitter.completed).isFalse();
+
+            advance(8_000);
+            assertThat(emitter.completed).isTrue();
+        }
+
+        @Test
+        void shouldStopTimersWhenConnectionCloses() {
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+            assertThat(wheel.pending()).isEqualTo(1);
+
+            publisher.unregister("s1", emitter);
+
+            assertThat(wheel.pending()).isZero();
+            advance(10_000);
+            assertThat(emitter.frames).isEmpty();
+            assertThat(emitter.completed).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("发送队列测试")
+    class QueueTest {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        /**
+         * 手动执行的发送执行器：调用 runAll 之前所有连接都处于写出阻塞状态
+         */
+        private final List<Runnable> pending = new ArrayList<>();
+
+        private SseEventPublisher publisher(int capacity, SseEventPublisher.OverflowPolicy policy) {
+            return new SseEventPublisher(new ObjectMapper(), meterRegistry, pending::add, capacity,
+                SseEventPublisher.OverflowPolicy.DROP_OLDEST,
+                Map.of(EnvironmentUpdateEvent.EVENT_TYPE, policy, AmbienceChangedEvent.EVENT_TYPE, policy),
+                null, List.of(), 0, SseEventPublisher.Replay.DISABLED, SseEventPublisher.KeepAlive.DISABLED,
+                System::currentTimeMillis);
+        }
+
+        private void runAll() {
+            while (!pending.isEmpty()) {
+                pending.remove(0).run();
+            }
+        }
+
+        private double dropped(String eventType, String policy) {
+            return meterRegistry.get("vibe.sse.queue.dropped").tag("event", eventType).tag("policy", policy)
+                .counter().count();
+        }
+
+        @Test
+        void shouldOnlyEnqueueOnPublishingThread() {
+            SseEventPublisher publisher = publisher(8, SseEventPublisher.OverflowPolicy.DROP_OLDEST);
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            for (int i = 0; i < 3; i++) {
+                publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("v", i));
+            }
+
+            assertThat(emitter.frames).isEmpty();
+            assertThat(publisher.queuedEvents()).isEqualTo(3);
+            // 同一连接只提交一个排空任务
+            assertThat(pending).hasSize(1);
+
+            runAll();
+
+            assertThat(emitter.frames).containsExactly(
+                "event:ambience_changed\ndata:{\"v\":0}\n\n",
+                "event:ambience_changed\ndata:{\"v\":1}\n\n",
+                "event:ambience_changed\ndata:{\"v\":2}\n\n");
+            assertThat(publisher.queuedEvents()).isZero();
+        }
+
+        @Test
+        void shouldDropOldestWhenFull() {
+            SseEventPublisher publisher = publisher(2, SseEventPublisher.OverflowPolicy.DROP_OLDEST);
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            for (int i = 0; i < 3; i++) {
+                publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("v", i));
+            }
+            runAll();
+
+            assertThat(emitter.frames).hasSize(2);
+            assertThat(emitter.frames.get(0)).contains("{\"v\":1}");
+            assertThat(dropped(AmbienceChangedEvent.EVENT_TYPE, "drop-oldest")).isEqualTo(1);
+        }
+
+        @Test
+        void shouldConflateSameTypeWhenFull() {
+            SseEventPublisher publisher = publisher(2, SseEventPublisher.OverflowPolicy.CONFLATE);
+            RecordingSseEmitter emitter = new RecordingSseEmitter();
+            publisher.register("s1", emitter, null);
+
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("v", 1));
+            publisher.publish("s1", SafetyModeChangedEvent.EVENT_TYPE, Map.of("v", 2));
+            publisher.publish("s1", EnvironmentUpdateEvent.EVENT_TYPE, Map.of("v", 3));
+            runAll();
+
+            // 旧的环境更新被替换，安全模式事件保留
+            assertThat(emitter.frames).containsExactly(
+                "event:safety_mode_changed\ndata:{\"v\":2}\n\n",
+                "event:environment_update\ndata:{\"v\":3}\n\n");
+            assertThat(dropped(EnvironmentUpdateEvent.EVENT_TYPE, "conflate")).isEqualTo(1);
+        }
+
+        @Test
+        void shouldDisconnectWhenPolicyRequires() {
+            SseEventPublisher publisher = publisher(1, SseEventPublisher.OverflowPolicy.DISCONNECT);
+            RecordingSseEmitter slow = new RecordingSseEmitter();
+            RecordingSseEmitter other = new RecordingSseEmitter();
+            publisher.register("s1", slow, null);
+            publisher.register("s2", other, null);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("v", 1));
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("v", 2));
+            publisher.publish("s2", AmbienceChangedEvent.EVENT_TYPE, Map.of("v", 3));
+
+            assertThat(slow.completed).isTrue();
+            assertThat(publisher.countConnections()).isEqualTo(1);
+            assertThat(publisher.queuedEvents()).isEqualTo(1);
+            assertThat(meterRegistry.get("vibe.sse.disconnects").tag("reason", "overflow").counter().count())
+                .isEqualTo(1);
+
+            runAll();
+
+            assertThat(slow.frames).isEmpty();
+            assertThat(other.frames).hasSize(1);
+        }
+
+        @Test
+        void shouldDisconnectAfterSendError() {
+            SseEventPublisher publisher = publisher(8, SseEventPublisher.OverflowPolicy.DROP_OLDEST);
+            RecordingSseEmitter broken = new RecordingSseEmitter();
+            broken.failSends = true;
+            publisher.register("s1", broken, null);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("v", 1));
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, Map.of("v", 2));
+            runAll();
+
+            assertThat(broken.completed).isTrue();
+            assertThat(publisher.countConnections()).isZero();
+            assertThat(publisher.queuedEvents()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("溢出策略配置测试")
+    class PolicyConfigTest {
+
+        @Test
+        void shouldParseConflatedEventTypes() {
+            assertThat(SseEventPublisher.parseEventTypes(" Environment_Update , agent_status_changed,,"))
+                .containsExactly("environment_update", "agent_status_changed");
+            assertThat(SseEventPublisher.parseEventTypes("")).isEmpty();
+        }
+
+        @Test
+        void shouldParsePolicies() {
+            Map<String, SseEventPublisher.OverflowPolicy> policies =
+                SseEventPublisher.parsePolicies(" heartbeat=conflate, Safety_Mode_Changed=DISCONNECT ,");
+
+            assertThat(policies).containsEntry("heartbeat", SseEventPublisher.OverflowPolicy.CONFLATE);
+            assertThat(policies).containsEntry("safety_mode_changed", SseEventPublisher.OverflowPolicy.DISCONNECT);
+            assertThat(SseEventPublisher.parsePolicies("")).isEmpty();
+        }
+
+        @Test
+        void shouldRejectUnknownPolicy() {
+            assertThatThrownBy(() -> SseEventPublisher.parsePolicies("heartbeat=ignore"))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> SseEventPublisher.parsePolicies("heartbeat"))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.vibe.support;
+
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.TimeOfDay;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LightPresetTable 单元测试
+ */
+class LightPresetTableTest {
+
+    @Nested
+    @DisplayName("查表结果测试")
+    class LookupTest {
+
+        @Test
+        void shouldMatchPresetsForEveryCombination() {
+            for (UserMood mood : UserMood.values()) {
+                for (TimeOfDay time : TimeOfDay.values()) {
+                    for (Weather weather : Weather.values()) {
+                        LightSetting setting = LightPresetTable.lookup(mood, time, weather, SafetyMode.L1_NORMAL);
+
+                        assertThat(setting.color()).isEqualTo(LightPresets.getColorForMood(mood.getValue()));
+                        assertThat(setting.mode()).isEqualTo(LightPresets.getModeForWeather(weather.getValue()));
+                        assertThat(setting.zones()).hasSize(3);
+                        assertThat(LightPresetTable.lookup(mood.getValue(), time.getValue(), weather.getValue(),
+                            SafetyMode.L1_NORMAL)).isSameAs(setting);
+                    }
+                }
+            }
+        }
+
+        @Test
+        void shouldAdjustBrightnessForMood() {
+            int base = LightPresets.getBrightnessForTime("evening");
+
+            assertThat(LightPresetTable.lookup(UserMood.TIRED, TimeOfDay.EVENING, Weather.SUNNY, null).brightness())
+                .isEqualTo(base - 10);
+            assertThat(LightPresetTable.lookup(UserMood.EXCITED, TimeOfDay.EVENING, Weather.SUNNY, null).brightness())
+                .isEqualTo(base + 10);
+            assertThat(LightPresetTable.lookup(UserMood.CALM, TimeOfDay.EVENING, Weather.SUNNY, null).brightness())
+                .isEqualTo(base);
+        }
+
+        @Test
+        void shouldUseDefaultsForUnknownOrMissingValues() {
+            LightSetting setting = LightPresetTable.lookup("angry", null, "windy", SafetyMode.L1_NORMAL);
+
+            assertThat(setting.color()).isEqualTo(LightColor.warmWhite());
+            assertThat(setting.brightness()).isEqualTo(50);
+            assertThat(setting.mode()).isEqualTo(LightMode.STATIC);
+            assertThat(LightPresetTable.lookup((UserMood) null, null, null, null)).isSameAs(setting);
+        }
+    }
+
+    @Nested
+    @DisplayName("安全模式测试")
+    class SafetyModeTest {
+
+        @Test
+        void shouldDisableLightInSilentMode() {
+            assertThat(LightPresetTable.lookup(UserMood.HAPPY, TimeOfDay.NOON, Weather.RAINY, SafetyMode.L3_SILENT))
+                .isNull();
+        }
+
+        @Test
+        void shouldUseStaticModeInFocusMode() {
+            LightSetting normal = LightPresetTable.lookup(UserMood.CALM, TimeOfDay.NIGHT, Weather.SNOWY, SafetyMode.L1_NORMAL);
+            LightSetting focus = LightPresetTable.lookup(UserMood.CALM, TimeOfDay.NIGHT, Weather.SNOWY, SafetyMode.L2_FOCUS);
+
+            assertThat(normal.mode()).isEqualTo(LightMode.GRADIENT);
+            assertThat(focus.mode()).isEqualTo(LightMode.STATIC);
+            assertThat(focus.brightness()).isEqualTo(normal.brightness());
+            assertThat(LightPresetTable.lookup(UserMood.CALM, TimeOfDay.NIGHT, Weather.SNOWY, SafetyMode.L2_FOCUS))
+                .isSameAs(focus);
+        }
+    }
+}
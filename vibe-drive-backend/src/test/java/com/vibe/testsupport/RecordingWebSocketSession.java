@@ -0,0 +1,149 @@
+package com.vibe.testsupport;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 测试用 WebSocket 会话（氛围灯帧与事件通道共用）：记录收到的二进制帧，
+ * 复制字节，与发送方复用或共享的缓冲区隔离
+ */
+public final class RecordingWebSocketSession implements WebSocketSession {
+
+    public final List<byte[]> frames = new ArrayList<>();
+    private final URI uri;
+    private final Map<String, Object> attributes = new HashMap<>();
+    public CloseStatus closeStatus;
+    public boolean failSends;
+    /**
+     * 非空时发送阻塞到连接被关闭，模拟写不动的连接
+     */
+    public volatile CountDownLatch blockSends;
+
+    public RecordingWebSocketSession() {
+        this(null);
+    }
+
+    /**
+     * @param sessionId 握手地址中的 sessionId 查询参数，null 表示没有握手地址
+     */
+    public RecordingWebSocketSession(String sessionId) {
+        this.uri = sessionId != null ? URI.create("ws://localhost/ws?sessionId=" + sessionId) : null;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (failSends) {
+            throw new IOException("broken pipe");
+        }
+        CountDownLatch gate = blockSends;
+        if (gate != null) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("session closed while sending");
+        }
+        ByteBuffer payload = ((BinaryMessage) message).getPayload();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        frames.add(bytes);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return closeStatus == null;
+    }
+
+    @Override
+    public void close() {
+        close(CloseStatus.NORMAL);
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        closeStatus = status;
+        CountDownLatch gate = blockSends;
+        if (gate != null) {
+            gate.countDown();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return "ws-" + System.identityHashCode(this);
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return new HttpHeaders();
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return 0;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return 0;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return List.of();
+    }
+}
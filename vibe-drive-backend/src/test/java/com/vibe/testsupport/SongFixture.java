@@ -0,0 +1,63 @@
+package com.vibe.testsupport;
+
+import com.vibe.model.Song;
+
+import java.util.List;
+
+/**
+ * 测试用歌曲构造（曲库、排序、灯光等测试共用）：标题、歌手由 id 生成，
+ * 未指定的字段取默认值（200 秒、100 BPM、jazz、calm）
+ */
+public final class SongFixture {
+
+    private SongFixture() {
+    }
+
+    public static Song song(String id, int bpm, String genre, String... mood) {
+        return song(id).bpm(bpm).genre(genre).mood(mood).build();
+    }
+
+    public static Builder song(String id) {
+        return new Builder(id);
+    }
+
+    public static final class Builder {
+
+        private final String id;
+        private int durationSeconds = 200;
+        private int bpm = 100;
+        private String genre = "jazz";
+        private List<String> mood = List.of("calm");
+
+        private Builder(String id) {
+            this.id = id;
+        }
+
+        public Builder durationSeconds(int durationSeconds) {
+            this.durationSeconds = durationSeconds;
+            return this;
+        }
+
+        public Builder bpm(int bpm) {
+            this.bpm = bpm;
+            return this;
+        }
+
+        public Builder genre(String genre) {
+            this.genre = genre;
+            return this;
+        }
+
+        /**
+         * 不传参数表示无情绪标签
+         */
+        public Builder mood(String... mood) {
+            this.mood = List.of(mood);
+            return this;
+        }
+
+        public Song build() {
+            return new Song(id, "Title " + id, "Artist", null, durationSeconds, bpm, genre, mood, null);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.vibe.timer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TimingWheel 单元测试（不启动时间轮线程，手动推进时间）
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    private final TimingWheel wheel = new TimingWheel(TICK, 8);
+    private final long now = (System.currentTimeMillis() / TICK + 1) * TICK;
+    private final List<Long> fired = new ArrayList<>();
+
+    private TimingWheel.Timeout recording() {
+        return new TimingWheel.Timeout() {
+            @Override
+            protected void expire(long tickMillis) {
+                fired.add(tickMillis);
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("调度测试")
+    class ScheduleTest {
+
+        @Test
+        void shouldFireAtDeadlineTick() {
+            TimingWheel.Timeout timeout = recording();
+            wheel.schedule(timeout, now + 45);
+
+            wheel.advanceTo(now + 40);
+            assertThat(fired).isEmpty();
+            assertThat(timeout.isScheduled()).isTrue();
+
+            wheel.advanceTo(now + 50);
+            assertThat(fired).containsExactly(now + 50);
+            assertThat(timeout.isScheduled()).isFalse();
+            assertThat(wheel.pending()).isZero();
+        }
+
+        @Test
+        void shouldWaitForLaterRoundsBeyondOneRevolution() {
+            // 轮大小 8 × 10ms，截止时间在 3 圈之后
+            wheel.schedule(recording(), now + 250);
+
+            wheel.advanceTo(now + 240);
+            assertThat(fired).isEmpty();
+
+            wheel.advanceTo(now + 250);
+            assertThat(fired).containsExactly(now + 250);
+        }
+
+        @Test
+        void shouldFirePastDeadlineOnNextTick() {
+            wheel.advanceTo(now);
+            wheel.schedule(recording(), now - 1_000);
+
+            wheel.advanceTo(now + TICK);
+
+            assertThat(fired).containsExactly(now + TICK);
+        }
+
+        @Test
+        void shouldRescheduleInsteadOfDuplicating() {
+            TimingWheel.Timeout timeout = recording();
+            wheel.schedule(timeout, now + 20);
+            wheel.schedule(timeout, now + 60);
+
+            wheel.advanceTo(now + 100);
+
+            assertThat(fired).containsExactly(now + 60);
+        }
+
+        @Test
+        void shouldAllowTaskToRescheduleItself() {
+            List<Long> ticks = new ArrayList<>();
+            TimingWheel.Timeout periodic = new TimingWheel.Timeout() {
+                @Override
+                protected void expire(long tickMillis) {
+                    ticks.add(tickMillis);
+                    if (ticks.size() < 3) {
+                        wheel.schedule(this, tickMillis + 30);
+                    }
+                }
+            };
+            wheel.schedule(periodic, now + 10);
+
+            wheel.advanceTo(now + 200);
+
+            assertThat(ticks).containsExactly(now + 10, now + 40, now + 70);
+        }
+    }
+
+    @Nested
+    @DisplayName("分层测试")
+    class HierarchyTest {
+
+        @Test
+        void shouldFireAtExactTickAfterCascading() {
+            // 轮大小 8：各层分别覆盖 8、64、512、4096 个刻度
+            List<Long> deadlines = List.of(now + 70, now + 650, now + 4_000, now + 35_000);
+            for (long deadline : deadlines) {
+                wheel.schedule(recording(), deadline);
+            }
+
+            for (long deadline : deadlines) {
+                wheel.advanceTo(deadline - TICK);
+                assertThat(fired).doesNotContain(deadline);
+                wheel.advanceTo(deadline);
+                assertThat(fired).contains(deadline);
+            }
+            assertThat(fired).isEqualTo(deadlines);
+            assertThat(wheel.pending()).isZero();
+        }
+
+        @Test
+        void shouldFireBeyondTopLevelSpan() {
+            // 超过 8^4 个刻度，先放在最高层，降级时重新放置
+            long deadline = now + 50_000 * TICK;
+            wheel.schedule(recording(), deadline);
+
+            wheel.advanceTo(deadline - TICK);
+            assertThat(fired).isEmpty();
+            assertThat(wheel.pending()).isEqualTo(1);
+
+            wheel.advanceTo(deadline);
+            assertThat(fired).containsExactly(deadline);
+        }
+
+        @Test
+        void shouldFireEveryTaskAtItsOwnTick() {
+            Random random = new Random(42);
+            List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                long deadline = now + random.nextInt(20_000) * TICK;
+                expected.add(Math.max(deadline, now + TICK));
+                wheel.schedule(recording(), deadline);
+            }
+            wheel.advanceTo(now);
+
+            wheel.advanceTo(now + 20_000 * TICK);
+
+            assertThat(fired).isEqualTo(expected.stream().sorted().toList());
+        }
+
+        @Test
+        void shouldCancelTaskOnUpperLevel() {
+            TimingWheel.Timeout timeout = recording();
+            wheel.schedule(timeout, now + 3_000);
+
+            wheel.advanceTo(now + 1_000);
+            assertThat(wheel.cancel(timeout)).isTrue();
+            wheel.advanceTo(now + 5_000);
+
+            assertThat(fired).isEmpty();
+            assertThat(wheel.pending()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("取消测试")
+    class CancelTest {
+
+        @Test
+        void shouldNotFireCancelledTask() {
+            TimingWheel.Timeout timeout = recording();
+            wheel.schedule(timeout, now + 30);
+
+            assertThat(wheel.cancel(timeout)).isTrue();
+            wheel.advanceTo(now + 100);
+
+            assertThat(fired).isEmpty();
+            assertThat(wheel.cancel(timeout)).isFalse();
+        }
+
+        @Test
+        void shouldCancelTaskExpiringInSameTick() {
+            TimingWheel.Timeout second = recording();
+            TimingWheel.Timeout first = new TimingWheel.Timeout() {
+                @Override
+                protected void expire(long tickMillis) {
+                    wheel.cancel(second);
+                }
+            };
+            // 同一刻度到期的任务按调度顺序执行，先执行的一个取消另一个
+            wheel.schedule(first, now + 20);
+            wheel.schedule(second, now + 20);
+
+            wheel.advanceTo(now + 20);
+
+            assertThat(fired).isEmpty();
+        }
+    }
+}
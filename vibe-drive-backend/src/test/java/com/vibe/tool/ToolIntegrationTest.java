@@ -29,7 +29,7 @@ class ToolIntegrationTest {
     @DisplayName("MusicTool 应该正确推荐音乐")
     void musicToolShouldRecommendMusic() {
         MusicRecommendation result = musicTool.recommendMusic(
-            "calm", "evening", 1, "jazz");
+            "calm", "evening", 1, "jazz", "test-session");
 
         assertThat(result).isNotNull();
         assertThat(result.songs()).isNotEmpty();
@@ -69,7 +69,7 @@ class ToolIntegrationTest {
 
         // 1. 推荐音乐
         MusicRecommendation music = musicTool.recommendMusic(
-            mood, timeOfDay, passengerCount, null);
+            mood, timeOfDay, passengerCount, null, "test-session");
         assertThat(music.songs()).isNotEmpty();
 
         // 2. 设置灯光
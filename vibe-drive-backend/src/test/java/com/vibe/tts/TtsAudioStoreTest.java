@@ -0,0 +1,140 @@
+package com.vibe.tts;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TtsAudioStore 单元测试
+ */
+class TtsAudioStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] audio(int size, int seed) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return data;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    @Nested
+    @DisplayName("读写测试")
+    class ReadWriteTest {
+
+        @Test
+        void shouldReadBackWrittenAudio() throws Exception {
+            TtsAudioStore store = TtsAudioStore.open(dir, 1024);
+            store.put("ab12", audio(100, 1));
+
+            assertThat(bytes(store.get("ab12"))).isEqualTo(audio(100, 1));
+            assertThat(store.sizeOf("ab12")).isEqualTo(100L);
+            assertThat(store.get("cd34")).isNull();
+            assertThat(store.sizeOf("cd34")).isEqualTo(-1L);
+            assertThat(Files.exists(dir.resolve("ab12.audio"))).isTrue();
+        }
+
+        @Test
+        void shouldReturnIndependentViews() throws Exception {
+            TtsAudioStore store = TtsAudioStore.open(dir, 1024);
+            store.put("ab12", audio(10, 2));
+
+            ByteBuffer first = store.get("ab12");
+            first.get(new byte[5]);
+
+            assertThat(store.get("ab12").remaining()).isEqualTo(10);
+            assertThat(first.isReadOnly()).isTrue();
+        }
+
+        @Test
+        void shouldRecoverEntriesAfterReopen() throws Exception {
+            TtsAudioStore store = TtsAudioStore.open(dir, 1024);
+            store.put("ab12", audio(100, 3));
+            Files.writeString(dir.resolve("ab12999.tmp"), "partial");
+
+            TtsAudioStore reopened = TtsAudioStore.open(dir, 1024);
+
+            assertThat(reopened.size()).isEqualTo(1);
+            assertThat(reopened.totalBytes()).isEqualTo(100L);
+            assertThat(bytes(reopened.get("ab12"))).isEqualTo(audio(100, 3));
+            assertThat(Files.exists(dir.resolve("ab12999.tmp"))).isFalse();
+        }
+
+        @Test
+        void shouldRejectInvalidHash() throws Exception {
+            TtsAudioStore store = TtsAudioStore.open(dir, 1024);
+
+            assertThat(TtsAudioStore.isValidHash("../etc/passwd")).isFalse();
+            assertThat(TtsAudioStore.isValidHash("AB12")).isFalse();
+            assertThat(TtsAudioStore.isValidHash("")).isFalse();
+            assertThatThrownBy(() -> store.put("../x", audio(1, 0))).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("LRU 淘汰测试")
+    class EvictionTest {
+
+        @Test
+        void shouldEvictLeastRecentlyUsed() throws Exception {
+            TtsAudioStore store = TtsAudioStore.open(dir, 300);
+            store.put("a1", audio(100, 1));
+            store.put("b2", audio(100, 2));
+            store.put("c3", audio(100, 3));
+            // 访问 a1 后，b2 成为最久未使用
+            store.get("a1");
+
+            store.put("d4", audio(100, 4));
+
+            assertThat(store.sizeOf("b2")).isEqualTo(-1L);
+            assertThat(store.sizeOf("a1")).isEqualTo(100L);
+            assertThat(store.totalBytes()).isEqualTo(300L);
+            assertThat(store.evictions()).isEqualTo(1L);
+            assertThat(Files.exists(dir.resolve("b2.audio"))).isFalse();
+        }
+
+        @Test
+        void shouldKeepOversizedNewEntry() throws Exception {
+            TtsAudioStore store = TtsAudioStore.open(dir, 100);
+            store.put("a1", audio(50, 1));
+            ByteBuffer evictedView = store.get("a1");
+
+            store.put("b2", audio(200, 2));
+
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.sizeOf("b2")).isEqualTo(200L);
+            // 淘汰后已取出的映射仍然可读
+            assertThat(bytes(evictedView)).isEqualTo(audio(50, 1));
+        }
+
+        @Test
+        void shouldEvictOverflowOnOpen() throws Exception {
+            TtsAudioStore store = TtsAudioStore.open(dir, 1024);
+            store.put("a1", audio(100, 1));
+            store.put("b2", audio(100, 2));
+            Files.setLastModifiedTime(dir.resolve("a1.audio"), java.nio.file.attribute.FileTime.fromMillis(1000));
+            Files.setLastModifiedTime(dir.resolve("b2.audio"), java.nio.file.attribute.FileTime.fromMillis(2000));
+
+            TtsAudioStore reopened = TtsAudioStore.open(dir, 150);
+
+            assertThat(reopened.sizeOf("a1")).isEqualTo(-1L);
+            assertThat(reopened.sizeOf("b2")).isEqualTo(100L);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.vibe.tts;
+
+import com.vibe.model.Narrative;
+import com.vibe.model.NarrativeAudio;
+import com.vibe.model.enums.NarrativeEmotion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TtsService 单元测试
+ */
+class TtsServiceTest {
+
+    private static final Narrative NARRATIVE =
+        new Narrative("夜深了，让音乐陪你安全到家。", "gentle_female", 0.85, 0.6, NarrativeEmotion.CALM);
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TtsService service(SpeechSynthesizer synthesizer) {
+        return new TtsService(synthesizer, meterRegistry, true, dir.toString(), 16);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("vibe.tts.cache.lookups").tag("result", result).counter().count();
+    }
+
+    /**
+     * 统计合成次数的本地合成器
+     */
+    private static final class CountingSynthesizer extends LocalSpeechSynthesizer {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public byte[] synthesize(Narrative narrative) {
+            calls.incrementAndGet();
+            return super.synthesize(narrative);
+        }
+    }
+
+    @Nested
+    @DisplayName("缓存测试")
+    class CacheTest {
+
+        @Test
+        void shouldSynthesizeOnceAndHitAfterwards() {
+            CountingSynthesizer synthesizer = new CountingSynthesizer();
+            TtsService service = service(synthesizer);
+
+            Narrative first = service.attachAudio(NARRATIVE);
+            Narrative second = service.attachAudio(NARRATIVE);
+
+            assertThat(synthesizer.calls.get()).isEqualTo(1);
+            assertThat(first.audio()).isEqualTo(second.audio());
+            assertThat(first.audio().url()).isEqualTo("/api/vibe/tts/" + first.audio().hash());
+            assertThat(first.audio().mimeType()).isEqualTo("audio/wav");
+            assertThat(lookups("hit")).isEqualTo(1.0);
+            assertThat(lookups("miss")).isEqualTo(1.0);
+            assertThat(service.audio(first.audio().hash()).remaining()).isEqualTo((int) first.audio().bytes());
+        }
+
+        @Test
+        void shouldAddressByTextAndVoiceParameters() {
+            String base = TtsService.hash("local", NARRATIVE);
+
+            assertThat(TtsService.hash("local", NARRATIVE.withSpeed(1.0))).isNotEqualTo(base);
+            assertThat(TtsService.hash("local", NARRATIVE.withEmotion(NarrativeEmotion.WARM))).isNotEqualTo(base);
+            assertThat(TtsService.hash("local", NARRATIVE.withReducedVolume())).isNotEqualTo(base);
+            assertThat(TtsService.hash("other", NARRATIVE)).isNotEqualTo(base);
+            // 浮点误差不影响地址
+            Narrative rounded = new Narrative(NARRATIVE.text(), NARRATIVE.voice(), 0.85, 0.7 * 0.8 + 0.04,
+                NarrativeEmotion.CALM);
+            assertThat(TtsService.hash("local", rounded)).isEqualTo(base);
+        }
+
+        @Test
+        void shouldSurviveRestart() {
+            service(new LocalSpeechSynthesizer()).attachAudio(NARRATIVE);
+            CountingSynthesizer synthesizer = new CountingSynthesizer();
+
+            Narrative narrative = service(synthesizer).attachAudio(NARRATIVE);
+
+            assertThat(narrative.hasAudio()).isTrue();
+            assertThat(synthesizer.calls.get()).isZero();
+        }
+
+        @Test
+        void shouldSynthesizeConcurrentRequestsOnce() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger calls = new AtomicInteger();
+            TtsService service = service(new LocalSpeechSynthesizer() {
+                @Override
+                public byte[] synthesize(Narrative narrative) {
+                    calls.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.synthesize(narrative);
+                }
+            });
+            List<Narrative> results = new ArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread thread = new Thread(() -> {
+                    Narrative result = service.attachAudio(NARRATIVE);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(results).hasSize(4);
+            NarrativeAudio audio = results.get(0).audio();
+            for (Narrative result : results) {
+                assertThat(result.audio()).isEqualTo(audio);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("降级测试")
+    class FallbackTest {
+
+        @Test
+        void shouldReturnTextOnlyNarrativeWhenSynthesisFails() {
+            TtsService service = service(new LocalSpeechSynthesizer() {
+                @Override
+                public byte[] synthesize(Narrative narrative) {
+                    throw new IllegalStateException("engine down");
+                }
+            });
+
+            Narrative narrative = service.attachAudio(NARRATIVE);
+
+            assertThat(narrative.hasAudio()).isFalse();
+            assertThat(narrative.text()).isEqualTo(NARRATIVE.text());
+            assertThat(meterRegistry.get("vibe.tts.failures").counter().count()).isEqualTo(1.0);
+        }
+
+        @Test
+        void shouldPassThroughWhenDisabled() {
+            TtsService service = new TtsService(new LocalSpeechSynthesizer(), meterRegistry, false, dir.toString(), 16);
+
+            assertThat(service.isEnabled()).isFalse();
+            assertThat(service.attachAudio(NARRATIVE)).isSameAs(NARRATIVE);
+            assertThat(service.audio("ab12")).isNull();
+        }
+
+        @Test
+        void shouldRejectInvalidHashOnDownload() {
+            assertThat(service(new LocalSpeechSynthesizer()).audio("../../etc/passwd")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("本地合成器测试")
+    class LocalSynthesizerTest {
+
+        @Test
+        void shouldProduceDeterministicWav() {
+            LocalSpeechSynthesizer synthesizer = new LocalSpeechSynthesizer();
+
+            byte[] wav = synthesizer.synthesize(NARRATIVE);
+            ByteBuffer header = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+
+            assertThat(new String(wav, 0, 4, java.nio.charset.StandardCharsets.US_ASCII)).isEqualTo("RIFF");
+            assertThat(header.getInt(24)).isEqualTo(LocalSpeechSynthesizer.SAMPLE_RATE);
+            assertThat(header.getInt(40)).isEqualTo(wav.length - LocalSpeechSynthesizer.HEADER_BYTES);
+            assertThat(synthesizer.synthesize(NARRATIVE)).isEqualTo(wav);
+        }
+
+        @Test
+        void shouldShortenAudioWhenSpeakingFaster() {
+            LocalSpeechSynthesizer synthesizer = new LocalSpeechSynthesizer();
+
+            assertThat(synthesizer.synthesize(NARRATIVE.withSpeed(1.7)).length)
+                .isLessThan(synthesizer.synthesize(NARRATIVE).length);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.vibe.ws;
+
+import com.vibe.model.BpmRange;
+import com.vibe.model.LightColor;
+import com.vibe.model.LightSetting;
+import com.vibe.model.MusicRecommendation;
+import com.vibe.model.Narrative;
+import com.vibe.model.NarrativeAudio;
+import com.vibe.model.Song;
+import com.vibe.model.ZoneSetting;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.LightMode;
+import com.vibe.model.enums.NarrativeEmotion;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.Weather;
+import com.vibe.model.event.AgentStatusChangedEvent;
+import com.vibe.model.event.AmbienceChangedEvent;
+import com.vibe.model.event.EnvironmentUpdateEvent;
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.model.event.SafetyModeChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * EventFrameCodec 单元测试
+ */
+class EventFrameCodecTest {
+
+    private static final Instant AT = Instant.ofEpochMilli(1_700_000_000_123L);
+
+    private static Object roundTrip(String eventType, Object event) {
+        return EventFrameCodec.decode(ByteBuffer.wrap(EventFrameCodec.encode(eventType, event)));
+    }
+
+    static AmbienceChangedEvent ambience() {
+        LightSetting light = new LightSetting(new LightColor("#FFBF00", 2700), 60, LightMode.BREATHING, 1500,
+            List.of(new ZoneSetting(ZoneSetting.ZONE_DOOR, "#006994", 40)));
+        MusicRecommendation music = new MusicRecommendation(List.of(
+            new Song("s-1", "夜曲", "周杰伦", "十一月的萧邦", 226, 72, "pop", List.of("calm", "romantic"), null),
+            new Song("s-2", "Night Drive", "Artist", null, 198, 96, "electronic", null, "https://cdn/s-2.jpg")),
+            "calm", "pop", new BpmRange(60, 100));
+        Narrative narrative = new Narrative("夜深了，慢慢开。", "gentle", 0.85, 0.6, NarrativeEmotion.CALM,
+            new NarrativeAudio("abc123", "/api/tts/audio/abc123", "audio/wav", 48_000));
+        return new AmbienceChangedEvent("plan-1", music, light, narrative, SafetyMode.L2_FOCUS,
+            AmbienceChangedEvent.TRIGGER_ENVIRONMENT_CHANGE, AT);
+    }
+
+    @Nested
+    @DisplayName("编解码测试")
+    class RoundTripTest {
+
+        @Test
+        void shouldEncodeHeartbeatAsHeaderOnly() {
+            byte[] frame = EventFrameCodec.encode(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT));
+
+            assertThat(frame).hasSize(EventFrameCodec.HEADER_BYTES);
+            assertThat(frame[0]).isEqualTo((byte) EventFrameCodec.VERSION);
+            assertThat(frame[1]).isEqualTo((byte) EventFrameCodec.TYPE_HEARTBEAT);
+            assertThat(roundTrip(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT))).isEqualTo(new HeartbeatEvent(AT));
+        }
+
+        @Test
+        void shouldRoundTripEnvironmentUpdate() {
+            EnvironmentUpdateEvent update = new EnvironmentUpdateEvent(GpsTag.TUNNEL, Weather.RAINY, 87.5, AT);
+
+            assertThat(EventFrameCodec.encode(EnvironmentUpdateEvent.EVENT_TYPE, update)).hasSize(14);
+            assertThat(roundTrip(EnvironmentUpdateEvent.EVENT_TYPE, update)).isEqualTo(update);
+        }
+
+        @Test
+        void shouldRoundTripSafetyModeChangeWithNullPreviousMode() {
+            SafetyModeChangedEvent change = new SafetyModeChangedEvent(null, SafetyMode.L3_SILENT, 120, AT);
+
+            assertThat(EventFrameCodec.encode(SafetyModeChangedEvent.EVENT_TYPE, change)).hasSize(14);
+            assertThat(roundTrip(SafetyModeChangedEvent.EVENT_TYPE, change)).isEqualTo(change);
+        }
+
+        @Test
+        void shouldRoundTripAmbienceChange() {
+            AmbienceChangedEvent event = ambience();
+
+            assertThat(roundTrip(AmbienceChangedEvent.EVENT_TYPE, event)).isEqualTo(event);
+        }
+
+        @Test
+        void shouldRoundTripAmbienceChangeWithoutOptionalParts() {
+            AmbienceChangedEvent event = new AmbienceChangedEvent(null, null, null, null, null, null, AT);
+
+            assertThat(roundTrip(AmbienceChangedEvent.EVENT_TYPE, event)).isEqualTo(event);
+        }
+
+        @Test
+        void shouldSupportOnlyChannelEvents() {
+            assertThat(EventFrameCodec.supports(AmbienceChangedEvent.EVENT_TYPE)).isTrue();
+            assertThat(EventFrameCodec.supports(AgentStatusChangedEvent.EVENT_TYPE)).isFalse();
+            assertThat(EventFrameCodec.supports(null)).isFalse();
+            assertThatThrownBy(() -> EventFrameCodec.encode(AgentStatusChangedEvent.EVENT_TYPE,
+                AgentStatusChangedEvent.started())).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> EventFrameCodec.encode(HeartbeatEvent.EVENT_TYPE, "not a heartbeat"))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("格式错误测试")
+    class MalformedTest {
+
+        private final byte[] frame = EventFrameCodec.encode(EnvironmentUpdateEvent.EVENT_TYPE,
+            new EnvironmentUpdateEvent(GpsTag.HIGHWAY, Weather.SUNNY, 60, AT));
+
+        @Test
+        void shouldRejectTruncatedFrame() {
+            assertThatThrownBy(() -> EventFrameCodec.decode(ByteBuffer.wrap(Arrays.copyOf(frame, frame.length - 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void shouldRejectTrailingBytes() {
+            assertThatThrownBy(() -> EventFrameCodec.decode(ByteBuffer.wrap(Arrays.copyOf(frame, frame.length + 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void shouldRejectUnknownVersionTypeAndEnum() {
+            byte[] version = frame.clone();
+            version[0] = 9;
+            byte[] type = frame.clone();
+            type[1] = 99;
+            byte[] gpsTag = frame.clone();
+            gpsTag[EventFrameCodec.HEADER_BYTES] = (byte) 200;
+
+            assertThatThrownBy(() -> EventFrameCodec.decode(ByteBuffer.wrap(version)))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> EventFrameCodec.decode(ByteBuffer.wrap(type)))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> EventFrameCodec.decode(ByteBuffer.wrap(gpsTag)))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void shouldNotMoveCallerBufferPosition() {
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+
+            EventFrameCodec.decode(buffer);
+
+            assertThat(buffer.position()).isZero();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.vibe.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibe.light.LightCueScheduler;
+import com.vibe.light.LightFrameEngine;
+import com.vibe.model.Environment;
+import com.vibe.model.enums.GpsTag;
+import com.vibe.model.enums.SafetyMode;
+import com.vibe.model.enums.UserMood;
+import com.vibe.model.enums.Weather;
+import com.vibe.model.event.AgentStatusChangedEvent;
+import com.vibe.model.event.AmbienceChangedEvent;
+import com.vibe.model.event.EnvironmentUpdateEvent;
+import com.vibe.model.event.HeartbeatEvent;
+import com.vibe.model.event.SafetyModeChangedEvent;
+import com.vibe.service.LightService;
+import com.vibe.sse.SseEventPublisher;
+import com.vibe.status.VibeSessionStatusStore;
+import com.vibe.testsupport.RecordingWebSocketSession;
+import com.vibe.timer.TimingWheel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WsEventChannel 与 EventWebSocketHandler 单元测试
+ */
+class WsEventChannelTest {
+
+    private static final Instant AT = Instant.ofEpochMilli(1_700_000_000_000L);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SseEventPublisher publisher = new SseEventPublisher(new ObjectMapper().findAndRegisterModules());
+
+    /**
+     * 手动执行的发送执行器：调用 runAll 之前所有连接都处于写出阻塞状态
+     */
+    private final List<Runnable> pending = new ArrayList<>();
+
+    private static Object decode(byte[] frame) {
+        return EventFrameCodec.decode(ByteBuffer.wrap(frame));
+    }
+
+    private void runAll() {
+        while (!pending.isEmpty()) {
+            pending.remove(0).run();
+        }
+    }
+
+    @Nested
+    @DisplayName("下行推送测试")
+    class DownstreamTest {
+
+        private final WsEventChannel channel = new WsEventChannel(publisher, meterRegistry, Runnable::run, 64);
+
+        @Test
+        void shouldReceiveEventsPublishedThroughSsePublisher() {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            channel.register("s1", session);
+            SafetyModeChangedEvent change = new SafetyModeChangedEvent(SafetyMode.L1_NORMAL, SafetyMode.L2_FOCUS, 80, AT);
+
+            // 会话只有 WebSocket 连接、没有 SSE 连接
+            publisher.publish("s1", SafetyModeChangedEvent.EVENT_TYPE, change);
+            publisher.publishToAll(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT));
+
+            assertThat(session.frames).hasSize(2);
+            assertThat(decode(session.frames.get(0))).isEqualTo(change);
+            assertThat(decode(session.frames.get(1))).isEqualTo(new HeartbeatEvent(AT));
+            assertThat(meterRegistry.get("vibe.ws.events.bytes").counter().count()).isEqualTo(24);
+        }
+
+        @Test
+        void shouldSkipEventTypesWithoutBinaryEncoding() {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            channel.register("s1", session);
+
+            publisher.publish("s1", AgentStatusChangedEvent.EVENT_TYPE, AgentStatusChangedEvent.started());
+
+            assertThat(session.frames).isEmpty();
+            assertThat(session.isOpen()).isTrue();
+        }
+
+        @Test
+        void shouldOnlyDeliverToTargetSession() {
+            RecordingWebSocketSession first = new RecordingWebSocketSession();
+            RecordingWebSocketSession second = new RecordingWebSocketSession();
+            channel.register("s1", first);
+            channel.register("s2", second);
+
+            publisher.publish("s1", AmbienceChangedEvent.EVENT_TYPE, EventFrameCodecTest.ambience());
+
+            assertThat(first.frames).hasSize(1);
+            assertThat(second.frames).isEmpty();
+        }
+
+        @Test
+        void shouldUnregisterBrokenConnection() {
+            RecordingWebSocketSession broken = new RecordingWebSocketSession();
+            broken.failSends = true;
+            channel.register("s1", broken);
+
+            publisher.publishToAll(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT));
+
+            assertThat(broken.closeStatus).isEqualTo(CloseStatus.SERVER_ERROR);
+            assertThat(channel.hasSession("s1")).isFalse();
+            assertThat(channel.countConnections()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("发送队列测试")
+    class QueueTest {
+
+        private final WsEventChannel channel = new WsEventChannel(publisher, meterRegistry, pending::add, 2);
+
+        @Test
+        void shouldOnlyEnqueueOnPublishingThread() {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            channel.register("s1", session);
+
+            publisher.publishToAll(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT));
+            publisher.publishToAll(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT));
+
+            assertThat(session.frames).isEmpty();
+            assertThat(pending).hasSize(1);
+            runAll();
+            assertThat(session.frames).hasSize(2);
+        }
+
+        @Test
+        void shouldDisconnectWhenQueueOverflows() {
+            RecordingWebSocketSession slow = new RecordingWebSocketSession();
+            channel.register("s1", slow);
+
+            for (int i = 0; i < 3; i++) {
+                publisher.publishToAll(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT));
+            }
+
+            // 关闭握手交给发送执行器，不在发布线程上执行
+            assertThat(slow.closeStatus).isNull();
+            runAll();
+
+            assertThat(slow.closeStatus).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE);
+            assertThat(slow.frames).isEmpty();
+            assertThat(meterRegistry.get("vibe.ws.events.disconnects").tag("reason", "overflow").counter().count())
+                .isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("心跳与空闲超时测试")
+    class KeepAliveTest {
+
+        private final TimingWheel wheel = new TimingWheel(10, 64);
+        private final long start = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        private final AtomicLong now = new AtomicLong(start);
+        private final VibeSessionStatusStore statusStore = new VibeSessionStatusStore();
+        private final WsEventChannel channel = new WsEventChannel(publisher, meterRegistry, Runnable::run, 64,
+            wheel, 1_000, 5_000, now::get);
+        private final EventWebSocketHandler handler = new EventWebSocketHandler(channel, publisher, statusStore,
+            new LightCueScheduler(new TimingWheel(10, 64),
+                new LightFrameEngine(statusStore, meterRegistry, false, 30, 4, 1, 1, 500), new LightService(),
+                meterRegistry));
+
+        private void advance(long millis) {
+            now.set(start + millis);
+            wheel.advanceTo(start + millis);
+        }
+
+        @Test
+        void shouldSendStaggeredHeartbeatsToEachConnection() {
+            List<RecordingWebSocketSession> sessions = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                RecordingWebSocketSession session = new RecordingWebSocketSession();
+                sessions.add(session);
+                channel.register("session-" + i, session);
+            }
+
+            advance(1_000);
+
+            Set<Object> heartbeats = new HashSet<>();
+            for (RecordingWebSocketSession session : sessions) {
+                assertThat(session.frames).hasSize(1);
+                heartbeats.add(decode(session.frames.get(0)));
+            }
+            assertThat(heartbeats.size()).isGreaterThan(1);
+
+            advance(2_000);
+            for (RecordingWebSocketSession session : sessions) {
+                assertThat(session.frames).hasSize(2);
+            }
+        }
+
+        @Test
+        void shouldCloseIdleConnectionUnlessUpdatesArriveUpstream() throws Exception {
+            RecordingWebSocketSession idle = new RecordingWebSocketSession("s1");
+            RecordingWebSocketSession active = new RecordingWebSocketSession("s2");
+            handler.afterConnectionEstablished(idle);
+            handler.afterConnectionEstablished(active);
+
+            advance(3_000);
+            handler.handleBinaryMessage(active, new BinaryMessage(EventFrameCodec.encode(
+                EnvironmentUpdateEvent.EVENT_TYPE, new EnvironmentUpdateEvent(GpsTag.URBAN, Weather.SUNNY, 40, AT))));
+            advance(5_000);
+
+            assertThat(idle.closeStatus.getCode()).isEqualTo(CloseStatus.NORMAL.getCode());
+            assertThat(channel.hasSession("s1")).isFalse();
+            assertThat(active.isOpen()).isTrue();
+            assertThat(meterRegistry.get("vibe.ws.events.disconnects").tag("reason", "idle").counter().count())
+                .isEqualTo(1);
+
+            advance(8_000);
+            assertThat(active.isOpen()).isFalse();
+            assertThat(wheel.pending()).isZero();
+        }
+
+        @Test
+        void shouldStopTimersWhenConnectionCloses() {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+            channel.register("s1", session);
+            assertThat(wheel.pending()).isEqualTo(1);
+
+            channel.unregister("s1", session);
+
+            assertThat(wheel.pending()).isZero();
+            advance(10_000);
+            assertThat(session.frames).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("上行环境更新测试")
+    class UpstreamTest {
+
+        private final VibeSessionStatusStore statusStore = new VibeSessionStatusStore();
+        private final WsEventChannel channel = new WsEventChannel(publisher, meterRegistry, Runnable::run, 64);
+        private final EventWebSocketHandler handler = new EventWebSocketHandler(channel, publisher, statusStore,
+            new LightCueScheduler(new TimingWheel(10, 64),
+                new LightFrameEngine(statusStore, meterRegistry, false, 30, 4, 1, 1, 500), new LightService(),
+                meterRegistry));
+
+        private void send(RecordingWebSocketSession session, EnvironmentUpdateEvent update) throws Exception {
+            handler.handleBinaryMessage(session,
+                new BinaryMessage(EventFrameCodec.encode(EnvironmentUpdateEvent.EVENT_TYPE, update)));
+        }
+
+        @Test
+        void shouldRejectConnectionWithoutSessionId() throws Exception {
+            RecordingWebSocketSession session = new RecordingWebSocketSession();
+
+            handler.afterConnectionEstablished(session);
+
+            assertThat(session.closeStatus.getCode()).isEqualTo(CloseStatus.BAD_DATA.getCode());
+            assertThat(channel.countConnections()).isZero();
+        }
+
+        @Test
+        void shouldUpdateStatusAndPublishSafetyModeChange() throws Exception {
+            RecordingWebSocketSession session = new RecordingWebSocketSession("s1");
+            handler.afterConnectionEstablished(session);
+
+            send(session, new EnvironmentUpdateEvent(GpsTag.HIGHWAY, Weather.RAINY, 110, AT));
+
+            assertThat(statusStore.getOrInitial("s1").currentSafetyMode()).isEqualTo(SafetyMode.L3_SILENT);
+            assertThat(statusStore.getOrInitial("s1").lastEnvironment().gpsTag()).isEqualTo(GpsTag.HIGHWAY);
+            assertThat(session.frames).hasSize(2);
+            SafetyModeChangedEvent change = (SafetyModeChangedEvent) decode(session.frames.get(0));
+            assertThat(change.previousMode()).isEqualTo(SafetyMode.L1_NORMAL);
+            assertThat(change.currentMode()).isEqualTo(SafetyMode.L3_SILENT);
+            assertThat(decode(session.frames.get(1)))
+                .isEqualTo(new EnvironmentUpdateEvent(GpsTag.HIGHWAY, Weather.RAINY, 110, AT));
+
+            send(session, new EnvironmentUpdateEvent(GpsTag.HIGHWAY, Weather.RAINY, 120, AT));
+
+            // 安全模式未变，只转发环境更新
+            assertThat(session.frames).hasSize(3);
+        }
+
+        @Test
+        void shouldKeepFieldsNotCarriedByUpdate() {
+            Environment last = Environment.builder()
+                .gpsTag(GpsTag.URBAN)
+                .weather(Weather.SUNNY)
+                .speed(30)
+                .userMood(UserMood.TIRED)
+                .passengerCount(3)
+                .build();
+
+            Environment merged = EventWebSocketHandler.merge(last,
+                new EnvironmentUpdateEvent(GpsTag.TUNNEL, null, 70, AT));
+
+            assertThat(merged.gpsTag()).isEqualTo(GpsTag.TUNNEL);
+            assertThat(merged.weather()).isEqualTo(Weather.SUNNY);
+            assertThat(merged.speed()).isEqualTo(70);
+            assertThat(merged.userMood()).isEqualTo(UserMood.TIRED);
+            assertThat(merged.passengerCount()).isEqualTo(3);
+            assertThat(merged.timestamp()).isEqualTo(AT);
+        }
+
+        @Test
+        void shouldCloseOnMalformedFrame() throws Exception {
+            RecordingWebSocketSession session = new RecordingWebSocketSession("s1");
+            handler.afterConnectionEstablished(session);
+
+            handler.handleBinaryMessage(session, new BinaryMessage(new byte[]{1, 2, 3}));
+
+            assertThat(session.closeStatus.getCode()).isEqualTo(CloseStatus.BAD_DATA.getCode());
+        }
+
+        @Test
+        void shouldRejectDownstreamOnlyEventsUpstream() throws Exception {
+            RecordingWebSocketSession session = new RecordingWebSocketSession("s1");
+            handler.afterConnectionEstablished(session);
+
+            handler.handleBinaryMessage(session, new BinaryMessage(EventFrameCodec.encode(
+                SafetyModeChangedEvent.EVENT_TYPE, new SafetyModeChangedEvent(null, SafetyMode.L1_NORMAL, 0, AT))));
+            assertThat(session.closeStatus.getCode()).isEqualTo(CloseStatus.NOT_ACCEPTABLE.getCode());
+        }
+
+        @Test
+        void shouldIgnoreUpstreamHeartbeat() throws Exception {
+            RecordingWebSocketSession session = new RecordingWebSocketSession("s1");
+            handler.afterConnectionEstablished(session);
+
+            handler.handleBinaryMessage(session,
+                new BinaryMessage(EventFrameCodec.encode(HeartbeatEvent.EVENT_TYPE, new HeartbeatEvent(AT))));
+
+            assertThat(session.isOpen()).isTrue();
+            assertThat(session.frames).isEmpty();
+        }
+
+        @Test
+        void shouldUnregisterOnClose() throws Exception {
+            RecordingWebSocketSession session = new RecordingWebSocketSession("s1");
+            handler.afterConnectionEstablished(session);
+
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+            assertThat(channel.hasSession("s1")).isFalse();
+        }
+    }
+}